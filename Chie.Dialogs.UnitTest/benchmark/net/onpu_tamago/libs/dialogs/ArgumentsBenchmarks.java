@@ -0,0 +1,112 @@
+package net.onpu_tamago.libs.dialogs;
+
+import java.util.List;
+
+import android.os.Bundle;
+
+/**
+ * {@code show*Dialog}のオーバーロードが行う、フラグメントの引数の生成を計測します。
+ * {@link DialogSpec}を用いる場合と、呼び出し元が{@link Bundle}を組み立てる従来の方法とを比較します。
+ *
+ * @author 高見知英
+ */
+final class ArgumentsBenchmarks {
+
+	private static final int BUTTONS = Dialogs.DIALOGBUTTON_POSITIVE
+			| Dialogs.DIALOGBUTTON_NEGATIVE;
+
+	private ArgumentsBenchmarks() {
+	}
+
+	static void addTo(List<Benchmark> list) {
+		// showAlertDialog(manager, title, message, null, callback)と同じ組み立て
+		list.add(new Benchmark("args.spec") {
+			@Override
+			protected int run(int ops) {
+				int sum = 0;
+				for (int i = 0; i < ops; i++) {
+					DialogSpec spec = new DialogSpec.Builder().params(null)
+							.title("title").message("message")
+							.defaultButtons(BUTTONS).build();
+					sum += spec.toArguments(i).size();
+				}
+				return sum;
+			}
+		});
+		// 呼び出し元がBundleを組み立て、showDialog(manager, params, ...)を呼び出す場合
+		list.add(new Benchmark("args.bundle") {
+			@Override
+			protected int run(int ops) {
+				int sum = 0;
+				for (int i = 0; i < ops; i++) {
+					Bundle params = new Bundle();
+					params.putString(Dialogs.ALERT_TITLE, "title");
+					params.putString(Dialogs.ALERT_MESSAGE, "message");
+					params.putInt(Dialogs.ALERT_BUTTONS, BUTTONS);
+					sum += DialogSpec.fromBundle(params).toArguments(i).size();
+				}
+				return sum;
+			}
+		});
+		// 従来のキーのみを含むBundleを、showAlertDialog(manager, title, message, params, callback)に渡す場合
+		list.add(new Benchmark("args.legacy") {
+			private final Bundle params = new Bundle();
+
+			@Override
+			protected void setUp() {
+				params.putInt(Dialogs.ALERT_ID, 1);
+				params.putString(Dialogs.ALERT_CALLBACKKEY, "key");
+				params.putInt(Dialogs.ALERT_PRIORITY, 2);
+			}
+
+			@Override
+			protected int run(int ops) {
+				int sum = 0;
+				for (int i = 0; i < ops; i++) {
+					DialogSpec spec = new DialogSpec.Builder().params(params)
+							.title("title").message("message")
+							.defaultButtons(BUTTONS).build();
+					sum += spec.toArguments(i).size();
+				}
+				return sum;
+			}
+		});
+		// 追加の値を含むBundleをオーバーロードに渡す場合
+		list.add(new Benchmark("args.params") {
+			private final Bundle params = new Bundle();
+
+			@Override
+			protected void setUp() {
+				params.putInt(Dialogs.ALERT_ID, 1);
+				params.putString("app:account", "account");
+			}
+
+			@Override
+			protected int run(int ops) {
+				int sum = 0;
+				for (int i = 0; i < ops; i++) {
+					DialogSpec spec = new DialogSpec.Builder().params(params)
+							.title("title").message("message")
+							.defaultButtons(BUTTONS).build();
+					sum += spec.toArguments(i).size();
+				}
+				return sum;
+			}
+		});
+		// 生成済みのDialogSpecを使い回す場合
+		list.add(new Benchmark("args.reused") {
+			private final DialogSpec spec = new DialogSpec.Builder()
+					.title("title").message("message").buttons(BUTTONS)
+					.build();
+
+			@Override
+			protected int run(int ops) {
+				int sum = 0;
+				for (int i = 0; i < ops; i++) {
+					sum += spec.toArguments(i).size();
+				}
+				return sum;
+			}
+		});
+	}
+}
@@ -0,0 +1,130 @@
+package net.onpu_tamago.libs.dialogs;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * {@link BenchmarkRunner#write(java.io.Writer, List)}で書き出した計測結果を基準とし、
+ * 新しい計測結果が基準から悪化していないか判定します。
+ * <p>
+ * 1回あたりの時間、または割り当てバイト数が、基準の値に許容率を掛けた値を超えた場合に悪化とみなします。
+ * 時間は他の処理の影響を受けにくいよう、最も速かった計測どうしで比較します。
+ * JITコンパイルの結果によりJVMの起動ごとに時間が変わるため、
+ * 複数回の計測結果を連結したファイルを読み込んだ場合は、処理ごとに最も遅い値を基準とします。
+ * 割り当てバイト数はJVMの計測誤差を考慮し、{@link #ALLOCATION_SLACK}バイトまでの増加を許容します。
+ * 基準に含まれない処理は判定しません。
+ * </p>
+ *
+ * @author 高見知英
+ */
+public final class Baseline {
+
+	/**
+	 * 割り当てバイト数の、許容率とは別に許容する増加量です。
+	 */
+	public static final double ALLOCATION_SLACK = 16;
+
+	/**
+	 * 処理の名前ごとの、1回あたりの時間と割り当てバイト数です。
+	 */
+	private final HashMap<String, double[]> values = new HashMap<String, double[]>();
+
+	private Baseline() {
+	}
+
+	/**
+	 * 計測結果のファイルを読み込みます。
+	 *
+	 * @param in
+	 *            読み込み元。
+	 * @return 基準。
+	 * @throws IOException
+	 *             読み込みに失敗した場合、または形式が正しくない場合。
+	 */
+	public static Baseline read(Reader in) throws IOException {
+		Baseline baseline = new Baseline();
+		BufferedReader reader = new BufferedReader(in);
+		String header = reader.readLine();
+		if (header == null) {
+			throw new IOException("empty baseline");
+		}
+		List<String> columns = split(header);
+		int nanos = columns.indexOf("best_ns_per_op");
+		int bytes = columns.indexOf("bytes_per_op");
+		if (nanos < 0 || bytes < 0) {
+			throw new IOException("unknown baseline format: " + header);
+		}
+		String line;
+		while ((line = reader.readLine()) != null) {
+			if (line.length() == 0 || line.startsWith("#")
+					|| line.equals(header)) {
+				continue;
+			}
+			List<String> fields = split(line);
+			double[] value;
+			try {
+				value = new double[] { Double.parseDouble(fields.get(nanos)),
+						Double.parseDouble(fields.get(bytes)) };
+			} catch (RuntimeException e) {
+				throw new IOException("malformed baseline line: " + line);
+			}
+			double[] previous = baseline.values.put(fields.get(0), value);
+			if (previous != null) {
+				value[0] = Math.max(value[0], previous[0]);
+				value[1] = Math.max(value[1], previous[1]);
+			}
+		}
+		return baseline;
+	}
+
+	private static List<String> split(String line) {
+		ArrayList<String> fields = new ArrayList<String>();
+		int start = 0;
+		int tab;
+		while ((tab = line.indexOf('\t', start)) >= 0) {
+			fields.add(line.substring(start, tab));
+			start = tab + 1;
+		}
+		fields.add(line.substring(start));
+		return fields;
+	}
+
+	/**
+	 * 計測結果を基準と比較します。
+	 *
+	 * @param scores
+	 *            計測結果。
+	 * @param threshold
+	 *            許容率。0.25の場合、基準の1.25倍までを許容します。
+	 * @return 悪化した処理の説明。悪化していない場合は空のリスト。
+	 */
+	public List<String> compare(List<BenchmarkRunner.Score> scores,
+			double threshold) {
+		ArrayList<String> regressions = new ArrayList<String>();
+		for (BenchmarkRunner.Score score : scores) {
+			double[] base = values.get(score.name);
+			if (base == null) {
+				continue;
+			}
+			double nanos = score.getBestNanosPerOp();
+			if (nanos > base[0] * (1 + threshold)) {
+				regressions.add(String.format(Locale.US,
+						"%s: %.1f ns/op (baseline %.1f, +%.0f%%)", score.name,
+						nanos, base[0], (nanos / base[0] - 1) * 100));
+			}
+			if (score.bytesPerOp >= 0 && base[1] >= 0
+					&& score.bytesPerOp > base[1] * (1 + threshold)
+							+ ALLOCATION_SLACK) {
+				regressions.add(String.format(Locale.US,
+						"%s: %.1f B/op (baseline %.1f)", score.name,
+						score.bytesPerOp, base[1]));
+			}
+		}
+		return regressions;
+	}
+}
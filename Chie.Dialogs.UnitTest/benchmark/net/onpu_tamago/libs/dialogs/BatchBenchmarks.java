@@ -0,0 +1,89 @@
+package net.onpu_tamago.libs.dialogs;
+
+import java.util.List;
+
+import android.support.v4.app.FragmentManager;
+import android.support.v4.app.LifecycleActivity;
+
+/**
+ * 複数のダイアログを、{@link Dialogs#batch(FragmentManager)}で一度に表示する場合と、
+ * 一つずつ表示を要求する場合とを比較します。 表示から閉じるまでを1回とします。
+ *
+ * @author 高見知英
+ */
+final class BatchBenchmarks {
+
+	/**
+	 * 一度に表示するダイアログの数です。
+	 */
+	private static final int DIALOGS = 4;
+
+	/**
+	 * 表示から閉じるまでを繰り返します。
+	 */
+	private static abstract class ShowBenchmark extends Benchmark {
+
+		final DialogSpec spec = new DialogSpec.Builder().title("title")
+				.message("message").buttons(Dialogs.DIALOGBUTTON_POSITIVE)
+				.build();
+		private LifecycleActivity activity;
+
+		ShowBenchmark(String name) {
+			super(name + "." + DIALOGS);
+		}
+
+		@Override
+		protected void setUp() {
+			activity = LifecycleActivity.launch();
+		}
+
+		@Override
+		protected void tearDown() {
+			activity.finishAndDestroy();
+		}
+
+		/**
+		 * {@link #DIALOGS}個のダイアログの表示を要求します。
+		 */
+		abstract void show(FragmentManager manager);
+
+		@Override
+		protected int run(int ops) {
+			FragmentManager manager = activity.getSupportFragmentManager();
+			for (int i = 0; i < ops; i++) {
+				show(manager);
+				LifecycleActivity.idle();
+				for (InternalDialogFragment dialog : activity
+						.getFragments(InternalDialogFragment.class)) {
+					dialog.dismiss();
+				}
+				LifecycleActivity.idle();
+			}
+			return Dialogs.registry.size();
+		}
+	}
+
+	private BatchBenchmarks() {
+	}
+
+	static void addTo(List<Benchmark> list) {
+		list.add(new ShowBenchmark("batch.show") {
+			@Override
+			void show(FragmentManager manager) {
+				DialogBatch batch = Dialogs.batch(manager);
+				for (int i = 0; i < DIALOGS; i++) {
+					batch.showDialog(spec, null);
+				}
+				batch.commit();
+			}
+		});
+		list.add(new ShowBenchmark("batch.individual") {
+			@Override
+			void show(FragmentManager manager) {
+				for (int i = 0; i < DIALOGS; i++) {
+					Dialogs.showDialog(manager, spec, null, null);
+				}
+			}
+		});
+	}
+}
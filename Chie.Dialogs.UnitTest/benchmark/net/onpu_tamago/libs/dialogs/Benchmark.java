@@ -0,0 +1,55 @@
+package net.onpu_tamago.libs.dialogs;
+
+/**
+ * {@link BenchmarkRunner}で計測する処理です。
+ * <p>
+ * {@link #run(int)}は指定された回数だけ処理を繰り返します。 最適化により処理が省略されないよう、
+ * 結果から求めた値を返してください。 計測はメインスレッドで行われます。
+ * </p>
+ *
+ * @author 高見知英
+ */
+public abstract class Benchmark {
+
+	private final String name;
+
+	/**
+	 * コンストラクタです。
+	 *
+	 * @param name
+	 *            結果の出力に用いる名前。
+	 */
+	protected Benchmark(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * 名前を取得します。
+	 *
+	 * @return 名前。
+	 */
+	public final String getName() {
+		return name;
+	}
+
+	/**
+	 * 計測の前に呼び出されます。
+	 */
+	protected void setUp() {
+	}
+
+	/**
+	 * 計測の後に呼び出されます。
+	 */
+	protected void tearDown() {
+	}
+
+	/**
+	 * 処理を繰り返します。
+	 *
+	 * @param ops
+	 *            繰り返す回数。
+	 * @return 処理の結果から求めた任意の値。
+	 */
+	protected abstract int run(int ops);
+}
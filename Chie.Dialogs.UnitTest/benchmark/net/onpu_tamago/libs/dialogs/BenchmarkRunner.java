@@ -0,0 +1,428 @@
+package net.onpu_tamago.libs.dialogs;
+
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import android.os.Looper;
+
+/**
+ * {@link Benchmark}を計測し、スループットとメモリの割り当て量を出力します。
+ * <p>
+ * ウォームアップの後、一定時間の計測を繰り返し、1秒あたりの処理回数の平均と標準偏差、
+ * 1回あたりの割り当てバイト数、計測中のGCの回数・時間を求めます。
+ * 割り当てバイト数は{@code com.sun.management.ThreadMXBean}から取得するため、
+ * 対応していないJVMでは-1となります。
+ * </p>
+ *
+ * @author 高見知英
+ */
+public final class BenchmarkRunner {
+
+	/**
+	 * 計測結果です。
+	 */
+	public static final class Score {
+
+		/**
+		 * 処理の名前です。
+		 */
+		public final String name;
+
+		/**
+		 * 1秒あたりの処理回数の平均です。
+		 */
+		public final double opsPerSecond;
+
+		/**
+		 * 1秒あたりの処理回数の標準偏差です。
+		 */
+		public final double error;
+
+		/**
+		 * 最も速かった計測の、1秒あたりの処理回数です。
+		 * 他の処理の影響を受けにくいため、基準との比較に用います。
+		 */
+		public final double bestOpsPerSecond;
+
+		/**
+		 * 1回あたりの割り当てバイト数です。 取得できない場合は-1です。
+		 */
+		public final double bytesPerOp;
+
+		/**
+		 * 計測中のGCの回数です。
+		 */
+		public final long gcCount;
+
+		/**
+		 * 計測中のGCの時間(ミリ秒)です。
+		 */
+		public final long gcMillis;
+
+		Score(String name, double opsPerSecond, double error,
+				double bestOpsPerSecond, double bytesPerOp, long gcCount,
+				long gcMillis) {
+			this.name = name;
+			this.opsPerSecond = opsPerSecond;
+			this.error = error;
+			this.bestOpsPerSecond = bestOpsPerSecond;
+			this.bytesPerOp = bytesPerOp;
+			this.gcCount = gcCount;
+			this.gcMillis = gcMillis;
+		}
+
+		/**
+		 * 1回あたりの時間を取得します。
+		 *
+		 * @return 時間(ナノ秒)。
+		 */
+		public double getNanosPerOp() {
+			return opsPerSecond > 0 ? 1e9 / opsPerSecond : 0;
+		}
+
+		/**
+		 * 最も速かった計測の、1回あたりの時間を取得します。
+		 *
+		 * @return 時間(ナノ秒)。
+		 */
+		public double getBestNanosPerOp() {
+			return bestOpsPerSecond > 0 ? 1e9 / bestOpsPerSecond : 0;
+		}
+
+		/**
+		 * 1秒あたりの割り当て量を取得します。
+		 *
+		 * @return 割り当て量(MB/s)。取得できない場合は-1。
+		 */
+		public double getAllocationRate() {
+			return bytesPerOp < 0 ? -1 : bytesPerOp * opsPerSecond
+					/ (1024 * 1024);
+		}
+	}
+
+	/**
+	 * 最適化により処理が省略されないよう、各処理の結果を書き込みます。
+	 */
+	static volatile int sink;
+
+	private int warmupIterations = 5;
+
+	private int iterations = 10;
+
+	private long iterationMillis = 200;
+
+	/**
+	 * ウォームアップの回数を設定します。
+	 *
+	 * @param count
+	 *            回数。
+	 * @return このオブジェクト。
+	 */
+	public BenchmarkRunner warmupIterations(int count) {
+		this.warmupIterations = count;
+		return this;
+	}
+
+	/**
+	 * 計測の回数を設定します。
+	 *
+	 * @param count
+	 *            回数。
+	 * @return このオブジェクト。
+	 */
+	public BenchmarkRunner iterations(int count) {
+		if (count <= 0) {
+			throw new IllegalArgumentException("iterations must be positive");
+		}
+		this.iterations = count;
+		return this;
+	}
+
+	/**
+	 * 1回の計測の時間を設定します。
+	 *
+	 * @param millis
+	 *            時間(ミリ秒)。
+	 * @return このオブジェクト。
+	 */
+	public BenchmarkRunner iterationMillis(long millis) {
+		this.iterationMillis = millis;
+		return this;
+	}
+
+	/**
+	 * 計測します。
+	 *
+	 * @param benchmark
+	 *            計測する処理。
+	 * @return 計測結果。
+	 */
+	public Score measure(Benchmark benchmark) {
+		// 前の処理が残したオブジェクトのGCが計測中に起きないようにする
+		System.gc();
+		benchmark.setUp();
+		try {
+			// 1回の呼び出しが計測時間の1/20程度となるよう、繰り返す回数を決める
+			int batch = 1;
+			long target = iterationMillis * 1000000L / 20;
+			while (true) {
+				long start = System.nanoTime();
+				sink += benchmark.run(batch);
+				if (System.nanoTime() - start >= target
+						|| batch >= Integer.MAX_VALUE / 2) {
+					break;
+				}
+				batch *= 2;
+			}
+			for (int i = 0; i < warmupIterations; i++) {
+				iterate(benchmark, batch);
+			}
+			double[] rates = new double[iterations];
+			long ops = 0;
+			long bytes = 0;
+			long gcCount = gcCount();
+			long gcMillis = gcMillis();
+			for (int i = 0; i < iterations; i++) {
+				long before = allocatedBytes();
+				long start = System.nanoTime();
+				long count = iterate(benchmark, batch);
+				long elapsed = System.nanoTime() - start;
+				long after = allocatedBytes();
+				rates[i] = count * 1e9 / elapsed;
+				ops += count;
+				if (before >= 0 && after >= 0) {
+					bytes += after - before;
+				} else {
+					bytes = -1;
+				}
+			}
+			double mean = 0;
+			double best = 0;
+			for (double rate : rates) {
+				mean += rate;
+				best = Math.max(best, rate);
+			}
+			mean /= iterations;
+			double variance = 0;
+			for (double rate : rates) {
+				variance += (rate - mean) * (rate - mean);
+			}
+			double error = iterations > 1 ? Math.sqrt(variance
+					/ (iterations - 1)) : 0;
+			return new Score(benchmark.getName(), mean, error, best,
+					bytes < 0 ? -1 : (double) bytes / ops, gcCount()
+							- gcCount, gcMillis() - gcMillis);
+		} finally {
+			benchmark.tearDown();
+		}
+	}
+
+	/**
+	 * 計測時間が経過するまで処理を繰り返します。
+	 *
+	 * @return 処理した回数。
+	 */
+	private long iterate(Benchmark benchmark, int batch) {
+		long deadline = System.nanoTime() + iterationMillis * 1000000L;
+		long count = 0;
+		do {
+			sink += benchmark.run(batch);
+			count += batch;
+		} while (System.nanoTime() < deadline);
+		return count;
+	}
+
+	/**
+	 * 現在のスレッドの割り当てバイト数の累計を取得します。
+	 *
+	 * @return バイト数。取得できない場合は-1。
+	 */
+	private static long allocatedBytes() {
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (bean instanceof com.sun.management.ThreadMXBean) {
+			return ((com.sun.management.ThreadMXBean) bean)
+					.getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+		return -1;
+	}
+
+	private static long gcCount() {
+		long count = 0;
+		for (GarbageCollectorMXBean bean : ManagementFactory
+				.getGarbageCollectorMXBeans()) {
+			count += Math.max(bean.getCollectionCount(), 0);
+		}
+		return count;
+	}
+
+	private static long gcMillis() {
+		long millis = 0;
+		for (GarbageCollectorMXBean bean : ManagementFactory
+				.getGarbageCollectorMXBeans()) {
+			millis += Math.max(bean.getCollectionTime(), 0);
+		}
+		return millis;
+	}
+
+	/**
+	 * 計測結果を表として出力します。
+	 *
+	 * @param out
+	 *            出力先。
+	 * @param scores
+	 *            計測結果。
+	 */
+	public static void print(PrintStream out, List<Score> scores) {
+		out.println(String.format(Locale.US, "%-28s %14s %10s %10s %10s %8s",
+				"Benchmark", "ops/s", "error", "ns/op", "B/op", "gc"));
+		for (Score score : scores) {
+			out.println(String.format(Locale.US,
+					"%-28s %14.1f %10.1f %10.1f %10.1f %4d/%-3d", score.name,
+					score.opsPerSecond, score.error, score.getNanosPerOp(),
+					score.bytesPerOp, score.gcCount, score.gcMillis));
+		}
+	}
+
+	/**
+	 * 計測結果をタブ区切りで書き出します。 1行目は列の名前です。
+	 *
+	 * @param out
+	 *            出力先。
+	 * @param scores
+	 *            計測結果。
+	 * @throws IOException
+	 *             書き込みに失敗した場合。
+	 */
+	public static void write(Writer out, List<Score> scores)
+			throws IOException {
+		out.write("name\tops_per_s\terror\tns_per_op\tbest_ns_per_op"
+				+ "\tbytes_per_op\talloc_mb_per_s\n");
+		for (Score score : scores) {
+			out.write(String.format(Locale.US,
+					"%s\t%.1f\t%.1f\t%.1f\t%.1f\t%.1f\t%.1f\n", score.name,
+					score.opsPerSecond, score.error, score.getNanosPerOp(),
+					score.getBestNanosPerOp(), score.bytesPerOp,
+					score.getAllocationRate()));
+		}
+	}
+
+	/**
+	 * すべての処理を生成します。
+	 *
+	 * @return 処理。
+	 */
+	static List<Benchmark> createAll() {
+		ArrayList<Benchmark> list = new ArrayList<Benchmark>();
+		ArgumentsBenchmarks.addTo(list);
+		RegistryBenchmarks.addTo(list);
+		DispatchBenchmarks.addTo(list);
+		ScenarioBenchmarks.addTo(list);
+		BatchBenchmarks.addTo(list);
+		return list;
+	}
+
+	/**
+	 * 計測を実行します。
+	 * <p>
+	 * 引数には次のオプションと、計測する処理の名前の前方一致で絞り込む文字列を指定できます。
+	 * </p>
+	 * <ul>
+	 * <li>{@code -w 回数} ウォームアップの回数</li>
+	 * <li>{@code -i 回数} 計測の回数</li>
+	 * <li>{@code -t ミリ秒} 1回の計測の時間</li>
+	 * <li>{@code -o ファイル} 結果をタブ区切りで書き出すファイル</li>
+	 * <li>{@code -b ファイル} 比較する基準として、以前に書き出したファイル</li>
+	 * <li>{@code -r 許容率} 基準から悪化とみなす割合。既定は0.5</li>
+	 * </ul>
+	 * <p>
+	 * 基準を指定した場合、悪化した処理があれば一覧を出力し、終了コード1で終了します。
+	 * </p>
+	 *
+	 * @param args
+	 *            引数。
+	 * @throws IOException
+	 *             結果の書き込みに失敗した場合。
+	 */
+	public static void main(String[] args) throws IOException {
+		// 計測を行うこのスレッドを、ダイアログを表示するメインスレッドとする
+		Looper.getMainLooper();
+		BenchmarkRunner runner = new BenchmarkRunner();
+		String output = null;
+		String baseline = null;
+		double threshold = 0.5;
+		ArrayList<String> filters = new ArrayList<String>();
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals("-w")) {
+				runner.warmupIterations(Integer.parseInt(args[++i]));
+			} else if (args[i].equals("-i")) {
+				runner.iterations(Integer.parseInt(args[++i]));
+			} else if (args[i].equals("-t")) {
+				runner.iterationMillis(Long.parseLong(args[++i]));
+			} else if (args[i].equals("-o")) {
+				output = args[++i];
+			} else if (args[i].equals("-b")) {
+				baseline = args[++i];
+			} else if (args[i].equals("-r")) {
+				threshold = Double.parseDouble(args[++i]);
+			} else {
+				filters.add(args[i]);
+			}
+		}
+		ArrayList<Score> scores = new ArrayList<Score>();
+		for (Benchmark benchmark : createAll()) {
+			if (matches(benchmark.getName(), filters)) {
+				scores.add(runner.measure(benchmark));
+			}
+		}
+		print(System.out, scores);
+		if (output != null) {
+			Writer out = new OutputStreamWriter(new FileOutputStream(output),
+					"UTF-8");
+			try {
+				write(out, scores);
+			} finally {
+				out.close();
+			}
+		}
+		if (baseline != null) {
+			Reader in = new InputStreamReader(new FileInputStream(baseline),
+					"UTF-8");
+			List<String> regressions;
+			try {
+				regressions = Baseline.read(in).compare(scores, threshold);
+			} finally {
+				in.close();
+			}
+			for (String regression : regressions) {
+				System.err.println("REGRESSION " + regression);
+			}
+			if (!regressions.isEmpty()) {
+				System.exit(1);
+			}
+		}
+	}
+
+	private static boolean matches(String name, List<String> filters) {
+		if (filters.isEmpty()) {
+			return true;
+		}
+		for (String filter : filters) {
+			if (name.startsWith(filter)) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
@@ -0,0 +1,163 @@
+package net.onpu_tamago.libs.dialogs;
+
+import java.util.List;
+
+import net.onpu_tamago.libs.dialogs.Dialogs.DialogCallback;
+import net.onpu_tamago.libs.dialogs.Dialogs.DialogData;
+import net.onpu_tamago.libs.dialogs.Dialogs.ResultReciever;
+import net.onpu_tamago.libs.dialogs.Dialogs.TypedDialogCallback;
+import android.app.Dialog;
+import android.content.DialogInterface;
+import android.os.Bundle;
+import android.support.v4.app.DialogFragment;
+import android.support.v4.app.LifecycleActivity;
+
+/**
+ * {@link InternalDialogFragment#onClick(DialogInterface, int)}による結果の組み立てと、
+ * コールバックの種類ごとの通知を計測します。
+ *
+ * @author 高見知英
+ */
+final class DispatchBenchmarks {
+
+	/**
+	 * 表示中のダイアログに対して、ボタンが押された際の処理を繰り返します。
+	 */
+	private static abstract class ClickBenchmark extends Benchmark {
+
+		private LifecycleActivity activity;
+		InternalDialogFragment fragment;
+		Dialog dialog;
+		DialogData data;
+		int count;
+
+		ClickBenchmark(String name) {
+			super(name);
+		}
+
+		abstract DialogCallback createCallback();
+
+		@Override
+		protected void setUp() {
+			activity = LifecycleActivity.launch();
+			Dialogs.showDialog(activity.getSupportFragmentManager(),
+					new DialogSpec.Builder().id(1).title("title")
+							.message("message")
+							.buttons(Dialogs.DIALOGBUTTON_POSITIVE).build(),
+					createCallback(), null);
+			LifecycleActivity.idle();
+			fragment = activity.getFragments(InternalDialogFragment.class).get(
+					0);
+			dialog = fragment.getDialog();
+			data = Dialogs.registry.get(fragment.getArguments().getInt(
+					Dialogs.ALERT_REGISTRYKEY));
+		}
+
+		@Override
+		protected void tearDown() {
+			activity.finishAndDestroy();
+		}
+
+		@Override
+		protected int run(int ops) {
+			for (int i = 0; i < ops; i++) {
+				fragment.onClick(dialog, DialogInterface.BUTTON_POSITIVE);
+			}
+			return count;
+		}
+	}
+
+	private DispatchBenchmarks() {
+	}
+
+	static void addTo(List<Benchmark> list) {
+		// Bundleを生成しないTypedDialogCallback
+		list.add(new ClickBenchmark("click.typed") {
+			@Override
+			DialogCallback createCallback() {
+				return new TypedDialogCallback() {
+					@Override
+					public void onDialogResult(DialogFragment owner,
+							DialogResult result) {
+						count += result.getButton();
+					}
+
+					@Override
+					public void onDialogClosed(DialogFragment owner,
+							Bundle params) {
+					}
+				};
+			}
+		});
+		// 従来のDialogCallback
+		list.add(new ClickBenchmark("click.bundle") {
+			@Override
+			DialogCallback createCallback() {
+				return new DialogCallback() {
+					@Override
+					public void onDialogClosed(DialogFragment owner,
+							Bundle params) {
+						count += params.getInt(Dialogs.PARAMS_PRESSBUTTON);
+					}
+				};
+			}
+		});
+		// ボタンごとのメソッドに振り分けるResult
+		list.add(new ClickBenchmark("click.result") {
+			@Override
+			DialogCallback createCallback() {
+				return new ResultReciever() {
+					@Override
+					public void onPositiveResult(DialogFragment owner,
+							Bundle params) {
+						count += params.getInt(Dialogs.PARAMS_PRESSBUTTON);
+					}
+				};
+			}
+		});
+		// showDialogAsync()が用いる、DialogFutureを確定するコールバック
+		list.add(new ClickBenchmark("click.future") {
+			@Override
+			DialogCallback createCallback() {
+				return new FutureCallback();
+			}
+
+			@Override
+			protected int run(int ops) {
+				for (int i = 0; i < ops; i++) {
+					FutureCallback callback = new FutureCallback();
+					data.callback = callback;
+					fragment.onClick(dialog, DialogInterface.BUTTON_POSITIVE);
+					count += callback.future.getNow().getButton();
+				}
+				return count;
+			}
+		});
+		// キャンセル
+		list.add(new ClickBenchmark("cancel.typed") {
+			@Override
+			DialogCallback createCallback() {
+				return new TypedDialogCallback() {
+					@Override
+					public void onDialogResult(DialogFragment owner,
+							DialogResult result) {
+						count += result.getButton();
+					}
+
+					@Override
+					public void onDialogClosed(DialogFragment owner,
+							Bundle params) {
+					}
+				};
+			}
+
+			@Override
+			protected int run(int ops) {
+				for (int i = 0; i < ops; i++) {
+					fragment.onCancel(dialog);
+				}
+				return count;
+			}
+		});
+	}
+}
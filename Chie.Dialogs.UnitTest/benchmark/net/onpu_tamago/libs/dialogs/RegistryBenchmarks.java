@@ -0,0 +1,102 @@
+package net.onpu_tamago.libs.dialogs;
+
+import java.util.List;
+
+import net.onpu_tamago.libs.dialogs.Dialogs.DialogData;
+import android.support.v4.app.DialogFragment;
+import android.support.v4.app.FragmentManager;
+import android.support.v4.app.LifecycleActivity;
+
+/**
+ * {@link DialogRegistry}への登録と、{@link Dialogs#showDialog(FragmentManager, DialogSpec, Dialogs.DialogCallback, android.view.View)}
+ * による表示から閉じるまでを計測します。
+ *
+ * @author 高見知英
+ */
+final class RegistryBenchmarks {
+
+	private static final int CAPACITY = DialogRegistry.DEFAULT_CAPACITY;
+
+	private RegistryBenchmarks() {
+	}
+
+	static void addTo(List<Benchmark> list) {
+		// 表示中のダイアログがある状態での登録・削除
+		list.add(new Benchmark("registry.register") {
+			private DialogRegistry registry;
+			private final DialogFragment[] showing = new DialogFragment[8];
+
+			@Override
+			protected void setUp() {
+				registry = new DialogRegistry(CAPACITY);
+				for (int i = 0; i < showing.length; i++) {
+					showing[i] = new DialogFragment();
+					registry.register(registry.nextKey(), showing[i],
+							new DialogData(null, null));
+				}
+			}
+
+			@Override
+			protected int run(int ops) {
+				DialogFragment owner = showing[0];
+				for (int i = 0; i < ops; i++) {
+					int key = registry.nextKey();
+					registry.register(key, null, new DialogData(null, null));
+					registry.attach(key, owner);
+					registry.remove(key);
+				}
+				return registry.size();
+			}
+		});
+		// 閉じられないまま破棄されたダイアログが容量まで溜まった状態での登録
+		list.add(new Benchmark("registry.evict") {
+			private DialogRegistry registry;
+			private final DialogFragment owner = new DialogFragment();
+
+			@Override
+			protected void setUp() {
+				registry = new DialogRegistry(CAPACITY);
+			}
+
+			@Override
+			protected int run(int ops) {
+				for (int i = 0; i < ops; i++) {
+					DialogData data = new DialogData(null, null);
+					registry.register(registry.nextKey(), owner, data);
+					data.owner.clear();
+				}
+				return registry.size();
+			}
+		});
+		// 表示要求からフラグメントのコミット、閉じてレジストリから削除するまで
+		list.add(new Benchmark("show.dismiss") {
+			private final DialogSpec spec = new DialogSpec.Builder()
+					.title("title").message("message")
+					.buttons(Dialogs.DIALOGBUTTON_POSITIVE).build();
+			private LifecycleActivity activity;
+
+			@Override
+			protected void setUp() {
+				activity = LifecycleActivity.launch();
+			}
+
+			@Override
+			protected void tearDown() {
+				activity.finishAndDestroy();
+			}
+
+			@Override
+			protected int run(int ops) {
+				FragmentManager manager = activity.getSupportFragmentManager();
+				for (int i = 0; i < ops; i++) {
+					DialogHandle handle = Dialogs.showDialogForHandle(manager,
+							spec, null, null);
+					LifecycleActivity.idle();
+					handle.dismiss();
+					LifecycleActivity.idle();
+				}
+				return Dialogs.registry.size();
+			}
+		});
+	}
+}
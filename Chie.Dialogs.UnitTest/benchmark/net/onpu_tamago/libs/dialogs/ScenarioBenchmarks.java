@@ -0,0 +1,95 @@
+package net.onpu_tamago.libs.dialogs;
+
+import java.util.List;
+
+import net.onpu_tamago.libs.dialogs.Dialogs.DialogCallback;
+import android.app.AlertDialog;
+import android.os.Bundle;
+import android.support.v4.app.DialogFragment;
+import android.support.v4.app.LifecycleActivity;
+
+/**
+ * {@link DialogScenario}の各種のダイアログについて、
+ * {@link InternalDialogFragment}のダイアログの生成・ボタンの処理・キャンセルの処理を計測します。
+ *
+ * @author 高見知英
+ */
+final class ScenarioBenchmarks {
+
+	/**
+	 * 表示中のダイアログのフラグメントに対して処理を繰り返します。
+	 */
+	private static abstract class ScenarioBenchmark extends Benchmark {
+
+		final DialogScenario scenario;
+		private LifecycleActivity activity;
+		InternalDialogFragment fragment;
+		AlertDialog dialog;
+		int count;
+
+		ScenarioBenchmark(String stage, DialogScenario scenario) {
+			super(stage + "." + scenario.name);
+			this.scenario = scenario;
+		}
+
+		@Override
+		protected void setUp() {
+			activity = LifecycleActivity.launch();
+			Bundle params = new Bundle();
+			params.putInt(Dialogs.ALERT_ID, 1);
+			scenario.show(activity, params, new DialogCallback() {
+				@Override
+				public void onDialogClosed(DialogFragment owner, Bundle params) {
+					count += params.size();
+				}
+			});
+			LifecycleActivity.idle();
+			fragment = activity.getFragments(InternalDialogFragment.class).get(
+					0);
+			dialog = (AlertDialog) fragment.getDialog();
+			scenario.fill(dialog);
+		}
+
+		@Override
+		protected void tearDown() {
+			activity.finishAndDestroy();
+		}
+	}
+
+	private ScenarioBenchmarks() {
+	}
+
+	static void addTo(List<Benchmark> list) {
+		for (DialogScenario scenario : DialogScenario.all()) {
+			list.add(new ScenarioBenchmark("create", scenario) {
+				@Override
+				protected int run(int ops) {
+					int sum = 0;
+					for (int i = 0; i < ops; i++) {
+						sum += fragment.onCreateDialog(null).hashCode();
+					}
+					return sum;
+				}
+			});
+			list.add(new ScenarioBenchmark("click", scenario) {
+				@Override
+				protected int run(int ops) {
+					int which = scenario.answer();
+					for (int i = 0; i < ops; i++) {
+						fragment.onClick(dialog, which);
+					}
+					return count;
+				}
+			});
+			list.add(new ScenarioBenchmark("cancel", scenario) {
+				@Override
+				protected int run(int ops) {
+					for (int i = 0; i < ops; i++) {
+						fragment.onCancel(dialog);
+					}
+					return count;
+				}
+			});
+		}
+	}
+}
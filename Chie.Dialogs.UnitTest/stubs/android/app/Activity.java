@@ -0,0 +1,123 @@
+package android.app;
+
+import android.content.Context;
+import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.os.Bundle;
+import android.os.Looper;
+import android.util.AttributeSet;
+import android.view.ContextThemeWrapper;
+import android.view.LayoutInflater;
+import android.view.View;
+
+/**
+ * {@link Activity}の代替実装です。
+ * <p>
+ * ライフサイクルのメソッドは何もしません。 システムの代わりにテストから呼び出してください。
+ * </p>
+ *
+ * @author 高見知英
+ */
+public class Activity extends ContextThemeWrapper implements
+		LayoutInflater.Factory {
+
+	private final LayoutInflater inflater = new LayoutInflater(this) {
+		@Override
+		public LayoutInflater cloneInContext(Context newContext) {
+			return this;
+		}
+	};
+
+	private boolean finished;
+
+	public Activity() {
+	}
+
+	@Override
+	public Resources getResources() {
+		return Resources.getSystem();
+	}
+
+	@Override
+	public Object getSystemService(String name) {
+		return LAYOUT_INFLATER_SERVICE.equals(name) ? inflater : null;
+	}
+
+	@Override
+	public ClassLoader getClassLoader() {
+		return getClass().getClassLoader();
+	}
+
+	@Override
+	public Context getApplicationContext() {
+		return this;
+	}
+
+	@Override
+	public Looper getMainLooper() {
+		return Looper.getMainLooper();
+	}
+
+	public LayoutInflater getLayoutInflater() {
+		return inflater;
+	}
+
+	public View findViewById(int id) {
+		return null;
+	}
+
+	public Object getLastNonConfigurationInstance() {
+		return null;
+	}
+
+	public Object onRetainNonConfigurationInstance() {
+		return null;
+	}
+
+	public boolean isFinishing() {
+		return finished;
+	}
+
+	public void finish() {
+		finished = true;
+	}
+
+	public final void runOnUiThread(Runnable action) {
+		action.run();
+	}
+
+	@Override
+	public View onCreateView(String name, Context context, AttributeSet attrs) {
+		return null;
+	}
+
+	protected void onCreate(Bundle savedInstanceState) {
+	}
+
+	protected void onStart() {
+	}
+
+	protected void onResume() {
+	}
+
+	protected void onPostResume() {
+	}
+
+	protected void onPause() {
+	}
+
+	protected void onSaveInstanceState(Bundle outState) {
+	}
+
+	protected void onStop() {
+	}
+
+	protected void onDestroy() {
+	}
+
+	public void onConfigurationChanged(Configuration newConfig) {
+	}
+
+	public void onLowMemory() {
+	}
+}
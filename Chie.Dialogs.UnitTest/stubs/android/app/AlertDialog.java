@@ -0,0 +1,289 @@
+package android.app;
+
+import android.content.Context;
+import android.content.DialogInterface;
+import android.content.res.Resources;
+import android.view.View;
+import android.widget.Button;
+import android.widget.ListAdapter;
+import android.widget.ListView;
+
+/**
+ * {@link AlertDialog}の代替実装です。 タイトル領域とボタン以外のビューは生成せず、設定された内容のみを保持します。
+ * <p>
+ * 実機と同様、ボタンが押された場合はリスナーを呼び出した後にダイアログを閉じます。
+ * タイトル領域は{@link Resources#TITLE_PANEL_ID}で取得できます。
+ * </p>
+ *
+ * @author 高見知英
+ */
+public class AlertDialog extends Dialog implements DialogInterface {
+
+	private CharSequence message;
+
+	private CharSequence[] items;
+
+	private ListAdapter adapter;
+
+	private View view;
+
+	private final View titlePanel;
+
+	private final Button[] buttons = new Button[3];
+
+	private OnClickListener itemListener;
+
+	protected AlertDialog(Context context) {
+		this(context, 0);
+	}
+
+	protected AlertDialog(Context context, int theme) {
+		super(context, theme);
+		titlePanel = new View(context);
+		titlePanel.setId(Resources.TITLE_PANEL_ID);
+	}
+
+	public void setMessage(CharSequence message) {
+		this.message = message;
+	}
+
+	/**
+	 * メッセージを取得します。 テスト用のメソッドです。
+	 *
+	 * @return メッセージ。
+	 */
+	public CharSequence getMessage() {
+		return message;
+	}
+
+	/**
+	 * 選択肢を取得します。 テスト用のメソッドです。
+	 *
+	 * @return 選択肢。
+	 */
+	public CharSequence[] getItems() {
+		return items;
+	}
+
+	/**
+	 * 選択肢のアダプタを取得します。 テスト用のメソッドです。
+	 *
+	 * @return アダプタ。
+	 */
+	public ListAdapter getAdapter() {
+		return adapter;
+	}
+
+	public void setView(View view) {
+		this.view = view;
+	}
+
+	/**
+	 * 追加されたビューを取得します。 テスト用のメソッドです。
+	 *
+	 * @return ビュー。
+	 */
+	public View getView() {
+		return view;
+	}
+
+	@Override
+	public View findViewById(int id) {
+		if (id == titlePanel.getId()) {
+			return titlePanel;
+		}
+		return view != null ? view.findViewById(id) : null;
+	}
+
+	public void setButton(final int whichButton, CharSequence text,
+			final OnClickListener listener) {
+		Button button = new Button(getContext());
+		button.setText(text);
+		button.setOnClickListener(new View.OnClickListener() {
+			@Override
+			public void onClick(View v) {
+				if (listener != null) {
+					listener.onClick(AlertDialog.this, whichButton);
+				}
+				dismiss();
+			}
+		});
+		buttons[index(whichButton)] = button;
+	}
+
+	/**
+	 * ボタンの表示文字列を取得します。 テスト用のメソッドです。
+	 *
+	 * @param whichButton
+	 *            {@link DialogInterface#BUTTON_POSITIVE}など。
+	 * @return 表示文字列。ボタンがない場合はnull。
+	 */
+	public CharSequence getButtonText(int whichButton) {
+		Button button = buttons[index(whichButton)];
+		return button != null ? button.getText() : null;
+	}
+
+	public Button getButton(int whichButton) {
+		return buttons[index(whichButton)];
+	}
+
+	public ListView getListView() {
+		return null;
+	}
+
+	/**
+	 * ボタンを押します。 ボタンがない場合はダイアログを閉じます。 テスト用のメソッドです。
+	 *
+	 * @param whichButton
+	 *            {@link DialogInterface#BUTTON_POSITIVE}など。
+	 */
+	public void performClick(int whichButton) {
+		Button button = buttons[index(whichButton)];
+		if (button != null) {
+			button.performClick();
+		} else {
+			dismiss();
+		}
+	}
+
+	/**
+	 * 選択肢を選びます。 実機と同様、リスナーを呼び出した後にダイアログを閉じます。 テスト用のメソッドです。
+	 *
+	 * @param which
+	 *            選択肢の位置。
+	 */
+	public void performItemClick(int which) {
+		if (itemListener != null) {
+			itemListener.onClick(this, which);
+		}
+		dismiss();
+	}
+
+	private static int index(int whichButton) {
+		return -1 - whichButton;
+	}
+
+	public static class Builder {
+
+		private final Context context;
+
+		private CharSequence title;
+
+		private CharSequence message;
+
+		private CharSequence[] items;
+
+		private ListAdapter adapter;
+
+		private OnClickListener itemListener;
+
+		private View view;
+
+		private final CharSequence[] buttonTexts = new CharSequence[3];
+
+		private final OnClickListener[] buttonListeners = new OnClickListener[3];
+
+		private boolean cancelable = true;
+
+		private OnCancelListener onCancelListener;
+
+		public Builder(Context context) {
+			this.context = context;
+		}
+
+		public Context getContext() {
+			return context;
+		}
+
+		public Builder setTitle(CharSequence title) {
+			this.title = title;
+			return this;
+		}
+
+		public Builder setTitle(int titleId) {
+			return setTitle(context.getText(titleId));
+		}
+
+		public Builder setMessage(CharSequence message) {
+			this.message = message;
+			return this;
+		}
+
+		public Builder setMessage(int messageId) {
+			return setMessage(context.getText(messageId));
+		}
+
+		public Builder setItems(CharSequence[] items, OnClickListener listener) {
+			this.items = items;
+			itemListener = listener;
+			return this;
+		}
+
+		public Builder setAdapter(ListAdapter adapter, OnClickListener listener) {
+			this.adapter = adapter;
+			itemListener = listener;
+			return this;
+		}
+
+		public Builder setView(View view) {
+			this.view = view;
+			return this;
+		}
+
+		public Builder setPositiveButton(CharSequence text,
+				OnClickListener listener) {
+			return setButton(BUTTON_POSITIVE, text, listener);
+		}
+
+		public Builder setNegativeButton(CharSequence text,
+				OnClickListener listener) {
+			return setButton(BUTTON_NEGATIVE, text, listener);
+		}
+
+		public Builder setNeutralButton(CharSequence text,
+				OnClickListener listener) {
+			return setButton(BUTTON_NEUTRAL, text, listener);
+		}
+
+		private Builder setButton(int which, CharSequence text,
+				OnClickListener listener) {
+			buttonTexts[index(which)] = text;
+			buttonListeners[index(which)] = listener;
+			return this;
+		}
+
+		public Builder setCancelable(boolean cancelable) {
+			this.cancelable = cancelable;
+			return this;
+		}
+
+		public Builder setOnCancelListener(OnCancelListener listener) {
+			onCancelListener = listener;
+			return this;
+		}
+
+		public AlertDialog create() {
+			AlertDialog dialog = new AlertDialog(context);
+			dialog.setTitle(title);
+			dialog.message = message;
+			dialog.items = items;
+			dialog.adapter = adapter;
+			dialog.itemListener = itemListener;
+			dialog.view = view;
+			for (int i = 0; i < 3; i++) {
+				if (buttonTexts[i] != null) {
+					dialog.setButton(-1 - i, buttonTexts[i], buttonListeners[i]);
+				}
+			}
+			dialog.setCancelable(cancelable);
+			dialog.setOnCancelListener(onCancelListener);
+			return dialog;
+		}
+
+		public AlertDialog show() {
+			AlertDialog dialog = create();
+			dialog.show();
+			return dialog;
+		}
+	}
+}
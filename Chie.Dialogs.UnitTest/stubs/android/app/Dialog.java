@@ -0,0 +1,192 @@
+package android.app;
+
+import android.content.Context;
+import android.content.DialogInterface;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.View;
+import android.view.Window;
+
+/**
+ * {@link Dialog}の代替実装です。 画面には表示せず、表示状態とリスナーのみを扱います。
+ * <p>
+ * 実機と同様、キャンセル・クローズのリスナーはメインスレッドに投稿して呼び出します。
+ * 表示した際は、最上位のビューの描画前のリスナーもメインスレッドに投稿して呼び出します。
+ * </p>
+ *
+ * @author 高見知英
+ */
+public class Dialog implements DialogInterface {
+
+	private static final Handler handler = new Handler(Looper.getMainLooper());
+
+	private final Context context;
+
+	private final Window window;
+
+	private Activity ownerActivity;
+
+	/**
+	 * 表示されてから閉じられるまでの間trueとなります。 {@link #hide()}では変わりません。
+	 */
+	private boolean showing;
+
+	private boolean visible;
+
+	private boolean cancelable = true;
+
+	private CharSequence title;
+
+	private View contentView;
+
+	private OnCancelListener onCancelListener;
+
+	private OnDismissListener onDismissListener;
+
+	public Dialog(Context context) {
+		this(context, 0);
+	}
+
+	public Dialog(Context context, int theme) {
+		this.context = context;
+		this.window = new Window(context);
+	}
+
+	public final Context getContext() {
+		return context;
+	}
+
+	public final void setOwnerActivity(Activity activity) {
+		ownerActivity = activity;
+	}
+
+	public final Activity getOwnerActivity() {
+		return ownerActivity;
+	}
+
+	public Window getWindow() {
+		return window;
+	}
+
+	public boolean requestWindowFeature(int featureId) {
+		return true;
+	}
+
+	public void setContentView(View view) {
+		contentView = view;
+	}
+
+	public View findViewById(int id) {
+		return contentView != null ? contentView.findViewById(id) : null;
+	}
+
+	public void setTitle(CharSequence title) {
+		this.title = title;
+	}
+
+	public void setTitle(int titleId) {
+		setTitle(context.getText(titleId));
+	}
+
+	public CharSequence getTitle() {
+		return title;
+	}
+
+	public void setCancelable(boolean flag) {
+		cancelable = flag;
+	}
+
+	public boolean isCancelable() {
+		return cancelable;
+	}
+
+	public void setCanceledOnTouchOutside(boolean cancel) {
+	}
+
+	public void setOnCancelListener(OnCancelListener listener) {
+		onCancelListener = listener;
+	}
+
+	public void setOnDismissListener(OnDismissListener listener) {
+		onDismissListener = listener;
+	}
+
+	public boolean isShowing() {
+		return showing;
+	}
+
+	/**
+	 * 画面に表示されているかどうかを取得します。 テスト用のメソッドです。
+	 *
+	 * @return 表示中であり、隠されていない場合はtrue。
+	 */
+	public boolean isVisible() {
+		return showing && visible;
+	}
+
+	public void show() {
+		if (!showing) {
+			// 表示後の最初の描画
+			handler.post(new Runnable() {
+				@Override
+				public void run() {
+					if (showing) {
+						window.getDecorView().getViewTreeObserver()
+								.dispatchOnPreDraw();
+					}
+				}
+			});
+		}
+		showing = true;
+		visible = true;
+	}
+
+	public void hide() {
+		visible = false;
+	}
+
+	@Override
+	public void cancel() {
+		final OnCancelListener listener = onCancelListener;
+		if (listener != null) {
+			handler.post(new Runnable() {
+				@Override
+				public void run() {
+					listener.onCancel(Dialog.this);
+				}
+			});
+		}
+		dismiss();
+	}
+
+	@Override
+	public void dismiss() {
+		if (!showing) {
+			return;
+		}
+		showing = false;
+		visible = false;
+		final OnDismissListener listener = onDismissListener;
+		if (listener != null) {
+			handler.post(new Runnable() {
+				@Override
+				public void run() {
+					listener.onDismiss(Dialog.this);
+				}
+			});
+		}
+	}
+
+	public Bundle onSaveInstanceState() {
+		Bundle state = new Bundle();
+		state.putBoolean("android:dialogShowing", showing);
+		return state;
+	}
+
+	public void onRestoreInstanceState(Bundle savedInstanceState) {
+		if (savedInstanceState.getBoolean("android:dialogShowing")) {
+			show();
+		}
+	}
+}
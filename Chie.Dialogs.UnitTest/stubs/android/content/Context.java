@@ -0,0 +1,38 @@
+package android.content;
+
+import android.content.res.Resources;
+import android.os.Looper;
+
+/**
+ * {@link Context}の代替実装です。 ライブラリが利用するメソッドのみを宣言します。
+ *
+ * @author 高見知英
+ */
+public abstract class Context {
+
+	public static final String LAYOUT_INFLATER_SERVICE = "layout_inflater";
+
+	public abstract Resources getResources();
+
+	public abstract Object getSystemService(String name);
+
+	public abstract ClassLoader getClassLoader();
+
+	public abstract Context getApplicationContext();
+
+	public abstract Looper getMainLooper();
+
+	public final CharSequence getText(int resId) {
+		return getResources().getText(resId);
+	}
+
+	public final String getString(int resId) {
+		return getResources().getString(resId);
+	}
+
+	public void registerComponentCallbacks(ComponentCallbacks callback) {
+	}
+
+	public void unregisterComponentCallbacks(ComponentCallbacks callback) {
+	}
+}
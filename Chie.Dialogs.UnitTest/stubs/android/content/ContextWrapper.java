@@ -0,0 +1,51 @@
+package android.content;
+
+import android.content.res.Resources;
+import android.os.Looper;
+
+/**
+ * {@link ContextWrapper}の代替実装です。
+ *
+ * @author 高見知英
+ */
+public class ContextWrapper extends Context {
+
+	private Context base;
+
+	public ContextWrapper(Context base) {
+		this.base = base;
+	}
+
+	protected void attachBaseContext(Context base) {
+		this.base = base;
+	}
+
+	public Context getBaseContext() {
+		return base;
+	}
+
+	@Override
+	public Resources getResources() {
+		return base.getResources();
+	}
+
+	@Override
+	public Object getSystemService(String name) {
+		return base.getSystemService(name);
+	}
+
+	@Override
+	public ClassLoader getClassLoader() {
+		return base.getClassLoader();
+	}
+
+	@Override
+	public Context getApplicationContext() {
+		return base.getApplicationContext();
+	}
+
+	@Override
+	public Looper getMainLooper() {
+		return base.getMainLooper();
+	}
+}
@@ -0,0 +1,43 @@
+package android.content.res;
+
+import java.util.Locale;
+
+/**
+ * {@link Configuration}の代替実装です。
+ *
+ * @author 高見知英
+ */
+public final class Configuration {
+
+	public static final int ORIENTATION_PORTRAIT = 1;
+
+	public static final int ORIENTATION_LANDSCAPE = 2;
+
+	public static final int UI_MODE_NIGHT_MASK = 0x30;
+
+	public static final int UI_MODE_NIGHT_NO = 0x10;
+
+	public static final int UI_MODE_NIGHT_YES = 0x20;
+
+	public Locale locale;
+
+	public int orientation;
+
+	public int uiMode;
+
+	public float fontScale;
+
+	public Configuration() {
+		locale = Locale.getDefault();
+		orientation = ORIENTATION_PORTRAIT;
+		uiMode = UI_MODE_NIGHT_NO;
+		fontScale = 1.0f;
+	}
+
+	public Configuration(Configuration o) {
+		locale = o.locale;
+		orientation = o.orientation;
+		uiMode = o.uiMode;
+		fontScale = o.fontScale;
+	}
+}
@@ -0,0 +1,83 @@
+package android.content.res;
+
+import android.util.DisplayMetrics;
+
+/**
+ * {@link Resources}の代替実装です。
+ * <p>
+ * リソースファイルは持たないため、文字列はリソースIDから生成した"@0x..."形式の値を返します。
+ * 文字列の配列は、同じ形式の値に位置を付けた{@link #ARRAY_LENGTH}個の要素を返します。
+ * 名前から取得できるIDは、{@link android.app.AlertDialog}のタイトル領域のみです。
+ * </p>
+ *
+ * @author 高見知英
+ */
+public class Resources {
+
+	/**
+	 * 文字列の配列の要素数です。
+	 */
+	public static final int ARRAY_LENGTH = 3;
+
+	/**
+	 * {@link android.app.AlertDialog}のタイトル領域のIDです。
+	 */
+	public static final int TITLE_PANEL_ID = 0x01020400;
+
+	private static final Resources system = new Resources();
+
+	private final Configuration configuration = new Configuration();
+
+	private final DisplayMetrics metrics = new DisplayMetrics();
+
+	public Resources() {
+	}
+
+	public static Resources getSystem() {
+		return system;
+	}
+
+	public Configuration getConfiguration() {
+		return configuration;
+	}
+
+	public DisplayMetrics getDisplayMetrics() {
+		return metrics;
+	}
+
+	public CharSequence getText(int id) {
+		return "@0x" + Integer.toHexString(id);
+	}
+
+	public CharSequence getText(int id, CharSequence def) {
+		return id != 0 ? getText(id) : def;
+	}
+
+	public String getString(int id) {
+		return getText(id).toString();
+	}
+
+	public String getString(int id, Object... formatArgs) {
+		return String.format(getString(id), formatArgs);
+	}
+
+	public CharSequence[] getTextArray(int id) {
+		return getStringArray(id);
+	}
+
+	public int getIdentifier(String name, String defType, String defPackage) {
+		if ("topPanel".equals(name) && "id".equals(defType)
+				&& "android".equals(defPackage)) {
+			return TITLE_PANEL_ID;
+		}
+		return 0;
+	}
+
+	public String[] getStringArray(int id) {
+		String[] array = new String[ARRAY_LENGTH];
+		for (int i = 0; i < array.length; i++) {
+			array[i] = getString(id) + "[" + i + "]";
+		}
+		return array;
+	}
+}
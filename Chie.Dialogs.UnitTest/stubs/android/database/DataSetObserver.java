@@ -0,0 +1,15 @@
+package android.database;
+
+/**
+ * {@link DataSetObserver}の代替実装です。
+ *
+ * @author 高見知英
+ */
+public abstract class DataSetObserver {
+
+	public void onChanged() {
+	}
+
+	public void onInvalidated() {
+	}
+}
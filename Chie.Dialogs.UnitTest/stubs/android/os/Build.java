@@ -0,0 +1,22 @@
+package android.os;
+
+/**
+ * {@link Build}の代替実装です。 Android 4.0.3(API 15)として振る舞います。
+ *
+ * @author 高見知英
+ */
+public class Build {
+
+	public static final String MODEL = "jvm";
+
+	public static class VERSION {
+
+		public static final String RELEASE = "4.0.4";
+
+		public static final String SDK = "15";
+
+		public static final int SDK_INT = 15;
+
+		public static final String CODENAME = "REL";
+	}
+}
@@ -0,0 +1,361 @@
+package android.os;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Set;
+
+import android.util.SparseArray;
+
+/**
+ * {@link Bundle}の代替実装です。 値は{@link HashMap}に保持します。
+ * <p>
+ * 実機と同様、型の異なる値を取得しようとした場合は例外とせず、既定値を返します。
+ * 直列化は行わないため、{@link #writeToParcel(Parcel, int)}は使用できません。
+ * </p>
+ *
+ * @author 高見知英
+ */
+public final class Bundle implements Parcelable, Cloneable {
+
+	public static final Bundle EMPTY = new Bundle();
+
+	private final HashMap<String, Object> map;
+
+	private ClassLoader classLoader;
+
+	public Bundle() {
+		map = new HashMap<String, Object>();
+	}
+
+	public Bundle(ClassLoader loader) {
+		this();
+		classLoader = loader;
+	}
+
+	public Bundle(int capacity) {
+		map = new HashMap<String, Object>(capacity);
+	}
+
+	public Bundle(Bundle b) {
+		map = new HashMap<String, Object>(b.map);
+		classLoader = b.classLoader;
+	}
+
+	@Override
+	public Object clone() {
+		return new Bundle(this);
+	}
+
+	public void setClassLoader(ClassLoader loader) {
+		classLoader = loader;
+	}
+
+	public ClassLoader getClassLoader() {
+		return classLoader;
+	}
+
+	public int size() {
+		return map.size();
+	}
+
+	public boolean isEmpty() {
+		return map.isEmpty();
+	}
+
+	public void clear() {
+		map.clear();
+	}
+
+	public boolean containsKey(String key) {
+		return map.containsKey(key);
+	}
+
+	public Object get(String key) {
+		return map.get(key);
+	}
+
+	public void remove(String key) {
+		map.remove(key);
+	}
+
+	public void putAll(Bundle map) {
+		this.map.putAll(map.map);
+	}
+
+	public Set<String> keySet() {
+		return map.keySet();
+	}
+
+	public boolean hasFileDescriptors() {
+		return false;
+	}
+
+	public void putBoolean(String key, boolean value) {
+		map.put(key, value);
+	}
+
+	public void putByte(String key, byte value) {
+		map.put(key, value);
+	}
+
+	public void putChar(String key, char value) {
+		map.put(key, value);
+	}
+
+	public void putShort(String key, short value) {
+		map.put(key, value);
+	}
+
+	public void putInt(String key, int value) {
+		map.put(key, value);
+	}
+
+	public void putLong(String key, long value) {
+		map.put(key, value);
+	}
+
+	public void putFloat(String key, float value) {
+		map.put(key, value);
+	}
+
+	public void putDouble(String key, double value) {
+		map.put(key, value);
+	}
+
+	public void putString(String key, String value) {
+		map.put(key, value);
+	}
+
+	public void putCharSequence(String key, CharSequence value) {
+		map.put(key, value);
+	}
+
+	public void putParcelable(String key, Parcelable value) {
+		map.put(key, value);
+	}
+
+	public void putParcelableArray(String key, Parcelable[] value) {
+		map.put(key, value);
+	}
+
+	public void putParcelableArrayList(String key,
+			ArrayList<? extends Parcelable> value) {
+		map.put(key, value);
+	}
+
+	public void putSparseParcelableArray(String key,
+			SparseArray<? extends Parcelable> value) {
+		map.put(key, value);
+	}
+
+	public void putIntegerArrayList(String key, ArrayList<Integer> value) {
+		map.put(key, value);
+	}
+
+	public void putStringArrayList(String key, ArrayList<String> value) {
+		map.put(key, value);
+	}
+
+	public void putSerializable(String key, Serializable value) {
+		map.put(key, value);
+	}
+
+	public void putBooleanArray(String key, boolean[] value) {
+		map.put(key, value);
+	}
+
+	public void putIntArray(String key, int[] value) {
+		map.put(key, value);
+	}
+
+	public void putLongArray(String key, long[] value) {
+		map.put(key, value);
+	}
+
+	public void putStringArray(String key, String[] value) {
+		map.put(key, value);
+	}
+
+	public void putCharSequenceArray(String key, CharSequence[] value) {
+		map.put(key, value);
+	}
+
+	public void putBundle(String key, Bundle value) {
+		map.put(key, value);
+	}
+
+	public boolean getBoolean(String key) {
+		return getBoolean(key, false);
+	}
+
+	public boolean getBoolean(String key, boolean defaultValue) {
+		Object o = map.get(key);
+		return o instanceof Boolean ? (Boolean) o : defaultValue;
+	}
+
+	public byte getByte(String key) {
+		return getByte(key, (byte) 0);
+	}
+
+	public Byte getByte(String key, byte defaultValue) {
+		Object o = map.get(key);
+		return o instanceof Byte ? (Byte) o : defaultValue;
+	}
+
+	public char getChar(String key) {
+		return getChar(key, (char) 0);
+	}
+
+	public char getChar(String key, char defaultValue) {
+		Object o = map.get(key);
+		return o instanceof Character ? (Character) o : defaultValue;
+	}
+
+	public short getShort(String key) {
+		return getShort(key, (short) 0);
+	}
+
+	public short getShort(String key, short defaultValue) {
+		Object o = map.get(key);
+		return o instanceof Short ? (Short) o : defaultValue;
+	}
+
+	public int getInt(String key) {
+		return getInt(key, 0);
+	}
+
+	public int getInt(String key, int defaultValue) {
+		Object o = map.get(key);
+		return o instanceof Integer ? (Integer) o : defaultValue;
+	}
+
+	public long getLong(String key) {
+		return getLong(key, 0L);
+	}
+
+	public long getLong(String key, long defaultValue) {
+		Object o = map.get(key);
+		return o instanceof Long ? (Long) o : defaultValue;
+	}
+
+	public float getFloat(String key) {
+		return getFloat(key, 0f);
+	}
+
+	public float getFloat(String key, float defaultValue) {
+		Object o = map.get(key);
+		return o instanceof Float ? (Float) o : defaultValue;
+	}
+
+	public double getDouble(String key) {
+		return getDouble(key, 0d);
+	}
+
+	public double getDouble(String key, double defaultValue) {
+		Object o = map.get(key);
+		return o instanceof Double ? (Double) o : defaultValue;
+	}
+
+	public String getString(String key) {
+		Object o = map.get(key);
+		return o instanceof String ? (String) o : null;
+	}
+
+	public String getString(String key, String defaultValue) {
+		String s = getString(key);
+		return s != null ? s : defaultValue;
+	}
+
+	public CharSequence getCharSequence(String key) {
+		Object o = map.get(key);
+		return o instanceof CharSequence ? (CharSequence) o : null;
+	}
+
+	public Bundle getBundle(String key) {
+		Object o = map.get(key);
+		return o instanceof Bundle ? (Bundle) o : null;
+	}
+
+	@SuppressWarnings("unchecked")
+	public <T extends Parcelable> T getParcelable(String key) {
+		Object o = map.get(key);
+		return o instanceof Parcelable ? (T) o : null;
+	}
+
+	public Parcelable[] getParcelableArray(String key) {
+		Object o = map.get(key);
+		return o instanceof Parcelable[] ? (Parcelable[]) o : null;
+	}
+
+	@SuppressWarnings("unchecked")
+	public <T extends Parcelable> ArrayList<T> getParcelableArrayList(
+			String key) {
+		Object o = map.get(key);
+		return o instanceof ArrayList ? (ArrayList<T>) o : null;
+	}
+
+	@SuppressWarnings("unchecked")
+	public <T extends Parcelable> SparseArray<T> getSparseParcelableArray(
+			String key) {
+		Object o = map.get(key);
+		return o instanceof SparseArray ? (SparseArray<T>) o : null;
+	}
+
+	public Serializable getSerializable(String key) {
+		Object o = map.get(key);
+		return o instanceof Serializable ? (Serializable) o : null;
+	}
+
+	@SuppressWarnings("unchecked")
+	public ArrayList<Integer> getIntegerArrayList(String key) {
+		Object o = map.get(key);
+		return o instanceof ArrayList ? (ArrayList<Integer>) o : null;
+	}
+
+	@SuppressWarnings("unchecked")
+	public ArrayList<String> getStringArrayList(String key) {
+		Object o = map.get(key);
+		return o instanceof ArrayList ? (ArrayList<String>) o : null;
+	}
+
+	public boolean[] getBooleanArray(String key) {
+		Object o = map.get(key);
+		return o instanceof boolean[] ? (boolean[]) o : null;
+	}
+
+	public int[] getIntArray(String key) {
+		Object o = map.get(key);
+		return o instanceof int[] ? (int[]) o : null;
+	}
+
+	public long[] getLongArray(String key) {
+		Object o = map.get(key);
+		return o instanceof long[] ? (long[]) o : null;
+	}
+
+	public String[] getStringArray(String key) {
+		Object o = map.get(key);
+		return o instanceof String[] ? (String[]) o : null;
+	}
+
+	public CharSequence[] getCharSequenceArray(String key) {
+		Object o = map.get(key);
+		return o instanceof CharSequence[] ? (CharSequence[]) o : null;
+	}
+
+	@Override
+	public int describeContents() {
+		return 0;
+	}
+
+	@Override
+	public void writeToParcel(Parcel dest, int flags) {
+		throw new UnsupportedOperationException("not parcelable in tests");
+	}
+
+	@Override
+	public String toString() {
+		return "Bundle[" + map + "]";
+	}
+}
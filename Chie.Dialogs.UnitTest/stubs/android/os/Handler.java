@@ -0,0 +1,118 @@
+package android.os;
+
+/**
+ * {@link Handler}の代替実装です。 メッセージは{@link Looper}の待ち行列に投稿されます。
+ *
+ * @author 高見知英
+ */
+public class Handler {
+
+	public interface Callback {
+		public boolean handleMessage(Message msg);
+	}
+
+	private final Looper looper;
+
+	private final Callback callback;
+
+	public Handler() {
+		this((Callback) null);
+	}
+
+	public Handler(Callback callback) {
+		this(Looper.myLooper(), callback);
+	}
+
+	public Handler(Looper looper) {
+		this(looper, null);
+	}
+
+	public Handler(Looper looper, Callback callback) {
+		if (looper == null) {
+			throw new RuntimeException(
+					"Can't create handler inside thread that has not called Looper.prepare()");
+		}
+		this.looper = looper;
+		this.callback = callback;
+	}
+
+	public void handleMessage(Message msg) {
+	}
+
+	public void dispatchMessage(Message msg) {
+		if (msg.callback != null) {
+			msg.callback.run();
+		} else if (callback == null || !callback.handleMessage(msg)) {
+			handleMessage(msg);
+		}
+	}
+
+	public final Looper getLooper() {
+		return looper;
+	}
+
+	public final Message obtainMessage() {
+		return Message.obtain(this, 0);
+	}
+
+	public final Message obtainMessage(int what) {
+		return Message.obtain(this, what);
+	}
+
+	public final Message obtainMessage(int what, Object obj) {
+		return Message.obtain(this, what, obj);
+	}
+
+	public final boolean post(Runnable r) {
+		return postAtTime(r, SystemClock.uptimeMillis());
+	}
+
+	public final boolean postDelayed(Runnable r, long delayMillis) {
+		return postAtTime(r, SystemClock.uptimeMillis()
+				+ Math.max(delayMillis, 0));
+	}
+
+	public final boolean postAtTime(Runnable r, long uptimeMillis) {
+		looper.enqueue(Message.obtain(this, r), uptimeMillis);
+		return true;
+	}
+
+	public final void removeCallbacks(Runnable r) {
+		looper.remove(this, r, 0);
+	}
+
+	public final void removeCallbacksAndMessages(Object token) {
+		looper.removeAll(this);
+	}
+
+	public final boolean sendMessage(Message msg) {
+		return sendMessageAtTime(msg, SystemClock.uptimeMillis());
+	}
+
+	public final boolean sendMessageDelayed(Message msg, long delayMillis) {
+		return sendMessageAtTime(msg, SystemClock.uptimeMillis()
+				+ Math.max(delayMillis, 0));
+	}
+
+	public boolean sendMessageAtTime(Message msg, long uptimeMillis) {
+		msg.target = this;
+		looper.enqueue(msg, uptimeMillis);
+		return true;
+	}
+
+	public final boolean sendEmptyMessage(int what) {
+		return sendMessage(Message.obtain(this, what));
+	}
+
+	public final boolean sendEmptyMessageDelayed(int what, long delayMillis) {
+		return sendMessageDelayed(Message.obtain(this, what), delayMillis);
+	}
+
+	public final void removeMessages(int what) {
+		looper.remove(this, null, what);
+	}
+
+	public final boolean hasMessages(int what) {
+		return looper.has(this, what);
+	}
+}
@@ -0,0 +1,201 @@
+package android.os;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.PriorityQueue;
+
+/**
+ * {@link Looper}の代替実装です。
+ * <p>
+ * スレッドを持たず、投稿されたメッセージは{@link #idle()}・{@link #idleFor(long)}
+ * を呼び出した時点で、呼び出したスレッドが処理します。 メインスレッドは、最初に
+ * {@link #getMainLooper()}・{@link #prepareMainLooper()}を呼び出したスレッドとなります。
+ * </p>
+ * <p>
+ * メッセージの投稿・削除はどのスレッドからでも行えます。
+ * </p>
+ *
+ * @author 高見知英
+ */
+public final class Looper {
+
+	private static final ThreadLocal<Looper> current = new ThreadLocal<Looper>();
+
+	private static Looper mainLooper;
+
+	private final Thread thread;
+
+	private final PriorityQueue<Message> queue = new PriorityQueue<Message>(
+			16, new Comparator<Message>() {
+				@Override
+				public int compare(Message lhs, Message rhs) {
+					if (lhs.when != rhs.when) {
+						return lhs.when < rhs.when ? -1 : 1;
+					}
+					return lhs.sequence < rhs.sequence ? -1
+							: (lhs.sequence == rhs.sequence ? 0 : 1);
+				}
+			});
+
+	private long sequence = 0;
+
+	private Looper() {
+		thread = Thread.currentThread();
+	}
+
+	public static void prepare() {
+		if (current.get() != null) {
+			throw new RuntimeException(
+					"Only one Looper may be created per thread");
+		}
+		current.set(new Looper());
+	}
+
+	public static synchronized void prepareMainLooper() {
+		if (mainLooper != null) {
+			throw new IllegalStateException(
+					"The main Looper has already been prepared.");
+		}
+		prepare();
+		mainLooper = current.get();
+	}
+
+	public static synchronized Looper getMainLooper() {
+		if (mainLooper == null) {
+			prepareMainLooper();
+		}
+		return mainLooper;
+	}
+
+	public static Looper myLooper() {
+		return current.get();
+	}
+
+	public Thread getThread() {
+		return thread;
+	}
+
+	synchronized void enqueue(Message message, long when) {
+		message.when = when;
+		message.sequence = sequence++;
+		queue.add(message);
+	}
+
+	synchronized boolean remove(Handler target, Runnable callback, int what) {
+		boolean removed = false;
+		for (Iterator<Message> i = queue.iterator(); i.hasNext();) {
+			Message m = i.next();
+			if (m.target == target
+					&& (callback != null ? m.callback == callback
+							: m.callback == null && m.what == what)) {
+				i.remove();
+				removed = true;
+			}
+		}
+		return removed;
+	}
+
+	synchronized void removeAll(Handler target) {
+		for (Iterator<Message> i = queue.iterator(); i.hasNext();) {
+			if (i.next().target == target) {
+				i.remove();
+			}
+		}
+	}
+
+	synchronized boolean has(Handler target, int what) {
+		for (Message m : queue) {
+			if (m.target == target && m.callback == null && m.what == what) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * 現在の時刻までに実行すべきメッセージを、 処理中に投稿されたものも含めてすべて処理します。
+	 * このLooperのスレッドから呼び出してください。
+	 *
+	 * @return 処理したメッセージの数。
+	 */
+	public int idle() {
+		checkThread();
+		int count = 0;
+		Message m;
+		while ((m = next(SystemClock.now)) != null) {
+			m.target.dispatchMessage(m);
+			count++;
+		}
+		return count;
+	}
+
+	/**
+	 * 時刻を進めながら、指定した時間が経過するまでのメッセージを処理します。
+	 * このLooperのスレッドから呼び出してください。
+	 *
+	 * @param millis
+	 *            進める時間。
+	 * @return 処理したメッセージの数。
+	 */
+	public int idleFor(long millis) {
+		checkThread();
+		long end = SystemClock.now + millis;
+		int count = idle();
+		Message m;
+		while ((m = next(end)) != null) {
+			if (m.when > SystemClock.now) {
+				SystemClock.now = m.when;
+			}
+			m.target.dispatchMessage(m);
+			count++;
+		}
+		SystemClock.now = end;
+		return count + idle();
+	}
+
+	/**
+	 * 処理を待っているメッセージの数を取得します。
+	 *
+	 * @return メッセージの数。
+	 */
+	public synchronized int getQueuedCount() {
+		return queue.size();
+	}
+
+	/**
+	 * 処理を待っているメッセージをすべて破棄します。
+	 */
+	public synchronized void reset() {
+		queue.clear();
+	}
+
+	/**
+	 * 処理を待っているコールバックを取得します。
+	 *
+	 * @return コールバック。
+	 */
+	public synchronized ArrayList<Runnable> getQueuedCallbacks() {
+		ArrayList<Runnable> callbacks = new ArrayList<Runnable>();
+		for (Message m : queue) {
+			if (m.callback != null) {
+				callbacks.add(m.callback);
+			}
+		}
+		return callbacks;
+	}
+
+	private synchronized Message next(long until) {
+		Message m = queue.peek();
+		if (m == null || m.when > until) {
+			return null;
+		}
+		return queue.poll();
+	}
+
+	private void checkThread() {
+		if (Thread.currentThread() != thread) {
+			throw new IllegalStateException("not on the looper thread");
+		}
+	}
+}
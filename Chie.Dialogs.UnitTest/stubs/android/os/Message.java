@@ -0,0 +1,75 @@
+package android.os;
+
+/**
+ * {@link Message}の代替実装です。 再利用は行いません。
+ *
+ * @author 高見知英
+ */
+public final class Message {
+
+	public int what;
+
+	public int arg1;
+
+	public int arg2;
+
+	public Object obj;
+
+	Handler target;
+
+	Runnable callback;
+
+	long when;
+
+	long sequence;
+
+	public Message() {
+	}
+
+	public static Message obtain() {
+		return new Message();
+	}
+
+	public static Message obtain(Handler h, int what) {
+		Message m = new Message();
+		m.target = h;
+		m.what = what;
+		return m;
+	}
+
+	public static Message obtain(Handler h, int what, Object obj) {
+		Message m = obtain(h, what);
+		m.obj = obj;
+		return m;
+	}
+
+	public static Message obtain(Handler h, Runnable callback) {
+		Message m = new Message();
+		m.target = h;
+		m.callback = callback;
+		return m;
+	}
+
+	public Handler getTarget() {
+		return target;
+	}
+
+	public void setTarget(Handler target) {
+		this.target = target;
+	}
+
+	public Runnable getCallback() {
+		return callback;
+	}
+
+	public long getWhen() {
+		return when;
+	}
+
+	public void sendToTarget() {
+		target.sendMessage(this);
+	}
+
+	public void recycle() {
+	}
+}
@@ -0,0 +1,41 @@
+package android.os;
+
+/**
+ * {@link SystemClock}の代替実装です。
+ * <p>
+ * 時刻は仮想的なもので、{@link Looper#idleFor(long)}を呼び出した場合のみ進みます。
+ * そのため、遅延実行や最低表示時間などを実時間を待たずに検証できます。
+ * </p>
+ *
+ * @author 高見知英
+ */
+public final class SystemClock {
+
+	/**
+	 * 現在の仮想時刻です。実機と同様、0にはなりません。
+	 */
+	static volatile long now = 10000;
+
+	private SystemClock() {
+	}
+
+	public static long uptimeMillis() {
+		return now;
+	}
+
+	public static long elapsedRealtime() {
+		return now;
+	}
+
+	public static long currentThreadTimeMillis() {
+		return now;
+	}
+
+	public static void sleep(long ms) {
+		try {
+			Thread.sleep(ms);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,19 @@
+package android.text;
+
+/**
+ * {@link Editable}の代替実装です。 書式を持たない編集可能な文字列です。
+ *
+ * @author 高見知英
+ */
+public interface Editable extends CharSequence, Appendable {
+
+	public Editable append(CharSequence text);
+
+	public Editable append(CharSequence text, int start, int end);
+
+	public Editable append(char text);
+
+	public Editable replace(int st, int en, CharSequence text);
+
+	public void clear();
+}
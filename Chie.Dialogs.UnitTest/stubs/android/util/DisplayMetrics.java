@@ -0,0 +1,24 @@
+package android.util;
+
+/**
+ * {@link DisplayMetrics}の代替実装です。 中密度(160dpi)の画面の値を保持します。
+ *
+ * @author 高見知英
+ */
+public class DisplayMetrics {
+
+	public static final int DENSITY_DEFAULT = 160;
+
+	public int widthPixels = 320;
+
+	public int heightPixels = 480;
+
+	public float density = 1f;
+
+	public int densityDpi = DENSITY_DEFAULT;
+
+	public float scaledDensity = 1f;
+
+	public DisplayMetrics() {
+	}
+}
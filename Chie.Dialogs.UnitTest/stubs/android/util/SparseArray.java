@@ -0,0 +1,125 @@
+package android.util;
+
+import java.util.Arrays;
+
+/**
+ * {@link SparseArray}の代替実装です。 実機と同様、キーの昇順に保持します。
+ *
+ * @author 高見知英
+ */
+public class SparseArray<E> implements Cloneable {
+
+	private int[] keys;
+
+	private Object[] values;
+
+	private int size;
+
+	public SparseArray() {
+		this(10);
+	}
+
+	public SparseArray(int initialCapacity) {
+		keys = new int[Math.max(initialCapacity, 1)];
+		values = new Object[keys.length];
+		size = 0;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public SparseArray<E> clone() {
+		try {
+			SparseArray<E> clone = (SparseArray<E>) super.clone();
+			clone.keys = keys.clone();
+			clone.values = values.clone();
+			return clone;
+		} catch (CloneNotSupportedException e) {
+			throw new AssertionError(e);
+		}
+	}
+
+	public E get(int key) {
+		return get(key, null);
+	}
+
+	@SuppressWarnings("unchecked")
+	public E get(int key, E valueIfKeyNotFound) {
+		int i = Arrays.binarySearch(keys, 0, size, key);
+		return i >= 0 ? (E) values[i] : valueIfKeyNotFound;
+	}
+
+	public void delete(int key) {
+		int i = Arrays.binarySearch(keys, 0, size, key);
+		if (i >= 0) {
+			removeAt(i);
+		}
+	}
+
+	public void remove(int key) {
+		delete(key);
+	}
+
+	public void removeAt(int index) {
+		System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+		System.arraycopy(values, index + 1, values, index, size - index - 1);
+		size--;
+		values[size] = null;
+	}
+
+	public void put(int key, E value) {
+		int i = Arrays.binarySearch(keys, 0, size, key);
+		if (i >= 0) {
+			values[i] = value;
+			return;
+		}
+		i = ~i;
+		if (size == keys.length) {
+			keys = Arrays.copyOf(keys, size * 2);
+			values = Arrays.copyOf(values, size * 2);
+		}
+		System.arraycopy(keys, i, keys, i + 1, size - i);
+		System.arraycopy(values, i, values, i + 1, size - i);
+		keys[i] = key;
+		values[i] = value;
+		size++;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public int keyAt(int index) {
+		return keys[index];
+	}
+
+	@SuppressWarnings("unchecked")
+	public E valueAt(int index) {
+		return (E) values[index];
+	}
+
+	public void setValueAt(int index, E value) {
+		values[index] = value;
+	}
+
+	public int indexOfKey(int key) {
+		return Arrays.binarySearch(keys, 0, size, key);
+	}
+
+	public int indexOfValue(E value) {
+		for (int i = 0; i < size; i++) {
+			if (values[i] == value) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	public void clear() {
+		Arrays.fill(values, 0, size, null);
+		size = 0;
+	}
+
+	public void append(int key, E value) {
+		put(key, value);
+	}
+}
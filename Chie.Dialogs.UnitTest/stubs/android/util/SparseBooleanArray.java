@@ -0,0 +1,70 @@
+package android.util;
+
+/**
+ * {@link SparseBooleanArray}の代替実装です。 {@link SparseArray}に値を保持します。
+ *
+ * @author 高見知英
+ */
+public class SparseBooleanArray implements Cloneable {
+
+	private SparseArray<Boolean> values;
+
+	public SparseBooleanArray() {
+		this(10);
+	}
+
+	public SparseBooleanArray(int initialCapacity) {
+		values = new SparseArray<Boolean>(initialCapacity);
+	}
+
+	@Override
+	public SparseBooleanArray clone() {
+		try {
+			SparseBooleanArray clone = (SparseBooleanArray) super.clone();
+			clone.values = values.clone();
+			return clone;
+		} catch (CloneNotSupportedException e) {
+			throw new AssertionError(e);
+		}
+	}
+
+	public boolean get(int key) {
+		return get(key, false);
+	}
+
+	public boolean get(int key, boolean valueIfKeyNotFound) {
+		return values.get(key, valueIfKeyNotFound);
+	}
+
+	public void delete(int key) {
+		values.delete(key);
+	}
+
+	public void put(int key, boolean value) {
+		values.put(key, value);
+	}
+
+	public int size() {
+		return values.size();
+	}
+
+	public int keyAt(int index) {
+		return values.keyAt(index);
+	}
+
+	public boolean valueAt(int index) {
+		return values.valueAt(index);
+	}
+
+	public int indexOfKey(int key) {
+		return values.indexOfKey(key);
+	}
+
+	public void clear() {
+		values.clear();
+	}
+
+	public void append(int key, boolean value) {
+		put(key, value);
+	}
+}
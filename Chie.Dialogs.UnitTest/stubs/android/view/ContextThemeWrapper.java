@@ -0,0 +1,23 @@
+package android.view;
+
+import android.content.Context;
+import android.content.ContextWrapper;
+
+/**
+ * {@link ContextThemeWrapper}の代替実装です。 テーマは扱いません。
+ *
+ * @author 高見知英
+ */
+public class ContextThemeWrapper extends ContextWrapper {
+
+	public ContextThemeWrapper() {
+		super(null);
+	}
+
+	public ContextThemeWrapper(Context base, int themeres) {
+		super(base);
+	}
+
+	public void setTheme(int resid) {
+	}
+}
@@ -0,0 +1,52 @@
+package android.view;
+
+import android.content.Context;
+import android.util.AttributeSet;
+
+/**
+ * {@link LayoutInflater}の代替実装です。 レイアウトの展開には対応しません。
+ *
+ * @author 高見知英
+ */
+public abstract class LayoutInflater {
+
+	public interface Factory {
+		public View onCreateView(String name, Context context,
+				AttributeSet attrs);
+	}
+
+	private final Context context;
+
+	private Factory factory;
+
+	protected LayoutInflater(Context context) {
+		this.context = context;
+	}
+
+	public static LayoutInflater from(Context context) {
+		return (LayoutInflater) context
+				.getSystemService(Context.LAYOUT_INFLATER_SERVICE);
+	}
+
+	public abstract LayoutInflater cloneInContext(Context newContext);
+
+	public Context getContext() {
+		return context;
+	}
+
+	public final Factory getFactory() {
+		return factory;
+	}
+
+	public void setFactory(Factory factory) {
+		this.factory = factory;
+	}
+
+	public View inflate(int resource, ViewGroup root) {
+		throw new UnsupportedOperationException("no layout resources");
+	}
+
+	public View inflate(int resource, ViewGroup root, boolean attachToRoot) {
+		throw new UnsupportedOperationException("no layout resources");
+	}
+}
@@ -0,0 +1,110 @@
+package android.view;
+
+import android.content.Context;
+
+/**
+ * {@link View}の代替実装です。 描画は行わず、IDと親子関係、表示状態のみを保持します。
+ *
+ * @author 高見知英
+ */
+public class View {
+
+	public interface OnClickListener {
+		public void onClick(View v);
+	}
+
+	public static final int NO_ID = -1;
+
+	public static final int VISIBLE = 0x00000000;
+
+	public static final int INVISIBLE = 0x00000004;
+
+	public static final int GONE = 0x00000008;
+
+	private final Context context;
+
+	private int id = NO_ID;
+
+	private int visibility = VISIBLE;
+
+	private ViewGroup.LayoutParams layoutParams;
+
+	private OnClickListener onClickListener;
+
+	private ViewTreeObserver observer;
+
+	ViewParent parent;
+
+	public View(Context context) {
+		this.context = context;
+	}
+
+	public final Context getContext() {
+		return context;
+	}
+
+	public void setId(int id) {
+		this.id = id;
+	}
+
+	public int getId() {
+		return id;
+	}
+
+	public final View findViewById(int id) {
+		return id == NO_ID ? null : findViewTraversal(id);
+	}
+
+	protected View findViewTraversal(int id) {
+		return id == this.id ? this : null;
+	}
+
+	public final ViewParent getParent() {
+		return parent;
+	}
+
+	public ViewTreeObserver getViewTreeObserver() {
+		if (observer == null) {
+			observer = new ViewTreeObserver();
+		}
+		return observer;
+	}
+
+	public void setVisibility(int visibility) {
+		this.visibility = visibility;
+	}
+
+	public int getVisibility() {
+		return visibility;
+	}
+
+	public void setLayoutParams(ViewGroup.LayoutParams params) {
+		if (params == null) {
+			throw new NullPointerException("Layout parameters cannot be null");
+		}
+		this.layoutParams = params;
+	}
+
+	public ViewGroup.LayoutParams getLayoutParams() {
+		return layoutParams;
+	}
+
+	public void setPadding(int left, int top, int right, int bottom) {
+	}
+
+	public void setOnClickListener(OnClickListener l) {
+		this.onClickListener = l;
+	}
+
+	public boolean performClick() {
+		if (onClickListener != null) {
+			onClickListener.onClick(this);
+			return true;
+		}
+		return false;
+	}
+
+	public final boolean requestFocus() {
+		return true;
+	}
+}
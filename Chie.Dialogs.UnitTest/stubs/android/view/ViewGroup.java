@@ -0,0 +1,102 @@
+package android.view;
+
+import java.util.ArrayList;
+
+import android.content.Context;
+
+/**
+ * {@link ViewGroup}の代替実装です。 子のビューの一覧を保持します。
+ *
+ * @author 高見知英
+ */
+public abstract class ViewGroup extends View implements ViewParent {
+
+	public static class LayoutParams {
+
+		public static final int MATCH_PARENT = -1;
+
+		public static final int FILL_PARENT = -1;
+
+		public static final int WRAP_CONTENT = -2;
+
+		public int width;
+
+		public int height;
+
+		public LayoutParams(int width, int height) {
+			this.width = width;
+			this.height = height;
+		}
+	}
+
+	public static class MarginLayoutParams extends LayoutParams {
+
+		public MarginLayoutParams(int width, int height) {
+			super(width, height);
+		}
+	}
+
+	private final ArrayList<View> children = new ArrayList<View>();
+
+	public ViewGroup(Context context) {
+		super(context);
+	}
+
+	public void addView(View child) {
+		addView(child, -1);
+	}
+
+	public void addView(View child, int index) {
+		if (child.parent != null) {
+			throw new IllegalStateException(
+					"The specified child already has a parent. You must call removeView() on the child's parent first.");
+		}
+		child.parent = this;
+		if (index < 0) {
+			children.add(child);
+		} else {
+			children.add(index, child);
+		}
+	}
+
+	public void addView(View child, LayoutParams params) {
+		child.setLayoutParams(params);
+		addView(child, -1);
+	}
+
+	public void removeView(View view) {
+		if (children.remove(view)) {
+			view.parent = null;
+		}
+	}
+
+	public void removeAllViews() {
+		for (View child : children) {
+			child.parent = null;
+		}
+		children.clear();
+	}
+
+	public int getChildCount() {
+		return children.size();
+	}
+
+	public View getChildAt(int index) {
+		return index >= 0 && index < children.size() ? children.get(index)
+				: null;
+	}
+
+	@Override
+	protected View findViewTraversal(int id) {
+		if (id == getId()) {
+			return this;
+		}
+		for (View child : children) {
+			View found = child.findViewById(id);
+			if (found != null) {
+				return found;
+			}
+		}
+		return null;
+	}
+}
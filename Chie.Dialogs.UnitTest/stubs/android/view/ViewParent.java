@@ -0,0 +1,11 @@
+package android.view;
+
+/**
+ * {@link ViewParent}の代替実装です。
+ *
+ * @author 高見知英
+ */
+public interface ViewParent {
+
+	public ViewParent getParent();
+}
@@ -0,0 +1,47 @@
+package android.view;
+
+import java.util.ArrayList;
+
+/**
+ * {@link ViewTreeObserver}の代替実装です。 描画前のリスナーのみを扱います。
+ * 描画は{@link android.app.Dialog}の表示後に、メインスレッドで一度だけ行われたものとします。
+ *
+ * @author 高見知英
+ */
+public final class ViewTreeObserver {
+
+	public interface OnPreDrawListener {
+		public boolean onPreDraw();
+	}
+
+	private final ArrayList<OnPreDrawListener> preDrawListeners = new ArrayList<OnPreDrawListener>();
+
+	ViewTreeObserver() {
+	}
+
+	public void addOnPreDrawListener(OnPreDrawListener listener) {
+		preDrawListeners.add(listener);
+	}
+
+	public void removeOnPreDrawListener(OnPreDrawListener victim) {
+		preDrawListeners.remove(victim);
+	}
+
+	public boolean isAlive() {
+		return true;
+	}
+
+	/**
+	 * 描画前のリスナーを呼び出します。 リスナーの中で自身を削除できるよう、複製した一覧を用います。
+	 *
+	 * @return 描画を取りやめるリスナーがなければtrue。
+	 */
+	public final boolean dispatchOnPreDraw() {
+		boolean draw = true;
+		for (OnPreDrawListener listener : new ArrayList<OnPreDrawListener>(
+				preDrawListeners)) {
+			draw &= listener.onPreDraw();
+		}
+		return draw;
+	}
+}
@@ -0,0 +1,43 @@
+package android.view;
+
+import android.content.Context;
+
+/**
+ * {@link Window}の代替実装です。 ウィンドウは作らず、最上位のビューのみを保持します。
+ *
+ * @author 高見知英
+ */
+public class Window {
+
+	/**
+	 * 最上位のビューです。 子のビューは持ちません。
+	 */
+	private static final class DecorView extends ViewGroup {
+
+		DecorView(Context context) {
+			super(context);
+		}
+	}
+
+	private final Context context;
+
+	private View decor;
+
+	public Window(Context context) {
+		this.context = context;
+	}
+
+	public final Context getContext() {
+		return context;
+	}
+
+	public View getDecorView() {
+		if (decor == null) {
+			decor = new DecorView(context);
+		}
+		return decor;
+	}
+
+	public void setSoftInputMode(int mode) {
+	}
+}
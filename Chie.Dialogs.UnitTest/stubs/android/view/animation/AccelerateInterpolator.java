@@ -0,0 +1,25 @@
+package android.view.animation;
+
+/**
+ * {@link AccelerateInterpolator}の代替実装です。
+ * {@link android.support.v4.app.FragmentManager}の初期化に必要なため用意しています。
+ *
+ * @author 高見知英
+ */
+public class AccelerateInterpolator implements Interpolator {
+
+	private final float factor;
+
+	public AccelerateInterpolator() {
+		this(1.0f);
+	}
+
+	public AccelerateInterpolator(float factor) {
+		this.factor = factor;
+	}
+
+	@Override
+	public float getInterpolation(float input) {
+		return (float) Math.pow(input, factor * 2);
+	}
+}
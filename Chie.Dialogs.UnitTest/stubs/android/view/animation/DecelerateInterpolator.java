@@ -0,0 +1,25 @@
+package android.view.animation;
+
+/**
+ * {@link DecelerateInterpolator}の代替実装です。
+ * {@link android.support.v4.app.FragmentManager}の初期化に必要なため用意しています。
+ *
+ * @author 高見知英
+ */
+public class DecelerateInterpolator implements Interpolator {
+
+	private final float factor;
+
+	public DecelerateInterpolator() {
+		this(1.0f);
+	}
+
+	public DecelerateInterpolator(float factor) {
+		this.factor = factor;
+	}
+
+	@Override
+	public float getInterpolation(float input) {
+		return (float) (1.0f - Math.pow(1.0f - input, factor * 2));
+	}
+}
@@ -0,0 +1,44 @@
+package android.widget;
+
+import android.content.Context;
+import android.view.View;
+import android.view.ViewGroup;
+
+/**
+ * {@link AdapterView}の代替実装です。 アダプタと項目が選択された際のリスナーのみを保持します。
+ *
+ * @author 高見知英
+ */
+public abstract class AdapterView<T extends Adapter> extends ViewGroup {
+
+	public interface OnItemClickListener {
+		void onItemClick(AdapterView<?> parent, View view, int position,
+				long id);
+	}
+
+	private OnItemClickListener onItemClickListener;
+
+	public AdapterView(Context context) {
+		super(context);
+	}
+
+	public abstract T getAdapter();
+
+	public abstract void setAdapter(T adapter);
+
+	public void setOnItemClickListener(OnItemClickListener listener) {
+		onItemClickListener = listener;
+	}
+
+	public final OnItemClickListener getOnItemClickListener() {
+		return onItemClickListener;
+	}
+
+	public boolean performItemClick(View view, int position, long id) {
+		if (onItemClickListener != null) {
+			onItemClickListener.onItemClick(this, view, position, id);
+			return true;
+		}
+		return false;
+	}
+}
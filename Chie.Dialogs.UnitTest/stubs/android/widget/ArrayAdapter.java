@@ -0,0 +1,56 @@
+package android.widget;
+
+import java.util.Arrays;
+import java.util.List;
+
+import android.content.Context;
+import android.view.View;
+import android.view.ViewGroup;
+
+/**
+ * {@link ArrayAdapter}の代替実装です。 行のビューは{@link TextView}を生成して返します。
+ *
+ * @author 高見知英
+ */
+public class ArrayAdapter<T> extends BaseAdapter {
+
+	private final Context context;
+
+	private final List<T> objects;
+
+	public ArrayAdapter(Context context, int resource, T[] objects) {
+		this(context, resource, Arrays.asList(objects));
+	}
+
+	public ArrayAdapter(Context context, int resource, List<T> objects) {
+		this.context = context;
+		this.objects = objects;
+	}
+
+	public Context getContext() {
+		return context;
+	}
+
+	@Override
+	public int getCount() {
+		return objects.size();
+	}
+
+	@Override
+	public T getItem(int position) {
+		return objects.get(position);
+	}
+
+	@Override
+	public long getItemId(int position) {
+		return position;
+	}
+
+	@Override
+	public View getView(int position, View convertView, ViewGroup parent) {
+		TextView view = convertView instanceof TextView ? (TextView) convertView
+				: new TextView(context);
+		view.setText(String.valueOf(getItem(position)));
+		return view;
+	}
+}
@@ -0,0 +1,76 @@
+package android.widget;
+
+import java.util.ArrayList;
+
+import android.database.DataSetObserver;
+import android.view.View;
+import android.view.ViewGroup;
+
+/**
+ * {@link BaseAdapter}の代替実装です。 登録された監視者への通知のみ行います。
+ *
+ * @author 高見知英
+ */
+public abstract class BaseAdapter implements ListAdapter, SpinnerAdapter {
+
+	private final ArrayList<DataSetObserver> observers = new ArrayList<DataSetObserver>();
+
+	public boolean hasStableIds() {
+		return false;
+	}
+
+	public void registerDataSetObserver(DataSetObserver observer) {
+		synchronized (observers) {
+			observers.add(observer);
+		}
+	}
+
+	public void unregisterDataSetObserver(DataSetObserver observer) {
+		synchronized (observers) {
+			observers.remove(observer);
+		}
+	}
+
+	public void notifyDataSetChanged() {
+		for (DataSetObserver observer : snapshot()) {
+			observer.onChanged();
+		}
+	}
+
+	public void notifyDataSetInvalidated() {
+		for (DataSetObserver observer : snapshot()) {
+			observer.onInvalidated();
+		}
+	}
+
+	private ArrayList<DataSetObserver> snapshot() {
+		synchronized (observers) {
+			return new ArrayList<DataSetObserver>(observers);
+		}
+	}
+
+	public boolean areAllItemsEnabled() {
+		return true;
+	}
+
+	public boolean isEnabled(int position) {
+		return true;
+	}
+
+	public View getDropDownView(int position, View convertView,
+			ViewGroup parent) {
+		return getView(position, convertView, parent);
+	}
+
+	public int getItemViewType(int position) {
+		return 0;
+	}
+
+	public int getViewTypeCount() {
+		return 1;
+	}
+
+	public boolean isEmpty() {
+		return getCount() == 0;
+	}
+}
@@ -0,0 +1,15 @@
+package android.widget;
+
+import android.content.Context;
+
+/**
+ * {@link Button}の代替実装です。
+ *
+ * @author 高見知英
+ */
+public class Button extends TextView {
+
+	public Button(Context context) {
+		super(context);
+	}
+}
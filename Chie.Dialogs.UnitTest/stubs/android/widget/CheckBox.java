@@ -0,0 +1,15 @@
+package android.widget;
+
+import android.content.Context;
+
+/**
+ * {@link CheckBox}の代替実装です。
+ *
+ * @author 高見知英
+ */
+public class CheckBox extends CompoundButton {
+
+	public CheckBox(Context context) {
+		super(context);
+	}
+}
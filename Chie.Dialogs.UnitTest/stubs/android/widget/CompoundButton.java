@@ -0,0 +1,35 @@
+package android.widget;
+
+import android.content.Context;
+
+/**
+ * {@link CompoundButton}の代替実装です。 チェック状態を保持します。
+ *
+ * @author 高見知英
+ */
+public abstract class CompoundButton extends Button {
+
+	private boolean checked;
+
+	public CompoundButton(Context context) {
+		super(context);
+	}
+
+	public void setChecked(boolean checked) {
+		this.checked = checked;
+	}
+
+	public boolean isChecked() {
+		return checked;
+	}
+
+	public void toggle() {
+		setChecked(!checked);
+	}
+
+	@Override
+	public boolean performClick() {
+		toggle();
+		return super.performClick();
+	}
+}
@@ -0,0 +1,88 @@
+package android.widget;
+
+import android.content.Context;
+import android.text.Editable;
+
+/**
+ * {@link EditText}の代替実装です。 文字列は{@link Editable}として保持します。
+ *
+ * @author 高見知英
+ */
+public class EditText extends TextView {
+
+	/**
+	 * {@link StringBuilder}による{@link Editable}です。
+	 */
+	private static final class Text implements Editable {
+
+		private final StringBuilder text;
+
+		Text(CharSequence text) {
+			this.text = new StringBuilder(text);
+		}
+
+		@Override
+		public int length() {
+			return text.length();
+		}
+
+		@Override
+		public char charAt(int index) {
+			return text.charAt(index);
+		}
+
+		@Override
+		public CharSequence subSequence(int start, int end) {
+			return text.subSequence(start, end);
+		}
+
+		@Override
+		public Editable append(CharSequence s) {
+			text.append(s);
+			return this;
+		}
+
+		@Override
+		public Editable append(CharSequence s, int start, int end) {
+			text.append(s, start, end);
+			return this;
+		}
+
+		@Override
+		public Editable append(char c) {
+			text.append(c);
+			return this;
+		}
+
+		@Override
+		public Editable replace(int st, int en, CharSequence s) {
+			text.replace(st, en, s.toString());
+			return this;
+		}
+
+		@Override
+		public void clear() {
+			text.setLength(0);
+		}
+
+		@Override
+		public String toString() {
+			return text.toString();
+		}
+	}
+
+	public EditText(Context context) {
+		super(context);
+		setText("");
+	}
+
+	@Override
+	CharSequence createText(CharSequence text) {
+		return new Text(text);
+	}
+
+	@Override
+	public Editable getText() {
+		return (Editable) super.getText();
+	}
+}
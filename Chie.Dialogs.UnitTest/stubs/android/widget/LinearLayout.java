@@ -0,0 +1,44 @@
+package android.widget;
+
+import android.content.Context;
+import android.view.ViewGroup;
+
+/**
+ * {@link LinearLayout}の代替実装です。 配置は行いません。
+ *
+ * @author 高見知英
+ */
+public class LinearLayout extends ViewGroup {
+
+	public static final int HORIZONTAL = 0;
+
+	public static final int VERTICAL = 1;
+
+	public static class LayoutParams extends ViewGroup.MarginLayoutParams {
+
+		public float weight;
+
+		public LayoutParams(int width, int height) {
+			super(width, height);
+		}
+
+		public LayoutParams(int width, int height, float weight) {
+			super(width, height);
+			this.weight = weight;
+		}
+	}
+
+	private int orientation = HORIZONTAL;
+
+	public LinearLayout(Context context) {
+		super(context);
+	}
+
+	public void setOrientation(int orientation) {
+		this.orientation = orientation;
+	}
+
+	public int getOrientation() {
+		return orientation;
+	}
+}
@@ -0,0 +1,37 @@
+package android.widget;
+
+import android.content.Context;
+
+/**
+ * {@link ListView}の代替実装です。 行のビューは生成せず、アダプタのみを保持します。
+ *
+ * @author 高見知英
+ */
+public class ListView extends AdapterView<ListAdapter> {
+
+	private ListAdapter adapter;
+
+	private boolean fastScrollEnabled;
+
+	public ListView(Context context) {
+		super(context);
+	}
+
+	@Override
+	public ListAdapter getAdapter() {
+		return adapter;
+	}
+
+	@Override
+	public void setAdapter(ListAdapter adapter) {
+		this.adapter = adapter;
+	}
+
+	public void setFastScrollEnabled(boolean enabled) {
+		fastScrollEnabled = enabled;
+	}
+
+	public boolean isFastScrollEnabled() {
+		return fastScrollEnabled;
+	}
+}
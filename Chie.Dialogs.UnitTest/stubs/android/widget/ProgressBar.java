@@ -0,0 +1,51 @@
+package android.widget;
+
+import android.content.Context;
+import android.util.AttributeSet;
+import android.view.View;
+
+/**
+ * {@link ProgressBar}の代替実装です。 描画は行わず、進捗・最大値と、進捗の量を示すかどうかのみを保持します。
+ *
+ * @author 高見知英
+ */
+public class ProgressBar extends View {
+
+	private boolean indeterminate;
+
+	private int max = 100;
+
+	private int progress;
+
+	public ProgressBar(Context context) {
+		this(context, null, 0);
+	}
+
+	public ProgressBar(Context context, AttributeSet attrs, int defStyle) {
+		super(context);
+	}
+
+	public synchronized void setIndeterminate(boolean indeterminate) {
+		this.indeterminate = indeterminate;
+	}
+
+	public synchronized boolean isIndeterminate() {
+		return indeterminate;
+	}
+
+	public synchronized void setMax(int max) {
+		this.max = max;
+	}
+
+	public synchronized int getMax() {
+		return max;
+	}
+
+	public synchronized void setProgress(int progress) {
+		this.progress = progress;
+	}
+
+	public synchronized int getProgress() {
+		return progress;
+	}
+}
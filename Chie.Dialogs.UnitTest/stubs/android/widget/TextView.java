@@ -0,0 +1,57 @@
+package android.widget;
+
+import android.content.Context;
+import android.view.View;
+
+/**
+ * {@link TextView}の代替実装です。 表示文字列のみを保持します。
+ *
+ * @author 高見知英
+ */
+public class TextView extends View {
+
+	private CharSequence text = "";
+
+	private int inputType;
+
+	public TextView(Context context) {
+		super(context);
+	}
+
+	public final void setText(CharSequence text) {
+		this.text = createText(text != null ? text : "");
+	}
+
+	public final void setText(int resid) {
+		setText(getContext().getResources().getText(resid));
+	}
+
+	/**
+	 * 保持する文字列を生成します。
+	 */
+	CharSequence createText(CharSequence text) {
+		return text;
+	}
+
+	public CharSequence getText() {
+		return text;
+	}
+
+	public int length() {
+		return text.length();
+	}
+
+	public void setEms(int ems) {
+	}
+
+	public void setTextAppearance(Context context, int resid) {
+	}
+
+	public void setInputType(int type) {
+		this.inputType = type;
+	}
+
+	public int getInputType() {
+		return inputType;
+	}
+}
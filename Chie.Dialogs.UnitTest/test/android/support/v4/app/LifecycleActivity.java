@@ -0,0 +1,235 @@
+package android.support.v4.app;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import net.onpu_tamago.libs.dialogs.DialogCallbackProvider;
+import net.onpu_tamago.libs.dialogs.Dialogs.DialogCallback;
+import android.os.Bundle;
+import android.os.Looper;
+import android.os.Parcelable;
+
+/**
+ * システムの代わりにライフサイクルのメソッドを呼び出す{@link FragmentActivity}です。
+ * サポートライブラリの{@link FragmentManager}をそのまま動作させます。
+ * <p>
+ * 画面回転は、実機と同様に状態の保存・構成変更をまたぐフラグメントの受け渡しを経て
+ * 新しいオブジェクトを生成します。 プロセスの再生成は、保存した状態のみから新しいオブジェクトを生成します。
+ * 各メソッドは、メインスレッドに投稿されたメッセージも処理してから戻ります。
+ * </p>
+ *
+ * @author 高見知英
+ */
+public class LifecycleActivity extends FragmentActivity implements
+		DialogCallbackProvider {
+
+	private final HashMap<String, DialogCallback> callbacks = new HashMap<String, DialogCallback>();
+
+	private Object lastNonConfigurationInstance;
+
+	private boolean resumed;
+
+	/**
+	 * 生成し、表示中の状態とします。
+	 *
+	 * @return アクティビティ。
+	 */
+	public static LifecycleActivity launch() {
+		// 生成の際にHandlerを作るため、呼び出したスレッドをメインスレッドとしておく
+		Looper.getMainLooper();
+		LifecycleActivity activity = new LifecycleActivity();
+		activity.create(null, null);
+		activity.resume();
+		return activity;
+	}
+
+	private void create(Bundle savedInstanceState, Object nonConfig) {
+		lastNonConfigurationInstance = nonConfig;
+		onCreate(savedInstanceState);
+		onStart();
+		idle();
+	}
+
+	/**
+	 * 再開します。 停止している場合は開始から行います。
+	 */
+	public void resume() {
+		if (mStopped) {
+			onStart();
+		}
+		onResume();
+		onPostResume();
+		resumed = true;
+		idle();
+	}
+
+	/**
+	 * 一時停止し、状態を保存して停止します。 他のアクティビティが表示された場合に相当します。
+	 *
+	 * @return 保存した状態。
+	 */
+	public Bundle moveToBackground() {
+		pauseIfResumed();
+		Bundle outState = new Bundle();
+		onSaveInstanceState(outState);
+		onStop();
+		idle();
+		return outState;
+	}
+
+	/**
+	 * 一時停止し、状態を保存します。停止はしません。
+	 *
+	 * @return 保存した状態。
+	 */
+	public Bundle pauseAndSave() {
+		pauseIfResumed();
+		Bundle outState = new Bundle();
+		onSaveInstanceState(outState);
+		return outState;
+	}
+
+	private void pauseIfResumed() {
+		if (resumed) {
+			resumed = false;
+			onPause();
+		}
+	}
+
+	/**
+	 * 画面を回転します。 このオブジェクトは破棄されます。
+	 *
+	 * @return 新しいアクティビティ。
+	 */
+	public LifecycleActivity rotate() {
+		Bundle state = mStopped ? null : moveToBackground();
+		if (state == null) {
+			state = new Bundle();
+			onSaveInstanceState(state);
+		}
+		Object nonConfig = onRetainNonConfigurationInstance();
+		onDestroy();
+		idle();
+		LifecycleActivity next = newInstance();
+		next.create(state, nonConfig);
+		next.resume();
+		return next;
+	}
+
+	/**
+	 * 終了します。 このオブジェクトは破棄されます。
+	 */
+	public void finishAndDestroy() {
+		finish();
+		pauseIfResumed();
+		if (!mStopped) {
+			onStop();
+		}
+		onDestroy();
+		idle();
+	}
+
+	/**
+	 * 保存した状態から、プロセスの再生成後のアクティビティを生成します。
+	 *
+	 * @param savedInstanceState
+	 *            {@link #moveToBackground()}で保存した状態。
+	 * @param callbacks
+	 *            新しいアクティビティが提供するコールバック。
+	 * @return 新しいアクティビティ。
+	 */
+	public static LifecycleActivity restore(Bundle savedInstanceState,
+			HashMap<String, DialogCallback> callbacks) {
+		Looper.getMainLooper();
+		LifecycleActivity activity = new LifecycleActivity();
+		if (callbacks != null) {
+			activity.callbacks.putAll(callbacks);
+		}
+		activity.create(savedInstanceState, null);
+		activity.resume();
+		return activity;
+	}
+
+	/**
+	 * 保存した状態に含まれる、フラグメントの引数を取得します。
+	 *
+	 * @param savedInstanceState
+	 *            {@link #moveToBackground()}で保存した状態。
+	 * @return フラグメントの引数。
+	 */
+	public static ArrayList<Bundle> getSavedArguments(Bundle savedInstanceState) {
+		ArrayList<Bundle> arguments = new ArrayList<Bundle>();
+		Parcelable p = savedInstanceState.getParcelable(FRAGMENTS_TAG);
+		if (p instanceof FragmentManagerState) {
+			for (FragmentState fs : ((FragmentManagerState) p).mActive) {
+				if (fs != null && fs.mArguments != null) {
+					arguments.add(fs.mArguments);
+				}
+			}
+		}
+		return arguments;
+	}
+
+	private LifecycleActivity newInstance() {
+		LifecycleActivity next = new LifecycleActivity();
+		// アプリケーションのコードが、新しいアクティビティでも同じコールバックを提供する
+		next.callbacks.putAll(callbacks);
+		return next;
+	}
+
+	/**
+	 * 追加されているフラグメントを取得します。
+	 *
+	 * @return フラグメント。
+	 */
+	public ArrayList<Fragment> getAddedFragments() {
+		return mFragments.mAdded != null ? new ArrayList<Fragment>(
+				mFragments.mAdded) : new ArrayList<Fragment>();
+	}
+
+	/**
+	 * 追加されているフラグメントのうち、指定したクラスのものを取得します。
+	 *
+	 * @param type
+	 *            クラス。
+	 * @return フラグメント。追加された順となります。
+	 */
+	public <T extends Fragment> ArrayList<T> getFragments(Class<T> type) {
+		ArrayList<T> result = new ArrayList<T>();
+		for (Fragment f : getAddedFragments()) {
+			if (type.isInstance(f)) {
+				result.add(type.cast(f));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * 復元されたダイアログに再び関連付けるコールバックを登録します。
+	 *
+	 * @param key
+	 *            コールバックのキー。
+	 * @param callback
+	 *            コールバック。
+	 */
+	public void putCallback(String key, DialogCallback callback) {
+		callbacks.put(key, callback);
+	}
+
+	@Override
+	public DialogCallback getDialogCallback(String key) {
+		return callbacks.get(key);
+	}
+
+	@Override
+	public Object getLastNonConfigurationInstance() {
+		return lastNonConfigurationInstance;
+	}
+
+	/**
+	 * メインスレッドに投稿されたメッセージを処理します。
+	 */
+	public static void idle() {
+		Looper.getMainLooper().idle();
+	}
+}
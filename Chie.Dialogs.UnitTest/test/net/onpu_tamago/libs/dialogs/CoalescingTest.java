@@ -0,0 +1,184 @@
+package net.onpu_tamago.libs.dialogs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import android.app.AlertDialog;
+import android.content.DialogInterface;
+import android.support.v4.app.FragmentManager;
+import android.support.v4.app.LifecycleActivity;
+
+/**
+ * {@link Dialogs#setCoalescing(boolean)}による、同一のダイアログに対する表示要求の統合のテストです。
+ *
+ * @author 高見知英
+ */
+public class CoalescingTest {
+
+	private LifecycleActivity activity;
+
+	private FragmentManager manager;
+
+	private int registrySize;
+
+	@Before
+	public void setUp() {
+		activity = LifecycleActivity.launch();
+		manager = activity.getSupportFragmentManager();
+		registrySize = Dialogs.registry.size();
+		Dialogs.setCoalescing(true);
+	}
+
+	@After
+	public void tearDown() {
+		Dialogs.setCoalescing(false);
+		if (!activity.isFinishing()) {
+			activity.finishAndDestroy();
+		}
+	}
+
+	private static DialogSpec alert(String message) {
+		return new DialogSpec.Builder().title("title").message(message)
+				.buttons(Dialogs.DIALOGBUTTON_POSITIVE).build();
+	}
+
+	private static DialogSpec withId(int id, String message) {
+		return new DialogSpec.Builder().id(id).title("title").message(message)
+				.buttons(Dialogs.DIALOGBUTTON_POSITIVE).build();
+	}
+
+	private List<InternalDialogFragment> shown() {
+		LifecycleActivity.idle();
+		return activity.getFragments(InternalDialogFragment.class);
+	}
+
+	private void clickPositive() {
+		List<InternalDialogFragment> dialogs = shown();
+		assertEquals(1, dialogs.size());
+		((AlertDialog) dialogs.get(0).getDialog())
+				.performClick(DialogInterface.BUTTON_POSITIVE);
+		LifecycleActivity.idle();
+	}
+
+	@Test
+	public void duplicatesShareOneDialog() {
+		DialogScenario.Recorder[] recorders = new DialogScenario.Recorder[3];
+		for (int i = 0; i < recorders.length; i++) {
+			recorders[i] = new DialogScenario.Recorder();
+			Dialogs.showDialog(manager, alert("message"), recorders[i], null);
+		}
+		assertEquals(1, shown().size());
+		assertEquals(registrySize + 1, Dialogs.registry.size());
+
+		clickPositive();
+		// 統合されたコールバックにも、統合された数とともに結果が通知される
+		for (DialogScenario.Recorder recorder : recorders) {
+			assertEquals(2, recorder.single().getInt(
+					Dialogs.PARAMS_MERGEDCOUNT));
+			assertEquals("[positive]", recorder.methods.toString());
+		}
+		assertEquals(registrySize, Dialogs.registry.size());
+	}
+
+	@Test
+	public void sameIdMergesDifferentContent() {
+		DialogScenario.Recorder first = new DialogScenario.Recorder();
+		DialogScenario.Recorder second = new DialogScenario.Recorder();
+		Dialogs.showDialog(manager, withId(7, "first"), first, null);
+		Dialogs.showDialog(manager, withId(7, "second"), second, null);
+		List<InternalDialogFragment> dialogs = shown();
+		assertEquals(1, dialogs.size());
+		assertEquals("first", String.valueOf(((AlertDialog) dialogs.get(0)
+				.getDialog()).getMessage()));
+
+		clickPositive();
+		assertEquals(1, first.single().getInt(Dialogs.PARAMS_MERGEDCOUNT));
+		assertEquals(1, second.single().getInt(Dialogs.PARAMS_MERGEDCOUNT));
+	}
+
+	@Test
+	public void differentDialogsAreNotMerged() {
+		Dialogs.showDialog(manager, alert("first"), null, null);
+		Dialogs.showDialog(manager, alert("second"), null, null);
+		Dialogs.showDialog(manager, withId(1, "first"), null, null);
+		assertEquals(3, shown().size());
+		assertEquals(registrySize + 3, Dialogs.registry.size());
+	}
+
+	@Test
+	public void disabledCoalescingShowsEveryRequest() {
+		Dialogs.setCoalescing(false);
+		DialogScenario.Recorder recorder = new DialogScenario.Recorder();
+		Dialogs.showDialog(manager, alert("message"), recorder, null);
+		Dialogs.showDialog(manager, alert("message"), null, null);
+		assertEquals(2, shown().size());
+		((AlertDialog) shown().get(0).getDialog())
+				.performClick(DialogInterface.BUTTON_POSITIVE);
+		LifecycleActivity.idle();
+		// 統合しない場合は格納されない
+		assertFalse(recorder.single().containsKey(Dialogs.PARAMS_MERGEDCOUNT));
+	}
+
+	@Test
+	public void mergedFuturesAllComplete() {
+		DialogFuture<DialogResult> first = Dialogs.showDialogAsync(manager,
+				alert("message"));
+		DialogFuture<DialogResult> second = Dialogs.showDialogAsync(manager,
+				alert("message"));
+		clickPositive();
+		assertTrue(first.isDone());
+		assertTrue(second.isDone());
+		assertEquals(Dialogs.BUTTON_POSITIVE, first.getNow().getButton());
+		assertEquals(Dialogs.BUTTON_POSITIVE, second.getNow().getButton());
+		assertEquals(1, second.getNow().getMergedCount());
+	}
+
+	@Test
+	public void cancellingMergedFutureUnmergesIt() {
+		DialogFuture<DialogResult> first = Dialogs.showDialogAsync(manager,
+				alert("message"));
+		DialogFuture<DialogResult> second = Dialogs.showDialogAsync(manager,
+				alert("message"));
+		assertEquals(1, shown().size());
+
+		assertTrue(second.cancel());
+		// 統合先のダイアログは閉じず、統合された数から外す
+		assertEquals(1, shown().size());
+		assertFalse(first.isDone());
+		clickPositive();
+		assertEquals(0, first.getNow().getMergedCount());
+		assertTrue(second.isCancelled());
+		assertEquals(registrySize, Dialogs.registry.size());
+	}
+
+	@Test
+	public void cancellingOriginalFutureReleasesMergedOnes() {
+		DialogFuture<DialogResult> first = Dialogs.showDialogAsync(manager,
+				alert("message"));
+		DialogFuture<DialogResult> second = Dialogs.showDialogAsync(manager,
+				alert("message"));
+		shown();
+		// 統合先のダイアログが閉じられた場合は、統合されたDialogFutureも取り消される
+		assertTrue(first.cancel());
+		assertTrue(shown().isEmpty());
+		assertTrue(second.isCancelled());
+		assertEquals(registrySize, Dialogs.registry.size());
+	}
+
+	@Test
+	public void closedDialogIsNotMergedInto() {
+		Dialogs.showDialog(manager, alert("message"), null, null);
+		clickPositive();
+		DialogScenario.Recorder recorder = new DialogScenario.Recorder();
+		Dialogs.showDialog(manager, alert("message"), recorder, null);
+		clickPositive();
+		assertEquals(0, recorder.single().getInt(Dialogs.PARAMS_MERGEDCOUNT));
+	}
+}
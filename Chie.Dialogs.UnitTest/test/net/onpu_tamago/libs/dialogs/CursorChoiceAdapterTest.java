@@ -0,0 +1,398 @@
+package net.onpu_tamago.libs.dialogs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import android.app.Activity;
+import android.database.Cursor;
+import android.database.DataSetObserver;
+import android.os.Looper;
+
+/**
+ * {@link CursorChoiceAdapter}のクエリの実行と、{@link Cursor}の差し替え・解放のテストです。
+ *
+ * @author 高見知英
+ */
+public class CursorChoiceAdapterTest {
+
+	/**
+	 * 行の配列を返す{@link Cursor}です。 閉じられたかどうかと、操作したスレッドを記録します。
+	 */
+	static final class FakeCursor implements InvocationHandler {
+
+		final String[] columns;
+		final Object[][] rows;
+		final List<Thread> threads = new ArrayList<Thread>();
+		int position = -1;
+		boolean closed;
+
+		FakeCursor(String[] columns, Object[]... rows) {
+			this.columns = columns;
+			this.rows = rows;
+		}
+
+		Cursor newProxy() {
+			return (Cursor) Proxy.newProxyInstance(
+					Cursor.class.getClassLoader(),
+					new Class<?>[] { Cursor.class }, this);
+		}
+
+		@Override
+		public synchronized Object invoke(Object proxy, Method method,
+				Object[] args) {
+			String name = method.getName();
+			if (!name.equals("isClosed") && !name.equals("close")) {
+				threads.add(Thread.currentThread());
+				if (closed) {
+					throw new IllegalStateException("closed");
+				}
+			}
+			if (name.equals("getCount")) {
+				return rows.length;
+			} else if (name.equals("getColumnIndex")) {
+				return Arrays.asList(columns).indexOf(args[0]);
+			} else if (name.equals("getColumnIndexOrThrow")) {
+				int index = Arrays.asList(columns).indexOf(args[0]);
+				if (index < 0) {
+					throw new IllegalArgumentException("no column " + args[0]);
+				}
+				return index;
+			} else if (name.equals("moveToPosition")) {
+				int p = (Integer) args[0];
+				if (p < 0 || p >= rows.length) {
+					return false;
+				}
+				position = p;
+				return true;
+			} else if (name.equals("getString")) {
+				return (String) rows[position][(Integer) args[0]];
+			} else if (name.equals("getLong")) {
+				return ((Number) rows[position][(Integer) args[0]]).longValue();
+			} else if (name.equals("isClosed")) {
+				return closed;
+			} else if (name.equals("close")) {
+				closed = true;
+				return null;
+			} else if (name.equals("hashCode")) {
+				return System.identityHashCode(proxy);
+			} else if (name.equals("equals")) {
+				return proxy == args[0];
+			}
+			throw new UnsupportedOperationException(name);
+		}
+	}
+
+	/**
+	 * 投入されたタスクを、テストから指示された時点でワーカースレッドで実行します。
+	 */
+	static final class ManualExecutor implements Executor {
+
+		final ArrayList<Runnable> tasks = new ArrayList<Runnable>();
+
+		@Override
+		public synchronized void execute(Runnable command) {
+			tasks.add(command);
+		}
+
+		synchronized int size() {
+			return tasks.size();
+		}
+
+		void runAll() throws InterruptedException {
+			final ArrayList<Runnable> batch;
+			synchronized (this) {
+				batch = new ArrayList<Runnable>(tasks);
+				tasks.clear();
+			}
+			Thread worker = new Thread("query") {
+				@Override
+				public void run() {
+					for (Runnable task : batch) {
+						task.run();
+					}
+				}
+			};
+			worker.start();
+			worker.join();
+		}
+	}
+
+	/**
+	 * 用意した{@link Cursor}を順に返すデータソースです。
+	 */
+	static final class QueuedSource extends CursorChoiceSource {
+
+		final ArrayList<Object> results = new ArrayList<Object>();
+		final ArrayList<RuntimeException> failures = new ArrayList<RuntimeException>();
+		Thread queryThread;
+		Thread failureThread;
+
+		QueuedSource() {
+			super("label");
+		}
+
+		synchronized void add(Object result) {
+			results.add(result);
+		}
+
+		@Override
+		protected synchronized Cursor query() {
+			queryThread = Thread.currentThread();
+			Object result = results.remove(0);
+			if (result instanceof RuntimeException) {
+				throw (RuntimeException) result;
+			}
+			return ((FakeCursor) result).newProxy();
+		}
+
+		@Override
+		protected void onQueryFailed(RuntimeException e) {
+			failureThread = Thread.currentThread();
+			failures.add(e);
+		}
+	}
+
+	static final class CountingObserver extends DataSetObserver {
+
+		int changed;
+		int invalidated;
+
+		@Override
+		public void onChanged() {
+			changed++;
+		}
+
+		@Override
+		public void onInvalidated() {
+			invalidated++;
+		}
+	}
+
+	private static final String[] COLUMNS = { "_id", "label" };
+
+	private final Looper main = Looper.getMainLooper();
+
+	private final ManualExecutor executor = new ManualExecutor();
+
+	private final QueuedSource source = new QueuedSource();
+
+	private final CountingObserver observer = new CountingObserver();
+
+	@Before
+	public void setUp() {
+		main.idle();
+	}
+
+	@After
+	public void tearDown() {
+		main.reset();
+	}
+
+	private CursorChoiceAdapter newAdapter() {
+		CursorChoiceAdapter adapter = new CursorChoiceAdapter(new Activity(),
+				source, executor);
+		adapter.registerDataSetObserver(observer);
+		return adapter;
+	}
+
+	private static FakeCursor rows(String... labels) {
+		Object[][] rows = new Object[labels.length][];
+		for (int i = 0; i < labels.length; i++) {
+			rows[i] = new Object[] { Long.valueOf(100 + i), labels[i] };
+		}
+		return new FakeCursor(COLUMNS, rows);
+	}
+
+	@Test
+	public void queryRunsInBackgroundAndIsReadOnMainThread()
+			throws Exception {
+		FakeCursor cursor = rows("a", "b", "c");
+		source.add(cursor);
+		CursorChoiceAdapter adapter = newAdapter();
+		assertEquals(1, executor.size());
+		assertEquals(0, adapter.getCount());
+
+		executor.runAll();
+		assertTrue(source.queryThread != Thread.currentThread());
+		// 結果はメインスレッドで差し替えるまで表示されない
+		assertEquals(0, adapter.getCount());
+		main.idle();
+		assertEquals(1, observer.changed);
+		assertEquals(3, adapter.getCount());
+		assertEquals("b", adapter.getChoice(1));
+		assertEquals("b", adapter.getItem(1));
+		assertEquals(102, adapter.getRowId(2));
+		assertEquals(102, adapter.getItemId(2));
+		assertTrue(adapter.hasStableIds());
+		assertNull(adapter.getChoice(3));
+		assertEquals(-1, adapter.getRowId(-1));
+
+		// ウィンドウへの読み込みはワーカースレッド、行の読み出しはメインスレッドで行う
+		assertSame(source.queryThread, cursor.threads.get(0));
+		int firstMain = cursor.threads.indexOf(Thread.currentThread());
+		assertTrue(firstMain > 0);
+		for (int i = firstMain; i < cursor.threads.size(); i++) {
+			assertSame(Thread.currentThread(), cursor.threads.get(i));
+		}
+		adapter.release();
+		assertTrue(cursor.closed);
+	}
+
+	@Test
+	public void requeryReplacesAndClosesOldCursor() throws Exception {
+		FakeCursor first = rows("a");
+		FakeCursor second = rows("x", "y");
+		source.add(first);
+		source.add(second);
+		CursorChoiceAdapter adapter = newAdapter();
+		executor.runAll();
+		main.idle();
+
+		// どのスレッドからでも再クエリできる
+		Thread caller = new Thread() {
+			@Override
+			public void run() {
+				source.requery();
+			}
+		};
+		caller.start();
+		caller.join();
+		assertEquals(0, executor.size());
+		main.idle();
+		executor.runAll();
+		// 差し替えるまでは古い結果を表示し続ける
+		assertEquals("a", adapter.getChoice(0));
+		assertFalse(first.closed);
+		main.idle();
+		assertEquals(2, adapter.getCount());
+		assertEquals("y", adapter.getChoice(1));
+		assertTrue(first.closed);
+		assertFalse(second.closed);
+		assertEquals(2, observer.changed);
+		adapter.release();
+	}
+
+	@Test
+	public void staleResultIsClosedAndDropped() throws Exception {
+		FakeCursor stale = rows("old");
+		FakeCursor fresh = rows("new");
+		source.add(stale);
+		source.add(fresh);
+		CursorChoiceAdapter adapter = newAdapter();
+		// 最初のクエリが完了する前に再クエリする
+		adapter.requery();
+		main.idle();
+		assertEquals(2, executor.size());
+		executor.runAll();
+		main.idle();
+		assertTrue(stale.closed);
+		assertFalse(fresh.closed);
+		assertEquals(1, adapter.getCount());
+		assertEquals("new", adapter.getChoice(0));
+		assertEquals(1, observer.changed);
+		adapter.release();
+	}
+
+	@Test
+	public void releaseDiscardsInFlightQuery() throws Exception {
+		FakeCursor shown = rows("a");
+		FakeCursor inFlight = rows("b");
+		source.add(shown);
+		source.add(inFlight);
+		CursorChoiceAdapter adapter = newAdapter();
+		executor.runAll();
+		main.idle();
+		source.requery();
+		main.idle();
+		executor.runAll();
+
+		adapter.release();
+		assertTrue(shown.closed);
+		assertEquals(0, adapter.getCount());
+		main.idle();
+		// 解放後に届いた結果は閉じられる
+		assertTrue(inFlight.closed);
+		assertEquals(0, adapter.getCount());
+
+		// 解放後は再クエリしない
+		source.requery();
+		adapter.requery();
+		main.idle();
+		assertEquals(0, executor.size());
+	}
+
+	@Test
+	public void failedQueryEmptiesChoices() throws Exception {
+		FakeCursor shown = rows("a", "b");
+		source.add(shown);
+		IllegalStateException error = new IllegalStateException("db locked");
+		source.add(error);
+		CursorChoiceAdapter adapter = newAdapter();
+		executor.runAll();
+		main.idle();
+		source.requery();
+		main.idle();
+		executor.runAll();
+		main.idle();
+
+		assertEquals(0, adapter.getCount());
+		assertNull(adapter.getChoice(0));
+		assertEquals(1, observer.invalidated);
+		assertTrue(shown.closed);
+		assertEquals(1, source.failures.size());
+		assertSame(error, source.failures.get(0));
+		assertSame(Thread.currentThread(), source.failureThread);
+
+		// 再試行すれば再び表示できる
+		source.add(rows("c"));
+		source.requery();
+		main.idle();
+		executor.runAll();
+		main.idle();
+		assertEquals("c", adapter.getChoice(0));
+		adapter.release();
+	}
+
+	@Test
+	public void missingLabelColumnIsTreatedAsFailure() throws Exception {
+		FakeCursor wrong = new FakeCursor(new String[] { "_id", "name" },
+				new Object[] { 1L, "a" });
+		source.add(wrong);
+		CursorChoiceAdapter adapter = newAdapter();
+		executor.runAll();
+		main.idle();
+		assertTrue(wrong.closed);
+		assertEquals(0, adapter.getCount());
+		assertEquals(1, source.failures.size());
+		assertTrue(source.failures.get(0) instanceof IllegalArgumentException);
+		adapter.release();
+	}
+
+	@Test
+	public void positionIsUsedWithoutIdColumn() throws Exception {
+		source.add(new FakeCursor(new String[] { "label" },
+				new Object[] { "a" }, new Object[] { "b" }));
+		CursorChoiceAdapter adapter = newAdapter();
+		executor.runAll();
+		main.idle();
+		assertFalse(adapter.hasStableIds());
+		assertEquals(-1, adapter.getRowId(1));
+		assertEquals(1, adapter.getItemId(1));
+		adapter.release();
+	}
+}
@@ -0,0 +1,166 @@
+package net.onpu_tamago.libs.dialogs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.onpu_tamago.libs.dialogs.DialogScenario.Recorder;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.support.v4.app.LifecycleActivity;
+
+/**
+ * {@link Dialogs#showDialogDeferred(android.support.v4.app.FragmentManager, DialogSpec, Dialogs.DialogCallback, long, long)}
+ * の猶予時間・最低表示時間と、猶予時間の間の画面回転・アクティビティの終了のテストです。
+ *
+ * @author 高見知英
+ */
+public class DeferredDialogTest {
+
+	private static final long GRACE_PERIOD = 500;
+
+	private static final long MIN_DISPLAY_TIME = 1000;
+
+	private final Looper main = Looper.getMainLooper();
+
+	private final ArrayList<LifecycleActivity> activities = new ArrayList<LifecycleActivity>();
+
+	private final Recorder recorder = new Recorder();
+
+	private LifecycleActivity activity;
+
+	private int registrySize;
+
+	@Before
+	public void setUp() {
+		activity = LifecycleActivity.launch();
+		activities.add(activity);
+		registrySize = Dialogs.registry.size();
+	}
+
+	@After
+	public void tearDown() {
+		for (LifecycleActivity activity : activities) {
+			if (!activity.isFinishing()) {
+				activity.finishAndDestroy();
+			}
+		}
+		main.reset();
+	}
+
+	private DeferredHandle show() {
+		return Dialogs.showDialogDeferred(activity.getSupportFragmentManager(),
+				new DialogSpec.Builder().title("title").message("loading")
+						.build(), recorder, GRACE_PERIOD, MIN_DISPLAY_TIME);
+	}
+
+	private List<InternalDialogFragment> shown() {
+		LifecycleActivity.idle();
+		return activity.getFragments(InternalDialogFragment.class);
+	}
+
+	private void rotate() {
+		activities.remove(activity);
+		activity = activity.rotate();
+		activities.add(activity);
+	}
+
+	/**
+	 * 閉じられ、コールバックを呼び出さずにデータが削除されたことを確認します。
+	 */
+	private void assertClosed() {
+		assertTrue(shown().isEmpty());
+		assertTrue(recorder.results.isEmpty());
+		assertEquals(registrySize, Dialogs.registry.size());
+	}
+
+	@Test
+	public void completeWithinGracePeriodShowsNothing() {
+		DeferredHandle handle = show();
+		main.idleFor(GRACE_PERIOD - 1);
+		handle.complete();
+		main.idleFor(GRACE_PERIOD);
+		assertFalse(handle.isShown());
+		assertTrue(handle.isCompleted());
+		assertClosed();
+	}
+
+	@Test
+	public void showsAfterGracePeriod() {
+		DeferredHandle handle = show();
+		main.idleFor(GRACE_PERIOD - 1);
+		assertTrue(shown().isEmpty());
+		main.idleFor(1);
+		assertTrue(handle.isShown());
+		assertEquals(1, shown().size());
+		assertEquals(registrySize + 1, Dialogs.registry.size());
+	}
+
+	@Test
+	public void completeAfterFirstDrawWaitsMinDisplayTime() {
+		DeferredHandle handle = show();
+		main.idleFor(GRACE_PERIOD);
+		assertEquals(1, shown().size());
+		main.idleFor(300);
+		handle.complete();
+		// 最低表示時間は、描画された時点から数える
+		main.idleFor(MIN_DISPLAY_TIME - 301);
+		assertEquals(1, shown().size());
+		main.idleFor(1);
+		assertClosed();
+	}
+
+	@Test
+	public void completeBeforeFirstDrawClosesAtOnce() {
+		final DeferredHandle handle = show();
+		// 表示を要求した直後、ダイアログが描画される前に完了する
+		new Handler(main).postDelayed(new Runnable() {
+			@Override
+			public void run() {
+				assertTrue(handle.isShown());
+				handle.complete();
+			}
+		}, GRACE_PERIOD);
+		main.idleFor(GRACE_PERIOD);
+		assertTrue(handle.isShown());
+		assertClosed();
+	}
+
+	@Test
+	public void rotationDuringGracePeriodShowsOnNewActivity() {
+		DeferredHandle handle = show();
+		main.idleFor(GRACE_PERIOD / 2);
+		rotate();
+		main.idleFor(GRACE_PERIOD / 2);
+		// 回転前のFragmentManagerではなく、回転後の画面に表示する
+		assertTrue(handle.isShown());
+		assertEquals(1, shown().size());
+		assertEquals(registrySize + 1, Dialogs.registry.size());
+
+		handle.complete();
+		main.idleFor(MIN_DISPLAY_TIME);
+		assertClosed();
+	}
+
+	@Test
+	public void finishingActivityDuringGracePeriodDropsRequest() {
+		DeferredHandle handle = show();
+		main.idleFor(GRACE_PERIOD / 2);
+		activity.finishAndDestroy();
+		main.idleFor(GRACE_PERIOD);
+		// 表示できなかった場合は、表示したものとして扱わない
+		assertFalse(handle.isShown());
+		assertEquals(registrySize, Dialogs.registry.size());
+		handle.complete();
+		LifecycleActivity.idle();
+		assertTrue(recorder.results.isEmpty());
+	}
+}
@@ -0,0 +1,222 @@
+package net.onpu_tamago.libs.dialogs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import android.support.v4.app.Fragment;
+import android.support.v4.app.FragmentManager;
+import android.support.v4.app.LifecycleActivity;
+
+/**
+ * {@link Dialogs#batch(FragmentManager)}により、複数のダイアログとその他のフラグメント操作が
+ * 一つのトランザクションで表示されること、状態の保存後は再開まで保持されることのテストです。
+ *
+ * @author 高見知英
+ */
+public class DialogBatchTest {
+
+	private static final String OTHER_TAG = "other";
+
+	private final ArrayList<LifecycleActivity> activities = new ArrayList<LifecycleActivity>();
+
+	private int registrySize;
+
+	@Before
+	public void setUp() {
+		LifecycleActivity.idle();
+		registrySize = Dialogs.registry.size();
+	}
+
+	@After
+	public void tearDown() {
+		Dialogs.setMetricsListener(null);
+		for (LifecycleActivity activity : activities) {
+			if (!activity.isFinishing()) {
+				activity.finishAndDestroy();
+			}
+		}
+	}
+
+	private LifecycleActivity launch() {
+		LifecycleActivity activity = LifecycleActivity.launch();
+		activities.add(activity);
+		return activity;
+	}
+
+	private static DialogSpec spec(int id) {
+		return new DialogSpec.Builder().id(id).title("title")
+				.message("message").buttons(Dialogs.DIALOGBUTTON_POSITIVE)
+				.build();
+	}
+
+	/**
+	 * 3つのダイアログと、ダイアログ以外のフラグメントの追加をまとめます。
+	 */
+	private static DialogBatch batchOfThree(FragmentManager manager) {
+		DialogBatch batch = Dialogs.batch(manager).showDialog(spec(1), null)
+				.showDialog(spec(2), null).showDialog(spec(3), null);
+		batch.getTransaction().add(new Fragment(), OTHER_TAG);
+		return batch;
+	}
+
+	private static List<Integer> shownIds(LifecycleActivity activity) {
+		ArrayList<Integer> ids = new ArrayList<Integer>();
+		for (InternalDialogFragment dialog : activity
+				.getFragments(InternalDialogFragment.class)) {
+			assertTrue(dialog.getDialog().isShowing());
+			ids.add(dialog.getArguments().getInt(Dialogs.ALERT_ID));
+		}
+		return ids;
+	}
+
+	@Test
+	public void commitsEverythingInOneTransaction() {
+		LifecycleActivity activity = launch();
+		FragmentManager manager = activity.getSupportFragmentManager();
+		DialogBatch batch = batchOfThree(manager);
+		batch.getTransaction().addToBackStack("batch");
+		// コミットするまでは表示されない
+		LifecycleActivity.idle();
+		assertTrue(shownIds(activity).isEmpty());
+		batch.commit();
+		LifecycleActivity.idle();
+
+		assertEquals("[1, 2, 3]", shownIds(activity).toString());
+		assertNotNull(manager.findFragmentByTag(OTHER_TAG));
+		assertEquals(registrySize + 3, Dialogs.registry.size());
+		// 一つのトランザクションのため、戻る操作でまとめて取り消される
+		assertEquals(1, manager.getBackStackEntryCount());
+		manager.popBackStack();
+		LifecycleActivity.idle();
+		assertTrue(shownIds(activity).isEmpty());
+		assertNull(manager.findFragmentByTag(OTHER_TAG));
+		assertEquals(registrySize, Dialogs.registry.size());
+	}
+
+	@Test
+	public void requestsAfterBatchAreNotHeld() {
+		LifecycleActivity activity = launch();
+		FragmentManager manager = activity.getSupportFragmentManager();
+		PendingQueue queue = Dialogs.getPendingQueue();
+		int deferred = queue.getDeferredCount();
+		batchOfThree(manager).commit();
+		// 表示先の追加後、再開を待たずに要求しても保持しない
+		Dialogs.showDialog(manager, spec(4), null, null);
+		Dialogs.batch(manager).showDialog(spec(5), null).commit();
+		assertEquals(0, queue.getPendingCount(manager));
+		assertEquals(deferred, queue.getDeferredCount());
+		LifecycleActivity.idle();
+		assertEquals("[1, 2, 3, 4, 5]", shownIds(activity).toString());
+	}
+
+	@Test
+	public void registersAllBeforeCommitting() {
+		LifecycleActivity activity = launch();
+		final ArrayList<Integer> sizes = new ArrayList<Integer>();
+		final ArrayList<Integer> requested = new ArrayList<Integer>();
+		Dialogs.setMetricsListener(new DialogMetricsListener() {
+			@Override
+			public void onDialogEvent(int stage, int key, int dialogId,
+					int type, long timeNanos) {
+				if (stage == STAGE_REQUESTED) {
+					requested.add(dialogId);
+				} else if (stage == STAGE_COMMITTED) {
+					sizes.add(Dialogs.registry.size());
+				}
+			}
+		});
+		batchOfThree(activity.getSupportFragmentManager()).commit();
+		LifecycleActivity.idle();
+
+		assertEquals("[1, 2, 3]", requested.toString());
+		// レジストリへは一度に登録されるため、どのダイアログのコミット時点でもすべて登録済み
+		assertEquals(3, sizes.size());
+		for (int size : sizes) {
+			assertEquals(registrySize + 3, size);
+		}
+	}
+
+	@Test
+	public void commitFromWorkerThread() throws Exception {
+		LifecycleActivity activity = launch();
+		final DialogBatch batch = batchOfThree(activity
+				.getSupportFragmentManager());
+		Thread worker = new Thread() {
+			@Override
+			public void run() {
+				batch.commit();
+			}
+		};
+		worker.start();
+		worker.join();
+		assertTrue(shownIds(activity).isEmpty());
+		LifecycleActivity.idle();
+		assertEquals("[1, 2, 3]", shownIds(activity).toString());
+	}
+
+	@Test
+	public void committedBatchRejectsChanges() {
+		LifecycleActivity activity = launch();
+		DialogBatch batch = Dialogs.batch(activity.getSupportFragmentManager())
+				.showDialog(spec(1), null);
+		batch.commit();
+		try {
+			batch.commit();
+			fail();
+		} catch (IllegalStateException e) {
+			// 期待どおり
+		}
+		try {
+			batch.showDialog(spec(2), null);
+			fail();
+		} catch (IllegalStateException e) {
+			// 期待どおり
+		}
+		LifecycleActivity.idle();
+		assertEquals("[1]", shownIds(activity).toString());
+	}
+
+	@Test
+	public void batchAfterStateSaveIsCommittedOnResume() {
+		LifecycleActivity activity = launch();
+		activity.moveToBackground();
+		FragmentManager manager = activity.getSupportFragmentManager();
+		batchOfThree(manager).commit();
+		LifecycleActivity.idle();
+		// 状態の保存後はコミットできないため、トランザクションごと保持する
+		assertTrue(shownIds(activity).isEmpty());
+		assertNull(manager.findFragmentByTag(OTHER_TAG));
+
+		activity.resume();
+		assertEquals("[1, 2, 3]", shownIds(activity).toString());
+		assertNotNull(manager.findFragmentByTag(OTHER_TAG));
+		assertEquals(registrySize + 3, Dialogs.registry.size());
+	}
+
+	@Test
+	public void batchHeldAcrossRotationShowsOnlyDialogs() {
+		LifecycleActivity activity = launch();
+		activity.moveToBackground();
+		batchOfThree(activity.getSupportFragmentManager()).commit();
+		LifecycleActivity.idle();
+
+		activities.remove(activity);
+		LifecycleActivity rotated = activity.rotate();
+		activities.add(rotated);
+		// 作り直された表示先ではダイアログのみを表示し、その他の操作は破棄する
+		assertEquals("[1, 2, 3]", shownIds(rotated).toString());
+		assertNull(rotated.getSupportFragmentManager().findFragmentByTag(
+				OTHER_TAG));
+		assertEquals(registrySize + 3, Dialogs.registry.size());
+	}
+}
@@ -0,0 +1,381 @@
+package net.onpu_tamago.libs.dialogs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import android.support.v4.app.LifecycleActivity;
+
+/**
+ * {@link DialogFuture}の確定・リスナーへの通知・変換・取り消し・待機のテストです。
+ *
+ * @author 高見知英
+ */
+public class DialogFutureTest {
+
+	@Before
+	public void setUp() {
+		// このスレッドをメインスレッドとする
+		LifecycleActivity.idle();
+	}
+
+	/**
+	 * 通知された順を記録するリスナーです。
+	 */
+	private static final class OrderListener implements
+			DialogFuture.Listener<String> {
+
+		private final List<String> order;
+		private final String name;
+
+		OrderListener(List<String> order, String name) {
+			this.order = order;
+			this.name = name;
+		}
+
+		@Override
+		public void onComplete(DialogFuture<String> future) {
+			order.add(name + "=" + future.getNow());
+		}
+	}
+
+	/**
+	 * 実行を保留し、後でまとめて実行する{@link Executor}です。
+	 */
+	private static final class QueueExecutor implements Executor {
+
+		final ArrayList<Runnable> commands = new ArrayList<Runnable>();
+
+		@Override
+		public void execute(Runnable command) {
+			commands.add(command);
+		}
+
+		void runAll() {
+			for (Runnable command : commands) {
+				command.run();
+			}
+			commands.clear();
+		}
+	}
+
+	/**
+	 * 別のスレッドで値を取得し、結果または例外を返します。
+	 */
+	private static Object getOnWorker(final DialogFuture<String> future,
+			final long timeoutMillis, final boolean interrupt)
+			throws InterruptedException {
+		final AtomicReference<Object> outcome = new AtomicReference<Object>();
+		Thread worker = new Thread() {
+			@Override
+			public void run() {
+				try {
+					outcome.set(timeoutMillis < 0 ? future.get() : future.get(
+							timeoutMillis, TimeUnit.MILLISECONDS));
+				} catch (Throwable e) {
+					outcome.set(e);
+				}
+			}
+		};
+		worker.start();
+		if (interrupt) {
+			while (worker.getState() != Thread.State.WAITING) {
+				Thread.sleep(1);
+			}
+			worker.interrupt();
+		}
+		worker.join();
+		return outcome.get();
+	}
+
+	@Test
+	public void listenersAreNotifiedOnceInRegistrationOrder() {
+		DialogFuture<String> future = new DialogFuture<String>();
+		ArrayList<String> order = new ArrayList<String>();
+		future.addListener(new OrderListener(order, "a"), DialogFuture.DIRECT);
+		future.addListener(new OrderListener(order, "b"), DialogFuture.DIRECT);
+		assertFalse(future.isDone());
+		assertNull(future.getNow());
+
+		assertTrue(future.complete("v"));
+		assertFalse(future.complete("w"));
+		assertFalse(future.cancel());
+		assertEquals("[a=v, b=v]", order.toString());
+		// 確定後に登録したリスナーはすぐに通知される
+		future.addListener(new OrderListener(order, "c"), DialogFuture.DIRECT);
+		assertEquals("[a=v, b=v, c=v]", order.toString());
+		assertTrue(future.isDone());
+		assertFalse(future.isCancelled());
+		assertEquals("v", future.getNow());
+	}
+
+	@Test
+	public void listenersRunOnTheirExecutor() {
+		DialogFuture<String> future = new DialogFuture<String>();
+		QueueExecutor executor = new QueueExecutor();
+		ArrayList<String> order = new ArrayList<String>();
+		future.addListener(new OrderListener(order, "a"), executor);
+		future.complete("v");
+		assertTrue(order.isEmpty());
+		executor.runAll();
+		assertEquals("[a=v]", order.toString());
+	}
+
+	@Test
+	public void nullValueIsDistinctFromPending() throws Exception {
+		DialogFuture<String> future = new DialogFuture<String>();
+		assertTrue(future.complete(null));
+		assertTrue(future.isDone());
+		assertNull(future.getNow());
+		assertNull(future.get());
+	}
+
+	@Test
+	public void cancelRunsCancellerOnce() {
+		DialogFuture<String> future = new DialogFuture<String>();
+		final AtomicInteger cancels = new AtomicInteger();
+		future.setCanceller(new Runnable() {
+			@Override
+			public void run() {
+				cancels.incrementAndGet();
+			}
+		});
+		assertTrue(future.cancel());
+		assertFalse(future.cancel());
+		assertFalse(future.complete("v"));
+		assertEquals(1, cancels.get());
+		assertTrue(future.isCancelled());
+		assertTrue(future.isDone());
+
+		// 取り消し後に設定した処理はすぐに実行される
+		DialogFuture<String> cancelled = new DialogFuture<String>();
+		cancelled.cancel();
+		cancelled.setCanceller(new Runnable() {
+			@Override
+			public void run() {
+				cancels.incrementAndGet();
+			}
+		});
+		assertEquals(2, cancels.get());
+	}
+
+	@Test
+	public void getReportsCancellationAndFailure() throws Exception {
+		DialogFuture<String> cancelled = new DialogFuture<String>();
+		cancelled.cancel();
+		try {
+			cancelled.get();
+			fail();
+		} catch (CancellationException e) {
+			// 期待どおり
+		}
+
+		DialogFuture<String> failed = new DialogFuture<String>();
+		IllegalArgumentException cause = new IllegalArgumentException();
+		assertTrue(failed.fail(cause));
+		assertSame(cause, failed.getFailure());
+		assertNull(failed.getNow());
+		try {
+			failed.get(1, TimeUnit.SECONDS);
+			fail();
+		} catch (ExecutionException e) {
+			assertSame(cause, e.getCause());
+		}
+	}
+
+	@Test
+	public void thenTransformsAndPropagates() {
+		DialogFuture<String> source = new DialogFuture<String>();
+		DialogFuture<Integer> length = source.then(
+				new DialogFuture.Function<String, Integer>() {
+					@Override
+					public Integer apply(String value) {
+						return value.length();
+					}
+				}, DialogFuture.DIRECT);
+		source.complete("abc");
+		assertEquals(Integer.valueOf(3), length.getNow());
+
+		// 変換の例外は失敗として確定する
+		DialogFuture<String> failing = new DialogFuture<String>();
+		final IllegalStateException cause = new IllegalStateException();
+		DialogFuture<Integer> failed = failing.then(
+				new DialogFuture.Function<String, Integer>() {
+					@Override
+					public Integer apply(String value) {
+						throw cause;
+					}
+				}, DialogFuture.DIRECT);
+		failing.complete("x");
+		assertSame(cause, failed.getFailure());
+
+		// 元の取り消し・失敗は変換を経ずに伝わる
+		DialogFuture<String> cancelled = new DialogFuture<String>();
+		DialogFuture<Integer> derived = cancelled.then(
+				new DialogFuture.Function<String, Integer>() {
+					@Override
+					public Integer apply(String value) {
+						throw new AssertionError();
+					}
+				}, DialogFuture.DIRECT);
+		cancelled.cancel();
+		assertTrue(derived.isCancelled());
+	}
+
+	@Test
+	public void cancellingDerivedCancelsSource() {
+		DialogFuture<String> source = new DialogFuture<String>();
+		DialogFuture<String> derived = source.then(
+				new DialogFuture.Function<String, String>() {
+					@Override
+					public String apply(String value) {
+						return value;
+					}
+				}, DialogFuture.DIRECT);
+		assertTrue(derived.cancel());
+		assertTrue(source.isCancelled());
+	}
+
+	@Test
+	public void thenComposeWaitsForFollowingFuture() {
+		DialogFuture<String> first = new DialogFuture<String>();
+		final DialogFuture<String> second = new DialogFuture<String>();
+		DialogFuture<String> both = first.thenCompose(
+				new DialogFuture.Function<String, DialogFuture<String>>() {
+					@Override
+					public DialogFuture<String> apply(String value) {
+						return second;
+					}
+				}, DialogFuture.DIRECT);
+		first.complete("1");
+		assertFalse(both.isDone());
+		second.complete("2");
+		assertEquals("2", both.getNow());
+	}
+
+	@Test
+	public void cancellingComposedCancelsFollowingFuture() {
+		DialogFuture<String> first = new DialogFuture<String>();
+		final DialogFuture<String> second = new DialogFuture<String>();
+		DialogFuture<String> both = first.thenCompose(
+				new DialogFuture.Function<String, DialogFuture<String>>() {
+					@Override
+					public DialogFuture<String> apply(String value) {
+						return second;
+					}
+				}, DialogFuture.DIRECT);
+		first.complete("1");
+		assertTrue(both.cancel());
+		assertTrue(second.isCancelled());
+	}
+
+	@Test
+	public void concurrentListenersAreAllNotified() throws Exception {
+		final DialogFuture<String> future = new DialogFuture<String>();
+		final AtomicInteger notified = new AtomicInteger();
+		final int threads = 8;
+		final int perThread = 1000;
+		final CountDownLatch start = new CountDownLatch(1);
+		Thread[] adders = new Thread[threads];
+		for (int t = 0; t < threads; t++) {
+			adders[t] = new Thread() {
+				@Override
+				public void run() {
+					try {
+						start.await();
+					} catch (InterruptedException e) {
+						return;
+					}
+					for (int i = 0; i < perThread; i++) {
+						future.addListener(
+								new DialogFuture.Listener<String>() {
+									@Override
+									public void onComplete(
+											DialogFuture<String> f) {
+										notified.incrementAndGet();
+									}
+								}, DialogFuture.DIRECT);
+					}
+				}
+			};
+			adders[t].start();
+		}
+		start.countDown();
+		// 登録と並行して確定しても、確定の前後どちらで登録したリスナーも1回ずつ通知される
+		future.complete("v");
+		for (Thread adder : adders) {
+			adder.join();
+		}
+		assertEquals(threads * perThread, notified.get());
+	}
+
+	@Test
+	public void getOnWorkerReturnsValue() throws Exception {
+		final DialogFuture<String> future = new DialogFuture<String>();
+		Thread completer = new Thread() {
+			@Override
+			public void run() {
+				try {
+					Thread.sleep(20);
+				} catch (InterruptedException e) {
+					return;
+				}
+				future.complete("v");
+			}
+		};
+		completer.start();
+		assertEquals("v", getOnWorker(future, -1, false));
+		completer.join();
+	}
+
+	@Test
+	public void getTimesOut() throws Exception {
+		DialogFuture<String> future = new DialogFuture<String>();
+		assertTrue(getOnWorker(future, 20, false) instanceof TimeoutException);
+		assertFalse(future.isDone());
+	}
+
+	@Test
+	public void getIsInterrupted() throws Exception {
+		DialogFuture<String> future = new DialogFuture<String>();
+		assertTrue(getOnWorker(future, -1, true) instanceof InterruptedException);
+		assertFalse(future.isDone());
+	}
+
+	@Test
+	public void pendingGetIsRefusedOnMainThread() throws Exception {
+		DialogFuture<String> future = new DialogFuture<String>();
+		try {
+			future.get();
+			fail();
+		} catch (IllegalStateException e) {
+			// 期待どおり
+		}
+		try {
+			future.get(1, TimeUnit.MILLISECONDS);
+			fail();
+		} catch (IllegalStateException e) {
+			// 期待どおり
+		}
+		// 確定済みであれば待機しないため取得できる
+		future.complete("v");
+		assertEquals("v", future.get());
+	}
+}
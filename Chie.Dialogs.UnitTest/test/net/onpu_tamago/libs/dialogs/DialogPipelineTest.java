@@ -0,0 +1,233 @@
+package net.onpu_tamago.libs.dialogs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.onpu_tamago.libs.dialogs.DialogScenario.Recorder;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import android.app.AlertDialog;
+import android.content.DialogInterface;
+import android.content.res.Resources;
+import android.os.Bundle;
+import android.support.v4.app.LifecycleActivity;
+import android.view.View;
+import android.widget.CheckBox;
+import android.widget.EditText;
+import android.widget.ListView;
+
+/**
+ * {@link DialogPipeline}の段階の進行・画面回転後の再開・各段階の結果の収集と、
+ * 段階ごとのタイトルの表示のテストです。
+ *
+ * @author 高見知英
+ */
+public class DialogPipelineTest {
+
+	private final ArrayList<LifecycleActivity> activities = new ArrayList<LifecycleActivity>();
+
+	private final Recorder recorder = new Recorder();
+
+	private LifecycleActivity activity;
+
+	private int registrySize;
+
+	@Before
+	public void setUp() {
+		activity = LifecycleActivity.launch();
+		activities.add(activity);
+		registrySize = Dialogs.registry.size();
+	}
+
+	@After
+	public void tearDown() {
+		for (LifecycleActivity activity : activities) {
+			if (!activity.isFinishing()) {
+				activity.finishAndDestroy();
+			}
+		}
+	}
+
+	/**
+	 * 名前の入力・確認・選択の3段階からなる手順を生成します。 タイトルは最初の段階のみが持ちます。
+	 */
+	private static DialogPipeline pipeline() {
+		int buttons = Dialogs.DIALOGBUTTON_POSITIVE
+				| Dialogs.DIALOGBUTTON_NEGATIVE;
+		return new DialogPipeline()
+				.step(new DialogSpec.Builder().id(1).title("name")
+						.input("default").buttons(buttons).build())
+				.step(new DialogSpec.Builder().id(2).message("confirm")
+						.checkMessage("remember").buttons(buttons).build())
+				.step(new DialogSpec.Builder().id(3).items("a", "b", "c")
+						.build());
+	}
+
+	private void show(DialogPipeline pipeline) {
+		Dialogs.showDialogPipeline(activity.getSupportFragmentManager(),
+				pipeline, recorder);
+	}
+
+	/**
+	 * 表示中の手順のフラグメントが一つだけであることを確認し、取得します。
+	 */
+	private InternalDialogFragment fragment() {
+		LifecycleActivity.idle();
+		List<InternalDialogFragment> dialogs = activity
+				.getFragments(InternalDialogFragment.class);
+		assertEquals(1, dialogs.size());
+		return dialogs.get(0);
+	}
+
+	private AlertDialog dialog() {
+		return (AlertDialog) fragment().getDialog();
+	}
+
+	private int step() {
+		return fragment().getArguments().getInt(Dialogs.ALERT_STEP);
+	}
+
+	private static boolean titleShown(AlertDialog dialog) {
+		return dialog.findViewById(Resources.TITLE_PANEL_ID).getVisibility() == View.VISIBLE;
+	}
+
+	private static void click(AlertDialog dialog, int which) {
+		dialog.performClick(which);
+		LifecycleActivity.idle();
+	}
+
+	/**
+	 * 最初の段階で名前を入力し、確認の段階へ進みます。
+	 */
+	private void answerName() {
+		AlertDialog dialog = dialog();
+		EditText input = (EditText) dialog.findViewById(android.R.id.input);
+		assertEquals("default", input.getText().toString());
+		input.setText("Alice");
+		click(dialog, DialogInterface.BUTTON_POSITIVE);
+	}
+
+	/**
+	 * 確認・選択の段階に答え、手順を終了します。
+	 */
+	private void answerRest() {
+		AlertDialog dialog = dialog();
+		((CheckBox) dialog.findViewById(android.R.id.checkbox)).setChecked(true);
+		click(dialog, DialogInterface.BUTTON_POSITIVE);
+		ListView list = (ListView) dialog().findViewById(android.R.id.list);
+		list.performItemClick(null, 1, 1);
+		LifecycleActivity.idle();
+	}
+
+	/**
+	 * 3段階すべての結果が通知されたことを確認します。
+	 */
+	private void verifyResults() {
+		Bundle params = recorder.single();
+		assertEquals("select", recorder.methods.get(0));
+		ArrayList<Bundle> steps = params
+				.getParcelableArrayList(Dialogs.PARAMS_STEPRESULTS);
+		assertEquals(3, steps.size());
+		assertEquals(1, steps.get(0).getInt(Dialogs.PARAMS_ID));
+		assertEquals("Alice", steps.get(0).getString(Dialogs.PARAMS_INPUTSTR));
+		assertEquals(2, steps.get(1).getInt(Dialogs.PARAMS_ID));
+		assertTrue(steps.get(1).getBoolean(Dialogs.PARAMS_CHECKED));
+		assertEquals(3, steps.get(2).getInt(Dialogs.PARAMS_ID));
+		assertEquals(1, steps.get(2).getInt(Dialogs.PARAMS_INPUTINDEX));
+		assertTrue(activity.getFragments(InternalDialogFragment.class)
+				.isEmpty());
+		assertEquals(registrySize, Dialogs.registry.size());
+	}
+
+	@Test
+	public void advancesWithinOneDialog() {
+		show(pipeline());
+		InternalDialogFragment first = fragment();
+		AlertDialog dialog = dialog();
+		assertEquals(0, step());
+		assertEquals("name", String.valueOf(dialog.getTitle()));
+		assertTrue(titleShown(dialog));
+
+		answerName();
+		// フラグメント・ダイアログは作り直さず、表示内容のみを入れ替える
+		assertSame(first, fragment());
+		assertSame(dialog, dialog());
+		assertTrue(dialog.isShowing());
+		assertEquals(1, step());
+		assertTrue(recorder.results.isEmpty());
+		// タイトルのない段階では、空のタイトル領域を表示しない
+		assertFalse(titleShown(dialog));
+
+		answerRest();
+		verifyResults();
+	}
+
+	@Test
+	public void resumesAfterRotation() {
+		show(pipeline());
+		answerName();
+		activities.remove(activity);
+		activity = activity.rotate();
+		activities.add(activity);
+		// 作り直したダイアログでも同じ段階から再開し、前の段階の結果も引き継ぐ
+		assertEquals(1, step());
+		AlertDialog dialog = dialog();
+		assertTrue(dialog.isShowing());
+		assertFalse(titleShown(dialog));
+		assertEquals(View.VISIBLE, dialog.findViewById(android.R.id.checkbox)
+				.getVisibility());
+		assertEquals(View.GONE, dialog.findViewById(android.R.id.input)
+				.getVisibility());
+		assertEquals(registrySize + 1, Dialogs.registry.size());
+		answerRest();
+		verifyResults();
+	}
+
+	@Test
+	public void negativeButtonEndsPipeline() {
+		show(pipeline());
+		answerName();
+		click(dialog(), DialogInterface.BUTTON_NEGATIVE);
+		Bundle params = recorder.single();
+		assertEquals("negative", recorder.methods.get(0));
+		assertEquals(2, params.getParcelableArrayList(
+				Dialogs.PARAMS_STEPRESULTS).size());
+		assertTrue(activity.getFragments(InternalDialogFragment.class)
+				.isEmpty());
+		assertEquals(registrySize, Dialogs.registry.size());
+	}
+
+	@Test
+	public void stepHandlerTitleIsShown() {
+		DialogPipeline pipeline = new DialogPipeline()
+				.step(new DialogSpec.Builder().id(1).message("first")
+						.buttons(Dialogs.DIALOGBUTTON_POSITIVE).build())
+				.step(new DialogSpec.Builder().id(2).message("second")
+						.buttons(Dialogs.DIALOGBUTTON_POSITIVE).build())
+				.setStepHandler(new DialogPipeline.StepHandler() {
+					@Override
+					public DialogSpec onNextStep(int step, DialogSpec next,
+							DialogResult previous) {
+						return next.buildUpon().title("handled").build();
+					}
+				});
+		show(pipeline);
+		AlertDialog dialog = dialog();
+		assertFalse(titleShown(dialog));
+		click(dialog, DialogInterface.BUTTON_POSITIVE);
+		// 登録された段階がタイトルを持たなくても、決定した段階のタイトルを表示する
+		assertEquals("handled", String.valueOf(dialog.getTitle()));
+		assertTrue(titleShown(dialog));
+		click(dialog, DialogInterface.BUTTON_POSITIVE);
+		assertEquals(2, recorder.single()
+				.getParcelableArrayList(Dialogs.PARAMS_STEPRESULTS).size());
+	}
+}
@@ -0,0 +1,218 @@
+package net.onpu_tamago.libs.dialogs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+
+import net.onpu_tamago.libs.dialogs.Dialogs.DialogData;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import android.support.v4.app.DialogFragment;
+
+/**
+ * {@link DialogRegistry}の登録・削除と、容量超過時の削除方針のテストです。
+ *
+ * @author 高見知英
+ */
+public class DialogRegistryTest {
+
+	private static final int CAPACITY = 8;
+
+	private DialogRegistry registry;
+
+	/**
+	 * 表示中のダイアログを表すフラグメントです。 参照を保持している間は孤立しません。
+	 */
+	private final ArrayList<DialogFragment> showing = new ArrayList<DialogFragment>();
+
+	@Before
+	public void setUp() {
+		registry = new DialogRegistry(CAPACITY);
+		showing.clear();
+	}
+
+	/**
+	 * 表示中のダイアログとしてデータを登録します。
+	 */
+	private int registerShowing(DialogData data) {
+		DialogFragment owner = new DialogFragment();
+		showing.add(owner);
+		int key = registry.nextKey();
+		registry.register(key, owner, data);
+		return key;
+	}
+
+	/**
+	 * 閉じられないまま破棄されたダイアログとします。
+	 */
+	private void orphan(int key) {
+		DialogData data = registry.get(key);
+		showing.remove(data.owner.get());
+		data.owner.clear();
+	}
+
+	private static DialogData newData() {
+		return new DialogData(null, null);
+	}
+
+	@Test
+	public void showDismissCyclesKeepSizeConstant() {
+		// 表示し続けているダイアログがあっても、表示・クローズの繰り返しで増えない
+		registerShowing(newData());
+		registerShowing(newData());
+		for (int i = 0; i < 10000; i++) {
+			int key = registerShowing(newData());
+			assertEquals(3, registry.size());
+			showing.remove(registry.remove(key).owner.get());
+			assertEquals(2, registry.size());
+		}
+		assertEquals(0, registry.getEvictedCount());
+	}
+
+	@Test
+	public void orphanCyclesStayWithinCapacity() {
+		// 閉じられないまま破棄されるダイアログが続いても、容量を超えない
+		for (int i = 0; i < 10000; i++) {
+			orphan(registerShowing(newData()));
+			assertTrue(registry.size() <= CAPACITY);
+		}
+		assertEquals(10000 - CAPACITY, registry.getEvictedCount());
+		assertEquals(CAPACITY, registry.getOrphanedCount());
+		assertEquals(0, registry.getLiveCount());
+	}
+
+	@Test
+	public void evictsOnlyOrphans() {
+		int[] keys = new int[CAPACITY];
+		for (int i = 0; i < CAPACITY; i++) {
+			keys[i] = registerShowing(newData());
+		}
+		orphan(keys[2]);
+		orphan(keys[5]);
+
+		int added = registerShowing(newData());
+		// 最も古い孤立したエントリのみ削除する
+		assertEquals(CAPACITY, registry.size());
+		assertEquals(1, registry.getEvictedCount());
+		assertNull(registry.get(keys[2]));
+		assertNotNull(registry.get(keys[5]));
+		assertNotNull(registry.get(added));
+		for (int i = 0; i < CAPACITY; i++) {
+			if (i != 2 && i != 5) {
+				assertNotNull(registry.get(keys[i]));
+			}
+		}
+	}
+
+	@Test
+	public void liveEntriesGrowPastCapacity() {
+		// 表示中・表示待ちのエントリは削除せず、容量を超えて登録する
+		int pending = registry.nextKey();
+		registry.register(pending, null, newData());
+		int[] keys = new int[CAPACITY * 2];
+		for (int i = 0; i < keys.length; i++) {
+			keys[i] = registerShowing(newData());
+		}
+		assertEquals(CAPACITY * 2 + 1, registry.size());
+		assertEquals(CAPACITY * 2 + 1, registry.getLiveCount());
+		assertEquals(0, registry.getEvictedCount());
+		assertNotNull(registry.get(pending));
+
+		// 閉じられて容量を下回れば、再び孤立したエントリを削除する
+		for (int i = 0; i < CAPACITY + 2; i++) {
+			registry.remove(keys[i]);
+		}
+		assertEquals(CAPACITY - 1, registry.size());
+		for (int i = 0; i < CAPACITY * 2; i++) {
+			orphan(registerShowing(newData()));
+		}
+		assertEquals(CAPACITY, registry.size());
+	}
+
+	@Test
+	public void evictionCancelsWaitingFuture() {
+		FutureCallback callback = new FutureCallback();
+		int key = registerShowing(new DialogData(null, callback));
+		FutureCallback merged = new FutureCallback();
+		registry.get(key).mergedCallbacks = new ArrayList<Dialogs.DialogCallback>();
+		registry.get(key).mergedCallbacks.add(merged);
+		orphan(key);
+		for (int i = 0; i < CAPACITY; i++) {
+			registerShowing(newData());
+		}
+		assertNull(registry.get(key));
+		assertTrue(callback.future.isCancelled());
+		assertTrue(merged.future.isCancelled());
+	}
+
+	@Test
+	public void evictOrphansRemovesAllOrphans() {
+		int live = registerShowing(newData());
+		orphan(registerShowing(newData()));
+		orphan(registerShowing(newData()));
+		assertEquals(2, registry.getOrphanedCount());
+		assertEquals(2, registry.evictOrphans());
+		assertEquals(1, registry.size());
+		assertNotNull(registry.get(live));
+		assertEquals(0, registry.evictOrphans());
+	}
+
+	@Test
+	public void shrinkingCapacityEvictsImmediately() {
+		for (int i = 0; i < CAPACITY; i++) {
+			orphan(registerShowing(newData()));
+		}
+		registry.setCapacity(2);
+		assertEquals(2, registry.size());
+		assertEquals(CAPACITY - 2, registry.getEvictedCount());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsNonPositiveCapacity() {
+		registry.setCapacity(0);
+	}
+
+	@Test
+	public void attachRevivesDetachedEntry() {
+		int key = registry.nextKey();
+		DialogData data = newData();
+		registry.register(key, null, data);
+		DialogFragment owner = new DialogFragment();
+		registry.attach(key, owner);
+		assertSame(owner, data.owner.get());
+		registry.detach(key);
+		assertNull(data.owner);
+		// 表示待ちに戻したエントリは孤立していない
+		assertEquals(0, registry.evictOrphans());
+		assertFalse(registry.getOrphanedCount() > 0);
+	}
+
+	@Test
+	public void keysAreUnique() {
+		int first = registry.nextKey();
+		int second = registry.nextKey();
+		assertTrue(first >= 0);
+		assertTrue(second != first);
+	}
+
+	@Test
+	public void wrappedKeysSkipRegisteredEntries() {
+		registry = new DialogRegistry(CAPACITY, Integer.MAX_VALUE - 1);
+		DialogData kept = newData();
+		registry.register(1, new DialogFragment(), kept);
+		showing.add(kept.owner.get());
+		assertEquals(Integer.MAX_VALUE - 1, registerShowing(newData()));
+		assertEquals(Integer.MAX_VALUE, registry.nextKey());
+		// 一巡した後は、表示し続けているダイアログのキーを飛ばす
+		assertEquals(0, registry.nextKey());
+		assertEquals(2, registry.nextKey());
+		assertSame(kept, registry.get(1));
+	}
+}
@@ -0,0 +1,256 @@
+package net.onpu_tamago.libs.dialogs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import android.app.AlertDialog;
+import android.content.DialogInterface;
+import android.os.Bundle;
+import android.support.v4.app.DialogFragment;
+import android.support.v4.app.LifecycleActivity;
+import android.widget.EditText;
+
+/**
+ * {@link DialogResult}の再利用と{@link Bundle}への変換、
+ * {@link Dialogs.TypedDialogCallback}への通知のテストです。
+ *
+ * @author 高見知英
+ */
+public class DialogResultTest {
+
+	private LifecycleActivity activity;
+
+	@Before
+	public void setUp() {
+		LifecycleActivity.idle();
+	}
+
+	@After
+	public void tearDown() {
+		if (activity != null) {
+			activity.finishAndDestroy();
+		}
+	}
+
+	/**
+	 * 保持されているオブジェクトをすべて取り出し、以後の取得が新しいオブジェクトとなるようにします。
+	 */
+	private static void drainPool() {
+		for (int i = 0; i < 8; i++) {
+			DialogResult.obtain();
+		}
+	}
+
+	@Test
+	public void poolKeepsAtMostFourObjects() {
+		drainPool();
+		DialogResult[] results = new DialogResult[5];
+		for (int i = 0; i < results.length; i++) {
+			results[i] = DialogResult.obtain();
+		}
+		for (DialogResult result : results) {
+			result.recycle();
+		}
+		// 後に返却されたものから再利用され、上限を超えた5個目は保持されない
+		for (int i = 3; i >= 0; i--) {
+			assertSame(results[i], DialogResult.obtain());
+		}
+		DialogResult created = DialogResult.obtain();
+		for (DialogResult result : results) {
+			assertNotSame(result, created);
+		}
+	}
+
+	@Test
+	public void recycleClearsAllFields() {
+		drainPool();
+		DialogResult result = DialogResult.obtain();
+		result.setId(3);
+		result.setButton(Dialogs.BUTTON_POSITIVE);
+		result.setIndex(2);
+		result.setText("text");
+		result.setChecked(true);
+		result.setRowId(10);
+		result.setMergedCount(4);
+		result.setStepResults(new ArrayList<Bundle>());
+		result.recycle();
+
+		assertSame(result, DialogResult.obtain());
+		assertEquals(0, result.getId());
+		assertEquals(DialogResult.NO_BUTTON, result.getButton());
+		assertEquals(-1, result.getIndex());
+		assertNull(result.getText());
+		assertFalse(result.hasCheckBox());
+		assertFalse(result.isChecked());
+		assertEquals(-1, result.getRowId());
+		assertEquals(0, result.getMergedCount());
+		assertEquals(0, result.getStepCount());
+		Bundle params = result.toBundle();
+		assertEquals(1, params.size());
+		assertEquals(0, params.getInt(Dialogs.PARAMS_ID));
+	}
+
+	@Test
+	public void toBundleWritesOnlySetValues() {
+		DialogResult result = DialogResult.obtain();
+		result.setId(5);
+		result.setIndex(1);
+		result.setText("b");
+		Bundle params = result.toBundle();
+		assertEquals(3, params.size());
+		assertEquals(5, params.getInt(Dialogs.PARAMS_ID));
+		assertEquals(1, params.getInt(Dialogs.PARAMS_INPUTINDEX));
+		assertEquals("b", params.getString(Dialogs.PARAMS_INPUTSTR));
+		assertFalse(params.containsKey(Dialogs.PARAMS_PRESSBUTTON));
+		assertFalse(params.containsKey(Dialogs.PARAMS_CHECKED));
+		assertFalse(params.containsKey(Dialogs.PARAMS_ROWID));
+		assertFalse(params.containsKey(Dialogs.PARAMS_MERGEDCOUNT));
+		assertFalse(params.containsKey(Dialogs.PARAMS_STEPRESULTS));
+		result.recycle();
+	}
+
+	@Test
+	public void toBundleWritesEveryKey() {
+		DialogResult result = DialogResult.obtain();
+		ArrayList<Bundle> steps = new ArrayList<Bundle>();
+		steps.add(new Bundle());
+		result.setId(1);
+		result.setButton(Dialogs.BUTTON_NEUTRAL);
+		result.setIndex(0);
+		result.setText(new StringBuilder("input"));
+		result.setChecked(false);
+		result.setRowId(0);
+		result.setMergedCount(0);
+		result.setStepResults(steps);
+		Bundle params = result.toBundle();
+		assertEquals(Dialogs.BUTTON_NEUTRAL,
+				params.getInt(Dialogs.PARAMS_PRESSBUTTON));
+		assertEquals(0, params.getInt(Dialogs.PARAMS_INPUTINDEX));
+		// 入力中の文字列は変換時点の内容で確定する
+		assertEquals("input", params.get(Dialogs.PARAMS_INPUTSTR));
+		// 値がfalse・0であっても、設定されていればキーは存在する
+		assertTrue(params.containsKey(Dialogs.PARAMS_CHECKED));
+		assertFalse(params.getBoolean(Dialogs.PARAMS_CHECKED, true));
+		assertEquals(0, params.getLong(Dialogs.PARAMS_ROWID, -1));
+		assertTrue(params.containsKey(Dialogs.PARAMS_MERGEDCOUNT));
+		assertEquals(steps,
+				params.getParcelableArrayList(Dialogs.PARAMS_STEPRESULTS));
+		assertEquals(1, result.getStepCount());
+		assertSame(steps.get(0), result.getStepResult(0));
+		result.recycle();
+	}
+
+	@Test
+	public void isCanceledOnlyForCancel() {
+		DialogResult result = DialogResult.obtain();
+		assertFalse(result.isCanceled());
+		result.setButton(Dialogs.BUTTON_NEGATIVE);
+		assertFalse(result.isCanceled());
+		result.setButton(Dialogs.CANCEL);
+		assertTrue(result.isCanceled());
+		result.recycle();
+	}
+
+	@Test
+	public void copySnapshotsTextAndIsNotPooled() {
+		drainPool();
+		DialogResult result = DialogResult.obtain();
+		StringBuilder text = new StringBuilder("abc");
+		result.setId(2);
+		result.setButton(Dialogs.BUTTON_POSITIVE);
+		result.setText(text);
+		result.setChecked(true);
+		DialogResult copy = result.copy();
+		text.append("def");
+		result.recycle();
+
+		assertEquals(2, copy.getId());
+		assertEquals(Dialogs.BUTTON_POSITIVE, copy.getButton());
+		assertEquals("abc", copy.getText());
+		assertTrue(copy.hasCheckBox());
+		assertTrue(copy.isChecked());
+		// 返却されたのは元のオブジェクトのみ
+		assertSame(result, DialogResult.obtain());
+		assertNotSame(copy, DialogResult.obtain());
+	}
+
+	/**
+	 * 通知された値を、通知の時点と戻った後とで記録するコールバックです。
+	 */
+	private static final class TypedRecorder implements
+			Dialogs.TypedDialogCallback {
+
+		DialogResult received;
+		DialogResult copy;
+		String textInCallback;
+		int bundleCalls;
+
+		@Override
+		public void onDialogResult(DialogFragment owner, DialogResult result) {
+			received = result;
+			copy = result.copy();
+			textInCallback = String.valueOf(result.getText());
+		}
+
+		@Override
+		public void onDialogClosed(DialogFragment owner, Bundle params) {
+			bundleCalls++;
+		}
+	}
+
+	@Test
+	public void typedCallbackReceivesRecycledResult() {
+		activity = LifecycleActivity.launch();
+		TypedRecorder recorder = new TypedRecorder();
+		Bundle params = new Bundle();
+		params.putInt(Dialogs.ALERT_ID, 9);
+		Dialogs.showInputDialog(activity.getSupportFragmentManager(), "title",
+				"message", params, recorder);
+		LifecycleActivity.idle();
+		AlertDialog dialog = (AlertDialog) activity
+				.getFragments(InternalDialogFragment.class).get(0).getDialog();
+		EditText input = (EditText) dialog.getView().findViewById(
+				android.R.id.input);
+		input.setText("typed");
+		dialog.performClick(DialogInterface.BUTTON_POSITIVE);
+		LifecycleActivity.idle();
+
+		// TypedDialogCallbackにはBundleを生成せずに通知する
+		assertEquals(0, recorder.bundleCalls);
+		assertEquals("typed", recorder.textInCallback);
+		assertEquals(9, recorder.copy.getId());
+		assertEquals(Dialogs.BUTTON_POSITIVE, recorder.copy.getButton());
+		assertEquals("typed", recorder.copy.getText());
+		// 通知に用いたオブジェクトは、戻った後に消去されて返却される
+		assertEquals(0, recorder.received.getId());
+		assertNull(recorder.received.getText());
+		// 複製は入力領域の以後の変更の影響を受けない
+		input.setText("changed");
+		assertEquals("typed", recorder.copy.getText());
+	}
+
+	@Test
+	public void typedCallbackReceivesCancel() {
+		activity = LifecycleActivity.launch();
+		TypedRecorder recorder = new TypedRecorder();
+		Dialogs.showSimpleDialog(activity.getSupportFragmentManager(), "title",
+				"message", null, recorder);
+		LifecycleActivity.idle();
+		activity.getFragments(InternalDialogFragment.class).get(0).getDialog()
+				.cancel();
+		LifecycleActivity.idle();
+		assertTrue(recorder.copy.isCanceled());
+		assertEquals(-1, recorder.copy.getIndex());
+		assertNull(recorder.copy.getText());
+	}
+}
@@ -0,0 +1,439 @@
+package net.onpu_tamago.libs.dialogs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.onpu_tamago.libs.dialogs.Dialogs.DialogCallback;
+import android.app.AlertDialog;
+import android.content.Context;
+import android.content.DialogInterface;
+import android.content.res.Resources;
+import android.os.Bundle;
+import android.support.v4.app.DialogFragment;
+import android.support.v4.app.FragmentManager;
+import android.support.v4.app.LifecycleActivity;
+import android.view.View;
+import android.widget.CheckBox;
+import android.widget.EditText;
+import android.widget.LinearLayout;
+
+/**
+ * サンプルのTestActivityが表示する各種のダイアログを、表示から結果の確認まで再現します。
+ * 種類ごとに、文字列を指定する場合とリソースIDを指定する場合とがあります。
+ *
+ * @author 高見知英
+ */
+abstract class DialogScenario {
+
+	static final int TITLE_ID = 0x7f050001;
+
+	static final int MESSAGE_ID = 0x7f050002;
+
+	static final int CHECK_ID = 0x7f050003;
+
+	static final int ITEMS_ID = 0x7f060001;
+
+	/**
+	 * 名前です。 "種類.string"または"種類.resource"の形式です。
+	 */
+	final String name;
+
+	private final boolean resource;
+
+	DialogScenario(String name, boolean resource) {
+		this.name = name + (resource ? ".resource" : ".string");
+		this.resource = resource;
+	}
+
+	/**
+	 * ダイアログを表示します。
+	 *
+	 * @param activity
+	 *            表示先のアクティビティ。
+	 * @param params
+	 *            パラメータ。
+	 * @param callback
+	 *            コールバック。
+	 */
+	abstract void show(LifecycleActivity activity, Bundle params,
+			DialogCallback callback);
+
+	/**
+	 * 独自のビューを用いるため、プロセスの再生成後に復元されないかどうか。
+	 */
+	boolean isTransient() {
+		return false;
+	}
+
+	/**
+	 * 利用者の操作として押すボタン、または選ぶ選択肢の位置です。
+	 */
+	int answer() {
+		return DialogInterface.BUTTON_POSITIVE;
+	}
+
+	/**
+	 * 入力領域・チェックボックスを操作します。
+	 *
+	 * @param dialog
+	 *            表示中のダイアログ。
+	 */
+	void fill(AlertDialog dialog) {
+	}
+
+	/**
+	 * 表示内容を確認します。
+	 *
+	 * @param dialog
+	 *            表示中のダイアログ。
+	 */
+	void verifyContent(AlertDialog dialog) {
+		assertEquals(name, title(), String.valueOf(dialog.getTitle()));
+	}
+
+	/**
+	 * 結果を確認します。
+	 *
+	 * @param params
+	 *            コールバックに渡された値。
+	 */
+	void verifyResult(Bundle params) {
+		assertEquals(name, answer(), params.getInt(Dialogs.PARAMS_PRESSBUTTON));
+	}
+
+	/**
+	 * 利用者の操作として、ボタンを押すか選択肢を選びます。
+	 *
+	 * @param dialog
+	 *            表示中のダイアログ。
+	 */
+	final void answer(AlertDialog dialog) {
+		fill(dialog);
+		if (answer() < 0) {
+			dialog.performClick(answer());
+		} else {
+			dialog.performItemClick(answer());
+		}
+	}
+
+	final String title() {
+		return resource ? text(TITLE_ID) : "title";
+	}
+
+	final String message() {
+		return resource ? text(MESSAGE_ID) : "message";
+	}
+
+	final boolean isResource() {
+		return resource;
+	}
+
+	static String text(int id) {
+		return String.valueOf(Resources.getSystem().getText(id));
+	}
+
+	/**
+	 * すべての種類を生成します。
+	 *
+	 * @return 種類。
+	 */
+	static List<DialogScenario> all() {
+		ArrayList<DialogScenario> list = new ArrayList<DialogScenario>();
+		for (int i = 0; i < 2; i++) {
+			boolean resource = i == 1;
+			list.add(new Simple(resource));
+			list.add(new Alert(resource));
+			list.add(new Choice(resource));
+			list.add(new Input(resource));
+			list.add(new Check(resource));
+			list.add(new Custom(resource));
+		}
+		return list;
+	}
+
+	/**
+	 * 結果を記録するコールバックです。 {@link Dialogs.Result}のどのメソッドが呼び出されたかも記録します。
+	 */
+	static final class Recorder extends Dialogs.ResultReciever {
+
+		final ArrayList<Bundle> results = new ArrayList<Bundle>();
+		final ArrayList<String> methods = new ArrayList<String>();
+
+		@Override
+		public void onDialogClosed(DialogFragment owner, Bundle params) {
+			results.add(new Bundle(params));
+		}
+
+		@Override
+		public void onPositiveResult(DialogFragment owner, Bundle params) {
+			methods.add("positive");
+		}
+
+		@Override
+		public void onNegativeResult(DialogFragment owner, Bundle params) {
+			methods.add("negative");
+		}
+
+		@Override
+		public void onNeutralResult(DialogFragment owner, Bundle params) {
+			methods.add("neutral");
+		}
+
+		@Override
+		public void onSelectItems(DialogFragment owner, Bundle params) {
+			methods.add("select");
+		}
+
+		@Override
+		public void onCancel(DialogFragment owner, Bundle params) {
+			methods.add("cancel");
+		}
+
+		/**
+		 * 1回だけ結果が通知されたことを確認し、その値を取得します。
+		 *
+		 * @return 通知された値。
+		 */
+		Bundle single() {
+			assertEquals(1, results.size());
+			assertEquals(1, methods.size());
+			return results.get(0);
+		}
+	}
+
+	static final class Simple extends DialogScenario {
+
+		Simple(boolean resource) {
+			super("simple", resource);
+		}
+
+		@Override
+		void show(LifecycleActivity activity, Bundle params,
+				DialogCallback callback) {
+			FragmentManager manager = activity.getSupportFragmentManager();
+			if (isResource()) {
+				Dialogs.showSimpleDialog(manager, TITLE_ID, MESSAGE_ID, params,
+						callback);
+			} else {
+				Dialogs.showSimpleDialog(manager, "title", "message", params,
+						callback);
+			}
+		}
+
+		@Override
+		void verifyContent(AlertDialog dialog) {
+			super.verifyContent(dialog);
+			assertEquals(message(), String.valueOf(dialog.getMessage()));
+			assertEquals(text(android.R.string.ok), String.valueOf(dialog
+					.getButtonText(DialogInterface.BUTTON_POSITIVE)));
+			assertEquals(null, dialog
+					.getButtonText(DialogInterface.BUTTON_NEGATIVE));
+		}
+	}
+
+	static final class Alert extends DialogScenario {
+
+		Alert(boolean resource) {
+			super("alert", resource);
+		}
+
+		@Override
+		void show(LifecycleActivity activity, Bundle params,
+				DialogCallback callback) {
+			FragmentManager manager = activity.getSupportFragmentManager();
+			if (isResource()) {
+				Dialogs.showAlertDialog(manager, TITLE_ID, MESSAGE_ID, params,
+						callback);
+			} else {
+				Dialogs.showAlertDialog(manager, "title", "message", params,
+						callback);
+			}
+		}
+
+		@Override
+		int answer() {
+			return DialogInterface.BUTTON_NEGATIVE;
+		}
+
+		@Override
+		void verifyContent(AlertDialog dialog) {
+			super.verifyContent(dialog);
+			assertEquals(message(), String.valueOf(dialog.getMessage()));
+			assertEquals(text(android.R.string.no), String.valueOf(dialog
+					.getButtonText(DialogInterface.BUTTON_NEGATIVE)));
+		}
+	}
+
+	static final class Choice extends DialogScenario {
+
+		Choice(boolean resource) {
+			super("choice", resource);
+		}
+
+		@Override
+		void show(LifecycleActivity activity, Bundle params,
+				DialogCallback callback) {
+			FragmentManager manager = activity.getSupportFragmentManager();
+			if (isResource()) {
+				Dialogs.showChoiceDialog(manager, TITLE_ID, params, callback,
+						ITEMS_ID);
+			} else {
+				Dialogs.showChoiceDialog(manager, "title", params, callback,
+						"a", "b", "c");
+			}
+		}
+
+		@Override
+		int answer() {
+			return 1;
+		}
+
+		private String choice() {
+			return isResource() ? text(ITEMS_ID) + "[1]" : "b";
+		}
+
+		@Override
+		void verifyContent(AlertDialog dialog) {
+			super.verifyContent(dialog);
+			assertEquals(3, dialog.getItems().length);
+			assertEquals(choice(), String.valueOf(dialog.getItems()[1]));
+		}
+
+		@Override
+		void verifyResult(Bundle params) {
+			assertEquals(name, 1, params.getInt(Dialogs.PARAMS_INPUTINDEX));
+			assertEquals(name, choice(),
+					params.getString(Dialogs.PARAMS_INPUTSTR));
+			assertTrue(name, !params.containsKey(Dialogs.PARAMS_PRESSBUTTON));
+		}
+	}
+
+	static final class Input extends DialogScenario {
+
+		Input(boolean resource) {
+			super("input", resource);
+		}
+
+		@Override
+		void show(LifecycleActivity activity, Bundle params,
+				DialogCallback callback) {
+			FragmentManager manager = activity.getSupportFragmentManager();
+			if (isResource()) {
+				Dialogs.showInputDialog(manager, TITLE_ID, MESSAGE_ID, params,
+						callback);
+			} else {
+				Dialogs.showInputDialog(manager, "title", "message", params,
+						callback);
+			}
+		}
+
+		@Override
+		void fill(AlertDialog dialog) {
+			EditText input = (EditText) dialog.getView().findViewById(
+					android.R.id.input);
+			input.setText("typed");
+		}
+
+		@Override
+		void verifyResult(Bundle params) {
+			super.verifyResult(params);
+			assertEquals(name, "typed",
+					params.getString(Dialogs.PARAMS_INPUTSTR));
+		}
+	}
+
+	static final class Check extends DialogScenario {
+
+		Check(boolean resource) {
+			super("check", resource);
+		}
+
+		@Override
+		void show(LifecycleActivity activity, Bundle params,
+				DialogCallback callback) {
+			FragmentManager manager = activity.getSupportFragmentManager();
+			if (isResource()) {
+				Dialogs.showCheckDialog(manager, TITLE_ID, MESSAGE_ID,
+						CHECK_ID, params, callback);
+			} else {
+				Dialogs.showCheckDialog(manager, "title", "message", "check",
+						params, callback);
+			}
+		}
+
+		@Override
+		void verifyContent(AlertDialog dialog) {
+			super.verifyContent(dialog);
+			CheckBox check = (CheckBox) dialog.getView().findViewById(
+					android.R.id.checkbox);
+			assertEquals(isResource() ? text(CHECK_ID) : "check",
+					String.valueOf(check.getText()));
+			assertTrue(!check.isChecked());
+		}
+
+		@Override
+		void fill(AlertDialog dialog) {
+			((CheckBox) dialog.getView().findViewById(android.R.id.checkbox))
+					.setChecked(true);
+		}
+
+		@Override
+		void verifyResult(Bundle params) {
+			super.verifyResult(params);
+			assertTrue(name, params.getBoolean(Dialogs.PARAMS_CHECKED));
+		}
+	}
+
+	static final class Custom extends DialogScenario {
+
+		Custom(boolean resource) {
+			super("custom", resource);
+		}
+
+		@Override
+		void show(LifecycleActivity activity, Bundle params,
+				DialogCallback callback) {
+			FragmentManager manager = activity.getSupportFragmentManager();
+			View view = createView(activity);
+			if (isResource()) {
+				Dialogs.showCustomDialog(manager, TITLE_ID, view, params,
+						callback);
+			} else {
+				Dialogs.showCustomDialog(manager, "title", view, params,
+						callback);
+			}
+		}
+
+		/**
+		 * 入力領域を含む独自のビューを生成します。
+		 */
+		static View createView(Context context) {
+			LinearLayout layout = new LinearLayout(context);
+			EditText input = new EditText(context);
+			input.setId(android.R.id.input);
+			layout.addView(input);
+			return layout;
+		}
+
+		@Override
+		boolean isTransient() {
+			return true;
+		}
+
+		@Override
+		void fill(AlertDialog dialog) {
+			((EditText) dialog.getView().findViewById(android.R.id.input))
+					.setText("custom");
+		}
+
+		@Override
+		void verifyResult(Bundle params) {
+			super.verifyResult(params);
+			assertEquals(name, "custom",
+					params.getString(Dialogs.PARAMS_INPUTSTR));
+		}
+	}
+}
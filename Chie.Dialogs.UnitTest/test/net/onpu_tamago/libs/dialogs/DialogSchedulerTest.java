@@ -0,0 +1,230 @@
+package net.onpu_tamago.libs.dialogs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import android.app.AlertDialog;
+import android.content.DialogInterface;
+import android.os.Looper;
+import android.support.v4.app.FragmentManager;
+import android.support.v4.app.LifecycleActivity;
+
+/**
+ * {@link DialogScheduler}の各ポリシーによる表示順・画面回転をまたぐ待ち行列・待ち時間の統計のテストです。
+ *
+ * @author 高見知英
+ */
+public class DialogSchedulerTest {
+
+	private final DialogScheduler scheduler = Dialogs.getScheduler();
+
+	private final ArrayList<LifecycleActivity> activities = new ArrayList<LifecycleActivity>();
+
+	private LifecycleActivity activity;
+
+	private int registrySize;
+
+	@Before
+	public void setUp() {
+		activity = LifecycleActivity.launch();
+		activities.add(activity);
+		registrySize = Dialogs.registry.size();
+		scheduler.resetStatistics();
+	}
+
+	@After
+	public void tearDown() {
+		for (LifecycleActivity activity : activities) {
+			if (!activity.isFinishing()) {
+				activity.finishAndDestroy();
+			}
+		}
+		scheduler.setPolicy(DialogScheduler.POLICY_NONE);
+	}
+
+	private FragmentManager manager() {
+		return activity.getSupportFragmentManager();
+	}
+
+	private DialogFuture<DialogResult> show(int id, int priority) {
+		return Dialogs.showDialogAsync(manager(), new DialogSpec.Builder()
+				.id(id).title("title").message("message")
+				.buttons(Dialogs.DIALOGBUTTON_POSITIVE).priority(priority)
+				.build());
+	}
+
+	/**
+	 * 表示中のダイアログの{@link Dialogs#ALERT_ID}を取得します。
+	 */
+	private List<Integer> shownIds() {
+		LifecycleActivity.idle();
+		ArrayList<Integer> ids = new ArrayList<Integer>();
+		for (InternalDialogFragment dialog : activity
+				.getFragments(InternalDialogFragment.class)) {
+			ids.add(dialog.getArguments().getInt(Dialogs.ALERT_ID));
+		}
+		return ids;
+	}
+
+	/**
+	 * 表示中のダイアログを順に閉じ、表示された順を取得します。
+	 */
+	private List<Integer> dismissAll() {
+		ArrayList<Integer> order = new ArrayList<Integer>();
+		LifecycleActivity.idle();
+		while (true) {
+			List<InternalDialogFragment> dialogs = activity
+					.getFragments(InternalDialogFragment.class);
+			if (dialogs.isEmpty()) {
+				return order;
+			}
+			assertEquals(1, dialogs.size());
+			order.add(dialogs.get(0).getArguments().getInt(Dialogs.ALERT_ID));
+			((AlertDialog) dialogs.get(0).getDialog())
+					.performClick(DialogInterface.BUTTON_POSITIVE);
+			LifecycleActivity.idle();
+		}
+	}
+
+	@Test
+	public void noneShowsEveryRequestAtOnce() {
+		show(1, 0);
+		show(2, 0);
+		assertEquals("[1, 2]", shownIds().toString());
+		assertEquals(0, scheduler.getQueueDepth(manager()));
+	}
+
+	@Test
+	public void firstRequestOnResumedActivityIsNotDeferred() {
+		scheduler.setPolicy(DialogScheduler.POLICY_FIFO);
+		int deferred = Dialogs.getPendingQueue().getDeferredCount();
+		show(1, 0);
+		// 表示先を追加しても、状態を保存していなければ保持しない
+		assertEquals(0, Dialogs.getPendingQueue().getPendingCount(manager()));
+		assertEquals(deferred, Dialogs.getPendingQueue().getDeferredCount());
+		assertEquals("[1]", shownIds().toString());
+	}
+
+	@Test
+	public void fifoShowsInRequestedOrder() {
+		scheduler.setPolicy(DialogScheduler.POLICY_FIFO);
+		List<DialogFuture<DialogResult>> futures = new ArrayList<DialogFuture<DialogResult>>();
+		for (int i = 1; i <= 4; i++) {
+			futures.add(show(i, 5 - i));
+		}
+		assertEquals("[1]", shownIds().toString());
+		assertEquals(3, scheduler.getQueueDepth(manager()));
+		// 優先度はPOLICY_PRIORITYの場合のみ考慮する
+		assertEquals("[1, 2, 3, 4]", dismissAll().toString());
+		for (DialogFuture<DialogResult> future : futures) {
+			assertEquals(Dialogs.BUTTON_POSITIVE, future.getNow().getButton());
+		}
+		assertEquals(0, scheduler.getQueueDepth(manager()));
+		assertEquals(registrySize, Dialogs.registry.size());
+	}
+
+	@Test
+	public void priorityShowsHighestFirst() {
+		scheduler.setPolicy(DialogScheduler.POLICY_PRIORITY);
+		show(1, 0);
+		show(2, 1);
+		show(3, 5);
+		show(4, 5);
+		show(5, -1);
+		// 表示中のダイアログは置き換えず、優先度が同じ場合は要求された順となる
+		assertEquals("[1, 3, 4, 2, 5]", dismissAll().toString());
+	}
+
+	@Test
+	public void replaceKeepsOnlyLatestRequest() {
+		scheduler.setPolicy(DialogScheduler.POLICY_REPLACE);
+		show(1, 0);
+		DialogFuture<DialogResult> second = show(2, 0);
+		DialogFuture<DialogResult> third = show(3, 0);
+		DialogFuture<DialogResult> fourth = show(4, 0);
+		assertEquals(1, scheduler.getQueueDepth(manager()));
+		assertEquals(2, scheduler.getReplacedCount());
+		assertTrue(second.isCancelled());
+		assertTrue(third.isCancelled());
+		assertEquals("[1, 4]", dismissAll().toString());
+		assertFalse(fourth.isCancelled());
+		assertEquals(registrySize, Dialogs.registry.size());
+	}
+
+	@Test
+	public void cancelledDialogAdvancesQueue() {
+		scheduler.setPolicy(DialogScheduler.POLICY_FIFO);
+		DialogFuture<DialogResult> first = show(1, 0);
+		show(2, 0);
+		assertEquals("[1]", shownIds().toString());
+		// 結果を返さずに閉じられた場合も次へ進む
+		first.cancel();
+		assertEquals("[2]", shownIds().toString());
+	}
+
+	@Test
+	public void queueSurvivesRotation() {
+		scheduler.setPolicy(DialogScheduler.POLICY_FIFO);
+		show(1, 0);
+		show(2, 0);
+		show(3, 0);
+		assertEquals("[1]", shownIds().toString());
+
+		activities.remove(activity);
+		activity = activity.rotate();
+		activities.add(activity);
+		// 回転後の新しいFragmentManagerでも、同じ待ち行列を参照する
+		assertEquals("[1]", shownIds().toString());
+		assertEquals(2, scheduler.getQueueDepth(manager()));
+		assertEquals("[1, 2, 3]", dismissAll().toString());
+		assertEquals(registrySize, Dialogs.registry.size());
+	}
+
+	@Test
+	public void finishingActivityClearsQueue() {
+		scheduler.setPolicy(DialogScheduler.POLICY_FIFO);
+		int depth = scheduler.getQueueDepth();
+		show(1, 0);
+		DialogFuture<DialogResult> queued = show(2, 0);
+		assertEquals(depth + 1, scheduler.getQueueDepth());
+		activity.finishAndDestroy();
+		assertEquals(depth, scheduler.getQueueDepth());
+		assertTrue(queued.isCancelled());
+		assertEquals(registrySize, Dialogs.registry.size());
+	}
+
+	@Test
+	public void waitTimesAreRecorded() {
+		scheduler.setPolicy(DialogScheduler.POLICY_FIFO);
+		show(1, 0);
+		show(2, 0);
+		shownIds();
+		Looper.getMainLooper().idleFor(100);
+		show(3, 0);
+		Looper.getMainLooper().idleFor(50);
+		assertEquals(150, scheduler.getOldestWaitMillis());
+
+		assertEquals("[1, 2, 3]", dismissAll().toString());
+		// 2件目は150ミリ秒、3件目は50ミリ秒待った
+		assertEquals(150, scheduler.getMaxWaitMillis());
+		assertEquals(100, scheduler.getAverageWaitMillis());
+		assertEquals(0, scheduler.getOldestWaitMillis());
+
+		scheduler.resetStatistics();
+		assertEquals(0, scheduler.getMaxWaitMillis());
+		assertEquals(0, scheduler.getAverageWaitMillis());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsUnknownPolicy() {
+		scheduler.setPolicy(DialogScheduler.POLICY_REPLACE + 1);
+	}
+}
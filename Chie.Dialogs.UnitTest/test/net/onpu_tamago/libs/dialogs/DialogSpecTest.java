@@ -0,0 +1,257 @@
+package net.onpu_tamago.libs.dialogs;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import android.os.Bundle;
+import android.support.v4.app.LifecycleActivity;
+
+/**
+ * {@link DialogSpec}の生成・フラグメントの引数への変換と、従来のBundleとの互換性のテストです。
+ *
+ * @author 高見知英
+ */
+public class DialogSpecTest {
+
+	private static DialogSpec fullSpec() {
+		return new DialogSpec.Builder().id(3).title("title").title(0x7f010001)
+				.message("message").message(0x7f010002).items("a", "b", "c")
+				.checkMessage("check").buttons(Dialogs.DIALOGBUTTON_POSITIVE)
+				.positiveCaption("yes").negativeCaption(0x7f010003)
+				.neutralCaption("later").callbackKey("key").priority(5)
+				.pageSize(20).prefetchDistance(10).build();
+	}
+
+	@Test
+	public void argumentsRebuildAnEqualSpec() {
+		DialogSpec spec = fullSpec();
+		Bundle args = spec.toArguments(42);
+		assertEquals(42, args.getInt(Dialogs.ALERT_REGISTRYKEY));
+		assertEquals(Dialogs.SESSION, args.getLong(Dialogs.ALERT_SESSION));
+
+		DialogSpec rebuilt = DialogSpec.fromBundle(args);
+		assertEquals(spec, rebuilt);
+		assertEquals(spec.hashCode(), rebuilt.hashCode());
+		// 再構築した内容から生成した引数も、キーを除いて同じになる
+		Bundle again = rebuilt.toArguments(43);
+		assertEquals(43, again.getInt(Dialogs.ALERT_REGISTRYKEY));
+		again.putInt(Dialogs.ALERT_REGISTRYKEY, 42);
+		assertBundleEquals(args, again);
+	}
+
+	@Test
+	public void typedFieldsUseLegacyKeys() {
+		Bundle args = fullSpec().toArguments(0);
+		assertEquals(3, args.getInt(Dialogs.ALERT_ID));
+		assertEquals("title", args.getString(Dialogs.ALERT_TITLE));
+		assertEquals(0x7f010001, args.getInt(Dialogs.ALERT_TITLEID));
+		assertEquals("message", args.getString(Dialogs.ALERT_MESSAGE));
+		assertEquals(0x7f010002, args.getInt(Dialogs.ALERT_MESSAGEID));
+		assertArrayEquals(new String[] { "a", "b", "c" },
+				args.getStringArray(Dialogs.ALERT_MESSAGEARRAY));
+		assertEquals("check", args.getString(Dialogs.ALERT_APPENDMESSAGE));
+		assertEquals(Dialogs.VIEWID_CHECKDLG,
+				args.getInt(Dialogs.ALERT_VIEWID));
+		assertEquals(Dialogs.DIALOGBUTTON_POSITIVE,
+				args.getInt(Dialogs.ALERT_BUTTONS));
+		assertEquals("yes", args.getString(Dialogs.ALERT_POSCAPTION));
+		assertEquals(0x7f010003, args.getInt(Dialogs.ALERT_NEGCAPTIONID));
+		assertEquals("later", args.getString(Dialogs.ALERT_NEUCAPTION));
+		assertEquals("key", args.getString(Dialogs.ALERT_CALLBACKKEY));
+		assertEquals(5, args.getInt(Dialogs.ALERT_PRIORITY));
+		assertEquals(20, args.getInt(Dialogs.ALERT_PAGESIZE));
+		assertEquals(10, args.getInt(Dialogs.ALERT_PREFETCH));
+	}
+
+	@Test
+	public void unsetFieldsAreNotWritten() {
+		Bundle args = new DialogSpec.Builder().message("only").build()
+				.toArguments(1);
+		// 既定値を用いる項目は、キーの有無で判定されるため書き込まない
+		assertEquals(3, args.size());
+		assertFalse(args.containsKey(Dialogs.ALERT_ID));
+		assertFalse(args.containsKey(Dialogs.ALERT_BUTTONS));
+		assertFalse(args.containsKey(Dialogs.ALERT_TITLE));
+		assertFalse(new DialogSpec.Builder().build().hasId());
+		assertTrue(new DialogSpec.Builder().id(0).build().hasId());
+	}
+
+	@Test
+	public void legacyParamsAreAdoptedAndOverridden() {
+		Bundle params = new Bundle();
+		params.putInt(Dialogs.ALERT_ID, 9);
+		params.putString(Dialogs.ALERT_POSCAPTION, "ok");
+		params.putInt(Dialogs.ALERT_BUTTONS, Dialogs.DIALOGBUTTON_NEUTRAL);
+		DialogSpec spec = new DialogSpec.Builder().params(params)
+				.title("override").build();
+		Bundle args = spec.toArguments(0);
+		assertEquals(9, args.getInt(Dialogs.ALERT_ID));
+		assertEquals("ok", args.getString(Dialogs.ALERT_POSCAPTION));
+		assertEquals("override", args.getString(Dialogs.ALERT_TITLE));
+		// 呼び出し元が指定したボタンは、オーバーロードの既定値より優先される
+		DialogSpec defaulted = new DialogSpec.Builder().params(params)
+				.defaultButtons(Dialogs.DIALOGBUTTON_POSITIVE).build();
+		assertEquals(Dialogs.DIALOGBUTTON_NEUTRAL, defaulted.toArguments(0)
+				.getInt(Dialogs.ALERT_BUTTONS));
+		assertEquals(DialogSpec.fromBundle(null), new DialogSpec.Builder()
+				.build());
+	}
+
+	@Test
+	public void knownKeysOnlyAddNoExtras() {
+		Bundle params = new Bundle();
+		params.putInt(Dialogs.ALERT_ID, 9);
+		params.putString(Dialogs.ALERT_CALLBACKKEY, "key");
+		params.putInt(Dialogs.ALERT_REGISTRYKEY, 5);
+		params.putLong(Dialogs.ALERT_SESSION, 7);
+		DialogSpec spec = DialogSpec.fromBundle(params);
+		// 追加の値を持たないため、型付きのフィールドのみで生成したものと等しい
+		DialogSpec typed = new DialogSpec.Builder().id(9).callbackKey("key")
+				.build();
+		assertEquals(typed, spec);
+		assertBundleEquals(typed.toArguments(1), spec.toArguments(1));
+	}
+
+	@Test
+	public void unknownKeysAreCarriedAsExtras() {
+		Bundle params = new Bundle();
+		params.putString(Dialogs.ALERT_TITLE, "title");
+		params.putString("app:account", "alice");
+		params.putIntArray("app:rows", new int[] { 1, 2 });
+		DialogSpec spec = DialogSpec.fromBundle(params);
+		Bundle args = spec.toArguments(0);
+		assertEquals("alice", args.getString("app:account"));
+		assertArrayEquals(new int[] { 1, 2 }, args.getIntArray("app:rows"));
+
+		// 配列の値は内容で比較する
+		Bundle same = new Bundle(params);
+		same.putIntArray("app:rows", new int[] { 1, 2 });
+		assertEquals(spec, DialogSpec.fromBundle(same));
+		same.putString("app:account", "bob");
+		assertNotEquals(spec, DialogSpec.fromBundle(same));
+
+		// 元のBundleを変更しても影響しない
+		params.putString("app:account", "carol");
+		params.putString("app:added", "x");
+		Bundle later = spec.toArguments(0);
+		assertEquals("alice", later.getString("app:account"));
+		assertFalse(later.containsKey("app:added"));
+	}
+
+	@Test
+	public void buildUponLeavesOriginalUnchanged() {
+		Bundle params = new Bundle();
+		params.putString("app:first", "1");
+		DialogSpec base = DialogSpec.fromBundle(params);
+		Bundle more = new Bundle();
+		more.putString("app:second", "2");
+		DialogSpec derived = base.buildUpon().params(more).title("t").build();
+
+		Bundle baseArgs = base.toArguments(0);
+		assertFalse(baseArgs.containsKey("app:second"));
+		assertNull(baseArgs.getString(Dialogs.ALERT_TITLE));
+		Bundle derivedArgs = derived.toArguments(0);
+		assertEquals("1", derivedArgs.getString("app:first"));
+		assertEquals("2", derivedArgs.getString("app:second"));
+		assertEquals("t", derivedArgs.getString(Dialogs.ALERT_TITLE));
+	}
+
+	@Test
+	public void itemsAreCopiedOnBuild() {
+		String[] items = { "a", "b" };
+		DialogSpec.Builder builder = new DialogSpec.Builder().items(items);
+		DialogSpec spec = builder.build();
+		items[0] = "changed";
+		assertArrayEquals(new String[] { "a", "b" }, spec.toArguments(0)
+				.getStringArray(Dialogs.ALERT_MESSAGEARRAY));
+	}
+
+	@Test
+	public void sharedSpecIsSafeAcrossThreads() throws Exception {
+		final DialogSpec spec = fullSpec();
+		final Bundle expected = spec.toArguments(0);
+		final CountDownLatch start = new CountDownLatch(1);
+		final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+		Thread[] threads = new Thread[8];
+		for (int t = 0; t < threads.length; t++) {
+			threads[t] = new Thread() {
+				@Override
+				public void run() {
+					try {
+						start.await();
+						for (int i = 0; i < 1000; i++) {
+							Bundle args = spec.toArguments(0);
+							assertBundleEquals(expected, args);
+							assertEquals(spec, DialogSpec.fromBundle(args));
+						}
+					} catch (Throwable e) {
+						failure.set(e);
+					}
+				}
+			};
+			threads[t].start();
+		}
+		start.countDown();
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		if (failure.get() != null) {
+			throw new AssertionError(failure.get());
+		}
+	}
+
+	@Test
+	public void legacyOverloadsMatchTheBundlePath() {
+		LifecycleActivity activity = LifecycleActivity.launch();
+		try {
+			Bundle params = new Bundle();
+			params.putInt(Dialogs.ALERT_ID, 1);
+			params.putString("app:extra", "kept");
+			Dialogs.showAlertDialog(activity.getSupportFragmentManager(),
+					"title", "message", params, null);
+			Bundle legacy = new Bundle(params);
+			legacy.putString(Dialogs.ALERT_TITLE, "title");
+			legacy.putString(Dialogs.ALERT_MESSAGE, "message");
+			legacy.putInt(Dialogs.ALERT_BUTTONS, Dialogs.DIALOGBUTTON_POSITIVE
+					| Dialogs.DIALOGBUTTON_NEGATIVE);
+			Dialogs.showDialog(activity.getSupportFragmentManager(), legacy,
+					null, null);
+			LifecycleActivity.idle();
+
+			List<InternalDialogFragment> dialogs = activity
+					.getFragments(InternalDialogFragment.class);
+			assertEquals(2, dialogs.size());
+			Bundle first = new Bundle(dialogs.get(0).getArguments());
+			Bundle second = new Bundle(dialogs.get(1).getArguments());
+			first.remove(Dialogs.ALERT_REGISTRYKEY);
+			second.remove(Dialogs.ALERT_REGISTRYKEY);
+			assertBundleEquals(first, second);
+			assertEquals("kept", first.getString("app:extra"));
+		} finally {
+			activity.finishAndDestroy();
+		}
+	}
+
+	private static void assertBundleEquals(Bundle expected, Bundle actual) {
+		assertEquals(expected.keySet(), actual.keySet());
+		for (String key : expected.keySet()) {
+			Object e = expected.get(key);
+			Object a = actual.get(key);
+			if (e instanceof Object[]) {
+				assertArrayEquals(key, (Object[]) e, (Object[]) a);
+			} else {
+				assertEquals(key, e, a);
+			}
+		}
+	}
+}
@@ -0,0 +1,175 @@
+package net.onpu_tamago.libs.dialogs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import android.os.Bundle;
+import android.os.Looper;
+import android.support.v4.app.FragmentManager;
+import android.support.v4.app.LifecycleActivity;
+
+/**
+ * 多数のワーカースレッドから同時に表示を要求した場合のテストです。
+ * 要求が失われず、すべてのダイアログに異なるキーが割り当てられることを確認します。
+ *
+ * @author 高見知英
+ */
+public class DispatcherStressTest {
+
+	private static final int THREADS = 16;
+
+	private static final int REQUESTS_PER_THREAD = 250;
+
+	private LifecycleActivity activity;
+
+	@Before
+	public void setUp() {
+		activity = LifecycleActivity.launch();
+	}
+
+	@After
+	public void tearDown() {
+		activity.finishAndDestroy();
+	}
+
+	@Test
+	public void producersLoseNoRequests() throws Exception {
+		final FragmentManager manager = activity.getSupportFragmentManager();
+		int before = Dialogs.registry.size();
+		final CountDownLatch start = new CountDownLatch(1);
+		final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+		Thread[] producers = new Thread[THREADS];
+		for (int t = 0; t < THREADS; t++) {
+			final int thread = t;
+			producers[t] = new Thread("producer-" + t) {
+				@Override
+				public void run() {
+					try {
+						start.await();
+						for (int i = 0; i < REQUESTS_PER_THREAD; i++) {
+							Bundle params = new Bundle();
+							params.putString(Dialogs.ALERT_TITLE, "producer");
+							params.putString(Dialogs.ALERT_MESSAGE, thread
+									+ "/" + i);
+							params.putInt(Dialogs.ALERT_ID, thread
+									* REQUESTS_PER_THREAD + i);
+							Dialogs.showDialog(manager, params, null, null);
+						}
+					} catch (Throwable e) {
+						failure.set(e);
+					}
+				}
+			};
+			producers[t].start();
+		}
+		start.countDown();
+		// 要求を受け付けながら、メインスレッドで表示する
+		Looper main = Looper.getMainLooper();
+		for (Thread producer : producers) {
+			while (producer.isAlive()) {
+				main.idle();
+				Thread.yield();
+			}
+			producer.join();
+		}
+		main.idle();
+		if (failure.get() != null) {
+			throw new AssertionError(failure.get());
+		}
+
+		int total = THREADS * REQUESTS_PER_THREAD;
+		List<InternalDialogFragment> dialogs = activity
+				.getFragments(InternalDialogFragment.class);
+		assertEquals(total, dialogs.size());
+		assertEquals(total, Dialogs.registry.size() - before);
+		HashSet<Integer> keys = new HashSet<Integer>();
+		HashSet<Integer> ids = new HashSet<Integer>();
+		int[] lastIndex = new int[THREADS];
+		for (int t = 0; t < THREADS; t++) {
+			lastIndex[t] = -1;
+		}
+		for (InternalDialogFragment dialog : dialogs) {
+			Bundle args = dialog.getArguments();
+			assertTrue(keys.add(args.getInt(Dialogs.ALERT_REGISTRYKEY)));
+			int id = args.getInt(Dialogs.ALERT_ID);
+			assertTrue(ids.add(id));
+			assertTrue(dialog.getDialog().isShowing());
+			// 同じスレッドからの要求は、要求した順に表示される
+			int thread = id / REQUESTS_PER_THREAD;
+			assertTrue(id % REQUESTS_PER_THREAD > lastIndex[thread]);
+			lastIndex[thread] = id % REQUESTS_PER_THREAD;
+		}
+		assertEquals(total, ids.size());
+
+		// 閉じればレジストリも元に戻る
+		for (InternalDialogFragment dialog : dialogs) {
+			dialog.dismiss();
+		}
+		main.idle();
+		assertEquals(before, Dialogs.registry.size());
+		assertTrue(activity.getFragments(InternalDialogFragment.class)
+				.isEmpty());
+	}
+
+	@Test
+	public void concurrentKeysAreUnique() throws Exception {
+		final int perThread = 10000;
+		final List<Integer> keys = Collections
+				.synchronizedList(new ArrayList<Integer>());
+		Thread[] threads = new Thread[THREADS];
+		for (int t = 0; t < THREADS; t++) {
+			threads[t] = new Thread() {
+				@Override
+				public void run() {
+					int[] local = new int[perThread];
+					for (int i = 0; i < perThread; i++) {
+						local[i] = Dialogs.registry.nextKey();
+					}
+					for (int key : local) {
+						keys.add(key);
+					}
+				}
+			};
+			threads[t].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertEquals(THREADS * perThread, new HashSet<Integer>(keys).size());
+	}
+
+	@Test
+	public void mainThreadRequestsRunAfterEarlierWorkerRequests()
+			throws Exception {
+		final FragmentManager manager = activity.getSupportFragmentManager();
+		Thread worker = new Thread() {
+			@Override
+			public void run() {
+				Dialogs.showDialog(manager, new DialogSpec.Builder()
+						.id(1).message("worker").build(), null, null);
+			}
+		};
+		worker.start();
+		worker.join();
+		// ワーカーの要求がメインスレッドに届く前に、メインスレッドから要求する
+		Dialogs.showDialog(manager, new DialogSpec.Builder().id(2)
+				.message("main").build(), null, null);
+		LifecycleActivity.idle();
+		List<InternalDialogFragment> dialogs = activity
+				.getFragments(InternalDialogFragment.class);
+		assertEquals(2, dialogs.size());
+		assertEquals(1, dialogs.get(0).getArguments().getInt(Dialogs.ALERT_ID));
+		assertEquals(2, dialogs.get(1).getArguments().getInt(Dialogs.ALERT_ID));
+	}
+}
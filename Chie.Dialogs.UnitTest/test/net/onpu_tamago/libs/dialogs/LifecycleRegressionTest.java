@@ -0,0 +1,256 @@
+package net.onpu_tamago.libs.dialogs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+
+import net.onpu_tamago.libs.dialogs.DialogScenario.Recorder;
+import net.onpu_tamago.libs.dialogs.Dialogs.DialogCallback;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import android.app.AlertDialog;
+import android.content.DialogInterface;
+import android.os.Bundle;
+import android.support.v4.app.LifecycleActivity;
+
+/**
+ * 各種のダイアログが、画面回転・プロセスの再生成・状態の保存後の表示要求を経ても、
+ * 正しく表示され結果を通知することを確認します。
+ *
+ * @author 高見知英
+ */
+@RunWith(Parameterized.class)
+public class LifecycleRegressionTest {
+
+	private static final String CALLBACK_KEY = "answer";
+
+	@Parameters(name = "{0}")
+	public static Collection<Object[]> scenarios() {
+		ArrayList<Object[]> list = new ArrayList<Object[]>();
+		for (DialogScenario scenario : DialogScenario.all()) {
+			list.add(new Object[] { scenario.name, scenario });
+		}
+		return list;
+	}
+
+	private final DialogScenario scenario;
+
+	private final ArrayList<LifecycleActivity> activities = new ArrayList<LifecycleActivity>();
+
+	private int registrySize;
+
+	public LifecycleRegressionTest(String name, DialogScenario scenario) {
+		this.scenario = scenario;
+	}
+
+	@Before
+	public void setUp() {
+		LifecycleActivity.idle();
+		registrySize = Dialogs.registry.size();
+	}
+
+	@After
+	public void tearDown() {
+		for (LifecycleActivity activity : activities) {
+			if (!activity.isFinishing()) {
+				activity.finishAndDestroy();
+			}
+		}
+	}
+
+	private LifecycleActivity launch() {
+		return track(LifecycleActivity.launch());
+	}
+
+	private LifecycleActivity track(LifecycleActivity activity) {
+		activities.add(activity);
+		return activity;
+	}
+
+	/**
+	 * 画面を回転します。 元のアクティビティは破棄されます。
+	 */
+	private LifecycleActivity rotate(LifecycleActivity activity) {
+		activities.remove(activity);
+		return track(activity.rotate());
+	}
+
+	private static Bundle params() {
+		Bundle params = new Bundle();
+		params.putInt(Dialogs.ALERT_ID, 7);
+		params.putString(Dialogs.ALERT_CALLBACKKEY, CALLBACK_KEY);
+		return params;
+	}
+
+	/**
+	 * 表示中のダイアログが一つだけであることを確認し、取得します。
+	 */
+	private AlertDialog showing(LifecycleActivity activity) {
+		List<InternalDialogFragment> dialogs = activity
+				.getFragments(InternalDialogFragment.class);
+		assertEquals(scenario.name, 1, dialogs.size());
+		AlertDialog dialog = (AlertDialog) dialogs.get(0).getDialog();
+		assertTrue(scenario.name, dialog.isShowing());
+		scenario.verifyContent(dialog);
+		return dialog;
+	}
+
+	/**
+	 * 利用者が操作して閉じ、結果が通知されてデータが削除されることを確認します。
+	 */
+	private void answerAndVerify(LifecycleActivity activity, Recorder recorder) {
+		scenario.answer(showing(activity));
+		LifecycleActivity.idle();
+		Bundle result = recorder.single();
+		scenario.verifyResult(result);
+		assertEquals(7, result.getInt(Dialogs.PARAMS_ID));
+		assertTrue(activity.getFragments(InternalDialogFragment.class)
+				.isEmpty());
+		assertEquals(registrySize, Dialogs.registry.size());
+	}
+
+	@Test
+	public void deliversResult() {
+		LifecycleActivity activity = launch();
+		Recorder recorder = new Recorder();
+		scenario.show(activity, params(), recorder);
+		LifecycleActivity.idle();
+		answerAndVerify(activity, recorder);
+		// Resultのメソッドは押されたボタン・選択肢に応じて呼び分けられる
+		String expected;
+		if (scenario.answer() == DialogInterface.BUTTON_POSITIVE) {
+			expected = "positive";
+		} else if (scenario.answer() == DialogInterface.BUTTON_NEGATIVE) {
+			expected = "negative";
+		} else {
+			expected = "select";
+		}
+		assertEquals(expected, recorder.methods.get(0));
+	}
+
+	@Test
+	public void cancelDeliversCancel() {
+		LifecycleActivity activity = launch();
+		Recorder recorder = new Recorder();
+		scenario.show(activity, params(), recorder);
+		LifecycleActivity.idle();
+		showing(activity).cancel();
+		LifecycleActivity.idle();
+		assertEquals(Dialogs.CANCEL, recorder.single().getInt(
+				Dialogs.PARAMS_PRESSBUTTON));
+		assertEquals("cancel", recorder.methods.get(0));
+		assertTrue(activity.getFragments(InternalDialogFragment.class)
+				.isEmpty());
+		assertEquals(registrySize, Dialogs.registry.size());
+	}
+
+	@Test
+	public void survivesRotation() {
+		LifecycleActivity activity = launch();
+		Recorder recorder = new Recorder();
+		scenario.show(activity, params(), recorder);
+		LifecycleActivity.idle();
+		int key = activity.getFragments(InternalDialogFragment.class).get(0)
+				.getArguments().getInt(Dialogs.ALERT_REGISTRYKEY);
+		AlertDialog before = showing(activity);
+
+		LifecycleActivity rotated = rotate(activity);
+		// ダイアログは作り直され、同じデータを参照し続ける
+		AlertDialog after = showing(rotated);
+		assertNotSame(before, after);
+		assertTrue(!before.isShowing());
+		assertEquals(key, rotated.getFragments(InternalDialogFragment.class)
+				.get(0).getArguments().getInt(Dialogs.ALERT_REGISTRYKEY));
+		assertEquals(registrySize + 1, Dialogs.registry.size());
+		assertTrue(recorder.results.isEmpty());
+		answerAndVerify(rotated, recorder);
+	}
+
+	@Test
+	public void survivesRepeatedRotation() {
+		LifecycleActivity activity = launch();
+		Recorder recorder = new Recorder();
+		scenario.show(activity, params(), recorder);
+		LifecycleActivity.idle();
+		for (int i = 0; i < 5; i++) {
+			activity = rotate(activity);
+			showing(activity);
+			assertEquals(registrySize + 1, Dialogs.registry.size());
+		}
+		answerAndVerify(activity, recorder);
+	}
+
+	@Test
+	public void processDeathRestoresOrDiscards() {
+		LifecycleActivity activity = launch();
+		Recorder original = new Recorder();
+		scenario.show(activity, params(), original);
+		LifecycleActivity.idle();
+		Bundle state = activity.moveToBackground();
+		// 以前のプロセスで保存された状態とし、メモリ上のデータも失われたものとする
+		ArrayList<Bundle> saved = LifecycleActivity.getSavedArguments(state);
+		assertEquals(1, saved.size());
+		for (Bundle args : saved) {
+			args.putLong(Dialogs.ALERT_SESSION, Dialogs.SESSION - 1);
+		}
+		activity.finishAndDestroy();
+		assertEquals(registrySize, Dialogs.registry.size());
+
+		Recorder restored = new Recorder();
+		HashMap<String, DialogCallback> callbacks = new HashMap<String, DialogCallback>();
+		callbacks.put(CALLBACK_KEY, restored);
+		LifecycleActivity next = track(LifecycleActivity.restore(state,
+				callbacks));
+		if (scenario.isTransient()) {
+			// 独自のビューは復元できないため、表示せずに破棄する
+			assertTrue(next.getFragments(InternalDialogFragment.class)
+					.isEmpty());
+			assertEquals(registrySize, Dialogs.registry.size());
+		} else {
+			// 新しいアクティビティが提供するコールバックに結果を通知する
+			assertEquals(registrySize + 1, Dialogs.registry.size());
+			answerAndVerify(next, restored);
+		}
+		assertTrue(original.results.isEmpty());
+	}
+
+	@Test
+	public void requestAfterStateSaveIsShownOnResume() {
+		LifecycleActivity activity = launch();
+		activity.moveToBackground();
+		Recorder recorder = new Recorder();
+		scenario.show(activity, params(), recorder);
+		LifecycleActivity.idle();
+		// 状態の保存後はコミットできないため、再開するまで保持する
+		assertTrue(activity.getFragments(InternalDialogFragment.class)
+				.isEmpty());
+		assertEquals(registrySize + 1, Dialogs.registry.size());
+
+		activity.resume();
+		answerAndVerify(activity, recorder);
+	}
+
+	@Test
+	public void requestAfterStateSaveSurvivesRotation() {
+		LifecycleActivity activity = launch();
+		activity.moveToBackground();
+		Recorder recorder = new Recorder();
+		scenario.show(activity, params(), recorder);
+		LifecycleActivity.idle();
+
+		// 保持している間に画面が回転した場合は、新しいアクティビティに表示する
+		LifecycleActivity rotated = rotate(activity);
+		answerAndVerify(rotated, recorder);
+	}
+}
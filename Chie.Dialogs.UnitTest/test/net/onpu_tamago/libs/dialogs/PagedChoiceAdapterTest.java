@@ -0,0 +1,258 @@
+package net.onpu_tamago.libs.dialogs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.onpu_tamago.libs.dialogs.CursorChoiceAdapterTest.CountingObserver;
+import net.onpu_tamago.libs.dialogs.CursorChoiceAdapterTest.ManualExecutor;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import android.app.Activity;
+import android.os.Looper;
+import android.widget.TextView;
+
+/**
+ * {@link PagedChoiceAdapter}の総数の再試行・読み込めなかったページの再読み込み・
+ * 表示位置から離れたページの破棄のテストです。
+ *
+ * @author 高見知英
+ */
+public class PagedChoiceAdapterTest {
+
+	private static final int TOTAL = 100;
+
+	private static final int PAGE_SIZE = 10;
+
+	/**
+	 * 指定した回数だけ失敗した後に成功するデータソースです。 呼び出しを記録します。
+	 */
+	static final class FlakySource implements PagedChoiceSource {
+
+		int countFailures;
+		int pageFailures;
+		int countCalls;
+		final List<Integer> loadedStarts = new ArrayList<Integer>();
+
+		@Override
+		public synchronized int getCount() {
+			countCalls++;
+			if (countFailures > 0) {
+				countFailures--;
+				throw new IllegalStateException("count");
+			}
+			return TOTAL;
+		}
+
+		@Override
+		public synchronized String[] loadPage(int start, int count) {
+			loadedStarts.add(start);
+			if (pageFailures > 0) {
+				pageFailures--;
+				throw new IllegalStateException("page " + start);
+			}
+			String[] items = new String[count];
+			for (int i = 0; i < count; i++) {
+				items[i] = "item" + (start + i);
+			}
+			return items;
+		}
+	}
+
+	private final Looper main = Looper.getMainLooper();
+
+	private final ManualExecutor executor = new ManualExecutor();
+
+	private final FlakySource source = new FlakySource();
+
+	private final CountingObserver observer = new CountingObserver();
+
+	private final Activity activity = new Activity();
+
+	@Before
+	public void setUp() {
+		main.idle();
+	}
+
+	@After
+	public void tearDown() {
+		main.reset();
+	}
+
+	private PagedChoiceAdapter newAdapter() {
+		PagedChoiceAdapter adapter = new PagedChoiceAdapter(activity, source,
+				executor, PAGE_SIZE, 0);
+		adapter.registerDataSetObserver(observer);
+		return adapter;
+	}
+
+	/**
+	 * 投入された読み込みを実行し、結果を反映します。
+	 */
+	private void runLoads() throws InterruptedException {
+		executor.runAll();
+		main.idle();
+	}
+
+	/**
+	 * 総数を読み込んだアダプタを生成します。
+	 */
+	private PagedChoiceAdapter loadedAdapter() throws InterruptedException {
+		PagedChoiceAdapter adapter = newAdapter();
+		runLoads();
+		assertEquals(TOTAL, adapter.getCount());
+		return adapter;
+	}
+
+	/**
+	 * 指定した位置の行を表示します。
+	 */
+	private String bind(PagedChoiceAdapter adapter, int position) {
+		TextView view = (TextView) adapter.getView(position, new TextView(
+				activity), null);
+		return view.getText().toString();
+	}
+
+	@Test
+	public void countIsRetriedWithBackoff() throws Exception {
+		source.countFailures = 2;
+		PagedChoiceAdapter adapter = newAdapter();
+		runLoads();
+		assertEquals(0, adapter.getCount());
+		assertEquals(0, executor.size());
+
+		// 1回目の再試行は1秒後
+		main.idleFor(999);
+		assertEquals(0, executor.size());
+		main.idleFor(1);
+		assertEquals(1, executor.size());
+		runLoads();
+		assertEquals(0, adapter.getCount());
+
+		// 2回目は間隔を倍にする
+		main.idleFor(1999);
+		assertEquals(0, executor.size());
+		main.idleFor(1);
+		runLoads();
+		assertEquals(TOTAL, adapter.getCount());
+		assertEquals(3, source.countCalls);
+		assertEquals(1, observer.changed);
+		adapter.release();
+	}
+
+	@Test
+	public void countRetriesAreBounded() throws Exception {
+		source.countFailures = Integer.MAX_VALUE;
+		PagedChoiceAdapter adapter = newAdapter();
+		runLoads();
+		for (long delay = 1000; delay <= 4000; delay *= 2) {
+			main.idleFor(delay);
+			runLoads();
+		}
+		assertEquals(4, source.countCalls);
+		// 最初の読み込みと3回の再試行の後は諦める
+		main.idleFor(60000);
+		assertEquals(0, executor.size());
+		assertEquals(0, adapter.getCount());
+		assertEquals(0, observer.changed);
+	}
+
+	@Test
+	public void releaseCancelsCountRetry() throws Exception {
+		source.countFailures = 1;
+		PagedChoiceAdapter adapter = newAdapter();
+		runLoads();
+		adapter.release();
+		main.idleFor(1000);
+		assertEquals(0, executor.size());
+		assertEquals(1, source.countCalls);
+	}
+
+	@Test
+	public void failedPageIsLoadedAgainWhenShown() throws Exception {
+		PagedChoiceAdapter adapter = loadedAdapter();
+		source.pageFailures = 1;
+		assertEquals("…", bind(adapter, 3));
+		runLoads();
+		assertNull(adapter.getChoice(3));
+		assertFalse(adapter.isEnabled(3));
+
+		// 次に表示される際に読み込み直す
+		assertEquals("…", bind(adapter, 3));
+		assertEquals(1, executor.size());
+		runLoads();
+		assertEquals("item3", bind(adapter, 3));
+		assertTrue(adapter.isEnabled(3));
+		assertEquals("[0, 0]", source.loadedStarts.toString());
+		adapter.release();
+	}
+
+	@Test
+	public void loadedPageIsNotLoadedTwice() throws Exception {
+		PagedChoiceAdapter adapter = loadedAdapter();
+		bind(adapter, 0);
+		// 読み込み中に再び表示しても、重ねて読み込まない
+		bind(adapter, 1);
+		assertEquals(1, executor.size());
+		runLoads();
+		for (int i = 0; i < PAGE_SIZE; i++) {
+			assertEquals("item" + i, bind(adapter, i));
+		}
+		assertEquals(0, executor.size());
+		assertEquals("[0]", source.loadedStarts.toString());
+		adapter.release();
+	}
+
+	@Test
+	public void distantPagesAreDroppedWhileScrolling() throws Exception {
+		PagedChoiceAdapter adapter = loadedAdapter();
+		for (int position = 0; position < TOTAL; position++) {
+			bind(adapter, position);
+			runLoads();
+		}
+		// 表示位置(9ページ目)から2ページより離れたページは保持しない
+		assertNull(adapter.getChoice(0));
+		assertNull(adapter.getChoice(69));
+		assertEquals("item70", adapter.getChoice(70));
+		assertEquals("item99", adapter.getChoice(99));
+		assertEquals(TOTAL / PAGE_SIZE, source.loadedStarts.size());
+
+		// 戻った場合は読み込み直す
+		assertEquals("…", bind(adapter, 5));
+		runLoads();
+		assertEquals("item5", bind(adapter, 5));
+		assertEquals(TOTAL / PAGE_SIZE + 1, source.loadedStarts.size());
+		adapter.release();
+	}
+
+	@Test
+	public void pageLeftBehindDuringLoadIsNotKept() throws Exception {
+		PagedChoiceAdapter adapter = loadedAdapter();
+		bind(adapter, 0);
+		// 読み込みの完了前に離れた位置へ移動した
+		bind(adapter, 50);
+		runLoads();
+		assertNull(adapter.getChoice(0));
+		assertEquals("item50", adapter.getChoice(50));
+		adapter.release();
+	}
+
+	@Test
+	public void releaseDiscardsInFlightPages() throws Exception {
+		PagedChoiceAdapter adapter = loadedAdapter();
+		int changed = observer.changed;
+		bind(adapter, 0);
+		adapter.release();
+		runLoads();
+		// 解放前の世代の結果は反映しない
+		assertNull(adapter.getChoice(0));
+		assertEquals(changed, observer.changed);
+	}
+}
@@ -0,0 +1,245 @@
+package net.onpu_tamago.libs.dialogs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import android.app.AlertDialog;
+import android.content.DialogInterface;
+import android.support.v4.app.FragmentManager;
+import android.support.v4.app.LifecycleActivity;
+
+/**
+ * {@link PendingQueue}の保持する数・超過時の破棄・統合と、各種の計数のテストです。
+ *
+ * @author 高見知英
+ */
+public class PendingQueueTest {
+
+	private final PendingQueue queue = Dialogs.getPendingQueue();
+
+	private final ArrayList<LifecycleActivity> activities = new ArrayList<LifecycleActivity>();
+
+	private LifecycleActivity activity;
+
+	private int registrySize;
+
+	@Before
+	public void setUp() {
+		activity = LifecycleActivity.launch();
+		activities.add(activity);
+		registrySize = Dialogs.registry.size();
+		queue.resetStatistics();
+	}
+
+	@After
+	public void tearDown() {
+		for (LifecycleActivity activity : activities) {
+			if (!activity.isFinishing()) {
+				activity.finishAndDestroy();
+			}
+		}
+		queue.setCapacity(PendingQueue.DEFAULT_CAPACITY);
+		queue.setOverflowPolicy(PendingQueue.OVERFLOW_DROP_OLDEST);
+		Dialogs.getScheduler().setPolicy(DialogScheduler.POLICY_NONE);
+	}
+
+	private FragmentManager manager() {
+		return activity.getSupportFragmentManager();
+	}
+
+	private DialogFuture<DialogResult> show(int id, String message) {
+		return Dialogs.showDialogAsync(manager(), new DialogSpec.Builder()
+				.id(id).title("title").message(message)
+				.buttons(Dialogs.DIALOGBUTTON_POSITIVE).build());
+	}
+
+	private List<InternalDialogFragment> shown() {
+		LifecycleActivity.idle();
+		return activity.getFragments(InternalDialogFragment.class);
+	}
+
+	private List<Integer> shownIds() {
+		ArrayList<Integer> ids = new ArrayList<Integer>();
+		for (InternalDialogFragment dialog : shown()) {
+			ids.add(dialog.getArguments().getInt(Dialogs.ALERT_ID));
+		}
+		return ids;
+	}
+
+	private void assertCounts(int deferred, int deduped, int dropped,
+			int flushed) {
+		assertEquals("deferred", deferred, queue.getDeferredCount());
+		assertEquals("deduped", deduped, queue.getDedupedCount());
+		assertEquals("dropped", dropped, queue.getDroppedCount());
+		assertEquals("flushed", flushed, queue.getFlushedCount());
+	}
+
+	@Test
+	public void requestsOnResumedActivityAreNotCounted() {
+		show(1, "message");
+		show(2, "message");
+		assertEquals("[1, 2]", shownIds().toString());
+		assertCounts(0, 0, 0, 0);
+	}
+
+	@Test
+	public void requestsThroughSchedulerAreNotCounted() {
+		// 待ち行列のために表示先を追加しても、保持したことにはならない
+		Dialogs.getScheduler().setPolicy(DialogScheduler.POLICY_FIFO);
+		show(1, "message");
+		show(2, "message");
+		assertEquals("[1]", shownIds().toString());
+		assertCounts(0, 0, 0, 0);
+	}
+
+	@Test
+	public void heldRequestsAreFlushedOnResume() {
+		activity.moveToBackground();
+		show(1, "message");
+		show(2, "message");
+		show(3, "message");
+		assertTrue(shown().isEmpty());
+		assertEquals(3, queue.getPendingCount(manager()));
+		assertCounts(3, 0, 0, 0);
+
+		activity.resume();
+		assertEquals("[1, 2, 3]", shownIds().toString());
+		assertEquals(0, queue.getPendingCount(manager()));
+		assertCounts(3, 0, 0, 3);
+		assertEquals(registrySize + 3, Dialogs.registry.size());
+	}
+
+	@Test
+	public void overflowDropsOldest() {
+		queue.setCapacity(2);
+		activity.moveToBackground();
+		DialogFuture<DialogResult> first = show(1, "message");
+		DialogFuture<DialogResult> second = show(2, "message");
+		DialogFuture<DialogResult> third = show(3, "message");
+		assertEquals(2, queue.getPendingCount(manager()));
+		assertTrue(first.isCancelled());
+		assertFalse(second.isDone());
+		assertCounts(3, 0, 1, 0);
+
+		activity.resume();
+		assertEquals("[2, 3]", shownIds().toString());
+		assertCounts(3, 0, 1, 2);
+		assertFalse(third.isDone());
+		assertEquals(registrySize + 2, Dialogs.registry.size());
+	}
+
+	@Test
+	public void overflowDropsNewest() {
+		queue.setCapacity(2);
+		queue.setOverflowPolicy(PendingQueue.OVERFLOW_DROP_NEWEST);
+		activity.moveToBackground();
+		DialogFuture<DialogResult> first = show(1, "message");
+		show(2, "message");
+		DialogFuture<DialogResult> third = show(3, "message");
+		DialogFuture<DialogResult> fourth = show(4, "message");
+		assertEquals(2, queue.getPendingCount(manager()));
+		assertTrue(third.isCancelled());
+		assertTrue(fourth.isCancelled());
+		assertCounts(2, 0, 2, 0);
+
+		activity.resume();
+		assertEquals("[1, 2]", shownIds().toString());
+		assertCounts(2, 0, 2, 2);
+		assertFalse(first.isDone());
+		assertEquals(registrySize + 2, Dialogs.registry.size());
+	}
+
+	@Test
+	public void duplicatesAreCoalescedWhileHeld() {
+		activity.moveToBackground();
+		DialogFuture<DialogResult> first = show(1, "first");
+		DialogFuture<DialogResult> second = show(1, "second");
+		DialogFuture<DialogResult> third = show(1, "third");
+		DialogFuture<DialogResult> other = show(2, "message");
+		assertEquals(2, queue.getPendingCount(manager()));
+		assertCounts(2, 2, 0, 0);
+		assertEquals(registrySize + 2, Dialogs.registry.size());
+
+		activity.resume();
+		List<InternalDialogFragment> dialogs = shown();
+		assertEquals(2, dialogs.size());
+		assertCounts(2, 2, 0, 2);
+		// ALERT_IDにより統合した場合は、最後の要求の内容で表示する
+		AlertDialog dialog = (AlertDialog) dialogs.get(0).getDialog();
+		assertEquals("third", String.valueOf(dialog.getMessage()));
+		dialog.performClick(DialogInterface.BUTTON_POSITIVE);
+		LifecycleActivity.idle();
+		// 統合した要求にも結果が通知される
+		assertEquals(Dialogs.BUTTON_POSITIVE, first.getNow().getButton());
+		assertEquals(Dialogs.BUTTON_POSITIVE, second.getNow().getButton());
+		assertEquals(Dialogs.BUTTON_POSITIVE, third.getNow().getButton());
+		assertFalse(other.isDone());
+	}
+
+	@Test
+	public void coalescedRequestsDoNotCountAgainstCapacity() {
+		queue.setCapacity(1);
+		activity.moveToBackground();
+		show(1, "message");
+		show(1, "message");
+		assertEquals(1, queue.getPendingCount(manager()));
+		assertCounts(1, 1, 0, 0);
+	}
+
+	@Test
+	public void finishingActivityDropsHeldRequests() {
+		activity.moveToBackground();
+		DialogFuture<DialogResult> first = show(1, "message");
+		DialogFuture<DialogResult> second = show(2, "message");
+		activity.finishAndDestroy();
+		assertTrue(first.isCancelled());
+		assertTrue(second.isCancelled());
+		assertCounts(2, 0, 2, 0);
+		assertEquals(registrySize, Dialogs.registry.size());
+	}
+
+	@Test
+	public void heldBatchIsCountedAsItsRequests() {
+		activity.moveToBackground();
+		Dialogs.batch(manager())
+				.showDialog(new DialogSpec.Builder().id(1).message("a")
+						.build(), null)
+				.showDialog(new DialogSpec.Builder().id(2).message("b")
+						.build(), null).commit();
+		LifecycleActivity.idle();
+		assertEquals(2, queue.getPendingCount(manager()));
+		assertCounts(2, 0, 0, 0);
+		activity.resume();
+		assertEquals("[1, 2]", shownIds().toString());
+		assertCounts(2, 0, 0, 2);
+	}
+
+	@Test
+	public void resetStatisticsClearsCounts() {
+		activity.moveToBackground();
+		show(1, "message");
+		show(1, "message");
+		activity.resume();
+		assertCounts(1, 1, 0, 1);
+		queue.resetStatistics();
+		assertCounts(0, 0, 0, 0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsNonPositiveCapacity() {
+		queue.setCapacity(0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsUnknownOverflowPolicy() {
+		queue.setOverflowPolicy(PendingQueue.OVERFLOW_DROP_NEWEST + 1);
+	}
+}
@@ -0,0 +1,181 @@
+package net.onpu_tamago.libs.dialogs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import net.onpu_tamago.libs.dialogs.DialogScenario.Recorder;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import android.app.AlertDialog;
+import android.os.Looper;
+import android.support.v4.app.LifecycleActivity;
+import android.view.ViewGroup;
+import android.widget.ProgressBar;
+
+/**
+ * {@link ProgressHandle}による進捗の1フレームごとの反映・統合された更新の計数と、
+ * 反映を待っている間に閉じた場合の処理のテストです。
+ *
+ * @author 高見知英
+ */
+public class ProgressHandleTest {
+
+	private final Looper main = Looper.getMainLooper();
+
+	private final Recorder recorder = new Recorder();
+
+	private LifecycleActivity activity;
+
+	private ProgressHandle handle;
+
+	private int registrySize;
+
+	@Before
+	public void setUp() {
+		activity = LifecycleActivity.launch();
+		registrySize = Dialogs.registry.size();
+		handle = Dialogs.showProgressDialog(
+				activity.getSupportFragmentManager(), new DialogSpec.Builder()
+						.title("title").message("message").build(), 100,
+				recorder);
+		// 前回の反映から1フレーム以上経過した状態から始める
+		main.idleFor(ProgressHandle.FRAME_INTERVAL);
+	}
+
+	@After
+	public void tearDown() {
+		if (!activity.isFinishing()) {
+			activity.finishAndDestroy();
+		}
+		main.reset();
+	}
+
+	private List<InternalDialogFragment> shown() {
+		LifecycleActivity.idle();
+		return activity.getFragments(InternalDialogFragment.class);
+	}
+
+	private ProgressBar progressBar() {
+		List<InternalDialogFragment> dialogs = shown();
+		assertEquals(1, dialogs.size());
+		AlertDialog dialog = (AlertDialog) dialogs.get(0).getDialog();
+		return (ProgressBar) ((ViewGroup) dialog.getView()).getChildAt(0);
+	}
+
+	@Test
+	public void burstIsAppliedOnce() {
+		ProgressBar bar = progressBar();
+		for (int i = 1; i <= 10; i++) {
+			handle.setProgress(i);
+		}
+		assertEquals(0, handle.getAppliedCount());
+		main.idle();
+		// 反映は1回にまとめられ、最後の値のみが反映される
+		assertEquals(10, bar.getProgress());
+		assertEquals(100, bar.getMax());
+		assertEquals(10, handle.getUpdateCount());
+		assertEquals(1, handle.getAppliedCount());
+		assertEquals(9, handle.getCoalescedCount());
+	}
+
+	@Test
+	public void nextUpdateWaitsForNextFrame() {
+		ProgressBar bar = progressBar();
+		handle.setProgress(1);
+		main.idle();
+		assertEquals(1, handle.getAppliedCount());
+
+		handle.setProgress(2);
+		handle.setProgress(3);
+		// 前回の反映から1フレーム経過するまでは反映しない
+		main.idleFor(ProgressHandle.FRAME_INTERVAL - 1);
+		assertEquals(1, bar.getProgress());
+		assertEquals(1, handle.getAppliedCount());
+		main.idleFor(1);
+		assertEquals(3, bar.getProgress());
+		assertEquals(2, handle.getAppliedCount());
+		assertEquals(1, handle.getCoalescedCount());
+
+		// 1フレーム以上経過してからの更新は、すぐに反映する
+		main.idleFor(ProgressHandle.FRAME_INTERVAL * 10);
+		handle.setProgress(4);
+		main.idle();
+		assertEquals(4, bar.getProgress());
+		assertEquals(3, handle.getAppliedCount());
+	}
+
+	@Test
+	public void maxAndIndeterminateAreApplied() {
+		ProgressBar bar = progressBar();
+		handle.setProgress(5, 50);
+		main.idle();
+		assertFalse(bar.isIndeterminate());
+		assertEquals(50, bar.getMax());
+		assertEquals(5, bar.getProgress());
+
+		main.idleFor(ProgressHandle.FRAME_INTERVAL);
+		handle.setMax(ProgressHandle.INDETERMINATE);
+		main.idle();
+		assertTrue(bar.isIndeterminate());
+
+		// 最大値を戻した場合は、保持していた進捗を示す
+		main.idleFor(ProgressHandle.FRAME_INTERVAL);
+		handle.setMax(20);
+		main.idle();
+		assertFalse(bar.isIndeterminate());
+		assertEquals(20, bar.getMax());
+		assertEquals(5, bar.getProgress());
+	}
+
+	@Test
+	public void finishDropsPendingUpdate() {
+		ProgressBar bar = progressBar();
+		handle.setProgress(1);
+		main.idle();
+		handle.setProgress(2);
+		handle.finish();
+		main.idleFor(ProgressHandle.FRAME_INTERVAL * 2);
+		LifecycleActivity.idle();
+		// 予約していた反映は行わずに閉じ、コールバックは呼び出さない
+		assertEquals(1, bar.getProgress());
+		assertEquals(1, handle.getAppliedCount());
+		assertEquals(0, main.getQueuedCount());
+		assertTrue(shown().isEmpty());
+		assertFalse(handle.isCancelled());
+		assertTrue(recorder.results.isEmpty());
+		assertEquals(registrySize, Dialogs.registry.size());
+	}
+
+	@Test
+	public void cancelDetachesPendingUpdate() {
+		ProgressBar bar = progressBar();
+		handle.setProgress(1);
+		main.idle();
+		handle.setProgress(2);
+		((AlertDialog) shown().get(0).getDialog()).cancel();
+		LifecycleActivity.idle();
+		assertTrue(handle.isCancelled());
+		assertEquals("cancel", recorder.methods.get(0));
+		main.idleFor(ProgressHandle.FRAME_INTERVAL * 2);
+		assertEquals(1, bar.getProgress());
+		assertEquals(1, handle.getAppliedCount());
+		assertEquals(0, main.getQueuedCount());
+		assertEquals(registrySize, Dialogs.registry.size());
+	}
+
+	@Test
+	public void finishingActivityCancelsHandle() {
+		handle.setProgress(1);
+		activity.finishAndDestroy();
+		assertTrue(handle.isCancelled());
+		main.idleFor(ProgressHandle.FRAME_INTERVAL);
+		assertEquals(0, handle.getAppliedCount());
+		assertEquals(registrySize, Dialogs.registry.size());
+	}
+}
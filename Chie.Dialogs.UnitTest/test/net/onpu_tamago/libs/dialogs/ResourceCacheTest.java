@@ -0,0 +1,110 @@
+package net.onpu_tamago.libs.dialogs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.Locale;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import android.content.res.Configuration;
+import android.content.res.Resources;
+
+/**
+ * {@link ResourceCache}の保持と、ロケール・夜間モードの変化による破棄のテストです。
+ *
+ * @author 高見知英
+ */
+public class ResourceCacheTest {
+
+	private static final int TEXT_ID = 0x7f050001;
+
+	private static final int ARRAY_ID = 0x7f060001;
+
+	/**
+	 * リソースを読み込んだ回数を数える{@link Resources}です。
+	 */
+	private static final class CountingResources extends Resources {
+
+		int loads;
+
+		@Override
+		public CharSequence getText(int id) {
+			loads++;
+			return super.getText(id);
+		}
+
+		@Override
+		public CharSequence[] getTextArray(int id) {
+			loads++;
+			return new CharSequence[] { "@0x" + Integer.toHexString(id) };
+		}
+	}
+
+	private CountingResources res;
+
+	private ResourceCache cache;
+
+	@Before
+	public void setUp() {
+		res = new CountingResources();
+		cache = new ResourceCache(ResourceCache.DEFAULT_SIZE);
+	}
+
+	@Test
+	public void repeatedLookupsAreCached() {
+		CharSequence text = cache.getText(res, TEXT_ID);
+		CharSequence[] array = cache.getTextArray(res, ARRAY_ID);
+		for (int i = 0; i < 10; i++) {
+			assertSame(text, cache.getText(res, TEXT_ID));
+			assertSame(array, cache.getTextArray(res, ARRAY_ID));
+		}
+		assertEquals(2, res.loads);
+	}
+
+	@Test
+	public void localeChangeInvalidates() {
+		res.getConfiguration().locale = Locale.JAPANESE;
+		CharSequence text = cache.getText(res, TEXT_ID);
+		res.getConfiguration().locale = Locale.ENGLISH;
+		assertNotSame(text, cache.getText(res, TEXT_ID));
+		assertEquals(2, res.loads);
+		// 同じロケールのままであれば再び保持する
+		cache.getText(res, TEXT_ID);
+		assertEquals(2, res.loads);
+	}
+
+	@Test
+	public void nightModeChangeInvalidates() {
+		Configuration config = res.getConfiguration();
+		config.uiMode = Configuration.UI_MODE_NIGHT_NO;
+		CharSequence[] array = cache.getTextArray(res, ARRAY_ID);
+		config.uiMode = Configuration.UI_MODE_NIGHT_YES;
+		assertNotSame(array, cache.getTextArray(res, ARRAY_ID));
+		assertEquals(2, res.loads);
+		// 夜間モード以外のuiModeのビットは比較しない
+		config.uiMode = Configuration.UI_MODE_NIGHT_YES | 0x01;
+		cache.getTextArray(res, ARRAY_ID);
+		assertEquals(2, res.loads);
+	}
+
+	@Test
+	public void invalidateDropsEverything() {
+		CharSequence text = cache.getText(res, TEXT_ID);
+		cache.invalidate();
+		assertNotSame(text, cache.getText(res, TEXT_ID));
+		assertEquals(2, res.loads);
+	}
+
+	@Test
+	public void leastRecentlyUsedIsEvicted() {
+		cache = new ResourceCache(2);
+		CharSequence first = cache.getText(res, TEXT_ID);
+		cache.getText(res, TEXT_ID + 1);
+		cache.getText(res, TEXT_ID + 2);
+		assertNotSame(first, cache.getText(res, TEXT_ID));
+		assertEquals(4, res.loads);
+	}
+}
@@ -0,0 +1,324 @@
+package net.onpu_tamago.libs.dialogs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import android.app.AlertDialog;
+import android.content.DialogInterface;
+import android.os.Looper;
+import android.support.v4.app.FragmentManager;
+import android.support.v4.app.LifecycleActivity;
+import android.widget.EditText;
+
+/**
+ * ワーカースレッドからダイアログを表示して結果を待機する
+ * {@link Dialogs#showDialogAndWait(FragmentManager, DialogSpec, long, TimeUnit)}
+ * などのテストです。
+ *
+ * @author 高見知英
+ */
+public class ShowAndWaitTest {
+
+	/**
+	 * 同時に待機させるスレッドの数です。
+	 */
+	private static final int WAITERS = 200;
+
+	/**
+	 * ダイアログの表示・スレッドの終了を待つ時間の上限(ミリ秒)です。
+	 */
+	private static final long DEADLINE = 10000;
+
+	private LifecycleActivity activity;
+
+	private FragmentManager manager;
+
+	private int registrySize;
+
+	@Before
+	public void setUp() {
+		activity = LifecycleActivity.launch();
+		manager = activity.getSupportFragmentManager();
+		registrySize = Dialogs.registry.size();
+	}
+
+	@After
+	public void tearDown() {
+		if (!activity.isFinishing()) {
+			activity.finishAndDestroy();
+		}
+	}
+
+	/**
+	 * 結果を待機するスレッドです。 戻り値または例外を記録します。
+	 */
+	private abstract static class Waiter extends Thread {
+
+		final AtomicReference<Object> outcome = new AtomicReference<Object>();
+
+		@Override
+		public final void run() {
+			try {
+				outcome.set(await());
+			} catch (Throwable e) {
+				outcome.set(e);
+			}
+		}
+
+		abstract Object await() throws Exception;
+	}
+
+	/**
+	 * メインスレッドの処理を行いながら、指定した数のダイアログが表示されるまで待ちます。
+	 */
+	private List<InternalDialogFragment> awaitDialogs(int count)
+			throws InterruptedException {
+		long deadline = System.currentTimeMillis() + DEADLINE;
+		while (true) {
+			Looper.getMainLooper().idle();
+			List<InternalDialogFragment> dialogs = activity
+					.getFragments(InternalDialogFragment.class);
+			if (dialogs.size() >= count) {
+				assertEquals(count, dialogs.size());
+				return dialogs;
+			}
+			if (System.currentTimeMillis() > deadline) {
+				fail("only " + dialogs.size() + " of " + count + " shown");
+			}
+			Thread.sleep(1);
+		}
+	}
+
+	/**
+	 * メインスレッドの処理を行いながら、スレッドの終了を待ちます。
+	 */
+	private static Object finish(Waiter waiter) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + DEADLINE;
+		while (waiter.isAlive()) {
+			Looper.getMainLooper().idle();
+			if (System.currentTimeMillis() > deadline) {
+				fail(waiter.getName() + " did not finish");
+			}
+			waiter.join(1);
+		}
+		Looper.getMainLooper().idle();
+		return waiter.outcome.get();
+	}
+
+	private static boolean isParked(Thread thread) {
+		Thread.State state = thread.getState();
+		return state == Thread.State.WAITING
+				|| state == Thread.State.TIMED_WAITING;
+	}
+
+	private static AlertDialog dialogOf(InternalDialogFragment fragment) {
+		return (AlertDialog) fragment.getDialog();
+	}
+
+	@Test
+	public void alertReturnsPressedButton() throws Exception {
+		Waiter waiter = new Waiter() {
+			@Override
+			Object await() throws Exception {
+				return Dialogs.showAlertDialogAndWait(manager, "title",
+						"message", DEADLINE, TimeUnit.MILLISECONDS);
+			}
+		};
+		waiter.start();
+		AlertDialog dialog = dialogOf(awaitDialogs(1).get(0));
+		assertEquals("message", String.valueOf(dialog.getMessage()));
+		dialog.performClick(DialogInterface.BUTTON_POSITIVE);
+		assertEquals(Boolean.TRUE, finish(waiter));
+		assertEquals(registrySize, Dialogs.registry.size());
+	}
+
+	@Test
+	public void choiceAndInputReturnTheirValues() throws Exception {
+		Waiter choice = new Waiter() {
+			@Override
+			Object await() throws Exception {
+				return Dialogs.showChoiceDialogAndWait(manager, "title",
+						DEADLINE, TimeUnit.MILLISECONDS, "a", "b", "c");
+			}
+		};
+		choice.start();
+		dialogOf(awaitDialogs(1).get(0)).performItemClick(2);
+		assertEquals(Integer.valueOf(2), finish(choice));
+
+		Waiter input = new Waiter() {
+			@Override
+			Object await() throws Exception {
+				return Dialogs.showInputDialogAndWait(manager, "title",
+						"message", DEADLINE, TimeUnit.MILLISECONDS);
+			}
+		};
+		input.start();
+		AlertDialog dialog = dialogOf(awaitDialogs(1).get(0));
+		((EditText) dialog.getView().findViewById(android.R.id.input))
+				.setText("typed");
+		dialog.performClick(DialogInterface.BUTTON_POSITIVE);
+		assertEquals("typed", finish(input));
+
+		// 否定ボタンの場合はnullとなる
+		Waiter negative = new Waiter() {
+			@Override
+			Object await() throws Exception {
+				return Dialogs.showInputDialogAndWait(manager, "title",
+						"message", DEADLINE, TimeUnit.MILLISECONDS);
+			}
+		};
+		negative.start();
+		dialogOf(awaitDialogs(1).get(0)).performClick(
+				DialogInterface.BUTTON_NEGATIVE);
+		assertNull(finish(negative));
+		assertEquals(registrySize, Dialogs.registry.size());
+	}
+
+	@Test
+	public void manyWaitersAreParkedWithoutSpinning() throws Exception {
+		Waiter[] waiters = new Waiter[WAITERS];
+		for (int i = 0; i < WAITERS; i++) {
+			final int id = i;
+			waiters[i] = new Waiter() {
+				@Override
+				Object await() throws Exception {
+					DialogResult result = Dialogs.showDialogAndWait(manager,
+							new DialogSpec.Builder().id(id).title("title")
+									.message("message")
+									.buttons(Dialogs.DIALOGBUTTON_POSITIVE)
+									.build(), DEADLINE, TimeUnit.MILLISECONDS);
+					return result.getId();
+				}
+			};
+			waiters[i].start();
+		}
+		List<InternalDialogFragment> dialogs = awaitDialogs(WAITERS);
+		long deadline = System.currentTimeMillis() + DEADLINE;
+		for (Waiter waiter : waiters) {
+			while (!isParked(waiter)) {
+				assertTrue(waiter.getName() + " is " + waiter.getState(),
+						System.currentTimeMillis() < deadline);
+				Thread.sleep(1);
+			}
+		}
+
+		// 待機中のスレッドはCPUを消費しない
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (bean.isThreadCpuTimeSupported()) {
+			long before = 0;
+			for (Waiter waiter : waiters) {
+				before += Math.max(bean.getThreadCpuTime(waiter.getId()), 0);
+			}
+			Thread.sleep(200);
+			long used = 0;
+			for (Waiter waiter : waiters) {
+				used += Math.max(bean.getThreadCpuTime(waiter.getId()), 0);
+			}
+			used -= before;
+			assertTrue("waiters used " + used + "ns of CPU",
+					used < TimeUnit.MILLISECONDS.toNanos(50));
+		}
+		for (Waiter waiter : waiters) {
+			assertTrue(waiter.getName() + " is " + waiter.getState(),
+					isParked(waiter));
+		}
+
+		// それぞれのスレッドに、自分が表示したダイアログの結果が返される
+		for (InternalDialogFragment dialog : dialogs) {
+			dialogOf(dialog).performClick(DialogInterface.BUTTON_POSITIVE);
+		}
+		HashSet<Object> ids = new HashSet<Object>();
+		for (int i = 0; i < WAITERS; i++) {
+			assertEquals(Integer.valueOf(i), finish(waiters[i]));
+			ids.add(waiters[i].outcome.get());
+		}
+		assertEquals(WAITERS, ids.size());
+		assertEquals(registrySize, Dialogs.registry.size());
+	}
+
+	@Test
+	public void timeoutDismissesDialog() throws Exception {
+		Waiter waiter = new Waiter() {
+			@Override
+			Object await() throws Exception {
+				return Dialogs.showAlertDialogAndWait(manager, "title",
+						"message", 50, TimeUnit.MILLISECONDS);
+			}
+		};
+		waiter.start();
+		awaitDialogs(1);
+		assertTrue(finish(waiter) instanceof TimeoutException);
+		assertTrue(activity.getFragments(InternalDialogFragment.class)
+				.isEmpty());
+		assertEquals(registrySize, Dialogs.registry.size());
+	}
+
+	@Test
+	public void interruptDismissesDialog() throws Exception {
+		Waiter waiter = new Waiter() {
+			@Override
+			Object await() throws Exception {
+				return Dialogs.showAlertDialogAndWait(manager, "title",
+						"message", DEADLINE, TimeUnit.MILLISECONDS);
+			}
+		};
+		waiter.start();
+		awaitDialogs(1);
+		while (!isParked(waiter)) {
+			Thread.sleep(1);
+		}
+		waiter.interrupt();
+		assertTrue(finish(waiter) instanceof InterruptedException);
+		assertTrue(activity.getFragments(InternalDialogFragment.class)
+				.isEmpty());
+		assertEquals(registrySize, Dialogs.registry.size());
+	}
+
+	@Test
+	public void destroyedDialogCancelsWait() throws Exception {
+		Waiter waiter = new Waiter() {
+			@Override
+			Object await() throws Exception {
+				return Dialogs.showAlertDialogAndWait(manager, "title",
+						"message", DEADLINE, TimeUnit.MILLISECONDS);
+			}
+		};
+		waiter.start();
+		awaitDialogs(1);
+		// 結果を返さずにアクティビティが終了した
+		activity.finishAndDestroy();
+		assertTrue(finish(waiter) instanceof CancellationException);
+		assertEquals(registrySize, Dialogs.registry.size());
+	}
+
+	@Test
+	public void waitingIsRefusedOnMainThread() throws Exception {
+		try {
+			Dialogs.showAlertDialogAndWait(manager, "title", "message",
+					DEADLINE, TimeUnit.MILLISECONDS);
+			fail();
+		} catch (IllegalStateException e) {
+			// 期待どおり
+		}
+		Looper.getMainLooper().idle();
+		// 表示も要求されない
+		assertTrue(activity.getFragments(InternalDialogFragment.class)
+				.isEmpty());
+		assertEquals(registrySize, Dialogs.registry.size());
+	}
+}
@@ -0,0 +1,211 @@
+package net.onpu_tamago.libs.dialogs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import android.app.AlertDialog;
+import android.content.Context;
+import android.content.DialogInterface;
+import android.os.Bundle;
+import android.support.v4.app.LifecycleActivity;
+import android.view.View;
+import android.widget.EditText;
+
+/**
+ * {@link ViewFactory}を指定した独自ビューのダイアログが、画面回転・ダイアログの終了後に
+ * アクティビティとビューを保持し続けないことを、弱参照と強制的なGCにより確認します。
+ *
+ * @author 高見知英
+ */
+public class ViewFactoryTest {
+
+	private final ArrayList<LifecycleActivity> activities = new ArrayList<LifecycleActivity>();
+
+	private int registrySize;
+
+	@Before
+	public void setUp() {
+		LifecycleActivity.idle();
+		registrySize = Dialogs.registry.size();
+	}
+
+	@After
+	public void tearDown() {
+		for (LifecycleActivity activity : activities) {
+			if (!activity.isFinishing()) {
+				activity.finishAndDestroy();
+			}
+		}
+	}
+
+	private LifecycleActivity launch() {
+		LifecycleActivity activity = LifecycleActivity.launch();
+		activities.add(activity);
+		return activity;
+	}
+
+	/**
+	 * 画面を回転し、元のアクティビティへの参照をこのテストから取り除きます。
+	 */
+	private LifecycleActivity rotate(LifecycleActivity activity) {
+		activities.remove(activity);
+		LifecycleActivity next = activity.rotate();
+		activities.add(next);
+		return next;
+	}
+
+	/**
+	 * 参照先が回収されるまでGCを繰り返します。
+	 *
+	 * @return 回収された場合はtrue。
+	 */
+	private static boolean collect(WeakReference<?> ref) {
+		for (int i = 0; i < 20 && ref.get() != null; i++) {
+			System.gc();
+			System.runFinalization();
+			// 世代別GCで古い世代に移った参照先も回収されるよう、領域を消費する
+			byte[][] garbage = new byte[16][];
+			for (int j = 0; j < garbage.length; j++) {
+				garbage[j] = new byte[1 << 20];
+			}
+		}
+		return ref.get() == null;
+	}
+
+	/**
+	 * 生成に用いられたアクティビティを、弱参照で記録するファクトリです。
+	 */
+	private static final class RecordingFactory implements ViewFactory {
+
+		final ArrayList<WeakReference<Context>> contexts = new ArrayList<WeakReference<Context>>();
+		final ArrayList<WeakReference<View>> views = new ArrayList<WeakReference<View>>();
+
+		@Override
+		public View createView(Context context) {
+			View view = DialogScenario.Custom.createView(context);
+			contexts.add(new WeakReference<Context>(context));
+			views.add(new WeakReference<View>(view));
+			return view;
+		}
+	}
+
+	private static AlertDialog showing(LifecycleActivity activity) {
+		return (AlertDialog) activity
+				.getFragments(InternalDialogFragment.class).get(0).getDialog();
+	}
+
+	@Test
+	public void viewIsCreatedWithCurrentActivity() {
+		LifecycleActivity activity = launch();
+		RecordingFactory factory = new RecordingFactory();
+		Dialogs.showCustomDialog(activity.getSupportFragmentManager(),
+				"title", factory, null, null);
+		LifecycleActivity.idle();
+		assertEquals(1, factory.contexts.size());
+		assertSame(activity, factory.contexts.get(0).get());
+		assertSame(factory.views.get(0).get(), showing(activity).getView()
+				.findViewById(android.R.id.input).getParent());
+
+		LifecycleActivity rotated = rotate(activity);
+		// 回転後は新しいアクティビティでビューを生成し直す
+		assertEquals(2, factory.contexts.size());
+		assertSame(rotated, factory.contexts.get(1).get());
+		assertNotSame(factory.views.get(0).get(), factory.views.get(1).get());
+		assertEquals(registrySize + 1, Dialogs.registry.size());
+	}
+
+	@Test
+	public void rotationReleasesPreviousActivity() {
+		LifecycleActivity activity = launch();
+		RecordingFactory factory = new RecordingFactory();
+		Dialogs.showCustomDialog(activity.getSupportFragmentManager(),
+				"title", factory, null, null);
+		LifecycleActivity.idle();
+		WeakReference<LifecycleActivity> previous = new WeakReference<LifecycleActivity>(
+				activity);
+		LifecycleActivity rotated = rotate(activity);
+		activity = null;
+
+		assertTrue("previous activity leaked", collect(previous));
+		assertTrue("previous view leaked", collect(factory.views.get(0)));
+		// 表示中のダイアログは新しいアクティビティのビューを保持する
+		assertTrue(showing(rotated).isShowing());
+		assertNotNull(factory.views.get(1).get());
+	}
+
+	@Test
+	public void viewOverloadKeepsCreatingActivity() {
+		// 比較のため、ビューを直接指定した場合は生成元のアクティビティが保持されることを確認する
+		LifecycleActivity activity = launch();
+		Dialogs.showCustomDialog(activity.getSupportFragmentManager(),
+				"title", DialogScenario.Custom.createView(activity), null,
+				null);
+		LifecycleActivity.idle();
+		WeakReference<LifecycleActivity> previous = new WeakReference<LifecycleActivity>(
+				activity);
+		rotate(activity);
+		activity = null;
+
+		assertFalse(collect(previous));
+	}
+
+	@Test
+	public void dismissReleasesViewAndFactory() {
+		LifecycleActivity activity = launch();
+		RecordingFactory factory = new RecordingFactory();
+		Dialogs.showCustomDialog(activity.getSupportFragmentManager(),
+				"title", factory, null, null);
+		LifecycleActivity.idle();
+		WeakReference<View> view = factory.views.get(0);
+		WeakReference<RecordingFactory> factoryRef = new WeakReference<RecordingFactory>(
+				factory);
+		factory = null;
+
+		AlertDialog dialog = showing(activity);
+		((EditText) dialog.getView().findViewById(android.R.id.input))
+				.setText("done");
+		dialog.performClick(DialogInterface.BUTTON_POSITIVE);
+		LifecycleActivity.idle();
+		dialog = null;
+
+		assertTrue(activity.getFragments(InternalDialogFragment.class)
+				.isEmpty());
+		assertEquals(registrySize, Dialogs.registry.size());
+		assertTrue("view leaked", collect(view));
+		assertTrue("factory leaked", collect(factoryRef));
+	}
+
+	@Test
+	public void dismissAfterRotationReleasesBothActivities() {
+		LifecycleActivity activity = launch();
+		RecordingFactory factory = new RecordingFactory();
+		Bundle params = new Bundle();
+		params.putInt(Dialogs.ALERT_ID, 4);
+		Dialogs.showCustomDialog(activity.getSupportFragmentManager(),
+				"title", factory, params, null);
+		LifecycleActivity.idle();
+		WeakReference<LifecycleActivity> previous = new WeakReference<LifecycleActivity>(
+				activity);
+		LifecycleActivity rotated = rotate(activity);
+		activity = null;
+		showing(rotated).performClick(DialogInterface.BUTTON_NEGATIVE);
+		LifecycleActivity.idle();
+
+		assertTrue("previous activity leaked", collect(previous));
+		for (WeakReference<View> view : factory.views) {
+			assertTrue("view leaked", collect(view));
+		}
+		assertEquals(registrySize, Dialogs.registry.size());
+	}
+}
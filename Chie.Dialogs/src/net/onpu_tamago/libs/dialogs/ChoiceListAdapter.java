@@ -0,0 +1,201 @@
+package net.onpu_tamago.libs.dialogs;
+
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.BaseAdapter;
+import android.widget.SectionIndexer;
+import android.widget.TextView;
+
+/**
+ * 大量の選択肢を表示する多肢選択式ダイアログ用のアダプタです。
+ * 行のビューは表示される分だけ生成・再利用され、選択肢の配列はコピーせずに参照します。
+ * <p>
+ * 高速スクロール用の索引(選択肢の先頭文字ごとのセクション)はバックグラウンドで一度だけ作成されます。
+ * 選択肢は先頭文字で並べ替えられていることを前提とします。
+ * </p>
+ *
+ * @author 高見知英
+ */
+final class ChoiceListAdapter extends BaseAdapter implements SectionIndexer {
+
+	private static final Object[] NO_SECTIONS = new Object[0];
+
+	private final LayoutInflater inflater;
+	private final String[] items;
+
+	/**
+	 * セクション名です。索引の作成が完了するまでは空の配列となります。
+	 */
+	private volatile String[] sections;
+
+	/**
+	 * セクションごとの先頭位置です。
+	 */
+	private volatile int[] sectionPositions;
+
+	/**
+	 * 索引の作成が完了した際にメインスレッドで呼び出される処理です。
+	 */
+	private Runnable onIndexReady;
+
+	ChoiceListAdapter(Context context, String[] items) {
+		this.inflater = LayoutInflater.from(context);
+		this.items = items;
+	}
+
+	/**
+	 * 高速スクロール用の索引を作成します。
+	 *
+	 * @param executor
+	 *            索引の作成に用いる{@link Executor}。
+	 * @param onReady
+	 *            作成の完了後、メインスレッドで呼び出される処理。
+	 */
+	void buildIndex(Executor executor, Runnable onReady) {
+		onIndexReady = onReady;
+		if (sections != null) {
+			onReady.run();
+			return;
+		}
+		final Handler handler = new Handler(Looper.getMainLooper());
+		executor.execute(new Runnable() {
+			@Override
+			public void run() {
+				createIndex();
+				handler.post(new Runnable() {
+					@Override
+					public void run() {
+						if (onIndexReady != null) {
+							onIndexReady.run();
+						}
+					}
+				});
+			}
+		});
+	}
+
+	/**
+	 * 索引の作成完了時の処理を解除します。
+	 */
+	void cancelIndex() {
+		onIndexReady = null;
+	}
+
+	private void createIndex() {
+		String[] names = new String[16];
+		int[] positions = new int[16];
+		int count = 0;
+		String last = null;
+		for (int i = 0; i < items.length; i++) {
+			String name = sectionName(items[i]);
+			if (!name.equals(last)) {
+				if (count == names.length) {
+					String[] newNames = new String[count * 2];
+					System.arraycopy(names, 0, newNames, 0, count);
+					names = newNames;
+					int[] newPositions = new int[count * 2];
+					System.arraycopy(positions, 0, newPositions, 0, count);
+					positions = newPositions;
+				}
+				names[count] = name;
+				positions[count] = i;
+				count++;
+				last = name;
+			}
+		}
+		int[] resultPositions = new int[count];
+		System.arraycopy(positions, 0, resultPositions, 0, count);
+		String[] resultNames = new String[count];
+		System.arraycopy(names, 0, resultNames, 0, count);
+		sectionPositions = resultPositions;
+		sections = resultNames;
+	}
+
+	private static String sectionName(String item) {
+		if (item == null || item.length() == 0) {
+			return "";
+		}
+		int end = Character.charCount(item.codePointAt(0));
+		return item.substring(0, end).toUpperCase();
+	}
+
+	/**
+	 * 指定した位置の選択肢を取得します。
+	 *
+	 * @param position
+	 *            位置。
+	 * @return 選択肢。
+	 */
+	String getChoice(int position) {
+		return items[position];
+	}
+
+	@Override
+	public int getCount() {
+		return items.length;
+	}
+
+	@Override
+	public Object getItem(int position) {
+		return items[position];
+	}
+
+	@Override
+	public long getItemId(int position) {
+		return position;
+	}
+
+	@Override
+	public boolean hasStableIds() {
+		return true;
+	}
+
+	@Override
+	public View getView(int position, View convertView, ViewGroup parent) {
+		TextView view = (TextView) convertView;
+		if (view == null) {
+			view = (TextView) inflater.inflate(
+					android.R.layout.select_dialog_item, parent, false);
+		}
+		view.setText(items[position]);
+		return view;
+	}
+
+	@Override
+	public Object[] getSections() {
+		String[] s = sections;
+		return s != null ? s : NO_SECTIONS;
+	}
+
+	@Override
+	public int getPositionForSection(int section) {
+		int[] positions = sectionPositions;
+		if (positions == null || positions.length == 0) {
+			return 0;
+		}
+		if (section < 0) {
+			return 0;
+		}
+		if (section >= positions.length) {
+			return items.length - 1;
+		}
+		return positions[section];
+	}
+
+	@Override
+	public int getSectionForPosition(int position) {
+		int[] positions = sectionPositions;
+		if (positions == null || positions.length == 0) {
+			return 0;
+		}
+		int index = Arrays.binarySearch(positions, position);
+		return index >= 0 ? index : Math.max(0, -index - 2);
+	}
+}
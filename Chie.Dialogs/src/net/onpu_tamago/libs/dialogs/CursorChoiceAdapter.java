@@ -0,0 +1,212 @@
+package net.onpu_tamago.libs.dialogs;
+
+import java.util.concurrent.Executor;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.BaseAdapter;
+import android.widget.TextView;
+
+/**
+ * {@link CursorChoiceSource}のクエリ結果を表示するアダプタです。
+ * <p>
+ * クエリと、{@link Cursor}のウィンドウへの読み込みはバックグラウンドで実行し、
+ * 行の内容は配列にコピーせず{@link Cursor}から直接読み出します。
+ * 再クエリの結果は表示中の{@link Cursor}と差し替え、古い{@link Cursor}は閉じられます。
+ * {@link Cursor}の操作はメインスレッドでのみ行われます。
+ * </p>
+ *
+ * @author 高見知英
+ */
+final class CursorChoiceAdapter extends BaseAdapter {
+
+	private static final String COLUMN_ID = "_id";
+
+	private final LayoutInflater inflater;
+	private final CursorChoiceSource source;
+	private final Executor executor;
+	private final Handler handler = new Handler(Looper.getMainLooper());
+
+	private Cursor cursor;
+	private int labelIndex = -1;
+	private int idIndex = -1;
+
+	/**
+	 * クエリの世代です。差し替え前・解放後に完了したクエリの結果を破棄するために用います。
+	 */
+	private int generation = 0;
+
+	private boolean released = false;
+
+	private final Runnable requeryTask = new Runnable() {
+		@Override
+		public void run() {
+			startQuery();
+		}
+	};
+
+	CursorChoiceAdapter(Context context, CursorChoiceSource source,
+			Executor executor) {
+		this.inflater = LayoutInflater.from(context);
+		this.source = source;
+		this.executor = executor;
+		source.attach(this);
+		startQuery();
+	}
+
+	/**
+	 * クエリを再実行します。どのスレッドからでも呼び出せます。
+	 */
+	void requery() {
+		handler.post(requeryTask);
+	}
+
+	private void startQuery() {
+		if (released) {
+			return;
+		}
+		final int gen = ++generation;
+		executor.execute(new Runnable() {
+			@Override
+			public void run() {
+				Cursor cursor = null;
+				RuntimeException error = null;
+				try {
+					cursor = source.query();
+					if (cursor != null) {
+						// 列が存在しない場合もクエリの失敗として扱う
+						cursor.getColumnIndexOrThrow(source.getLabelColumn());
+						// SQLiteCursorは最初のgetCount()でウィンドウに行を読み込むため、ここで実行しておく
+						cursor.getCount();
+					}
+				} catch (RuntimeException e) {
+					closeQuietly(cursor);
+					cursor = null;
+					error = e;
+				}
+				final Cursor result = cursor;
+				final RuntimeException failure = error;
+				handler.post(new Runnable() {
+					@Override
+					public void run() {
+						if (gen != generation) {
+							// より新しいクエリが実行されたか、解放済み
+							closeQuietly(result);
+							return;
+						}
+						// 失敗した場合は選択肢を空にする
+						swapCursor(result);
+						if (failure != null) {
+							source.onQueryFailed(failure);
+						}
+					}
+				});
+			}
+		});
+	}
+
+	/**
+	 * 表示中の{@link Cursor}を差し替え、古い{@link Cursor}を閉じます。
+	 */
+	private void swapCursor(Cursor newCursor) {
+		Cursor old = cursor;
+		cursor = newCursor;
+		if (newCursor != null) {
+			labelIndex = newCursor.getColumnIndexOrThrow(source
+					.getLabelColumn());
+			idIndex = newCursor.getColumnIndex(COLUMN_ID);
+			notifyDataSetChanged();
+		} else {
+			labelIndex = -1;
+			idIndex = -1;
+			notifyDataSetInvalidated();
+		}
+		if (old != null && old != newCursor) {
+			closeQuietly(old);
+		}
+	}
+
+	private static void closeQuietly(Cursor c) {
+		if (c != null && !c.isClosed()) {
+			c.close();
+		}
+	}
+
+	/**
+	 * 指定した位置の選択肢を取得します。
+	 *
+	 * @param position
+	 *            位置。
+	 * @return 選択肢。
+	 */
+	String getChoice(int position) {
+		if (cursor == null || !cursor.moveToPosition(position)) {
+			return null;
+		}
+		return cursor.getString(labelIndex);
+	}
+
+	/**
+	 * 指定した位置の行の{@link android.provider.BaseColumns#_ID}列の値を取得します。
+	 *
+	 * @param position
+	 *            位置。
+	 * @return 値。列が存在しない場合は-1。
+	 */
+	long getRowId(int position) {
+		if (cursor == null || idIndex < 0 || !cursor.moveToPosition(position)) {
+			return -1;
+		}
+		return cursor.getLong(idIndex);
+	}
+
+	/**
+	 * 実行中のクエリの結果を破棄し、表示中の{@link Cursor}を閉じます。
+	 */
+	void release() {
+		released = true;
+		generation++;
+		handler.removeCallbacks(requeryTask);
+		source.detach(this);
+		Cursor old = cursor;
+		cursor = null;
+		closeQuietly(old);
+	}
+
+	@Override
+	public int getCount() {
+		return cursor != null ? cursor.getCount() : 0;
+	}
+
+	@Override
+	public Object getItem(int position) {
+		return getChoice(position);
+	}
+
+	@Override
+	public long getItemId(int position) {
+		long id = getRowId(position);
+		return id >= 0 ? id : position;
+	}
+
+	@Override
+	public boolean hasStableIds() {
+		return idIndex >= 0;
+	}
+
+	@Override
+	public View getView(int position, View convertView, ViewGroup parent) {
+		TextView view = (TextView) convertView;
+		if (view == null) {
+			view = (TextView) inflater.inflate(
+					android.R.layout.select_dialog_item, parent, false);
+		}
+		view.setText(getChoice(position));
+		return view;
+	}
+}
@@ -0,0 +1,89 @@
+package net.onpu_tamago.libs.dialogs;
+
+import android.database.Cursor;
+import android.util.Log;
+
+/**
+ * {@link Cursor}から選択肢を表示する多肢選択式ダイアログのデータソースです。
+ * {@link Dialogs#showCursorChoiceDialog(android.support.v4.app.FragmentManager, String, android.os.Bundle, Dialogs.DialogCallback, CursorChoiceSource)}
+ * に指定します。
+ * <p>
+ * {@link #query()}はバックグラウンドスレッドから呼び出されます。 取得した{@link Cursor}は
+ * ダイアログが管理し、差し替えられた時点、またはダイアログが閉じられた時点で閉じられます。
+ * クエリが例外を投げた場合、ダイアログの選択肢は空となり、{@link #onQueryFailed(RuntimeException)}
+ * が呼び出されます。
+ * </p>
+ *
+ * @author 高見知英
+ */
+public abstract class CursorChoiceSource {
+
+	private final String labelColumn;
+
+	/**
+	 * 表示中のダイアログのアダプタです。
+	 */
+	private volatile CursorChoiceAdapter adapter;
+
+	/**
+	 * コンストラクタです。
+	 *
+	 * @param labelColumn
+	 *            選択肢として表示する列の名前。
+	 */
+	public CursorChoiceSource(String labelColumn) {
+		if (labelColumn == null) {
+			throw new IllegalArgumentException("labelColumn is null");
+		}
+		this.labelColumn = labelColumn;
+	}
+
+	/**
+	 * 選択肢として表示する列の名前を取得します。
+	 *
+	 * @return 列の名前。
+	 */
+	public final String getLabelColumn() {
+		return labelColumn;
+	}
+
+	/**
+	 * 選択肢を取得するクエリを実行します。 バックグラウンドスレッドから呼び出されます。
+	 *
+	 * @return クエリの結果。{@link android.provider.BaseColumns#_ID}列を含む場合、
+	 *         その値が{@link Dialogs#PARAMS_ROWID}に格納されます。
+	 */
+	protected abstract Cursor query();
+
+	/**
+	 * クエリが失敗した際に呼び出されます。 メインスレッドから呼び出されます。
+	 * 既定の実装は警告を記録します。再試行する場合は{@link #requery()}を呼び出します。
+	 *
+	 * @param e
+	 *            {@link #query()}が投げた例外。
+	 */
+	protected void onQueryFailed(RuntimeException e) {
+		Log.w("CursorChoiceSource", "query failed", e);
+	}
+
+	/**
+	 * クエリを再実行し、表示中のダイアログの選択肢を差し替えます。 ダイアログは作り直されません。
+	 * ダイアログが表示されていない場合は何もしません。 どのスレッドからでも呼び出せます。
+	 */
+	public final void requery() {
+		CursorChoiceAdapter current = adapter;
+		if (current != null) {
+			current.requery();
+		}
+	}
+
+	void attach(CursorChoiceAdapter adapter) {
+		this.adapter = adapter;
+	}
+
+	void detach(CursorChoiceAdapter adapter) {
+		if (this.adapter == adapter) {
+			this.adapter = null;
+		}
+	}
+}
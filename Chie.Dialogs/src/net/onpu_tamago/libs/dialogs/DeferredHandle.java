@@ -0,0 +1,156 @@
+package net.onpu_tamago.libs.dialogs;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+/**
+ * 処理に時間がかかった場合にのみ表示するダイアログを操作するためのオブジェクトです。
+ * {@link Dialogs#showDialogDeferred(android.support.v4.app.FragmentManager, DialogSpec, Dialogs.DialogCallback, long, long)}
+ * などの戻り値として返されます。
+ * <p>
+ * 猶予時間内に{@link #complete()}が呼び出された場合、ダイアログは表示されず、ダイアログのフラグメントも生成されません。
+ * 猶予時間を過ぎてダイアログを表示した場合は、最低表示時間が経過するまで閉じずに表示を続けます。
+ * 最低表示時間は、ダイアログが初めて描画された時点から数えます。
+ * 表示を要求した後、描画される前に完了した場合は、その場で閉じます。
+ * </p>
+ *
+ * @author 高見知英
+ */
+public final class DeferredHandle {
+
+	private static final Handler handler = new Handler(Looper.getMainLooper());
+
+	/**
+	 * {@link DialogRegistry}におけるキーです。
+	 */
+	private final int key;
+
+	/**
+	 * 最低表示時間(ミリ秒)です。
+	 */
+	private final long minDisplayTime;
+
+	/**
+	 * 処理が完了したかどうかです。
+	 */
+	private volatile boolean completed;
+
+	/**
+	 * ダイアログの表示を要求したかどうかです。 メインスレッドでのみ操作します。
+	 */
+	private volatile boolean requested;
+
+	/**
+	 * ダイアログが初めて描画された時刻です。 描画されていない場合は-1。メインスレッドでのみ操作します。
+	 */
+	private volatile long shownAt = -1;
+
+	/**
+	 * 猶予時間の経過後に実行する、ダイアログの表示処理です。
+	 */
+	private Runnable showTask;
+
+	private final Runnable dismissTask = new Runnable() {
+		@Override
+		public void run() {
+			Dialogs.dismiss(key);
+		}
+	};
+
+	DeferredHandle(int key, long minDisplayTime) {
+		this.key = key;
+		this.minDisplayTime = minDisplayTime;
+	}
+
+	/**
+	 * 猶予時間の経過後に表示するよう予約します。
+	 *
+	 * @param gracePeriod
+	 *            猶予時間(ミリ秒)。
+	 * @param show
+	 *            ダイアログの表示を要求する処理。
+	 */
+	void schedule(long gracePeriod, final Runnable show) {
+		showTask = new Runnable() {
+			@Override
+			public void run() {
+				if (completed) {
+					return;
+				}
+				requested = true;
+				show.run();
+			}
+		};
+		handler.postDelayed(showTask, gracePeriod);
+	}
+
+	/**
+	 * 表示先のアクティビティが終了しており、表示を要求できなかったことを通知します。
+	 * メインスレッドから呼び出されます。
+	 */
+	void onDropped() {
+		requested = false;
+	}
+
+	/**
+	 * ダイアログが初めて描画されたことを通知します。 画面回転などで再び描画された場合は無視します。
+	 * メインスレッドから呼び出されます。
+	 */
+	void onFirstDraw() {
+		if (shownAt < 0) {
+			shownAt = SystemClock.uptimeMillis();
+		}
+	}
+
+	/**
+	 * 処理が完了したことを通知します。 ダイアログを表示していない場合は表示を取りやめ、
+	 * 表示している場合は最低表示時間の経過後に閉じます。コールバックは呼び出されません。
+	 * どのスレッドからでも呼び出せます。
+	 */
+	public void complete() {
+		if (completed) {
+			return;
+		}
+		completed = true;
+		Dialogs.getMainExecutor().execute(new Runnable() {
+			@Override
+			public void run() {
+				handler.removeCallbacks(showTask);
+				if (!requested) {
+					return;
+				}
+				if (shownAt < 0) {
+					// 描画される前であれば、待たずに閉じる
+					Dialogs.dismiss(key);
+					return;
+				}
+				long remaining = shownAt + minDisplayTime
+						- SystemClock.uptimeMillis();
+				if (remaining > 0) {
+					handler.postDelayed(dismissTask, remaining);
+				} else {
+					Dialogs.dismiss(key);
+				}
+			}
+		});
+	}
+
+	/**
+	 * ダイアログの表示を要求したかどうかを取得します。
+	 *
+	 * @return 猶予時間を過ぎて表示を要求した場合はtrue。
+	 */
+	public boolean isShown() {
+		return requested;
+	}
+
+	/**
+	 * 処理が完了したかどうかを取得します。
+	 *
+	 * @return {@link #complete()}を呼び出した場合はtrue。
+	 */
+	public boolean isCompleted() {
+		return completed;
+	}
+}
@@ -0,0 +1,120 @@
+package net.onpu_tamago.libs.dialogs;
+
+import java.util.ArrayList;
+
+import net.onpu_tamago.libs.dialogs.Dialogs.DialogCallback;
+import net.onpu_tamago.libs.dialogs.Dialogs.DialogData;
+import android.support.v4.app.FragmentManager;
+import android.support.v4.app.FragmentTransaction;
+
+/**
+ * 複数のダイアログの表示と、その他のフラグメント操作を一つのトランザクションにまとめるオブジェクトです。
+ * {@link Dialogs#batch(FragmentManager)}で生成します。
+ * <p>
+ * {@link #commit()}を呼び出すと、まとめたダイアログはメインスレッドへの一回の投稿で、
+ * レジストリへの一回の登録と一回のコミットにより表示されます。
+ * ダイアログ以外のフラグメント操作は、{@link #getTransaction()}で取得したトランザクションに追加してください。
+ * 表示待ちの順序制御({@link DialogScheduler})は行われません。
+ * </p>
+ * <p>
+ * コミットする時点で表示先が状態を保存している場合、トランザクションはダイアログとともに
+ * {@link PendingQueue}に保持され、表示先が再開した際にコミットされます。
+ * 保持している間に画面回転などで表示先が作り直された場合や、状態の保存を検出できずにコミットが失敗した場合は、
+ * ダイアログのみが表示され、その他のフラグメント操作は破棄されます。
+ * </p>
+ *
+ * @author 高見知英
+ */
+public final class DialogBatch {
+
+	private final FragmentManager manager;
+
+	private final FragmentTransaction transaction;
+
+	private final ArrayList<DialogDispatcher.Request> requests = new ArrayList<DialogDispatcher.Request>();
+
+	private boolean committed;
+
+	DialogBatch(FragmentManager manager) {
+		this.manager = manager;
+		this.transaction = manager.beginTransaction();
+	}
+
+	/**
+	 * 表示するダイアログを追加します。
+	 *
+	 * @param spec
+	 *            ダイアログの表示内容。
+	 * @param callback
+	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクト。
+	 * @return このオブジェクト。
+	 */
+	public DialogBatch showDialog(DialogSpec spec, DialogCallback callback) {
+		return add(spec, new DialogData(null, callback));
+	}
+
+	/**
+	 * 独自ビューを表示するダイアログを追加します。
+	 *
+	 * @param spec
+	 *            ダイアログの表示内容。
+	 * @param callback
+	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクト。
+	 * @param factory
+	 *            表示するビューを生成する{@link ViewFactory}オブジェクト。
+	 * @return このオブジェクト。
+	 */
+	public DialogBatch showCustomDialog(DialogSpec spec,
+			DialogCallback callback, ViewFactory factory) {
+		DialogData data = new DialogData(null, callback);
+		data.viewFactory = factory;
+		return add(spec, data);
+	}
+
+	private synchronized DialogBatch add(DialogSpec spec, DialogData data) {
+		if (committed) {
+			throw new IllegalStateException("batch already committed");
+		}
+		DialogDispatcher.Request request = new DialogDispatcher.Request(null,
+				transaction, spec, data, Dialogs.registry.nextKey());
+		if (Dialogs.isTracing()) {
+			Dialogs.trace(DialogMetricsListener.STAGE_REQUESTED, request);
+		}
+		requests.add(request);
+		return this;
+	}
+
+	/**
+	 * ダイアログと同時にコミットするトランザクションを取得します。
+	 * ダイアログ以外のフラグメント操作を追加する場合に用います。コミットは行わないでください。
+	 *
+	 * @return トランザクション。
+	 */
+	public FragmentTransaction getTransaction() {
+		return transaction;
+	}
+
+	/**
+	 * 追加したダイアログとフラグメント操作を、一つのトランザクションでコミットします。
+	 * どのスレッドからでも呼び出せます。
+	 *
+	 * @throws IllegalStateException
+	 *             既にコミットしている場合。
+	 */
+	public void commit() {
+		final ArrayList<DialogDispatcher.Request> pending;
+		synchronized (this) {
+			if (committed) {
+				throw new IllegalStateException("batch already committed");
+			}
+			committed = true;
+			pending = new ArrayList<DialogDispatcher.Request>(requests);
+		}
+		Dialogs.getMainExecutor().execute(new Runnable() {
+			@Override
+			public void run() {
+				Dialogs.displayAll(manager, transaction, pending);
+			}
+		});
+	}
+}
@@ -0,0 +1,26 @@
+package net.onpu_tamago.libs.dialogs;
+
+import net.onpu_tamago.libs.dialogs.Dialogs.DialogCallback;
+
+/**
+ * 復元されたダイアログにコールバックを結び付け直すためのインターフェースです。
+ * ダイアログを表示するアクティビティ、またはフラグメントに実装します。
+ * <p>
+ * {@link DialogSpec.Builder#callbackKey(String)}を指定したダイアログが、 画面回転やプロセスの再生成の後に復元された際、
+ * 親フラグメント、ターゲットフラグメント、アクティビティの順にこのインターフェースを実装したものを探し、
+ * {@link #getDialogCallback(String)}の戻り値をコールバックとして用います。
+ * </p>
+ *
+ * @author 高見知英
+ */
+public interface DialogCallbackProvider {
+
+	/**
+	 * キーに対応するコールバックを取得します。メインスレッドから呼び出されます。
+	 *
+	 * @param key
+	 *            {@link DialogSpec.Builder#callbackKey(String)}で指定したキー。
+	 * @return コールバック。該当するものがない場合はnull。
+	 */
+	DialogCallback getDialogCallback(String key);
+}
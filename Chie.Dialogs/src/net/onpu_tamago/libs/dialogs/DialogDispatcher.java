@@ -0,0 +1,122 @@
+package net.onpu_tamago.libs.dialogs;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import net.onpu_tamago.libs.dialogs.Dialogs.DialogData;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.v4.app.FragmentManager;
+import android.support.v4.app.FragmentTransaction;
+import android.util.Log;
+
+/**
+ * ワーカースレッドから要求されたダイアログ表示をメインスレッドへ受け渡すクラスです。
+ * 要求はロックフリーのキューに蓄えられ、メインスレッドへの一回の投稿でまとめて処理されます。
+ *
+ * @author 高見知英
+ */
+final class DialogDispatcher {
+
+	private static final String TAG = "DialogDispatcher";
+
+	/**
+	 * ダイアログ表示要求です。
+	 */
+	static final class Request {
+		final FragmentManager manager;
+		final FragmentTransaction transaction;
+		final DialogSpec spec;
+		final DialogData data;
+		final int key;
+
+		Request(FragmentManager manager, FragmentTransaction transaction,
+				DialogSpec spec, DialogData data, int key) {
+			this.manager = manager;
+			this.transaction = transaction;
+			this.spec = spec;
+			this.data = data;
+			this.key = key;
+		}
+
+		/**
+		 * 表示先を差し替えた要求を生成します。 表示待ちの要求は{@link FragmentManager}を保持せず、
+		 * 表示する際に現在の{@link FragmentManager}を指定します。
+		 *
+		 * @param manager
+		 *            表示先の{@link FragmentManager}。保持する場合はnull。
+		 * @return 要求。
+		 */
+		Request withManager(FragmentManager manager) {
+			return new Request(manager, null, spec, data, key);
+		}
+	}
+
+	/**
+	 * 処理待ちの要求です。複数のスレッドから同時に追加されます。
+	 */
+	private final ConcurrentLinkedQueue<Request> pending = new ConcurrentLinkedQueue<Request>();
+
+	/**
+	 * メインスレッドへの投稿が済んでいるかどうか。
+	 */
+	private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+	private final Handler handler = new Handler(Looper.getMainLooper());
+
+	private final Runnable drainTask = new Runnable() {
+		@Override
+		public void run() {
+			// 処理中に追加された要求は再投稿で拾えるよう、先にフラグを戻す
+			scheduled.set(false);
+			drain();
+		}
+	};
+
+	/**
+	 * 現在のスレッドがメインスレッドかどうかを取得します。
+	 *
+	 * @return メインスレッドの場合はtrue。
+	 */
+	static boolean isMainThread() {
+		return Looper.myLooper() == Looper.getMainLooper();
+	}
+
+	/**
+	 * 要求をキューに追加し、必要であればメインスレッドへ処理を投稿します。
+	 *
+	 * @param request
+	 *            要求。
+	 */
+	void post(Request request) {
+		pending.offer(request);
+		if (scheduled.compareAndSet(false, true)) {
+			handler.post(drainTask);
+		}
+	}
+
+	/**
+	 * 処理待ちの要求が存在するかどうかを取得します。
+	 *
+	 * @return 存在する場合はtrue。
+	 */
+	boolean hasPending() {
+		return !pending.isEmpty();
+	}
+
+	/**
+	 * 処理待ちの要求をすべて表示します。メインスレッドから呼び出してください。
+	 */
+	void drain() {
+		Request request;
+		while ((request = pending.poll()) != null) {
+			try {
+				Dialogs.showNow(request);
+			} catch (IllegalStateException e) {
+				// 表示先が既に破棄されている場合など。残りの要求は処理を続ける
+				Dialogs.release(request.key);
+				Log.w(TAG, "dialog request dropped", e);
+			}
+		}
+	}
+}
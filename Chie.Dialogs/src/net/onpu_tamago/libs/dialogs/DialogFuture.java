@@ -0,0 +1,469 @@
+package net.onpu_tamago.libs.dialogs;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * ダイアログの結果など、後で確定する値を表すオブジェクトです。
+ * {@link Dialogs#showDialogAsync(android.support.v4.app.FragmentManager, DialogSpec)}
+ * などの戻り値として用います。
+ * <p>
+ * 値の確定・リスナーの登録はロックを用いずに行われるため、どのスレッドからでも呼び出せます。
+ * 確定した値を受け取る処理は、{@link #then(Function, Executor)}などで指定した{@link Executor}
+ * 上で実行されます。
+ * </p>
+ *
+ * @author 高見知英
+ * @param <T>
+ *            値の型。
+ */
+public final class DialogFuture<T> {
+
+	/**
+	 * 値を変換する処理です。
+	 *
+	 * @param <A>
+	 *            変換元の型。
+	 * @param <B>
+	 *            変換後の型。
+	 */
+	public interface Function<A, B> {
+		/**
+		 * 値を変換します。
+		 *
+		 * @param value
+		 *            変換元の値。
+		 * @return 変換後の値。
+		 * @throws Exception
+		 *             変換に失敗した場合。変換後の{@link DialogFuture}は失敗として確定します。
+		 */
+		B apply(A value) throws Exception;
+	}
+
+	/**
+	 * 値の確定を受け取るリスナーです。
+	 *
+	 * @param <T>
+	 *            値の型。
+	 */
+	public interface Listener<T> {
+		/**
+		 * 値が確定した、取り消された、または失敗した際に呼び出されます。
+		 *
+		 * @param future
+		 *            確定した{@link DialogFuture}。
+		 */
+		void onComplete(DialogFuture<T> future);
+	}
+
+	/**
+	 * 呼び出したスレッドでそのまま処理を実行する{@link Executor}です。
+	 */
+	public static final Executor DIRECT = new Executor() {
+		@Override
+		public void execute(Runnable command) {
+			command.run();
+		}
+	};
+
+	/**
+	 * 未確定の状態を示す値です。
+	 */
+	private static final Object PENDING = new Object();
+
+	/**
+	 * 取り消された状態を示す値です。
+	 */
+	private static final Object CANCELLED = new Object();
+
+	/**
+	 * 値がnullで確定した状態を示す値です。
+	 */
+	private static final Object NULL = new Object();
+
+	/**
+	 * 失敗した状態を示す値です。
+	 */
+	private static final class Failure {
+		final Throwable cause;
+
+		Failure(Throwable cause) {
+			this.cause = cause;
+		}
+	}
+
+	/**
+	 * 登録されたリスナーの連結リストです。確定後は{@link #DONE}となります。
+	 */
+	private static final class Node {
+		final Listener<?> listener;
+		final Executor executor;
+		final Node next;
+
+		Node(Listener<?> listener, Executor executor, Node next) {
+			this.listener = listener;
+			this.executor = executor;
+			this.next = next;
+		}
+	}
+
+	private static final Node DONE = new Node(null, null, null);
+
+	private final AtomicReference<Object> state = new AtomicReference<Object>(
+			PENDING);
+
+	private final AtomicReference<Node> listeners = new AtomicReference<Node>();
+
+	/**
+	 * 取り消された際に実行する処理です。
+	 */
+	private volatile Runnable canceller;
+
+	DialogFuture() {
+	}
+
+	/**
+	 * 取り消された際に実行する処理を設定します。
+	 */
+	void setCanceller(Runnable canceller) {
+		this.canceller = canceller;
+		if (isCancelled()) {
+			canceller.run();
+		}
+	}
+
+	/**
+	 * 値を確定します。
+	 *
+	 * @return 確定した場合はtrue。既に確定していた場合はfalse。
+	 */
+	boolean complete(T value) {
+		return finish(value != null ? value : NULL);
+	}
+
+	/**
+	 * 失敗として確定します。
+	 *
+	 * @return 確定した場合はtrue。既に確定していた場合はfalse。
+	 */
+	boolean fail(Throwable cause) {
+		return finish(new Failure(cause));
+	}
+
+	/**
+	 * 取り消します。ダイアログが表示されている場合は閉じられ、コールバックは呼び出されません。
+	 * この{@link DialogFuture}から派生したものも取り消されます。
+	 *
+	 * @return 取り消した場合はtrue。既に確定していた場合はfalse。
+	 */
+	public boolean cancel() {
+		if (!finish(CANCELLED)) {
+			return false;
+		}
+		Runnable r = canceller;
+		if (r != null) {
+			r.run();
+		}
+		return true;
+	}
+
+	private boolean finish(Object result) {
+		if (!state.compareAndSet(PENDING, result)) {
+			return false;
+		}
+		Node node = listeners.getAndSet(DONE);
+		// 登録順に通知する
+		Node reversed = null;
+		for (; node != null && node != DONE; node = node.next) {
+			reversed = new Node(node.listener, node.executor, reversed);
+		}
+		for (; reversed != null; reversed = reversed.next) {
+			notify(reversed.listener, reversed.executor);
+		}
+		return true;
+	}
+
+	@SuppressWarnings("unchecked")
+	private void notify(final Listener<?> listener, Executor executor) {
+		executor.execute(new Runnable() {
+			@Override
+			public void run() {
+				((Listener<T>) listener).onComplete(DialogFuture.this);
+			}
+		});
+	}
+
+	/**
+	 * 確定を受け取るリスナーを登録します。既に確定している場合は、すぐに通知されます。
+	 *
+	 * @param listener
+	 *            リスナー。
+	 * @param executor
+	 *            リスナーを呼び出す{@link Executor}。
+	 * @return このオブジェクト。
+	 */
+	public DialogFuture<T> addListener(Listener<? super T> listener,
+			Executor executor) {
+		while (true) {
+			Node head = listeners.get();
+			if (head == DONE) {
+				notify(listener, executor);
+				return this;
+			}
+			if (listeners.compareAndSet(head,
+					new Node(listener, executor, head))) {
+				return this;
+			}
+		}
+	}
+
+	/**
+	 * 確定した値を変換した{@link DialogFuture}を生成します。
+	 * この{@link DialogFuture}が取り消された・失敗した場合は、生成したものも同様に確定します。
+	 *
+	 * @param function
+	 *            値を変換する処理。
+	 * @param executor
+	 *            処理を実行する{@link Executor}。
+	 * @return 変換後の値を表す{@link DialogFuture}。
+	 */
+	public <U> DialogFuture<U> then(final Function<? super T, ? extends U> function,
+			Executor executor) {
+		final DialogFuture<U> next = new DialogFuture<U>();
+		next.setCanceller(new Runnable() {
+			@Override
+			public void run() {
+				cancel();
+			}
+		});
+		addListener(new Listener<T>() {
+			@Override
+			public void onComplete(DialogFuture<T> future) {
+				if (future.propagateTo(next)) {
+					return;
+				}
+				try {
+					next.complete(function.apply(future.getNow()));
+				} catch (Exception e) {
+					next.fail(e);
+				}
+			}
+		}, executor);
+		return next;
+	}
+
+	/**
+	 * 確定した値を元に、別の{@link DialogFuture}(次のダイアログなど)を続けて待つ{@link DialogFuture}を生成します。
+	 * 生成したものを取り消すと、待っている側の{@link DialogFuture}も取り消されます。
+	 *
+	 * @param function
+	 *            次の{@link DialogFuture}を生成する処理。
+	 * @param executor
+	 *            処理を実行する{@link Executor}。
+	 * @return 次の{@link DialogFuture}の値を表す{@link DialogFuture}。
+	 */
+	public <U> DialogFuture<U> thenCompose(
+			final Function<? super T, DialogFuture<U>> function,
+			Executor executor) {
+		final DialogFuture<U> next = new DialogFuture<U>();
+		final AtomicReference<DialogFuture<U>> inner = new AtomicReference<DialogFuture<U>>();
+		next.setCanceller(new Runnable() {
+			@Override
+			public void run() {
+				cancel();
+				DialogFuture<U> current = inner.get();
+				if (current != null) {
+					current.cancel();
+				}
+			}
+		});
+		addListener(new Listener<T>() {
+			@Override
+			public void onComplete(DialogFuture<T> future) {
+				if (future.propagateTo(next)) {
+					return;
+				}
+				DialogFuture<U> following;
+				try {
+					following = function.apply(future.getNow());
+				} catch (Exception e) {
+					next.fail(e);
+					return;
+				}
+				if (following == null) {
+					next.complete(null);
+					return;
+				}
+				inner.set(following);
+				if (next.isCancelled()) {
+					following.cancel();
+					return;
+				}
+				following.addListener(new Listener<U>() {
+					@Override
+					public void onComplete(DialogFuture<U> f) {
+						if (!f.propagateTo(next)) {
+							next.complete(f.getNow());
+						}
+					}
+				}, DIRECT);
+			}
+		}, executor);
+		return next;
+	}
+
+	/**
+	 * 取り消し・失敗を他の{@link DialogFuture}へ伝えます。
+	 *
+	 * @return 伝えた場合はtrue。値が確定している場合はfalse。
+	 */
+	private boolean propagateTo(DialogFuture<?> other) {
+		Object s = state.get();
+		if (s == CANCELLED) {
+			other.cancel();
+			return true;
+		}
+		if (s instanceof Failure) {
+			other.fail(((Failure) s).cause);
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * 確定したかどうかを取得します。取り消し・失敗も確定に含みます。
+	 *
+	 * @return 確定した場合はtrue。
+	 */
+	public boolean isDone() {
+		return state.get() != PENDING;
+	}
+
+	/**
+	 * 取り消されたかどうかを取得します。
+	 *
+	 * @return 取り消された場合はtrue。
+	 */
+	public boolean isCancelled() {
+		return state.get() == CANCELLED;
+	}
+
+	/**
+	 * 確定した値を取得します。待機は行いません。
+	 *
+	 * @return 値。未確定・取り消し・失敗の場合はnull。
+	 */
+	@SuppressWarnings("unchecked")
+	public T getNow() {
+		Object s = state.get();
+		if (s == PENDING || s == CANCELLED || s == NULL
+				|| s instanceof Failure) {
+			return null;
+		}
+		return (T) s;
+	}
+
+	/**
+	 * 値が確定するまで待機し、確定した値を取得します。
+	 * 待機中のスレッドは{@link CountDownLatch}により停止し、CPUを消費しません。
+	 * メインスレッドからは呼び出せません。
+	 *
+	 * @return 値。
+	 * @throws InterruptedException
+	 *             待機中に割り込まれた場合。
+	 * @throws CancellationException
+	 *             取り消された場合。
+	 * @throws ExecutionException
+	 *             失敗した場合。
+	 * @throws IllegalStateException
+	 *             未確定の状態でメインスレッドから呼び出した場合。
+	 */
+	public T get() throws InterruptedException, ExecutionException {
+		if (!isDone()) {
+			checkNotMainThread();
+			latch().await();
+		}
+		return report();
+	}
+
+	/**
+	 * 値が確定するまで、指定した時間を上限として待機し、確定した値を取得します。
+	 * 待機中のスレッドは{@link CountDownLatch}により停止し、CPUを消費しません。
+	 * メインスレッドからは呼び出せません。
+	 *
+	 * @param timeout
+	 *            待機する時間の上限。
+	 * @param unit
+	 *            timeoutの単位。
+	 * @return 値。
+	 * @throws InterruptedException
+	 *             待機中に割り込まれた場合。
+	 * @throws TimeoutException
+	 *             時間内に確定しなかった場合。
+	 * @throws CancellationException
+	 *             取り消された場合。
+	 * @throws ExecutionException
+	 *             失敗した場合。
+	 * @throws IllegalStateException
+	 *             未確定の状態でメインスレッドから呼び出した場合。
+	 */
+	public T get(long timeout, TimeUnit unit) throws InterruptedException,
+			TimeoutException, ExecutionException {
+		if (!isDone()) {
+			checkNotMainThread();
+			if (!latch().await(timeout, unit)) {
+				throw new TimeoutException();
+			}
+		}
+		return report();
+	}
+
+	/**
+	 * 確定した際に開放される{@link CountDownLatch}を生成します。
+	 */
+	private CountDownLatch latch() {
+		final CountDownLatch latch = new CountDownLatch(1);
+		addListener(new Listener<T>() {
+			@Override
+			public void onComplete(DialogFuture<T> future) {
+				latch.countDown();
+			}
+		}, DIRECT);
+		return latch;
+	}
+
+	private static void checkNotMainThread() {
+		// ダイアログはメインスレッドで処理されるため、待機すると確定しなくなる
+		if (DialogDispatcher.isMainThread()) {
+			throw new IllegalStateException(
+					"cannot wait for a dialog on the main thread");
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private T report() throws ExecutionException {
+		Object s = state.get();
+		if (s == CANCELLED) {
+			throw new CancellationException();
+		}
+		if (s instanceof Failure) {
+			throw new ExecutionException(((Failure) s).cause);
+		}
+		return s == NULL ? null : (T) s;
+	}
+
+	/**
+	 * 失敗の原因を取得します。
+	 *
+	 * @return 原因。失敗していない場合はnull。
+	 */
+	public Throwable getFailure() {
+		Object s = state.get();
+		return s instanceof Failure ? ((Failure) s).cause : null;
+	}
+}
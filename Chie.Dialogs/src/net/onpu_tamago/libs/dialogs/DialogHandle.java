@@ -0,0 +1,54 @@
+package net.onpu_tamago.libs.dialogs;
+
+/**
+ * 表示を要求したダイアログを操作するためのオブジェクトです。
+ * {@link Dialogs#showDialogForHandle(android.support.v4.app.FragmentManager, DialogSpec, Dialogs.DialogCallback, android.view.View)}
+ * などの戻り値として返されます。
+ * <p>
+ * 各メソッドはどのスレッドからでも呼び出せます。操作はメインスレッドで順に反映され、
+ * ダイアログが既に閉じられている場合は何も行われません。
+ * </p>
+ *
+ * @author 高見知英
+ */
+public final class DialogHandle {
+
+	/**
+	 * {@link DialogRegistry}におけるキーです。
+	 */
+	private final int key;
+
+	DialogHandle(int key) {
+		this.key = key;
+	}
+
+	/**
+	 * 表示中のダイアログの内容を更新します。 フラグメント・ウィンドウは生成し直さず、
+	 * 現在の内容と比べて変更されたタイトル・メッセージ・選択肢・ボタンのみを反映します。
+	 * 表示待ちの場合は、表示する際に更新後の内容で表示されます。
+	 *
+	 * @param spec
+	 *            更新後の表示内容。
+	 * @see Dialogs#updateDialog(int, DialogSpec)
+	 */
+	public void update(final DialogSpec spec) {
+		Dialogs.getMainExecutor().execute(new Runnable() {
+			@Override
+			public void run() {
+				Dialogs.update(key, spec);
+			}
+		});
+	}
+
+	/**
+	 * ダイアログを閉じます。表示待ちの場合は表示を取りやめます。 コールバックは呼び出されません。
+	 */
+	public void dismiss() {
+		Dialogs.getMainExecutor().execute(new Runnable() {
+			@Override
+			public void run() {
+				Dialogs.dismiss(key);
+			}
+		});
+	}
+}
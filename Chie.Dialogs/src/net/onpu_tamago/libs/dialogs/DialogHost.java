@@ -0,0 +1,188 @@
+package net.onpu_tamago.libs.dialogs;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.WeakHashMap;
+
+import android.app.Activity;
+import android.os.Bundle;
+import android.support.v4.app.Fragment;
+import android.support.v4.app.FragmentManager;
+
+/**
+ * ダイアログの表示先を表す、画面を持たないフラグメントです。 ライブラリが内部的に追加します。直接使用しないでください。
+ * <p>
+ * 画面回転の間も保持されるため、{@link FragmentManager}が生成し直されても同じオブジェクトとなります。
+ * 表示待ちの要求など、表示先ごとの状態はこのオブジェクトをキーとして保持し、
+ * {@link FragmentManager}やアクティビティへの参照は保持しません。
+ * </p>
+ *
+ * @author 高見知英
+ */
+public final class DialogHost extends Fragment {
+
+	/**
+	 * このフラグメントに付与するタグです。
+	 */
+	static final String TAG = "net.onpu_tamago.libs.dialogs.host";
+
+	/**
+	 * {@link FragmentManager}と表示先の対応です。 追加のトランザクションが実行されるまでの間も検索できるよう保持します。
+	 * 値は弱参照とし、{@link FragmentManager}への参照が残らないようにします。
+	 */
+	private static final WeakHashMap<FragmentManager, WeakReference<DialogHost>> hosts = new WeakHashMap<FragmentManager, WeakReference<DialogHost>>();
+
+	/**
+	 * {@link PendingQueue}が保持している要求です。 表示先の{@link FragmentManager}は保持しません。
+	 */
+	final ArrayList<DialogDispatcher.Request> pending = new ArrayList<DialogDispatcher.Request>();
+
+	/**
+	 * {@link PendingQueue}が保持している一括表示です。
+	 */
+	final ArrayList<PendingQueue.Batch> batches = new ArrayList<PendingQueue.Batch>();
+
+	/**
+	 * 表示先が状態を保存しており、要求を保持する必要があるかどうかです。
+	 * ライブラリが追加する際は、表示先が状態を保存しているかを調べて設定します。
+	 * 復元された場合は、アクティビティの生成時点ではコミットできるためfalseとなります。
+	 */
+	boolean holding;
+
+	public DialogHost() {
+	}
+
+	/**
+	 * 表示先を検索します。メインスレッドから呼び出してください。
+	 *
+	 * @param manager
+	 *            {@link FragmentManager}。
+	 * @return 表示先。存在しない場合はnull。
+	 */
+	static DialogHost find(FragmentManager manager) {
+		DialogHost host = lookup(manager);
+		if (host == null) {
+			// プロセスの再生成後に復元された場合など
+			Fragment fragment = manager.findFragmentByTag(TAG);
+			if (fragment instanceof DialogHost) {
+				host = (DialogHost) fragment;
+				register(manager, host);
+			}
+		}
+		return host;
+	}
+
+	/**
+	 * 表示先を取得します。存在しない場合は追加します。メインスレッドから呼び出してください。
+	 * 状態を保存している表示先に追加した場合は、再開するまで要求を保持します。
+	 *
+	 * @param manager
+	 *            {@link FragmentManager}。
+	 * @return 表示先。アクティビティが破棄されているなど、追加できない場合はnull。
+	 */
+	static DialogHost obtain(FragmentManager manager) {
+		DialogHost host = find(manager);
+		if (host != null) {
+			return host;
+		}
+		host = new DialogHost();
+		// 実際に状態を保存している場合のみ、再開するまで要求を保持する
+		host.holding = isStateSaved(manager);
+		try {
+			// 状態の保存後にも追加できるよう、状態の消失を許容する
+			manager.beginTransaction().add(host, TAG).commitAllowingStateLoss();
+		} catch (IllegalStateException e) {
+			return null;
+		}
+		register(manager, host);
+		return host;
+	}
+
+	/**
+	 * 表示先が状態を保存しているかどうかを、空のトランザクションをコミットして調べます。
+	 *
+	 * @param manager
+	 *            {@link FragmentManager}。
+	 * @return 状態を保存している場合、またはアクティビティが破棄されている場合はtrue。
+	 */
+	private static boolean isStateSaved(FragmentManager manager) {
+		try {
+			manager.beginTransaction().commit();
+		} catch (IllegalStateException e) {
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * 登録済みの表示先を取得します。 フラグメントの検索は行わないため、どのスレッドからでも呼び出せます。
+	 *
+	 * @param manager
+	 *            {@link FragmentManager}。
+	 * @return 表示先。登録されていない場合はnull。
+	 */
+	static DialogHost lookup(FragmentManager manager) {
+		synchronized (hosts) {
+			WeakReference<DialogHost> ref = hosts.get(manager);
+			return ref != null ? ref.get() : null;
+		}
+	}
+
+	private static void register(FragmentManager manager, DialogHost host) {
+		synchronized (hosts) {
+			hosts.put(manager, new WeakReference<DialogHost>(host));
+		}
+	}
+
+	@Override
+	public void onCreate(Bundle savedInstanceState) {
+		super.onCreate(savedInstanceState);
+		// 画面回転の間も同じオブジェクトを用いる
+		setRetainInstance(true);
+	}
+
+	@Override
+	public void onAttach(Activity activity) {
+		super.onAttach(activity);
+		// 画面回転の後は新しいFragmentManagerに関連付ける
+		register(getFragmentManager(), this);
+	}
+
+	@Override
+	public void onResume() {
+		super.onResume();
+		holding = false;
+		Dialogs.pendingQueue.flush(this);
+	}
+
+	@Override
+	public void onSaveInstanceState(Bundle outState) {
+		super.onSaveInstanceState(outState);
+		holding = true;
+	}
+
+	@Override
+	public void onStop() {
+		holding = true;
+		super.onStop();
+	}
+
+	@Override
+	public void onDetach() {
+		// 画面回転の場合も、破棄されるアクティビティで生成したビューは再利用できない
+		if (getActivity() != null) {
+			Dialogs.viewPool.clear(getActivity());
+		}
+		// 保持しているトランザクションは、破棄されるアクティビティのものであるため手放す
+		Dialogs.pendingQueue.unbind(this);
+		super.onDetach();
+	}
+
+	@Override
+	public void onDestroy() {
+		// アクティビティが終了した場合は、表示待ち・保持している要求を破棄する
+		Dialogs.scheduler.clear(this);
+		Dialogs.pendingQueue.discard(this);
+		super.onDestroy();
+	}
+}
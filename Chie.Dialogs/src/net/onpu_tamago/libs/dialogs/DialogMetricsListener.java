@@ -0,0 +1,129 @@
+package net.onpu_tamago.libs.dialogs;
+
+/**
+ * ダイアログの表示から結果の通知までの各段階の時刻を受け取るリスナーです。
+ * {@link Dialogs#setMetricsListener(DialogMetricsListener)}で登録します。
+ * <p>
+ * 段階は表示要求ごとに次の順で通知されます(ボタン・項目の選択とキャンセルはどちらか一方)。
+ * </p>
+ * <ol>
+ * <li>{@link #STAGE_REQUESTED}</li>
+ * <li>{@link #STAGE_COMMITTED}</li>
+ * <li>{@link #STAGE_CREATE_STARTED}</li>
+ * <li>{@link #STAGE_CREATE_FINISHED}</li>
+ * <li>{@link #STAGE_FIRST_DRAW}</li>
+ * <li>{@link #STAGE_CLICKED}または{@link #STAGE_CANCELED}</li>
+ * <li>{@link #STAGE_CALLBACK_RETURNED}</li>
+ * </ol>
+ * <p>
+ * {@link #STAGE_REQUESTED}は表示を要求したスレッドから、それ以外はメインスレッドから呼び出されます。
+ * 画面回転などでダイアログが再生成された場合、{@link #STAGE_CREATE_STARTED}以降は再度通知されます。
+ * 処理はダイアログの表示中に行われるため、時間のかかる処理は行わないでください。
+ * </p>
+ *
+ * @author 高見知英
+ */
+public interface DialogMetricsListener {
+
+	/**
+	 * 表示要求を受け付けた段階です。
+	 */
+	int STAGE_REQUESTED = 0;
+
+	/**
+	 * フラグメントのトランザクションをコミットした段階です。
+	 */
+	int STAGE_COMMITTED = 1;
+
+	/**
+	 * {@link InternalDialogFragment#onCreateDialog(android.os.Bundle)}を開始した段階です。
+	 */
+	int STAGE_CREATE_STARTED = 2;
+
+	/**
+	 * {@link InternalDialogFragment#onCreateDialog(android.os.Bundle)}を終了した段階です。
+	 */
+	int STAGE_CREATE_FINISHED = 3;
+
+	/**
+	 * ダイアログを初めて描画する段階です。
+	 */
+	int STAGE_FIRST_DRAW = 4;
+
+	/**
+	 * ボタン・項目が選択された段階です。
+	 */
+	int STAGE_CLICKED = 5;
+
+	/**
+	 * ダイアログがキャンセルされた段階です。
+	 */
+	int STAGE_CANCELED = 6;
+
+	/**
+	 * {@link Dialogs.DialogCallback}の呼び出しから戻った段階です。
+	 */
+	int STAGE_CALLBACK_RETURNED = 7;
+
+	/**
+	 * ボタンのみ、または選択肢を持つ通常のダイアログです。
+	 */
+	int TYPE_DEFAULT = 0;
+
+	/**
+	 * 文字入力領域を持つダイアログです。
+	 */
+	int TYPE_INPUT = Dialogs.VIEWID_INPUTDLG;
+
+	/**
+	 * チェックボックスを持つダイアログです。
+	 */
+	int TYPE_CHECK = Dialogs.VIEWID_CHECKDLG;
+
+	/**
+	 * 大量の選択肢を持つダイアログです。
+	 */
+	int TYPE_LARGECHOICE = Dialogs.VIEWID_CHOICELIST;
+
+	/**
+	 * 選択肢をページ単位で読み込むダイアログです。
+	 */
+	int TYPE_PAGEDCHOICE = Dialogs.VIEWID_PAGEDLIST;
+
+	/**
+	 * {@link android.database.Cursor}から選択肢を表示するダイアログです。
+	 */
+	int TYPE_CURSORCHOICE = Dialogs.VIEWID_CURSORLIST;
+
+	/**
+	 * {@link DialogPipeline}の各段階を表示するダイアログです。
+	 */
+	int TYPE_PIPELINE = Dialogs.VIEWID_PIPELINE;
+
+	/**
+	 * 進捗を表示するダイアログです。
+	 */
+	int TYPE_PROGRESS = Dialogs.VIEWID_PROGRESSDLG;
+
+	/**
+	 * 独自のビューを持つダイアログです。
+	 */
+	int TYPE_CUSTOM = 100;
+
+	/**
+	 * ダイアログの処理が指定した段階に達した際に呼び出されます。
+	 *
+	 * @param stage
+	 *            段階。{@link #STAGE_REQUESTED}などの値。
+	 * @param key
+	 *            表示要求ごとに一意な値。同じ表示要求の段階を対応付けるために用います。
+	 * @param dialogId
+	 *            {@link Dialogs#ALERT_ID}の値。指定されていない場合は0。
+	 * @param type
+	 *            ダイアログの種類。{@link #TYPE_DEFAULT}などの値。
+	 * @param timeNanos
+	 *            段階に達した時刻({@link System#nanoTime()}の値)。
+	 */
+	void onDialogEvent(int stage, int key, int dialogId, int type,
+			long timeNanos);
+}
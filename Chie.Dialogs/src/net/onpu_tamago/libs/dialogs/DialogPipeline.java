@@ -0,0 +1,107 @@
+package net.onpu_tamago.libs.dialogs;
+
+import java.util.ArrayList;
+
+/**
+ * 入力・選択・確認など、複数の段階からなるダイアログの手順を表すオブジェクトです。
+ * {@link Dialogs#showDialogPipeline(android.support.v4.app.FragmentManager, DialogPipeline, Dialogs.DialogCallback)}
+ * に指定します。
+ * <p>
+ * すべての段階は一つのフラグメント・一つのウィンドウの中で、表示内容を入れ替えながら表示されます。
+ * 肯定・中立ボタンが押された、または項目が選択された場合は次の段階へ進み、
+ * 最後の段階で同様の操作が行われた場合、否定ボタンが押された場合、キャンセルされた場合に
+ * 手順が終了します。コールバックは終了時に一度だけ呼び出され、各段階の結果は
+ * {@link Dialogs#PARAMS_STEPRESULTS}(または{@link DialogResult#getStepResult(int)})
+ * で取得できます。
+ * </p>
+ * <p>
+ * 各段階に指定できるのは、タイトル・メッセージ・選択肢・ボタン、および文字入力領域・チェックボックスのみです。
+ * タイトルのない段階ではタイトル領域を隠します(タイトル領域を取得できない端末では、空のタイトルが表示されます)。
+ * 表示中の段階と結果はフラグメントの引数に保存されるため、画面回転の後も同じ段階から再開されます。
+ * </p>
+ *
+ * <pre>
+ * DialogPipeline pipeline = new DialogPipeline().step(inputSpec)
+ * 		.step(choiceSpec).step(confirmSpec);
+ * Dialogs.showDialogPipeline(getSupportFragmentManager(), pipeline, callback);
+ * </pre>
+ *
+ * @author 高見知英
+ */
+public final class DialogPipeline {
+
+	/**
+	 * 前の段階の結果を元に、次の段階の表示内容を決定する処理です。
+	 */
+	public interface StepHandler {
+		/**
+		 * 次の段階へ進む際に、メインスレッドから呼び出されます。
+		 *
+		 * @param step
+		 *            次の段階のインデックス。
+		 * @param next
+		 *            次の段階として登録された表示内容。
+		 * @param previous
+		 *            前の段階の結果。オブジェクトは再利用されるため、メソッドから戻った後は参照しないでください。
+		 * @return 次の段階の表示内容。nullを返した場合は、その時点で手順を終了します。
+		 */
+		DialogSpec onNextStep(int step, DialogSpec next, DialogResult previous);
+	}
+
+	private final ArrayList<DialogSpec> steps = new ArrayList<DialogSpec>();
+
+	private StepHandler stepHandler;
+
+	/**
+	 * 段階を追加します。
+	 *
+	 * @param spec
+	 *            段階の表示内容。
+	 * @return このオブジェクト。
+	 * @throws IllegalArgumentException
+	 *             文字入力領域・チェックボックス以外のビューを指定した場合。
+	 */
+	public DialogPipeline step(DialogSpec spec) {
+		int type = spec.getViewType();
+		if (type != 0 && type != Dialogs.VIEWID_INPUTDLG
+				&& type != Dialogs.VIEWID_CHECKDLG) {
+			throw new IllegalArgumentException("unsupported view type: "
+					+ type);
+		}
+		steps.add(spec);
+		return this;
+	}
+
+	/**
+	 * 前の段階の結果を元に次の段階の表示内容を決定する処理を設定します。
+	 * この処理はプロセスの再生成後には引き継がれません。
+	 *
+	 * @param handler
+	 *            処理。不要な場合はnull。
+	 * @return このオブジェクト。
+	 */
+	public DialogPipeline setStepHandler(StepHandler handler) {
+		this.stepHandler = handler;
+		return this;
+	}
+
+	/**
+	 * 段階の数を取得します。
+	 *
+	 * @return 段階の数。
+	 */
+	public int getStepCount() {
+		return steps.size();
+	}
+
+	/**
+	 * 登録された段階の一覧を取得します。
+	 */
+	DialogSpec[] getSteps() {
+		return steps.toArray(new DialogSpec[steps.size()]);
+	}
+
+	StepHandler getStepHandler() {
+		return stepHandler;
+	}
+}
@@ -0,0 +1,421 @@
+package net.onpu_tamago.libs.dialogs;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.onpu_tamago.libs.dialogs.Dialogs.DialogCallback;
+import net.onpu_tamago.libs.dialogs.Dialogs.DialogData;
+import android.support.v4.app.DialogFragment;
+import android.util.Log;
+import android.util.SparseArray;
+
+/**
+ * 表示中のダイアログが利用するデータ({@link DialogData})を管理するレジストリです。
+ * エントリはint値のキーで管理され、ダイアログが閉じられた時点で削除されます。
+ * <p>
+ * 登録数が容量に達した場合、フラグメントが閉じられないまま破棄された(孤立した)エントリを削除します。
+ * 表示中・表示待ちのエントリは削除せず、孤立したエントリを削除しても容量を超える場合は警告を記録した上で容量を超えて登録します。
+ * 削除したエントリは{@link Dialogs#release(int)}と同様に解放され、結果を待つ{@link DialogFuture}は取り消されます。
+ * </p>
+ * <p>
+ * キーの割り当てはロックフリーで行われ、その他の操作は同期化されているため、任意のスレッドから利用できます。
+ * 割り当てたキーがint値の範囲を一巡した後は、ロックを取得して登録中のキーを飛ばして割り当てます。
+ * </p>
+ *
+ * @author 高見知英
+ */
+public final class DialogRegistry {
+
+	private static final String TAG = "DialogRegistry";
+
+	/**
+	 * 既定の容量です。
+	 */
+	public static final int DEFAULT_CAPACITY = 64;
+
+	/**
+	 * 登録されたデータ。
+	 */
+	private final SparseArray<DialogData> entries = new SparseArray<DialogData>();
+
+	/**
+	 * 容量です。
+	 */
+	private int capacity;
+
+	/**
+	 * 次に割り当てるキーです。
+	 */
+	private final AtomicInteger nextKey;
+
+	/**
+	 * キーが一巡したかどうかです。
+	 */
+	private volatile boolean wrapped;
+
+	/**
+	 * 容量超過により削除されたエントリの数です。
+	 */
+	private int evictedCount = 0;
+
+	/**
+	 * 容量を超えて登録しているかどうかです。 警告を一度だけ記録するために用います。
+	 */
+	private boolean overCapacity;
+
+	DialogRegistry(int capacity) {
+		this(capacity, 0);
+	}
+
+	/**
+	 * 最初に割り当てるキーを指定して生成します。
+	 *
+	 * @param capacity
+	 *            容量。
+	 * @param firstKey
+	 *            最初に割り当てるキー。
+	 */
+	DialogRegistry(int capacity, int firstKey) {
+		nextKey = new AtomicInteger(firstKey);
+		setCapacity(capacity);
+	}
+
+	/**
+	 * 新しいキーを割り当てます。
+	 *
+	 * @return 割り当てたキー。0以上の値となります。
+	 */
+	int nextKey() {
+		int key = nextKey.getAndIncrement();
+		if (key < 0) {
+			wrapped = true;
+		}
+		if (!wrapped) {
+			return key;
+		}
+		// 一巡した後は、長く表示されているダイアログのキーと重複しうる
+		synchronized (this) {
+			key &= Integer.MAX_VALUE;
+			while (entries.indexOfKey(key) >= 0) {
+				key = nextKey.getAndIncrement() & Integer.MAX_VALUE;
+			}
+			return key;
+		}
+	}
+
+	/**
+	 * データを登録します。
+	 *
+	 * @param key
+	 *            {@link #nextKey()}で割り当てたキー。
+	 * @param owner
+	 *            データを利用するフラグメント。表示待ちでフラグメントが未作成の場合はnull。
+	 * @param data
+	 *            登録するデータ。
+	 */
+	void register(int key, DialogFragment owner, DialogData data) {
+		ArrayList<DialogData> evicted;
+		synchronized (this) {
+			evicted = reserve(1);
+			put(key, owner, data);
+		}
+		release(evicted);
+	}
+
+	/**
+	 * 複数のデータを一度に登録します。
+	 *
+	 * @param keys
+	 *            {@link #nextKey()}で割り当てたキー。
+	 * @param owners
+	 *            データを利用するフラグメント。
+	 * @param data
+	 *            登録するデータ。
+	 * @param count
+	 *            登録する数。
+	 */
+	void registerAll(int[] keys, DialogFragment[] owners, DialogData[] data,
+			int count) {
+		ArrayList<DialogData> evicted;
+		synchronized (this) {
+			evicted = reserve(count);
+			for (int i = 0; i < count; i++) {
+				put(keys[i], owners[i], data[i]);
+			}
+		}
+		release(evicted);
+	}
+
+	private void put(int key, DialogFragment owner, DialogData data) {
+		data.owner = owner != null ? new WeakReference<DialogFragment>(owner)
+				: null;
+		entries.put(key, data);
+	}
+
+	/**
+	 * 指定した数のエントリを登録できるよう、孤立したエントリを削除します。
+	 *
+	 * @return 削除したデータ。削除していない場合はnull。
+	 */
+	private ArrayList<DialogData> reserve(int count) {
+		ArrayList<DialogData> evicted = null;
+		if (entries.size() + count > capacity) {
+			evicted = evict(entries.size() + count - capacity);
+			if (entries.size() + count > capacity && !overCapacity) {
+				// 表示中・表示待ちのダイアログは削除できない
+				overCapacity = true;
+				Log.w(TAG, "registry grows past its capacity " + capacity
+						+ ": " + (entries.size() + count)
+						+ " dialogs are showing or waiting");
+			}
+		}
+		return evicted;
+	}
+
+	/**
+	 * 統合用のキーが一致するエントリに、表示要求を統合します。
+	 *
+	 * @param coalesceKey
+	 *            統合用のキー。
+	 * @param callback
+	 *            統合する表示要求のコールバックオブジェクト。
+	 * @return 統合できた場合はtrue。一致するエントリがない場合はfalse。
+	 */
+	synchronized boolean merge(Object coalesceKey, DialogCallback callback) {
+		for (int i = entries.size() - 1; i >= 0; i--) {
+			DialogData data = entries.valueAt(i);
+			if (coalesceKey.equals(data.coalesceKey) && !isOrphaned(data)) {
+				data.mergedCount++;
+				if (callback != null && callback != data.callback) {
+					if (data.mergedCallbacks == null) {
+						data.mergedCallbacks = new ArrayList<DialogCallback>();
+					}
+					if (!data.mergedCallbacks.contains(callback)) {
+						data.mergedCallbacks.add(callback);
+					}
+				}
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * 統合された表示要求を、統合先のエントリから外します。 統合された要求が取り消された場合に呼び出します。
+	 *
+	 * @param callback
+	 *            統合された表示要求のコールバックオブジェクト。
+	 * @return 外した場合はtrue。統合されていない場合はfalse。
+	 */
+	synchronized boolean unmerge(DialogCallback callback) {
+		for (int i = entries.size() - 1; i >= 0; i--) {
+			DialogData data = entries.valueAt(i);
+			if (data.mergedCallbacks != null
+					&& data.mergedCallbacks.remove(callback)) {
+				if (data.mergedCount > 0) {
+					data.mergedCount--;
+				}
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * キーに対応するデータを取得します。
+	 *
+	 * @param key
+	 *            キー。
+	 * @return データ。登録されていない場合はnull。
+	 */
+	synchronized DialogData get(int key) {
+		return entries.get(key);
+	}
+
+	/**
+	 * {@link Dialogs#ALERT_ID}に対応するキーを取得します。
+	 *
+	 * @param dialogId
+	 *            {@link Dialogs#ALERT_ID}の値。
+	 * @return キー。該当するものが複数ある場合は最も新しいもの。存在しない場合は-1。
+	 */
+	synchronized int findKey(int dialogId) {
+		for (int i = entries.size() - 1; i >= 0; i--) {
+			DialogData data = entries.valueAt(i);
+			if (data.spec != null && data.spec.hasId()
+					&& data.spec.getId() == dialogId && !isOrphaned(data)) {
+				return entries.keyAt(i);
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * データを利用するフラグメントを関連付けます。 表示待ちのダイアログを表示する場合や、
+	 * 画面回転などでフラグメントが再生成された場合に呼び出します。
+	 *
+	 * @param key
+	 *            キー。
+	 * @param owner
+	 *            新しいフラグメント。
+	 */
+	synchronized void attach(int key, DialogFragment owner) {
+		DialogData data = entries.get(key);
+		if (data != null && (data.owner == null || data.owner.get() != owner)) {
+			data.owner = new WeakReference<DialogFragment>(owner);
+		}
+	}
+
+	/**
+	 * フラグメントとの関連付けを解除します。 表示できなかったフラグメントを、表示待ちの状態に戻す場合に呼び出します。
+	 *
+	 * @param key
+	 *            キー。
+	 */
+	synchronized void detach(int key) {
+		DialogData data = entries.get(key);
+		if (data != null) {
+			data.owner = null;
+		}
+	}
+
+	/**
+	 * データを削除します。
+	 *
+	 * @param key
+	 *            キー。
+	 * @return 削除したデータ。存在しない場合はnull。
+	 */
+	synchronized DialogData remove(int key) {
+		DialogData data = entries.get(key);
+		entries.delete(key);
+		if (entries.size() < capacity) {
+			overCapacity = false;
+		}
+		return data;
+	}
+
+	/**
+	 * 孤立したエントリをすべて削除します。
+	 *
+	 * @return 削除したエントリの数。
+	 */
+	public int evictOrphans() {
+		ArrayList<DialogData> evicted;
+		synchronized (this) {
+			evicted = evict(entries.size());
+		}
+		release(evicted);
+		return evicted != null ? evicted.size() : 0;
+	}
+
+	/**
+	 * 指定した数まで、孤立したエントリを削除します。 表示中・表示待ちのエントリは削除しません。
+	 *
+	 * @return 削除したデータ。削除していない場合はnull。
+	 */
+	private ArrayList<DialogData> evict(int count) {
+		ArrayList<DialogData> evicted = null;
+		for (int i = 0; i < entries.size() && count > 0;) {
+			DialogData data = entries.valueAt(i);
+			if (isOrphaned(data)) {
+				if (evicted == null) {
+					evicted = new ArrayList<DialogData>();
+				}
+				evicted.add(data);
+				entries.removeAt(i);
+				evictedCount++;
+				count--;
+			} else {
+				i++;
+			}
+		}
+		return evicted;
+	}
+
+	/**
+	 * 削除したデータを解放します。 取り消しの通知から再入されるため、ロックの外で呼び出してください。
+	 */
+	private static void release(ArrayList<DialogData> evicted) {
+		if (evicted != null) {
+			for (DialogData data : evicted) {
+				Dialogs.abandon(data);
+			}
+		}
+	}
+
+	private static boolean isOrphaned(DialogData data) {
+		return data.owner != null && data.owner.get() == null;
+	}
+
+	/**
+	 * 登録されているエントリの数を取得します。
+	 *
+	 * @return エントリの数。
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * 利用中のフラグメントが存在するエントリの数を取得します。
+	 *
+	 * @return エントリの数。
+	 */
+	public synchronized int getLiveCount() {
+		return entries.size() - getOrphanedCount();
+	}
+
+	/**
+	 * 孤立したエントリの数を取得します。
+	 *
+	 * @return エントリの数。
+	 */
+	public synchronized int getOrphanedCount() {
+		int count = 0;
+		for (int i = 0; i < entries.size(); i++) {
+			if (isOrphaned(entries.valueAt(i))) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * 容量超過により削除されたエントリの累計数を取得します。
+	 *
+	 * @return エントリの数。
+	 */
+	public synchronized int getEvictedCount() {
+		return evictedCount;
+	}
+
+	/**
+	 * 容量を取得します。
+	 *
+	 * @return 容量。
+	 */
+	public synchronized int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * 容量を設定します。現在の登録数が容量を超える場合は、その場で孤立したエントリを削除します。
+	 *
+	 * @param capacity
+	 *            容量。1以上の値を指定します。
+	 */
+	public void setCapacity(int capacity) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("capacity must be positive");
+		}
+		ArrayList<DialogData> evicted;
+		synchronized (this) {
+			this.capacity = capacity;
+			overCapacity = false;
+			evicted = reserve(0);
+		}
+		release(evicted);
+	}
+}
@@ -0,0 +1,287 @@
+package net.onpu_tamago.libs.dialogs;
+
+import java.util.ArrayList;
+
+import android.os.Bundle;
+
+/**
+ * ダイアログの結果を格納するオブジェクトです。
+ * {@link Dialogs.TypedDialogCallback#onDialogResult(android.support.v4.app.DialogFragment, DialogResult)}
+ * に引き渡されます。
+ * <p>
+ * オブジェクトは再利用されるため、コールバックメソッドから戻った後は参照しないでください。
+ * 値を保持する必要がある場合は、{@link #toBundle()}で複製してください。
+ * </p>
+ *
+ * @author 高見知英
+ */
+public final class DialogResult {
+
+	/**
+	 * ボタンが押されていない(項目が選択された)ことを示す値です。
+	 */
+	public static final int NO_BUTTON = 0;
+
+	/**
+	 * 再利用のために保持するオブジェクトの最大数です。
+	 */
+	private static final int MAX_POOL_SIZE = 4;
+
+	private static final Object poolLock = new Object();
+	private static DialogResult pool;
+	private static int poolSize;
+
+	private DialogResult next;
+
+	private int id;
+	private int button;
+	private int index;
+	private CharSequence text;
+	private boolean hasCheckBox;
+	private boolean checked;
+	private long rowId;
+	private int mergedCount;
+	private boolean merged;
+	private ArrayList<Bundle> stepResults;
+
+	private DialogResult() {
+		clear();
+	}
+
+	/**
+	 * 再利用可能なオブジェクトを取得します。
+	 *
+	 * @return オブジェクト。
+	 */
+	static DialogResult obtain() {
+		synchronized (poolLock) {
+			if (pool != null) {
+				DialogResult result = pool;
+				pool = result.next;
+				result.next = null;
+				poolSize--;
+				return result;
+			}
+		}
+		return new DialogResult();
+	}
+
+	/**
+	 * オブジェクトを再利用できるよう返却します。
+	 */
+	void recycle() {
+		clear();
+		synchronized (poolLock) {
+			if (poolSize < MAX_POOL_SIZE) {
+				next = pool;
+				pool = this;
+				poolSize++;
+			}
+		}
+	}
+
+	/**
+	 * 再利用されない複製を生成します。入力された文字列は複製時点の内容で確定します。
+	 *
+	 * @return 複製。
+	 */
+	DialogResult copy() {
+		DialogResult copy = new DialogResult();
+		copy.id = id;
+		copy.button = button;
+		copy.index = index;
+		copy.text = text != null ? text.toString() : null;
+		copy.hasCheckBox = hasCheckBox;
+		copy.checked = checked;
+		copy.rowId = rowId;
+		copy.mergedCount = mergedCount;
+		copy.merged = merged;
+		copy.stepResults = stepResults;
+		return copy;
+	}
+
+	private void clear() {
+		id = 0;
+		button = NO_BUTTON;
+		index = -1;
+		text = null;
+		hasCheckBox = false;
+		checked = false;
+		rowId = -1;
+		mergedCount = 0;
+		merged = false;
+		stepResults = null;
+	}
+
+	void setId(int id) {
+		this.id = id;
+	}
+
+	void setButton(int button) {
+		this.button = button;
+	}
+
+	void setIndex(int index) {
+		this.index = index;
+	}
+
+	void setText(CharSequence text) {
+		this.text = text;
+	}
+
+	void setChecked(boolean checked) {
+		this.hasCheckBox = true;
+		this.checked = checked;
+	}
+
+	void setRowId(long rowId) {
+		this.rowId = rowId;
+	}
+
+	void setMergedCount(int mergedCount) {
+		this.merged = true;
+		this.mergedCount = mergedCount;
+	}
+
+	void setStepResults(ArrayList<Bundle> stepResults) {
+		this.stepResults = stepResults;
+	}
+
+	/**
+	 * ダイアログのIDを取得します。
+	 *
+	 * @return {@link Dialogs#ALERT_ID}の値。指定されていない場合は0。
+	 */
+	public int getId() {
+		return id;
+	}
+
+	/**
+	 * 押されたボタンを取得します。
+	 *
+	 * @return {@link Dialogs#BUTTON_POSITIVE}、{@link Dialogs#BUTTON_NEGATIVE}、
+	 *         {@link Dialogs#BUTTON_NEUTRAL}、{@link Dialogs#CANCEL}のいずれか。
+	 *         項目が選択された場合は{@link #NO_BUTTON}。
+	 */
+	public int getButton() {
+		return button;
+	}
+
+	/**
+	 * ダイアログがキャンセルされたかどうかを取得します。
+	 *
+	 * @return キャンセルされた場合はtrue。
+	 */
+	public boolean isCanceled() {
+		return button == Dialogs.CANCEL;
+	}
+
+	/**
+	 * 選択された項目のインデックスを取得します。
+	 *
+	 * @return インデックス。項目が選択されていない場合は-1。
+	 */
+	public int getIndex() {
+		return index;
+	}
+
+	/**
+	 * 選択された項目の文字列、または入力された文字列を取得します。
+	 * 入力された文字列は複製されていないため、コールバックメソッドの中でのみ参照してください。
+	 *
+	 * @return 文字列。存在しない場合はnull。
+	 */
+	public CharSequence getText() {
+		return text;
+	}
+
+	/**
+	 * チェックボックスを持つダイアログかどうかを取得します。
+	 *
+	 * @return チェックボックスを持つ場合はtrue。
+	 */
+	public boolean hasCheckBox() {
+		return hasCheckBox;
+	}
+
+	/**
+	 * チェックボックスの状態を取得します。
+	 *
+	 * @return チェックされている場合はtrue。
+	 */
+	public boolean isChecked() {
+		return checked;
+	}
+
+	/**
+	 * {@link android.database.Cursor}から選択肢を表示するダイアログにおいて、選択した行の
+	 * {@link android.provider.BaseColumns#_ID}列の値を取得します。
+	 *
+	 * @return 値。存在しない場合は-1。
+	 */
+	public long getRowId() {
+		return rowId;
+	}
+
+	/**
+	 * 表示中のダイアログに統合された表示要求の数を取得します。
+	 *
+	 * @return 数。{@link Dialogs#setCoalescing(boolean)}で統合を有効にしていない場合は0。
+	 */
+	public int getMergedCount() {
+		return mergedCount;
+	}
+
+	/**
+	 * {@link DialogPipeline}において、終了までに表示した段階の数を取得します。
+	 *
+	 * @return 段階の数。{@link DialogPipeline}でない場合は0。
+	 */
+	public int getStepCount() {
+		return stepResults != null ? stepResults.size() : 0;
+	}
+
+	/**
+	 * {@link DialogPipeline}において、各段階の結果を取得します。
+	 *
+	 * @param step
+	 *            段階のインデックス。
+	 * @return {@link Dialogs#PARAMS_PRESSBUTTON}などのキーを格納した{@link Bundle}。
+	 */
+	public Bundle getStepResult(int step) {
+		return stepResults.get(step);
+	}
+
+	/**
+	 * 結果を{@link Dialogs.DialogCallback}と同じ形式の{@link Bundle}に変換します。
+	 *
+	 * @return {@link Dialogs#PARAMS_INPUTSTR}などのキーを格納した{@link Bundle}。
+	 */
+	public Bundle toBundle() {
+		Bundle params = new Bundle();
+		if (button != NO_BUTTON) {
+			params.putInt(Dialogs.PARAMS_PRESSBUTTON, button);
+		}
+		if (index >= 0) {
+			params.putInt(Dialogs.PARAMS_INPUTINDEX, index);
+		}
+		if (text != null) {
+			params.putString(Dialogs.PARAMS_INPUTSTR, text.toString());
+		}
+		if (hasCheckBox) {
+			params.putBoolean(Dialogs.PARAMS_CHECKED, checked);
+		}
+		if (rowId >= 0) {
+			params.putLong(Dialogs.PARAMS_ROWID, rowId);
+		}
+		if (merged) {
+			params.putInt(Dialogs.PARAMS_MERGEDCOUNT, mergedCount);
+		}
+		if (stepResults != null) {
+			params.putParcelableArrayList(Dialogs.PARAMS_STEPRESULTS,
+					stepResults);
+		}
+		params.putInt(Dialogs.PARAMS_ID, id);
+		return params;
+	}
+}
@@ -0,0 +1,199 @@
+package net.onpu_tamago.libs.dialogs;
+
+import android.os.Bundle;
+import android.support.v4.app.DialogFragment;
+import android.util.SparseArray;
+
+/**
+ * ダイアログの結果を、{@link Dialogs#ALERT_ID}と押されたボタンの組ごとに登録した処理へ振り分けるコールバックです。
+ * {@link Dialogs.DialogCallback}の代わりに各メソッドへ指定します。
+ * <p>
+ * {@link Dialogs.DialogCallback#onDialogClosed(DialogFragment, Bundle)}
+ * の中でIDごとに分岐する代わりに、次のように処理を登録します。
+ * </p>
+ *
+ * <pre>
+ * DialogRouter router = new DialogRouter()
+ * 		.onPositive(ID_DELETE, new DialogRouter.Route() {
+ * 			public void onRoute(DialogFragment owner, DialogResult result) {
+ * 				delete();
+ * 			}
+ * 		}).onItemSelected(ID_SORT, sortRoute);
+ * </pre>
+ * <p>
+ * 処理の登録はダイアログを表示する前に、メインスレッドで行ってください。
+ * </p>
+ *
+ * @author 高見知英
+ */
+public final class DialogRouter implements Dialogs.TypedDialogCallback {
+
+	/**
+	 * 振り分け先の処理です。
+	 */
+	public interface Route {
+		/**
+		 * ダイアログの結果を処理します。
+		 *
+		 * @param owner
+		 *            内部的に使用している{@link DialogFragment}オブジェクト。
+		 * @param result
+		 *            ダイアログの結果。オブジェクトは再利用されるため、メソッドから戻った後は参照しないでください。
+		 */
+		void onRoute(DialogFragment owner, DialogResult result);
+	}
+
+	// 振り分け先の配列における位置
+	private static final int SLOT_POSITIVE = 0;
+	private static final int SLOT_NEGATIVE = 1;
+	private static final int SLOT_NEUTRAL = 2;
+	private static final int SLOT_ITEM = 3;
+	private static final int SLOT_CANCEL = 4;
+	private static final int SLOT_ANY = 5;
+	private static final int SLOT_COUNT = 6;
+
+	private final SparseArray<Route[]> routes = new SparseArray<Route[]>();
+
+	/**
+	 * どの処理にも該当しない場合の処理です。
+	 */
+	private Route fallback;
+
+	private DialogRouter set(int id, int slot, Route route) {
+		Route[] slots = routes.get(id);
+		if (slots == null) {
+			slots = new Route[SLOT_COUNT];
+			routes.put(id, slots);
+		}
+		slots[slot] = route;
+		return this;
+	}
+
+	/**
+	 * 肯定ボタンが押された際の処理を登録します。
+	 *
+	 * @param id
+	 *            ダイアログのID。
+	 * @param route
+	 *            処理。
+	 * @return このオブジェクト。
+	 */
+	public DialogRouter onPositive(int id, Route route) {
+		return set(id, SLOT_POSITIVE, route);
+	}
+
+	/**
+	 * 否定ボタンが押された際の処理を登録します。
+	 *
+	 * @param id
+	 *            ダイアログのID。
+	 * @param route
+	 *            処理。
+	 * @return このオブジェクト。
+	 */
+	public DialogRouter onNegative(int id, Route route) {
+		return set(id, SLOT_NEGATIVE, route);
+	}
+
+	/**
+	 * 中立ボタンが押された際の処理を登録します。
+	 *
+	 * @param id
+	 *            ダイアログのID。
+	 * @param route
+	 *            処理。
+	 * @return このオブジェクト。
+	 */
+	public DialogRouter onNeutral(int id, Route route) {
+		return set(id, SLOT_NEUTRAL, route);
+	}
+
+	/**
+	 * 多肢選択式のダイアログにおいて、項目が選択された際の処理を登録します。
+	 *
+	 * @param id
+	 *            ダイアログのID。
+	 * @param route
+	 *            処理。
+	 * @return このオブジェクト。
+	 */
+	public DialogRouter onItemSelected(int id, Route route) {
+		return set(id, SLOT_ITEM, route);
+	}
+
+	/**
+	 * ダイアログがキャンセルされた際の処理を登録します。
+	 *
+	 * @param id
+	 *            ダイアログのID。
+	 * @param route
+	 *            処理。
+	 * @return このオブジェクト。
+	 */
+	public DialogRouter onCancel(int id, Route route) {
+		return set(id, SLOT_CANCEL, route);
+	}
+
+	/**
+	 * ボタン・項目ごとの処理が登録されていない場合の処理を登録します。
+	 *
+	 * @param id
+	 *            ダイアログのID。
+	 * @param route
+	 *            処理。
+	 * @return このオブジェクト。
+	 */
+	public DialogRouter onClosed(int id, Route route) {
+		return set(id, SLOT_ANY, route);
+	}
+
+	/**
+	 * IDに対応する処理が登録されていない場合の処理を登録します。
+	 *
+	 * @param route
+	 *            処理。
+	 * @return このオブジェクト。
+	 */
+	public DialogRouter otherwise(Route route) {
+		fallback = route;
+		return this;
+	}
+
+	@Override
+	public void onDialogResult(DialogFragment owner, DialogResult result) {
+		Route route = null;
+		Route[] slots = routes.get(result.getId());
+		if (slots != null) {
+			route = slots[slotOf(result.getButton())];
+			if (route == null) {
+				route = slots[SLOT_ANY];
+			}
+		}
+		if (route == null) {
+			route = fallback;
+		}
+		if (route != null) {
+			route.onRoute(owner, result);
+		}
+	}
+
+	@Override
+	public void onDialogClosed(DialogFragment owner, Bundle params) {
+		// TypedDialogCallbackのため呼び出されない
+	}
+
+	private static int slotOf(int button) {
+		switch (button) {
+		case Dialogs.BUTTON_POSITIVE:
+			return SLOT_POSITIVE;
+		case Dialogs.BUTTON_NEGATIVE:
+			return SLOT_NEGATIVE;
+		case Dialogs.BUTTON_NEUTRAL:
+			return SLOT_NEUTRAL;
+		case Dialogs.CANCEL:
+			return SLOT_CANCEL;
+		default:
+			return SLOT_ITEM;
+		}
+	}
+}
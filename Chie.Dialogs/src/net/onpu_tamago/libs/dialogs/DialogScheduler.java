@@ -0,0 +1,350 @@
+package net.onpu_tamago.libs.dialogs;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.WeakHashMap;
+
+import android.os.SystemClock;
+import android.support.v4.app.FragmentManager;
+
+/**
+ * {@link FragmentManager}ごとにダイアログを一つずつ表示するスケジューラです。
+ * 表示中のダイアログが閉じられると、待ち行列から次のダイアログを表示します。
+ * <p>
+ * 既定のポリシーは{@link #POLICY_NONE}で、この場合は従来通り要求されたダイアログを即座に表示します。
+ * </p>
+ * <p>
+ * 待ち行列は画面回転の間も保持される{@link DialogHost}ごとに管理するため、
+ * 画面回転の後も表示待ちのダイアログは順に表示されます。 待ち行列の要求は{@link FragmentManager}を保持せず、
+ * 表示する際に現在の{@link FragmentManager}を用います。
+ * </p>
+ *
+ * @author 高見知英
+ */
+public final class DialogScheduler {
+
+	/**
+	 * 待ち合わせを行わず、要求されたダイアログを即座に表示します。
+	 */
+	public static final int POLICY_NONE = 0;
+
+	/**
+	 * 要求された順にダイアログを表示します。
+	 */
+	public static final int POLICY_FIFO = 1;
+
+	/**
+	 * {@link Dialogs#ALERT_PRIORITY}の大きいものから順にダイアログを表示します。 優先度が同じ場合は要求された順となります。
+	 */
+	public static final int POLICY_PRIORITY = 2;
+
+	/**
+	 * 表示待ちのダイアログを新しく要求されたダイアログで置き換えます。 待ち行列には常に最新の一件のみが残ります。
+	 */
+	public static final int POLICY_REPLACE = 3;
+
+	/**
+	 * 表示待ちの要求です。
+	 */
+	private static final class Entry {
+		final DialogDispatcher.Request request;
+		final int priority;
+		final long sequence;
+		final long enqueuedAt;
+
+		Entry(DialogDispatcher.Request request, int priority, long sequence) {
+			this.request = request;
+			this.priority = priority;
+			this.sequence = sequence;
+			this.enqueuedAt = SystemClock.uptimeMillis();
+		}
+	}
+
+	/**
+	 * 表示先ごとの表示状態です。
+	 */
+	private static final class Slot {
+		final PriorityQueue<Entry> queue = new PriorityQueue<Entry>(4,
+				comparator);
+		int showingKey = -1;
+	}
+
+	/**
+	 * 待ち行列の並び順です。優先度の大きいもの、要求の古いものの順となります。
+	 */
+	private static final Comparator<Entry> comparator = new Comparator<Entry>() {
+		@Override
+		public int compare(Entry lhs, Entry rhs) {
+			if (lhs.priority != rhs.priority) {
+				return lhs.priority > rhs.priority ? -1 : 1;
+			}
+			return lhs.sequence < rhs.sequence ? -1
+					: (lhs.sequence == rhs.sequence ? 0 : 1);
+		}
+	};
+
+	/**
+	 * 表示先ごとの表示状態です。 表示先のフラグメントは画面回転の間も同じオブジェクトとなります。
+	 */
+	private final WeakHashMap<DialogHost, Slot> slots = new WeakHashMap<DialogHost, Slot>();
+
+	private int policy = POLICY_NONE;
+
+	private long sequence = 0;
+
+	private int queueDepth = 0;
+
+	private long waitCount = 0;
+
+	private long totalWaitMillis = 0;
+
+	private long maxWaitMillis = 0;
+
+	private int replacedCount = 0;
+
+	DialogScheduler() {
+	}
+
+	/**
+	 * 表示ポリシーを設定します。 ポリシーの変更は以降の要求から適用されます。
+	 *
+	 * @param policy
+	 *            {@link #POLICY_NONE}、{@link #POLICY_FIFO}、{@link #POLICY_PRIORITY}
+	 *            、 {@link #POLICY_REPLACE}のいずれか。
+	 */
+	public synchronized void setPolicy(int policy) {
+		if (policy < POLICY_NONE || policy > POLICY_REPLACE) {
+			throw new IllegalArgumentException("unknown policy: " + policy);
+		}
+		this.policy = policy;
+	}
+
+	/**
+	 * 表示ポリシーを取得します。
+	 *
+	 * @return 表示ポリシー。
+	 */
+	public synchronized int getPolicy() {
+		return policy;
+	}
+
+	/**
+	 * 表示要求を受け付けます。メインスレッドから呼び出してください。
+	 *
+	 * @param request
+	 *            {@link FragmentManager}を用いる表示要求。
+	 */
+	void schedule(DialogDispatcher.Request request) {
+		// 表示先の追加はトランザクションを伴うため、ロックの外で行う
+		DialogHost host = getPolicy() != POLICY_NONE ? DialogHost
+				.obtain(request.manager) : null;
+		// 破棄した要求はロックの外で解放する(取り消しの通知から再入されるため)
+		ArrayList<Entry> dropped = null;
+		boolean queued = false;
+		synchronized (this) {
+			if (policy != POLICY_NONE && host != null) {
+				Slot slot = slots.get(host);
+				if (slot == null) {
+					slot = new Slot();
+					slots.put(host, slot);
+				}
+				if (slot.showingKey >= 0) {
+					if (policy == POLICY_REPLACE) {
+						dropped = new ArrayList<Entry>(slot.queue);
+						slot.queue.clear();
+						queueDepth -= dropped.size();
+						replacedCount += dropped.size();
+					}
+					// 優先度はPOLICY_PRIORITYの場合のみ考慮する
+					int priority = policy == POLICY_PRIORITY ? request.spec
+							.getPriority() : 0;
+					// 画面回転の後に古いアクティビティを保持しないよう、表示先は保持しない
+					slot.queue.add(new Entry(request.withManager(null), priority,
+							sequence++));
+					queueDepth++;
+					queued = true;
+				} else {
+					slot.showingKey = request.key;
+				}
+			}
+		}
+		if (dropped != null) {
+			for (Entry entry : dropped) {
+				Dialogs.release(entry.request.key);
+			}
+		}
+		if (queued) {
+			return;
+		}
+		boolean shown = false;
+		try {
+			shown = Dialogs.display(request);
+		} finally {
+			if (!shown) {
+				// 表示できなかった場合は待ち行列を進める
+				onDismissed(request.manager, request.key);
+			}
+		}
+	}
+
+	/**
+	 * ダイアログが閉じられたことを通知し、次のダイアログを表示します。メインスレッドから呼び出してください。
+	 *
+	 * @param manager
+	 *            ダイアログを表示していた{@link FragmentManager}。
+	 * @param key
+	 *            閉じられたダイアログのキー。
+	 */
+	void onDismissed(FragmentManager manager, int key) {
+		// 画面回転の後は、要求時とは異なるFragmentManagerから通知される
+		DialogHost host = manager != null ? DialogHost.find(manager) : null;
+		if (host == null) {
+			return;
+		}
+		while (true) {
+			Entry next;
+			synchronized (this) {
+				Slot slot = slots.get(host);
+				if (slot == null || slot.showingKey != key) {
+					return;
+				}
+				next = slot.queue.poll();
+				if (next == null) {
+					slot.showingKey = -1;
+					return;
+				}
+				queueDepth--;
+				recordWait(SystemClock.uptimeMillis() - next.enqueuedAt);
+				slot.showingKey = next.request.key;
+			}
+			try {
+				if (Dialogs.display(next.request.withManager(manager))) {
+					return;
+				}
+			} catch (IllegalStateException e) {
+				// 表示先が既に状態を保存している場合など
+				Dialogs.release(next.request.key);
+			}
+			// 表示できなかった場合は次の要求へ進む
+			key = next.request.key;
+		}
+	}
+
+	/**
+	 * 表示待ちの要求をすべて破棄します。表示先のアクティビティが終了する際に呼び出します。
+	 *
+	 * @param manager
+	 *            {@link FragmentManager}。
+	 */
+	void clear(FragmentManager manager) {
+		DialogHost host = manager != null ? DialogHost.find(manager) : null;
+		if (host != null) {
+			clear(host);
+		}
+	}
+
+	/**
+	 * 表示待ちの要求をすべて破棄します。表示先のアクティビティが終了する際に呼び出します。
+	 *
+	 * @param host
+	 *            表示先。
+	 */
+	void clear(DialogHost host) {
+		Slot slot;
+		synchronized (this) {
+			slot = slots.remove(host);
+			if (slot == null) {
+				return;
+			}
+			queueDepth -= slot.queue.size();
+		}
+		// 取り消しの通知から再入されるため、ロックの外で解放する
+		for (Entry entry : slot.queue) {
+			Dialogs.release(entry.request.key);
+		}
+	}
+
+	private void recordWait(long wait) {
+		waitCount++;
+		totalWaitMillis += wait;
+		if (wait > maxWaitMillis) {
+			maxWaitMillis = wait;
+		}
+	}
+
+	/**
+	 * 表示待ちのダイアログの総数を取得します。
+	 *
+	 * @return 表示待ちのダイアログの数。
+	 */
+	public synchronized int getQueueDepth() {
+		return queueDepth;
+	}
+
+	/**
+	 * 指定した{@link FragmentManager}における表示待ちのダイアログの数を取得します。
+	 *
+	 * @param manager
+	 *            {@link FragmentManager}。
+	 * @return 表示待ちのダイアログの数。
+	 */
+	public synchronized int getQueueDepth(FragmentManager manager) {
+		DialogHost host = DialogHost.lookup(manager);
+		Slot slot = host != null ? slots.get(host) : null;
+		return slot != null ? slot.queue.size() : 0;
+	}
+
+	/**
+	 * 現在表示待ちのダイアログのうち、最も長く待っているものの待ち時間を取得します。
+	 *
+	 * @return 待ち時間(ミリ秒)。表示待ちのダイアログがない場合は0。
+	 */
+	public synchronized long getOldestWaitMillis() {
+		long now = SystemClock.uptimeMillis();
+		long oldest = 0;
+		for (Slot slot : slots.values()) {
+			for (Entry entry : slot.queue) {
+				oldest = Math.max(oldest, now - entry.enqueuedAt);
+			}
+		}
+		return oldest;
+	}
+
+	/**
+	 * 表示されるまでに待ち合わせたダイアログの平均待ち時間を取得します。
+	 *
+	 * @return 平均待ち時間(ミリ秒)。
+	 */
+	public synchronized long getAverageWaitMillis() {
+		return waitCount > 0 ? totalWaitMillis / waitCount : 0;
+	}
+
+	/**
+	 * 表示されるまでに待ち合わせたダイアログの最大待ち時間を取得します。
+	 *
+	 * @return 最大待ち時間(ミリ秒)。
+	 */
+	public synchronized long getMaxWaitMillis() {
+		return maxWaitMillis;
+	}
+
+	/**
+	 * {@link #POLICY_REPLACE}により破棄された要求の数を取得します。
+	 *
+	 * @return 破棄された要求の数。
+	 */
+	public synchronized int getReplacedCount() {
+		return replacedCount;
+	}
+
+	/**
+	 * 待ち時間の統計をリセットします。
+	 */
+	public synchronized void resetStatistics() {
+		waitCount = 0;
+		totalWaitMillis = 0;
+		maxWaitMillis = 0;
+		replacedCount = 0;
+	}
+}
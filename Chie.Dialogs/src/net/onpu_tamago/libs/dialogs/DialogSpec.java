@@ -0,0 +1,753 @@
+package net.onpu_tamago.libs.dialogs;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import android.os.Bundle;
+
+/**
+ * ダイアログの表示内容を表す不変オブジェクトです。 {@link Builder}で生成します。
+ * <p>
+ * 各項目は{@link Dialogs#ALERT_TITLE}などの文字列キーではなく型付きのフィールドに保持され、
+ * フラグメントの引数({@link Bundle})への変換はフラグメントの生成時にのみ行われます。
+ * 一度生成したオブジェクトは、複数のスレッドから共有して繰り返し利用できます。
+ * </p>
+ * <p>
+ * {@link Builder#params(Bundle)}に指定した{@link Bundle}のうち、認識できないキーは追加の値として保持され、
+ * そのままフラグメントの引数に格納されます。
+ * </p>
+ *
+ * @author 高見知英
+ */
+public final class DialogSpec {
+
+	// intのフィールドが指定されているかどうかを示すフラグ
+	private static final int HAS_ID = 1;
+	private static final int HAS_TITLEID = 1 << 1;
+	private static final int HAS_MESSAGEID = 1 << 2;
+	private static final int HAS_ITEMSID = 1 << 3;
+	private static final int HAS_APPENDMESSAGEID = 1 << 4;
+	private static final int HAS_VIEWID = 1 << 5;
+	private static final int HAS_BUTTONS = 1 << 6;
+	private static final int HAS_POSCAPTIONID = 1 << 7;
+	private static final int HAS_NEGCAPTIONID = 1 << 8;
+	private static final int HAS_NEUCAPTIONID = 1 << 9;
+	private static final int HAS_PRIORITY = 1 << 10;
+	private static final int HAS_PAGESIZE = 1 << 11;
+	private static final int HAS_PREFETCH = 1 << 12;
+
+	/**
+	 * {@link Builder#params(Bundle)}が型付きのフィールドに取り込むキーと、
+	 * 表示のたびに{@link #toArguments(int)}が割り当てるキーです。 これらは追加の値として保持しません。
+	 */
+	private static final HashSet<String> KNOWN_KEYS = new HashSet<String>(
+			Arrays.asList(Dialogs.ALERT_REGISTRYKEY, Dialogs.ALERT_SESSION,
+					Dialogs.ALERT_ID, Dialogs.ALERT_TITLE,
+					Dialogs.ALERT_TITLEID, Dialogs.ALERT_MESSAGE,
+					Dialogs.ALERT_MESSAGEID, Dialogs.ALERT_MESSAGEARRAY,
+					Dialogs.ALERT_MESSAGEARRAYID, Dialogs.ALERT_APPENDMESSAGE,
+					Dialogs.ALERT_APPENDMESSAGEID, Dialogs.ALERT_DEFAULTEDIT,
+					Dialogs.ALERT_CALLBACKKEY, Dialogs.ALERT_VIEWID,
+					Dialogs.ALERT_BUTTONS, Dialogs.ALERT_POSCAPTION,
+					Dialogs.ALERT_POSCAPTIONID, Dialogs.ALERT_NEGCAPTION,
+					Dialogs.ALERT_NEGCAPTIONID, Dialogs.ALERT_NEUCAPTION,
+					Dialogs.ALERT_NEUCAPTIONID, Dialogs.ALERT_PRIORITY,
+					Dialogs.ALERT_PAGESIZE, Dialogs.ALERT_PREFETCH));
+
+	private final int flags;
+	private final int id;
+	private final String title;
+	private final int titleId;
+	private final String message;
+	private final int messageId;
+	private final String[] items;
+	private final int itemsId;
+	private final String appendMessage;
+	private final int appendMessageId;
+	private final String defaultEdit;
+	private final String callbackKey;
+	private final int viewId;
+	private final int buttons;
+	private final String posCaption;
+	private final int posCaptionId;
+	private final String negCaption;
+	private final int negCaptionId;
+	private final String neuCaption;
+	private final int neuCaptionId;
+	private final int priority;
+	private final int pageSize;
+	private final int prefetchDistance;
+
+	/**
+	 * 認識できないキーの値です。 存在しない場合はnull。変更しないでください。
+	 */
+	private final Bundle extras;
+
+	private DialogSpec(Builder builder) {
+		flags = builder.flags;
+		id = builder.id;
+		title = builder.title;
+		titleId = builder.titleId;
+		message = builder.message;
+		messageId = builder.messageId;
+		items = builder.items != null ? builder.items.clone() : null;
+		itemsId = builder.itemsId;
+		appendMessage = builder.appendMessage;
+		appendMessageId = builder.appendMessageId;
+		defaultEdit = builder.defaultEdit;
+		callbackKey = builder.callbackKey;
+		viewId = builder.viewId;
+		buttons = builder.buttons;
+		posCaption = builder.posCaption;
+		posCaptionId = builder.posCaptionId;
+		negCaption = builder.negCaption;
+		negCaptionId = builder.negCaptionId;
+		neuCaption = builder.neuCaption;
+		neuCaptionId = builder.neuCaptionId;
+		priority = builder.priority;
+		pageSize = builder.pageSize;
+		prefetchDistance = builder.prefetchDistance;
+		extras = builder.extras != null ? new Bundle(builder.extras) : null;
+	}
+
+	/**
+	 * {@link Dialogs#ALERT_TITLE}などのキーを格納した{@link Bundle}から生成します。
+	 *
+	 * @param params
+	 *            ダイアログのパラメータ。
+	 * @return 生成したオブジェクト。
+	 */
+	public static DialogSpec fromBundle(Bundle params) {
+		return new Builder().params(params).build();
+	}
+
+	/**
+	 * {@link Dialogs#ALERT_ID}が指定されているかどうかを取得します。
+	 *
+	 * @return 指定されている場合はtrue。
+	 */
+	public boolean hasId() {
+		return (flags & HAS_ID) != 0;
+	}
+
+	/**
+	 * ダイアログのIDを取得します。
+	 *
+	 * @return ダイアログのID。指定されていない場合は0。
+	 */
+	public int getId() {
+		return id;
+	}
+
+	/**
+	 * ダイアログのビューIDを取得します。
+	 *
+	 * @return {@link Dialogs#VIEWID_INPUTDLG}などの値。指定されていない場合は0。
+	 */
+	int getViewType() {
+		return viewId;
+	}
+
+	/**
+	 * 表示優先度を取得します。
+	 *
+	 * @return 表示優先度。指定されていない場合は0。
+	 */
+	public int getPriority() {
+		return priority;
+	}
+
+	/**
+	 * 表示内容を元に、値を変更するための{@link Builder}を生成します。
+	 *
+	 * @return {@link Builder}オブジェクト。
+	 */
+	public Builder buildUpon() {
+		return new Builder(this);
+	}
+
+	/**
+	 * フラグメントの引数に変換します。
+	 *
+	 * @param registryKey
+	 *            {@link DialogRegistry}におけるキー。
+	 * @return フラグメントの引数。
+	 */
+	Bundle toArguments(int registryKey) {
+		Bundle args = new Bundle();
+		if (extras != null) {
+			// 型付きのフィールドの値を優先するため、先に格納する
+			args.putAll(extras);
+		}
+		args.putInt(Dialogs.ALERT_REGISTRYKEY, registryKey);
+		args.putLong(Dialogs.ALERT_SESSION, Dialogs.SESSION);
+		putInt(args, HAS_ID, Dialogs.ALERT_ID, id);
+		putString(args, Dialogs.ALERT_TITLE, title);
+		putInt(args, HAS_TITLEID, Dialogs.ALERT_TITLEID, titleId);
+		putString(args, Dialogs.ALERT_MESSAGE, message);
+		putInt(args, HAS_MESSAGEID, Dialogs.ALERT_MESSAGEID, messageId);
+		if (items != null) {
+			args.putStringArray(Dialogs.ALERT_MESSAGEARRAY, items);
+		}
+		putInt(args, HAS_ITEMSID, Dialogs.ALERT_MESSAGEARRAYID, itemsId);
+		putString(args, Dialogs.ALERT_APPENDMESSAGE, appendMessage);
+		putInt(args, HAS_APPENDMESSAGEID, Dialogs.ALERT_APPENDMESSAGEID,
+				appendMessageId);
+		putString(args, Dialogs.ALERT_DEFAULTEDIT, defaultEdit);
+		putString(args, Dialogs.ALERT_CALLBACKKEY, callbackKey);
+		putInt(args, HAS_VIEWID, Dialogs.ALERT_VIEWID, viewId);
+		putInt(args, HAS_BUTTONS, Dialogs.ALERT_BUTTONS, buttons);
+		putString(args, Dialogs.ALERT_POSCAPTION, posCaption);
+		putInt(args, HAS_POSCAPTIONID, Dialogs.ALERT_POSCAPTIONID, posCaptionId);
+		putString(args, Dialogs.ALERT_NEGCAPTION, negCaption);
+		putInt(args, HAS_NEGCAPTIONID, Dialogs.ALERT_NEGCAPTIONID, negCaptionId);
+		putString(args, Dialogs.ALERT_NEUCAPTION, neuCaption);
+		putInt(args, HAS_NEUCAPTIONID, Dialogs.ALERT_NEUCAPTIONID, neuCaptionId);
+		putInt(args, HAS_PRIORITY, Dialogs.ALERT_PRIORITY, priority);
+		putInt(args, HAS_PAGESIZE, Dialogs.ALERT_PAGESIZE, pageSize);
+		putInt(args, HAS_PREFETCH, Dialogs.ALERT_PREFETCH, prefetchDistance);
+		return args;
+	}
+
+	private void putInt(Bundle args, int flag, String key, int value) {
+		if ((flags & flag) != 0) {
+			args.putInt(key, value);
+		}
+	}
+
+	private static void putString(Bundle args, String key, String value) {
+		if (value != null) {
+			args.putString(key, value);
+		}
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (!(o instanceof DialogSpec)) {
+			return false;
+		}
+		DialogSpec other = (DialogSpec) o;
+		return flags == other.flags && id == other.id
+				&& titleId == other.titleId && messageId == other.messageId
+				&& itemsId == other.itemsId
+				&& appendMessageId == other.appendMessageId
+				&& viewId == other.viewId && buttons == other.buttons
+				&& posCaptionId == other.posCaptionId
+				&& negCaptionId == other.negCaptionId
+				&& neuCaptionId == other.neuCaptionId
+				&& priority == other.priority && pageSize == other.pageSize
+				&& prefetchDistance == other.prefetchDistance
+				&& equal(title, other.title)
+				&& equal(message, other.message)
+				&& Arrays.equals(items, other.items)
+				&& equal(appendMessage, other.appendMessage)
+				&& equal(defaultEdit, other.defaultEdit)
+				&& equal(callbackKey, other.callbackKey)
+				&& equal(posCaption, other.posCaption)
+				&& equal(negCaption, other.negCaption)
+				&& equal(neuCaption, other.neuCaption)
+				&& equalExtras(extras, other.extras);
+	}
+
+	@Override
+	public int hashCode() {
+		int result = flags;
+		result = 31 * result + id;
+		result = 31 * result + (title != null ? title.hashCode() : titleId);
+		result = 31 * result
+				+ (message != null ? message.hashCode() : messageId);
+		result = 31 * result + (items != null ? Arrays.hashCode(items) : itemsId);
+		result = 31 * result + viewId;
+		result = 31 * result + buttons;
+		return result;
+	}
+
+	private static boolean equal(Object a, Object b) {
+		return a == null ? b == null : a.equals(b);
+	}
+
+	/**
+	 * 追加の値を比較します。 {@link Bundle}は内容による比較を行わないため、キーごとに比較します。
+	 */
+	private static boolean equalExtras(Bundle a, Bundle b) {
+		if (a == null || b == null) {
+			return a == b;
+		}
+		if (a.size() != b.size() || !a.keySet().equals(b.keySet())) {
+			return false;
+		}
+		for (String key : a.keySet()) {
+			// 配列の値も内容で比較する
+			if (!Arrays.deepEquals(new Object[] { a.get(key) },
+					new Object[] { b.get(key) })) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * {@link DialogSpec}を生成するビルダーです。
+	 */
+	public static final class Builder {
+		private int flags;
+		private int id;
+		private String title;
+		private int titleId;
+		private String message;
+		private int messageId;
+		private String[] items;
+		private int itemsId;
+		private String appendMessage;
+		private int appendMessageId;
+		private String defaultEdit;
+		private String callbackKey;
+		private int viewId;
+		private int buttons;
+		private String posCaption;
+		private int posCaptionId;
+		private String negCaption;
+		private int negCaptionId;
+		private String neuCaption;
+		private int neuCaptionId;
+		private int priority;
+		private int pageSize;
+		private int prefetchDistance;
+		private Bundle extras;
+
+		public Builder() {
+		}
+
+		Builder(DialogSpec spec) {
+			flags = spec.flags;
+			id = spec.id;
+			title = spec.title;
+			titleId = spec.titleId;
+			message = spec.message;
+			messageId = spec.messageId;
+			items = spec.items;
+			itemsId = spec.itemsId;
+			appendMessage = spec.appendMessage;
+			appendMessageId = spec.appendMessageId;
+			defaultEdit = spec.defaultEdit;
+			callbackKey = spec.callbackKey;
+			viewId = spec.viewId;
+			buttons = spec.buttons;
+			posCaption = spec.posCaption;
+			posCaptionId = spec.posCaptionId;
+			negCaption = spec.negCaption;
+			negCaptionId = spec.negCaptionId;
+			neuCaption = spec.neuCaption;
+			neuCaptionId = spec.neuCaptionId;
+			priority = spec.priority;
+			pageSize = spec.pageSize;
+			prefetchDistance = spec.prefetchDistance;
+			extras = spec.extras;
+		}
+
+		/**
+		 * {@link Dialogs#ALERT_TITLE}などのキーを格納した{@link Bundle}から値を取り込みます。
+		 * 認識できないキーの値は、そのままフラグメントの引数に格納されます。
+		 *
+		 * @param params
+		 *            ダイアログのパラメータ。nullの場合は何もしません。
+		 * @return このオブジェクト。
+		 */
+		public Builder params(Bundle params) {
+			if (params == null || params.isEmpty()) {
+				return this;
+			}
+			if (params.containsKey(Dialogs.ALERT_ID)) {
+				id(params.getInt(Dialogs.ALERT_ID));
+			}
+			if (params.containsKey(Dialogs.ALERT_TITLE)) {
+				title = params.getString(Dialogs.ALERT_TITLE);
+			}
+			if (params.containsKey(Dialogs.ALERT_TITLEID)) {
+				title(params.getInt(Dialogs.ALERT_TITLEID));
+			}
+			if (params.containsKey(Dialogs.ALERT_MESSAGE)) {
+				message = params.getString(Dialogs.ALERT_MESSAGE);
+			}
+			if (params.containsKey(Dialogs.ALERT_MESSAGEID)) {
+				message(params.getInt(Dialogs.ALERT_MESSAGEID));
+			}
+			if (params.containsKey(Dialogs.ALERT_MESSAGEARRAY)) {
+				items = params.getStringArray(Dialogs.ALERT_MESSAGEARRAY);
+			}
+			if (params.containsKey(Dialogs.ALERT_MESSAGEARRAYID)) {
+				items(params.getInt(Dialogs.ALERT_MESSAGEARRAYID));
+			}
+			if (params.containsKey(Dialogs.ALERT_APPENDMESSAGE)) {
+				appendMessage = params.getString(Dialogs.ALERT_APPENDMESSAGE);
+			}
+			if (params.containsKey(Dialogs.ALERT_APPENDMESSAGEID)) {
+				checkMessage(params.getInt(Dialogs.ALERT_APPENDMESSAGEID));
+			}
+			if (params.containsKey(Dialogs.ALERT_DEFAULTEDIT)) {
+				defaultEdit = params.getString(Dialogs.ALERT_DEFAULTEDIT);
+			}
+			if (params.containsKey(Dialogs.ALERT_CALLBACKKEY)) {
+				callbackKey(params.getString(Dialogs.ALERT_CALLBACKKEY));
+			}
+			if (params.containsKey(Dialogs.ALERT_VIEWID)) {
+				viewType(params.getInt(Dialogs.ALERT_VIEWID));
+			}
+			if (params.containsKey(Dialogs.ALERT_BUTTONS)) {
+				buttons(params.getInt(Dialogs.ALERT_BUTTONS));
+			}
+			if (params.containsKey(Dialogs.ALERT_POSCAPTION)) {
+				posCaption = params.getString(Dialogs.ALERT_POSCAPTION);
+			}
+			if (params.containsKey(Dialogs.ALERT_POSCAPTIONID)) {
+				positiveCaption(params.getInt(Dialogs.ALERT_POSCAPTIONID));
+			}
+			if (params.containsKey(Dialogs.ALERT_NEGCAPTION)) {
+				negCaption = params.getString(Dialogs.ALERT_NEGCAPTION);
+			}
+			if (params.containsKey(Dialogs.ALERT_NEGCAPTIONID)) {
+				negativeCaption(params.getInt(Dialogs.ALERT_NEGCAPTIONID));
+			}
+			if (params.containsKey(Dialogs.ALERT_NEUCAPTION)) {
+				neuCaption = params.getString(Dialogs.ALERT_NEUCAPTION);
+			}
+			if (params.containsKey(Dialogs.ALERT_NEUCAPTIONID)) {
+				neutralCaption(params.getInt(Dialogs.ALERT_NEUCAPTIONID));
+			}
+			if (params.containsKey(Dialogs.ALERT_PRIORITY)) {
+				priority(params.getInt(Dialogs.ALERT_PRIORITY));
+			}
+			if (params.containsKey(Dialogs.ALERT_PAGESIZE)) {
+				pageSize(params.getInt(Dialogs.ALERT_PAGESIZE));
+			}
+			if (params.containsKey(Dialogs.ALERT_PREFETCH)) {
+				prefetchDistance(params.getInt(Dialogs.ALERT_PREFETCH));
+			}
+			// 認識できないキーを含む場合のみ、追加の値として複製する
+			for (String key : params.keySet()) {
+				if (!KNOWN_KEYS.contains(key)) {
+					addExtras(params);
+					break;
+				}
+			}
+			return this;
+		}
+
+		/**
+		 * 指定した{@link Bundle}のうち、認識できないキーの値を追加の値に加えます。
+		 *
+		 * @param params
+		 *            認識できないキーを含む{@link Bundle}。
+		 */
+		private void addExtras(Bundle params) {
+			Bundle unknown = new Bundle(params);
+			for (String key : KNOWN_KEYS) {
+				unknown.remove(key);
+			}
+			// 生成済みのDialogSpecと共有している場合があるため、複製してから追加する
+			Bundle merged = extras != null ? new Bundle(extras) : new Bundle();
+			merged.putAll(unknown);
+			extras = merged;
+		}
+
+		/**
+		 * ダイアログのIDを指定します。値はダイアログのコールバックメソッドの引数に引き渡されます。
+		 *
+		 * @param id
+		 *            ダイアログのID。
+		 * @return このオブジェクト。
+		 */
+		public Builder id(int id) {
+			this.id = id;
+			flags |= HAS_ID;
+			return this;
+		}
+
+		/**
+		 * タイトルとして表示する文字列を指定します。
+		 *
+		 * @param title
+		 *            タイトル文字列。タイトルが不要な場合は""。
+		 * @return このオブジェクト。
+		 */
+		public Builder title(String title) {
+			this.title = title;
+			return this;
+		}
+
+		/**
+		 * タイトルとして表示する文字列のリソースIDを指定します。
+		 *
+		 * @param titleId
+		 *            リソースID。タイトルが不要な場合は0。
+		 * @return このオブジェクト。
+		 */
+		public Builder title(int titleId) {
+			this.titleId = titleId;
+			flags |= HAS_TITLEID;
+			return this;
+		}
+
+		/**
+		 * メッセージとして表示する文字列を指定します。
+		 *
+		 * @param message
+		 *            メッセージ文字列。
+		 * @return このオブジェクト。
+		 */
+		public Builder message(String message) {
+			this.message = message;
+			return this;
+		}
+
+		/**
+		 * メッセージとして表示する文字列のリソースIDを指定します。
+		 *
+		 * @param messageId
+		 *            リソースID。
+		 * @return このオブジェクト。
+		 */
+		public Builder message(int messageId) {
+			this.messageId = messageId;
+			flags |= HAS_MESSAGEID;
+			return this;
+		}
+
+		/**
+		 * 多肢選択式ダイアログの選択肢を指定します。
+		 *
+		 * @param items
+		 *            選択肢。
+		 * @return このオブジェクト。
+		 */
+		public Builder items(String... items) {
+			this.items = items;
+			return this;
+		}
+
+		/**
+		 * 多肢選択式ダイアログの選択肢を示す文字列配列のリソースIDを指定します。
+		 *
+		 * @param itemsId
+		 *            リソースID。
+		 * @return このオブジェクト。
+		 */
+		public Builder items(int itemsId) {
+			this.itemsId = itemsId;
+			flags |= HAS_ITEMSID;
+			return this;
+		}
+
+		/**
+		 * チェックボックスに表示するメッセージを指定します。 ダイアログはチェックボックスのついたダイアログとなります。
+		 *
+		 * @param checkMessage
+		 *            メッセージ文字列。
+		 * @return このオブジェクト。
+		 */
+		public Builder checkMessage(String checkMessage) {
+			this.appendMessage = checkMessage;
+			return viewType(Dialogs.VIEWID_CHECKDLG);
+		}
+
+		/**
+		 * チェックボックスに表示するメッセージのリソースIDを指定します。 ダイアログはチェックボックスのついたダイアログとなります。
+		 *
+		 * @param checkMessageId
+		 *            リソースID。
+		 * @return このオブジェクト。
+		 */
+		public Builder checkMessage(int checkMessageId) {
+			this.appendMessageId = checkMessageId;
+			flags |= HAS_APPENDMESSAGEID;
+			return viewType(Dialogs.VIEWID_CHECKDLG);
+		}
+
+		/**
+		 * 文字入力領域を表示します。 入力された値はコールバックメソッドのパラメータ
+		 * {@link Dialogs#PARAMS_INPUTSTR}にて取得可能です。
+		 *
+		 * @param defaultText
+		 *            初期入力されている文字列。不要な場合はnull。
+		 * @return このオブジェクト。
+		 */
+		public Builder input(String defaultText) {
+			this.defaultEdit = defaultText;
+			return viewType(Dialogs.VIEWID_INPUTDLG);
+		}
+
+		/**
+		 * ダイアログに表示するビューの種類を指定します。
+		 */
+		Builder viewType(int viewId) {
+			this.viewId = viewId;
+			flags |= HAS_VIEWID;
+			return this;
+		}
+
+		/**
+		 * ダイアログに表示するボタンを指定します。
+		 *
+		 * @param buttons
+		 *            {@link Dialogs#DIALOGBUTTON_POSITIVE}、
+		 *            {@link Dialogs#DIALOGBUTTON_NEGATIVE}、
+		 *            {@link Dialogs#DIALOGBUTTON_NEUTRAL}の和。
+		 * @return このオブジェクト。
+		 */
+		public Builder buttons(int buttons) {
+			this.buttons = buttons;
+			flags |= HAS_BUTTONS;
+			return this;
+		}
+
+		/**
+		 * ボタンが指定されていない場合に限り、表示するボタンを指定します。
+		 */
+		Builder defaultButtons(int buttons) {
+			if ((flags & HAS_BUTTONS) == 0) {
+				buttons(buttons);
+			}
+			return this;
+		}
+
+		/**
+		 * 肯定ボタンの表示文字列を指定します。
+		 *
+		 * @param caption
+		 *            表示文字列。
+		 * @return このオブジェクト。
+		 */
+		public Builder positiveCaption(String caption) {
+			this.posCaption = caption;
+			return this;
+		}
+
+		/**
+		 * 肯定ボタンの表示文字列のリソースIDを指定します。
+		 *
+		 * @param captionId
+		 *            リソースID。
+		 * @return このオブジェクト。
+		 */
+		public Builder positiveCaption(int captionId) {
+			this.posCaptionId = captionId;
+			flags |= HAS_POSCAPTIONID;
+			return this;
+		}
+
+		/**
+		 * 否定ボタンの表示文字列を指定します。
+		 *
+		 * @param caption
+		 *            表示文字列。
+		 * @return このオブジェクト。
+		 */
+		public Builder negativeCaption(String caption) {
+			this.negCaption = caption;
+			return this;
+		}
+
+		/**
+		 * 否定ボタンの表示文字列のリソースIDを指定します。
+		 *
+		 * @param captionId
+		 *            リソースID。
+		 * @return このオブジェクト。
+		 */
+		public Builder negativeCaption(int captionId) {
+			this.negCaptionId = captionId;
+			flags |= HAS_NEGCAPTIONID;
+			return this;
+		}
+
+		/**
+		 * 中立ボタンの表示文字列を指定します。
+		 *
+		 * @param caption
+		 *            表示文字列。
+		 * @return このオブジェクト。
+		 */
+		public Builder neutralCaption(String caption) {
+			this.neuCaption = caption;
+			return this;
+		}
+
+		/**
+		 * 中立ボタンの表示文字列のリソースIDを指定します。
+		 *
+		 * @param captionId
+		 *            リソースID。
+		 * @return このオブジェクト。
+		 */
+		public Builder neutralCaption(int captionId) {
+			this.neuCaptionId = captionId;
+			flags |= HAS_NEUCAPTIONID;
+			return this;
+		}
+
+		/**
+		 * コールバックを再取得するためのキーを指定します。 プロセスの再生成や画面回転でダイアログが復元された際、
+		 * ホスト(親フラグメント、ターゲットフラグメント、アクティビティの順)が実装する
+		 * {@link DialogCallbackProvider}からこのキーでコールバックを取得し直します。
+		 *
+		 * @param key
+		 *            キー。
+		 * @return このオブジェクト。
+		 */
+		public Builder callbackKey(String key) {
+			this.callbackKey = key;
+			return this;
+		}
+
+		/**
+		 * 表示優先度を指定します。 {@link DialogScheduler#POLICY_PRIORITY}が設定されている場合のみ有効です。
+		 *
+		 * @param priority
+		 *            表示優先度。値が大きいほど先に表示されます。
+		 * @return このオブジェクト。
+		 */
+		public Builder priority(int priority) {
+			this.priority = priority;
+			flags |= HAS_PRIORITY;
+			return this;
+		}
+
+		/**
+		 * ページ単位で選択肢を読み込むダイアログにおいて、一度に読み込む選択肢の数を指定します。
+		 *
+		 * @param pageSize
+		 *            一度に読み込む選択肢の数。
+		 * @return このオブジェクト。
+		 */
+		public Builder pageSize(int pageSize) {
+			this.pageSize = pageSize;
+			flags |= HAS_PAGESIZE;
+			return this;
+		}
+
+		/**
+		 * ページ単位で選択肢を読み込むダイアログにおいて、表示位置から何項目先まで事前に読み込むかを指定します。
+		 *
+		 * @param distance
+		 *            先読みする項目数。
+		 * @return このオブジェクト。
+		 */
+		public Builder prefetchDistance(int distance) {
+			this.prefetchDistance = distance;
+			flags |= HAS_PREFETCH;
+			return this;
+		}
+
+		/**
+		 * {@link DialogSpec}を生成します。
+		 *
+		 * @return 生成したオブジェクト。
+		 */
+		public DialogSpec build() {
+			return new DialogSpec(this);
+		}
+	}
+}
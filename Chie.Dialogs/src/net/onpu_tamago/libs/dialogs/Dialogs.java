@@ -1,9 +1,22 @@
 package net.onpu_tamago.libs.dialogs;
 
-import java.util.HashMap;
-
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import android.content.Context;
 import android.content.DialogInterface;
+import android.database.Cursor;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
 import android.support.v4.app.DialogFragment;
 import android.support.v4.app.FragmentManager;
 import android.support.v4.app.FragmentTransaction;
@@ -157,6 +170,78 @@ public class Dialogs {
 	 */
 	static final String ALERT_VIEWID = "viewid";
 
+	/**
+	 * {@link DialogRegistry}におけるダイアログのキーです(int)。 内部的にのみ利用されます。
+	 */
+	static final String ALERT_REGISTRYKEY = "registrykey";
+
+	/**
+	 * ダイアログを表示したプロセスを識別する値です(long)。 内部的にのみ利用されます。
+	 */
+	static final String ALERT_SESSION = "session";
+
+	/**
+	 * 復元されたダイアログにコールバックを結び付け直すためのキーです(String)。
+	 * {@link DialogCallbackProvider#getDialogCallback(String)}に引き渡されます。
+	 */
+	public static final String ALERT_CALLBACKKEY = "callbackkey";
+
+	/**
+	 * プロセスの再生成後に復元できない内容(独自のビュー・大量の選択肢など)を持つかどうかです(boolean)。
+	 * 内部的にのみ利用されます。
+	 */
+	static final String ALERT_TRANSIENT = "transient";
+
+	/**
+	 * ダイアログの表示優先度です(int)。値が大きいほど先に表示されます。
+	 * {@link DialogScheduler#POLICY_PRIORITY}が設定されている場合のみ有効です。
+	 */
+	public static final String ALERT_PRIORITY = "priority";
+
+	/**
+	 * ページ単位で選択肢を読み込むダイアログにおいて、一度に読み込む選択肢の数です(int)。
+	 * 省略時は{@link #DEFAULT_PAGESIZE}となります。
+	 */
+	public static final String ALERT_PAGESIZE = "pagesize";
+
+	/**
+	 * ページ単位で選択肢を読み込むダイアログにおいて、表示位置から何項目先まで事前に読み込むかを示します(int)。
+	 * 省略時は一度に読み込む選択肢の数と同じとなります。
+	 */
+	public static final String ALERT_PREFETCH = "prefetch";
+
+	/**
+	 * {@link #ALERT_PAGESIZE}を省略した場合に一度に読み込む選択肢の数です。
+	 */
+	public static final int DEFAULT_PAGESIZE = 50;
+
+	/**
+	 * {@link #showDialogDeferred(FragmentManager, DialogSpec, DialogCallback)}
+	 * において、ダイアログを表示するまでの猶予時間(ミリ秒)です。
+	 */
+	public static final long DEFAULT_GRACE_PERIOD = 200;
+
+	/**
+	 * {@link #showDialogDeferred(FragmentManager, DialogSpec, DialogCallback)}
+	 * において、ダイアログを表示した場合の最低表示時間(ミリ秒)です。
+	 */
+	public static final long DEFAULT_MIN_DISPLAY_TIME = 500;
+
+	/**
+	 * {@link DialogPipeline}の各段階の表示内容です(Bundleの配列)。 内部的にのみ利用されます。
+	 */
+	static final String ALERT_STEPS = "steps";
+
+	/**
+	 * {@link DialogPipeline}において、表示中の段階のインデックスです(int)。 内部的にのみ利用されます。
+	 */
+	static final String ALERT_STEP = "step";
+
+	/**
+	 * {@link DialogPipeline}において、終了した段階の結果です(Bundleのリスト)。 内部的にのみ利用されます。
+	 */
+	static final String ALERT_STEPRESULTS = "stepresults";
+
 	/**
 	 * 複数選択ダイアログの場合、そこで選択した項目の文字列が、 単一行入力ダイアログの場合、そこで入力した文字列が格納されています(String)。
 	 */
@@ -193,6 +278,25 @@ public class Dialogs {
 	 */
 	public static final String PARAMS_PRESSBUTTON = "pressbutton";
 
+	/**
+	 * 表示中のダイアログに統合された表示要求の数が格納されています(int)。
+	 * {@link #setCoalescing(boolean)}で統合を有効にした場合のみ格納されます。
+	 */
+	public static final String PARAMS_MERGEDCOUNT = "mergedcount";
+
+	/**
+	 * {@link Cursor}から選択肢を表示するダイアログの場合、選択した行の
+	 * {@link android.provider.BaseColumns#_ID}列の値が格納されています(long)。 列が存在しない場合は格納されません。
+	 */
+	public static final String PARAMS_ROWID = "rowid";
+
+	/**
+	 * {@link DialogPipeline}を表示した場合、終了までに表示した各段階の結果が、段階の順に格納されています
+	 * (Bundleの{@link ArrayList})。 それぞれの{@link Bundle}には{@link #PARAMS_PRESSBUTTON}
+	 * などのキーが格納されています。
+	 */
+	public static final String PARAMS_STEPRESULTS = "stepresults";
+
 	/**
 	 * 文字入力領域を持つダイアログを表示するためのビューIDです。
 	 */
@@ -203,6 +307,41 @@ public class Dialogs {
 	 */
 	static final int VIEWID_CHECKDLG = 2;
 
+	/**
+	 * 大量の選択肢を持つ多肢選択式ダイアログを表示するためのビューIDです。
+	 */
+	static final int VIEWID_CHOICELIST = 3;
+
+	/**
+	 * 選択肢をページ単位で読み込む多肢選択式ダイアログを表示するためのビューIDです。
+	 */
+	static final int VIEWID_PAGEDLIST = 4;
+
+	/**
+	 * {@link Cursor}から選択肢を表示する多肢選択式ダイアログを表示するためのビューIDです。
+	 */
+	static final int VIEWID_CURSORLIST = 5;
+
+	/**
+	 * {@link DialogPipeline}の各段階を一つのダイアログで表示するためのビューIDです。
+	 */
+	static final int VIEWID_PIPELINE = 6;
+
+	/**
+	 * 進捗を表示するダイアログを表示するためのビューIDです。
+	 */
+	static final int VIEWID_PROGRESSDLG = 7;
+
+	/**
+	 * {@link #prewarm(Context, int...)}において、文字入力領域を持つダイアログのビューを示します。
+	 */
+	public static final int PREWARM_INPUT = VIEWID_INPUTDLG;
+
+	/**
+	 * {@link #prewarm(Context, int...)}において、チェックボックスを持つダイアログのビューを示します。
+	 */
+	public static final int PREWARM_CHECK = VIEWID_CHECKDLG;
+
 	/**
 	 * ダイアログ処理のコールバックインターフェースです。
 	 */
@@ -329,12 +468,44 @@ public class Dialogs {
 
 	}
 
+	/**
+	 * ダイアログの結果を{@link Bundle}を介さずに受け取るコールバックインターフェースです。
+	 * このインターフェースを実装したオブジェクトには
+	 * {@link #onDialogResult(DialogFragment, DialogResult)}のみが呼び出され、
+	 * {@link DialogCallback#onDialogClosed(DialogFragment, Bundle)}は呼び出されません。
+	 */
+	public interface TypedDialogCallback extends DialogCallback {
+		/**
+		 * ダイアログが閉じたときのコールバックメソッドです。
+		 * 
+		 * @param owner
+		 *            内部的に使用している{@link DialogFragment}オブジェクト。
+		 * @param result
+		 *            ダイアログの結果。オブジェクトは再利用されるため、メソッドから戻った後は参照しないでください。
+		 */
+		void onDialogResult(DialogFragment owner, DialogResult result);
+	}
+
 	/**
 	 * 内部的に用いるデータを格納する構造体です。
 	 */
 	public static class DialogData {
 		View view;
+		ViewFactory viewFactory;
+		String[] items;
+		PagedChoiceSource pagedSource;
+		CursorChoiceSource cursorSource;
 		DialogCallback callback;
+		WeakReference<DialogFragment> owner;
+		Object coalesceKey;
+		int mergedCount;
+		ArrayList<DialogCallback> mergedCallbacks;
+		DialogSpec[] steps;
+		DialogPipeline.StepHandler stepHandler;
+		DialogSpec spec;
+		DialogSpec update;
+		ProgressHandle progress;
+		DeferredHandle deferred;
 
 		public DialogData(View view, DialogCallback callback) {
 			super();
@@ -346,12 +517,76 @@ public class Dialogs {
 	/**
 	 * 内部的に用いるダイアログ用データを保存するオブジェクトです。
 	 */
-	static HashMap<String, DialogData> dialogData = new HashMap<String, Dialogs.DialogData>();
+	static final DialogRegistry registry = new DialogRegistry(
+			DialogRegistry.DEFAULT_CAPACITY);
+
+	/**
+	 * このプロセスを識別する値です。 プロセスの再生成後に復元されたダイアログを見分けるために用います。
+	 */
+	static final long SESSION = System.currentTimeMillis()
+			^ ((long) android.os.Process.myPid() << 32);
+
+	/**
+	 * ダイアログのフラグメントに付与するタグです。
+	 */
+	static final String DIALOG_TAG = "net.onpu_tamago.libs.dialogs";
+
+	/**
+	 * ワーカースレッドからの表示要求をメインスレッドへ受け渡すオブジェクトです。
+	 */
+	private static final DialogDispatcher dispatcher = new DialogDispatcher();
+
+	/**
+	 * ダイアログの表示順を管理するオブジェクトです。
+	 */
+	static final DialogScheduler scheduler = new DialogScheduler();
+
+	/**
+	 * 表示先が状態を保存した後の表示要求を保持するオブジェクトです。
+	 */
+	static final PendingQueue pendingQueue = new PendingQueue();
+
+	/**
+	 * ダイアログに表示する文字列リソースのキャッシュです。
+	 */
+	static final ResourceCache resources = new ResourceCache(
+			ResourceCache.DEFAULT_SIZE);
+
+	/**
+	 * バックグラウンド処理に用いる{@link Executor}です。
+	 */
+	private static Executor backgroundExecutor;
+
+	/**
+	 * メインスレッドで処理を実行する{@link Executor}です。
+	 */
+	private static final Executor mainExecutor = new Executor() {
+		private final Handler handler = new Handler(Looper.getMainLooper());
+
+		@Override
+		public void execute(Runnable command) {
+			if (DialogDispatcher.isMainThread()) {
+				command.run();
+			} else {
+				handler.post(command);
+			}
+		}
+	};
+
+	/**
+	 * 事前に生成したダイアログのビューを保持するオブジェクトです。
+	 */
+	static final ViewPool viewPool = new ViewPool();
+
+	/**
+	 * 同一内容のダイアログを統合するかどうか。
+	 */
+	private static volatile boolean coalescing = false;
 
 	/**
-	 * 内部的に用いるタグ番号です。
+	 * 各段階の時刻を通知するリスナーです。
 	 */
-	private static int tag = 0;
+	private static volatile DialogMetricsListener metricsListener;
 
 	private Dialogs() {
 	}
@@ -374,13 +609,9 @@ public class Dialogs {
 	 */
 	public static final void showSimpleDialog(FragmentManager manager,
 			String title, String message, Bundle params, DialogCallback callback) {
-		Bundle args = params != null ? new Bundle(params) : new Bundle();
-		args.putString(ALERT_TITLE, title);
-		args.putString(ALERT_MESSAGE, message);
-		if (!args.containsKey(ALERT_BUTTONS)) {
-			args.putInt(ALERT_BUTTONS, DIALOGBUTTON_POSITIVE);
-		}
-		showDialog(manager, args, callback, null);
+		showDialog(manager, new DialogSpec.Builder().params(params).title(title)
+				.message(message).defaultButtons(DIALOGBUTTON_POSITIVE).build(),
+				callback, null);
 	}
 
 	/**
@@ -416,13 +647,9 @@ public class Dialogs {
 	 */
 	public static final void showSimpleDialog(FragmentManager manager,
 			int titleid, int messageid, Bundle params, DialogCallback callback) {
-		Bundle args = params != null ? new Bundle(params) : new Bundle();
-		args.putInt(ALERT_TITLEID, titleid);
-		args.putInt(ALERT_MESSAGEID, messageid);
-		if (!args.containsKey(ALERT_BUTTONS)) {
-			args.putInt(ALERT_BUTTONS, DIALOGBUTTON_POSITIVE);
-		}
-		showDialog(manager, args, callback, null);
+		showDialog(manager, new DialogSpec.Builder().params(params)
+				.title(titleid).message(messageid)
+				.defaultButtons(DIALOGBUTTON_POSITIVE).build(), callback, null);
 	}
 
 	/**
@@ -458,13 +685,9 @@ public class Dialogs {
 	 */
 	public static final void showAlertDialog(FragmentManager manager,
 			String title, String message, Bundle params, DialogCallback callback) {
-		Bundle args = params != null ? new Bundle(params) : new Bundle();
-		args.putString(ALERT_TITLE, title);
-		args.putString(ALERT_MESSAGE, message);
-		if (!args.containsKey(ALERT_BUTTONS)) {
-			args.putInt(ALERT_BUTTONS, DIALOGBUTTON_POSITIVE_NEGATIVE);
-		}
-		showDialog(manager, args, callback, null);
+		showDialog(manager, new DialogSpec.Builder().params(params).title(title)
+				.message(message).defaultButtons(DIALOGBUTTON_POSITIVE_NEGATIVE)
+				.build(), callback, null);
 	}
 
 	/**
@@ -500,13 +723,10 @@ public class Dialogs {
 	 */
 	public static final void showAlertDialog(FragmentManager manager,
 			int titleid, int messageid, Bundle params, DialogCallback callback) {
-		Bundle args = params != null ? new Bundle(params) : new Bundle();
-		args.putInt(ALERT_TITLEID, titleid);
-		args.putInt(ALERT_MESSAGEID, messageid);
-		if (!args.containsKey(ALERT_BUTTONS)) {
-			args.putInt(ALERT_BUTTONS, DIALOGBUTTON_POSITIVE_NEGATIVE);
-		}
-		showDialog(manager, args, callback, null);
+		showDialog(manager, new DialogSpec.Builder().params(params)
+				.title(titleid).message(messageid)
+				.defaultButtons(DIALOGBUTTON_POSITIVE_NEGATIVE).build(),
+				callback, null);
 	}
 
 	/**
@@ -543,10 +763,8 @@ public class Dialogs {
 	public static final void showChoiceDialog(FragmentManager manager,
 			String title, Bundle params, DialogCallback callback,
 			String... choices) {
-		Bundle args = params != null ? new Bundle(params) : new Bundle();
-		args.putString(ALERT_TITLE, title);
-		args.putStringArray(ALERT_MESSAGEARRAY, choices);
-		showDialog(manager, args, callback, null);
+		showDialog(manager, new DialogSpec.Builder().params(params).title(title)
+				.items(choices).build(), callback, null);
 	}
 
 	/**
@@ -583,10 +801,8 @@ public class Dialogs {
 	public static final void showChoiceDialog(FragmentManager manager,
 			int titleid, Bundle params, DialogCallback callback,
 			int choiceslistid) {
-		Bundle args = params != null ? new Bundle(params) : new Bundle();
-		args.putInt(ALERT_TITLEID, titleid);
-		args.putInt(ALERT_MESSAGEARRAYID, choiceslistid);
-		showDialog(manager, args, callback, null);
+		showDialog(manager, new DialogSpec.Builder().params(params)
+				.title(titleid).items(choiceslistid).build(), callback, null);
 	}
 
 	/**
@@ -623,14 +839,10 @@ public class Dialogs {
 	 */
 	public static final void showInputDialog(FragmentManager manager,
 			String title, String message, Bundle params, DialogCallback callback) {
-		Bundle args = params != null ? new Bundle(params) : new Bundle();
-		args.putString(ALERT_TITLE, title);
-		args.putString(ALERT_MESSAGE, message);
-		args.putInt(ALERT_VIEWID, VIEWID_INPUTDLG);
-		if (!args.containsKey(ALERT_BUTTONS)) {
-			args.putInt(ALERT_BUTTONS, DIALOGBUTTON_POSITIVE_NEGATIVE);
-		}
-		showDialog(manager, args, callback, null);
+		showDialog(manager, new DialogSpec.Builder().params(params).title(title)
+				.message(message).viewType(VIEWID_INPUTDLG)
+				.defaultButtons(DIALOGBUTTON_POSITIVE_NEGATIVE).build(),
+				callback, null);
 	}
 
 	/**
@@ -668,14 +880,10 @@ public class Dialogs {
 	 */
 	public static final void showInputDialog(FragmentManager manager,
 			int titleid, int messageid, Bundle params, DialogCallback callback) {
-		Bundle args = params != null ? new Bundle(params) : new Bundle();
-		args.putInt(ALERT_TITLEID, titleid);
-		args.putInt(ALERT_MESSAGEID, messageid);
-		args.putInt(ALERT_VIEWID, VIEWID_INPUTDLG);
-		if (!args.containsKey(ALERT_BUTTONS)) {
-			args.putInt(ALERT_BUTTONS, DIALOGBUTTON_POSITIVE_NEGATIVE);
-		}
-		showDialog(manager, args, callback, null);
+		showDialog(manager, new DialogSpec.Builder().params(params)
+				.title(titleid).message(messageid).viewType(VIEWID_INPUTDLG)
+				.defaultButtons(DIALOGBUTTON_POSITIVE_NEGATIVE).build(),
+				callback, null);
 	}
 
 	/**
@@ -716,15 +924,10 @@ public class Dialogs {
 	public static final void showCheckDialog(FragmentManager manager,
 			String title, String message, String checkmessage, Bundle params,
 			DialogCallback callback) {
-		Bundle args = params != null ? new Bundle(params) : new Bundle();
-		args.putString(ALERT_TITLE, title);
-		args.putString(ALERT_MESSAGE, message);
-		args.putString(ALERT_APPENDMESSAGE, checkmessage);
-		args.putInt(ALERT_VIEWID, VIEWID_CHECKDLG);
-		if (!args.containsKey(ALERT_BUTTONS)) {
-			args.putInt(ALERT_BUTTONS, DIALOGBUTTON_POSITIVE_NEGATIVE);
-		}
-		showDialog(manager, args, callback, null);
+		showDialog(manager, new DialogSpec.Builder().params(params).title(title)
+				.message(message).checkMessage(checkmessage)
+				.defaultButtons(DIALOGBUTTON_POSITIVE_NEGATIVE).build(),
+				callback, null);
 	}
 
 	/**
@@ -768,15 +971,10 @@ public class Dialogs {
 	public static final void showCheckDialog(FragmentManager manager,
 			int titleid, int messageid, int checkmessageid, Bundle params,
 			DialogCallback callback) {
-		Bundle args = params != null ? new Bundle(params) : new Bundle();
-		args.putInt(ALERT_TITLEID, titleid);
-		args.putInt(ALERT_MESSAGEID, messageid);
-		args.putInt(ALERT_APPENDMESSAGEID, checkmessageid);
-		args.putInt(ALERT_VIEWID, VIEWID_CHECKDLG);
-		if (!args.containsKey(ALERT_BUTTONS)) {
-			args.putInt(ALERT_BUTTONS, DIALOGBUTTON_POSITIVE_NEGATIVE);
-		}
-		showDialog(manager, args, callback, null);
+		showDialog(manager, new DialogSpec.Builder().params(params)
+				.title(titleid).message(messageid).checkMessage(checkmessageid)
+				.defaultButtons(DIALOGBUTTON_POSITIVE_NEGATIVE).build(),
+				callback, null);
 	}
 
 	/**
@@ -817,12 +1015,9 @@ public class Dialogs {
 	 */
 	public static final void showCustomDialog(FragmentManager manager,
 			String title, View view, Bundle params, DialogCallback callback) {
-		Bundle args = params != null ? new Bundle(params) : new Bundle();
-		args.putString(ALERT_TITLE, title);
-		if (!args.containsKey(ALERT_BUTTONS)) {
-			args.putInt(ALERT_BUTTONS, DIALOGBUTTON_POSITIVE_NEGATIVE);
-		}
-		showDialog(manager, args, callback, view);
+		showDialog(manager, new DialogSpec.Builder().params(params).title(title)
+				.defaultButtons(DIALOGBUTTON_POSITIVE_NEGATIVE).build(),
+				callback, view);
 	}
 
 	/**
@@ -858,12 +1053,9 @@ public class Dialogs {
 	 */
 	public static final void showCustomDialog(FragmentManager manager,
 			int titleid, View view, Bundle params, DialogCallback callback) {
-		Bundle args = params != null ? new Bundle(params) : new Bundle();
-		args.putInt(ALERT_TITLEID, titleid);
-		if (!args.containsKey(ALERT_BUTTONS)) {
-			args.putInt(ALERT_BUTTONS, DIALOGBUTTON_POSITIVE_NEGATIVE);
-		}
-		showDialog(manager, args, callback, view);
+		showDialog(manager, new DialogSpec.Builder().params(params)
+				.title(titleid).defaultButtons(DIALOGBUTTON_POSITIVE_NEGATIVE)
+				.build(), callback, view);
 	}
 
 	/**
@@ -883,259 +1075,346 @@ public class Dialogs {
 		showCustomDialog(manager, titleid, view, null, callback);
 	}
 
-	// FragmentTransactionを使うオーバーライド
-
 	/**
-	 * ボタンがOKのみのシンプルなアラートダイアログを表示します。
+	 * 独自ビューを表示するダイアログを表示します。 ビューはダイアログの生成時に生成され、閉じられた時点で解放されます。
 	 * 
-	 * @param transaction
-	 *            ダイアログの表示に用いる{@link FragmentTransaction}オブジェクト。
+	 * @param manager
+	 *            ダイアログの表示に用いる{@link FragmentManager}オブジェクト。
 	 * @param title
 	 *            タイトルとして表示する文字列を指定します。タイトルが不要な場合、""を指定します。
-	 * @param message
-	 *            メッセージとして表示する文字列を指定します。
+	 * @param factory
+	 *            表示するビューを生成する{@link ViewFactory}オブジェクトを指定します。
 	 * @param params
 	 *            その他追加パラメータを格納した{@link Bundle}オブジェクトを指定します。
 	 * @param callback
 	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクトを指定します。
 	 */
-	public static final void showSimpleDialog(FragmentTransaction transaction,
-			String title, String message, Bundle params, DialogCallback callback) {
-		Bundle args = params != null ? new Bundle(params) : new Bundle();
-		args.putString(ALERT_TITLE, title);
-		args.putString(ALERT_MESSAGE, message);
-		if (!args.containsKey(ALERT_BUTTONS)) {
-			args.putInt(ALERT_BUTTONS, DIALOGBUTTON_POSITIVE);
-		}
-		showDialog(transaction, args, callback, null);
+	public static final void showCustomDialog(FragmentManager manager,
+			String title, ViewFactory factory, Bundle params,
+			DialogCallback callback) {
+		showCustomDialog(manager, new DialogSpec.Builder().params(params)
+				.title(title).defaultButtons(DIALOGBUTTON_POSITIVE_NEGATIVE)
+				.build(), callback, factory);
 	}
 
 	/**
-	 * ボタンがOKのみのシンプルなアラートダイアログを表示します。
+	 * 独自ビューを表示するダイアログを表示します。 ビューはダイアログの生成時に生成され、閉じられた時点で解放されます。
 	 * 
-	 * @param transaction
-	 *            ダイアログの表示に用いる{@link FragmentTransaction}オブジェクト。
+	 * @param manager
+	 *            ダイアログの表示に用いる{@link FragmentManager}オブジェクト。
 	 * @param title
 	 *            タイトルとして表示する文字列を指定します。タイトルが不要な場合、""を指定します。
-	 * @param message
-	 *            メッセージとして表示する文字列を指定します。
+	 * @param factory
+	 *            表示するビューを生成する{@link ViewFactory}オブジェクトを指定します。
 	 * @param callback
 	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクトを指定します。
 	 */
-	public static final void showSimpleDialog(FragmentTransaction transaction,
-			String title, String message, DialogCallback callback) {
-		showSimpleDialog(transaction, title, message, null, callback);
+	public static final void showCustomDialog(FragmentManager manager,
+			String title, ViewFactory factory, DialogCallback callback) {
+		showCustomDialog(manager, title, factory, null, callback);
 	}
 
 	/**
-	 * ボタンがOKのみのシンプルなアラートダイアログを表示します。
+	 * 独自ビューを表示するダイアログを表示します。 ビューはダイアログの生成時に生成され、閉じられた時点で解放されます。
 	 * 
-	 * @param transaction
-	 *            ダイアログの表示に用いる{@link FragmentTransaction}オブジェクト。
+	 * @param manager
+	 *            ダイアログの表示に用いる{@link FragmentManager}オブジェクト。
 	 * @param titleid
 	 *            タイトルとして表示する文字列のリソースIDを指定します。タイトルが不要な場合、0を指定します。
-	 * @param messageid
-	 *            メッセージとして表示する文字列のリソースIDを指定します。
+	 * @param factory
+	 *            表示するビューを生成する{@link ViewFactory}オブジェクトを指定します。
 	 * @param params
 	 *            その他追加パラメータを格納した{@link Bundle}オブジェクトを指定します。
 	 * @param callback
 	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクトを指定します。
 	 */
-	public static final void showSimpleDialog(FragmentTransaction transaction,
-			int titleid, int messageid, Bundle params, DialogCallback callback) {
-		Bundle args = params != null ? new Bundle(params) : new Bundle();
-		args.putInt(ALERT_TITLEID, titleid);
-		args.putInt(ALERT_MESSAGEID, messageid);
-		if (!args.containsKey(ALERT_BUTTONS)) {
-			args.putInt(ALERT_BUTTONS, DIALOGBUTTON_POSITIVE);
-		}
-		showDialog(transaction, args, callback, null);
+	public static final void showCustomDialog(FragmentManager manager,
+			int titleid, ViewFactory factory, Bundle params,
+			DialogCallback callback) {
+		showCustomDialog(manager, new DialogSpec.Builder().params(params)
+				.title(titleid).defaultButtons(DIALOGBUTTON_POSITIVE_NEGATIVE)
+				.build(), callback, factory);
 	}
 
 	/**
-	 * ボタンがOKのみのシンプルなアラートダイアログを表示します。
+	 * 独自ビューを表示するダイアログを表示します。 ビューはダイアログの生成時に生成され、閉じられた時点で解放されます。
 	 * 
-	 * @param transaction
-	 *            ダイアログの表示に用いる{@link FragmentTransaction}オブジェクト。
+	 * @param manager
+	 *            ダイアログの表示に用いる{@link FragmentManager}オブジェクト。
 	 * @param titleid
 	 *            タイトルとして表示する文字列のリソースIDを指定します。タイトルが不要な場合、0を指定します。
-	 * @param messageid
-	 *            メッセージとして表示する文字列のリソースIDを指定します。
+	 * @param factory
+	 *            表示するビューを生成する{@link ViewFactory}オブジェクトを指定します。
 	 * @param callback
 	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクトを指定します。
 	 */
-	public static final void showSimpleDialog(FragmentTransaction transaction,
-			int titleid, int messageid, DialogCallback callback) {
-		showSimpleDialog(transaction, titleid, messageid, null, callback);
+	public static final void showCustomDialog(FragmentManager manager,
+			int titleid, ViewFactory factory, DialogCallback callback) {
+		showCustomDialog(manager, titleid, factory, null, callback);
 	}
 
 	/**
-	 * 標準的なアラートダイアログを表示します。
+	 * 大量の選択肢を持つ多肢選択式ダイアログを表示します。 選択肢の行は表示される分だけ生成され、
+	 * 選択肢の配列はダイアログの引数にコピーされません。 選択された項目はコールバックメソッドのパラメータ
+	 * {@link Dialogs#PARAMS_INPUTINDEX}にて取得可能です。
 	 * 
-	 * @param transaction
-	 *            ダイアログの表示に用いる{@link FragmentTransaction}オブジェクト。
+	 * @param manager
+	 *            ダイアログの表示に用いる{@link FragmentManager}オブジェクト。
 	 * @param title
-	 *            タイトルとして表示する文字列を指定します。
-	 * @param message
-	 *            メッセージとして表示する文字列を指定します。
+	 *            タイトルとして表示する文字列を指定します。タイトルが不要な場合、""を指定します。
 	 * @param params
 	 *            その他追加パラメータを格納した{@link Bundle}オブジェクトを指定します。
 	 * @param callback
 	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクトを指定します。
+	 * @param choices
+	 *            ダイアログに表示される選択肢を指定します。先頭文字で並べ替えられている場合、高速スクロール用の索引が作成されます。
 	 */
-	public static final void showAlertDialog(FragmentTransaction transaction,
-			String title, String message, Bundle params, DialogCallback callback) {
-		Bundle args = params != null ? new Bundle(params) : new Bundle();
-		args.putString(ALERT_TITLE, title);
-		args.putString(ALERT_MESSAGE, message);
-		if (!args.containsKey(ALERT_BUTTONS)) {
-			args.putInt(ALERT_BUTTONS, DIALOGBUTTON_POSITIVE_NEGATIVE);
-		}
-		showDialog(transaction, args, callback, null);
+	public static final void showLargeChoiceDialog(FragmentManager manager,
+			String title, Bundle params, DialogCallback callback,
+			String... choices) {
+		showChoiceList(manager, null, new DialogSpec.Builder().params(params)
+				.title(title).build(), callback, choices);
 	}
 
 	/**
-	 * 標準的なアラートダイアログを表示します。
+	 * 大量の選択肢を持つ多肢選択式ダイアログを表示します。 選択肢の行は表示される分だけ生成され、
+	 * 選択肢の配列はダイアログの引数にコピーされません。 選択された項目はコールバックメソッドのパラメータ
+	 * {@link Dialogs#PARAMS_INPUTINDEX}にて取得可能です。
 	 * 
-	 * @param transaction
-	 *            ダイアログの表示に用いる{@link FragmentTransaction}オブジェクト。
+	 * @param manager
+	 *            ダイアログの表示に用いる{@link FragmentManager}オブジェクト。
 	 * @param title
 	 *            タイトルとして表示する文字列を指定します。タイトルが不要な場合、""を指定します。
-	 * @param message
-	 *            メッセージとして表示する文字列を指定します。
 	 * @param callback
 	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクトを指定します。
+	 * @param choices
+	 *            ダイアログに表示される選択肢を指定します。先頭文字で並べ替えられている場合、高速スクロール用の索引が作成されます。
 	 */
-	public static final void showAlertDialog(FragmentTransaction transaction,
-			String title, String message, DialogCallback callback) {
-		showAlertDialog(transaction, title, message, null, callback);
+	public static final void showLargeChoiceDialog(FragmentManager manager,
+			String title, DialogCallback callback, String... choices) {
+		showLargeChoiceDialog(manager, title, null, callback, choices);
 	}
 
 	/**
-	 * 標準的なアラートダイアログを表示します。
+	 * 大量の選択肢を持つ多肢選択式ダイアログを表示します。 選択肢の行は表示される分だけ生成され、
+	 * 選択肢の配列はダイアログの引数にコピーされません。 選択された項目はコールバックメソッドのパラメータ
+	 * {@link Dialogs#PARAMS_INPUTINDEX}にて取得可能です。
 	 * 
-	 * @param transaction
-	 *            ダイアログの表示に用いる{@link FragmentTransaction}オブジェクト。
+	 * @param manager
+	 *            ダイアログの表示に用いる{@link FragmentManager}オブジェクト。
 	 * @param titleid
 	 *            タイトルとして表示する文字列のリソースIDを指定します。タイトルが不要な場合、0を指定します。
-	 * @param messageid
-	 *            メッセージとして表示する文字列のリソースIDを指定します。
 	 * @param params
 	 *            その他追加パラメータを格納した{@link Bundle}オブジェクトを指定します。
 	 * @param callback
 	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクトを指定します。
+	 * @param choices
+	 *            ダイアログに表示される選択肢を指定します。先頭文字で並べ替えられている場合、高速スクロール用の索引が作成されます。
 	 */
-	public static final void showAlertDialog(FragmentTransaction transaction,
-			int titleid, int messageid, Bundle params, DialogCallback callback) {
-		Bundle args = params != null ? new Bundle(params) : new Bundle();
-		args.putInt(ALERT_TITLEID, titleid);
-		args.putInt(ALERT_MESSAGEID, messageid);
-		if (!args.containsKey(ALERT_BUTTONS)) {
-			args.putInt(ALERT_BUTTONS, DIALOGBUTTON_POSITIVE_NEGATIVE);
-		}
-		showDialog(transaction, args, callback, null);
+	public static final void showLargeChoiceDialog(FragmentManager manager,
+			int titleid, Bundle params, DialogCallback callback,
+			String... choices) {
+		showChoiceList(manager, null, new DialogSpec.Builder().params(params)
+				.title(titleid).build(), callback, choices);
 	}
 
 	/**
-	 * 標準的なアラートダイアログを表示します。
+	 * 大量の選択肢を持つ多肢選択式ダイアログを表示します。 選択肢の行は表示される分だけ生成され、
+	 * 選択肢の配列はダイアログの引数にコピーされません。 選択された項目はコールバックメソッドのパラメータ
+	 * {@link Dialogs#PARAMS_INPUTINDEX}にて取得可能です。
 	 * 
-	 * @param transaction
-	 *            ダイアログの表示に用いる{@link FragmentTransaction}オブジェクト。
+	 * @param manager
+	 *            ダイアログの表示に用いる{@link FragmentManager}オブジェクト。
 	 * @param titleid
 	 *            タイトルとして表示する文字列のリソースIDを指定します。タイトルが不要な場合、0を指定します。
-	 * @param messageid
-	 *            メッセージとして表示する文字列のリソースIDを指定します。
 	 * @param callback
 	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクトを指定します。
+	 * @param choices
+	 *            ダイアログに表示される選択肢を指定します。先頭文字で並べ替えられている場合、高速スクロール用の索引が作成されます。
 	 */
-	public static final void showAlertDialog(FragmentTransaction transaction,
-			int titleid, int messageid, DialogCallback callback) {
-		showAlertDialog(transaction, titleid, messageid, null, callback);
+	public static final void showLargeChoiceDialog(FragmentManager manager,
+			int titleid, DialogCallback callback, String... choices) {
+		showLargeChoiceDialog(manager, titleid, null, callback, choices);
 	}
 
 	/**
-	 * 標準的な多肢選択式ダイアログを表示します。
+	 * 選択肢をページ単位で読み込む多肢選択式ダイアログを表示します。 選択肢は表示位置に応じてバックグラウンドで読み込まれ、
+	 * 表示位置から離れたページは破棄されます。 選択された項目はコールバックメソッドのパラメータ
+	 * {@link Dialogs#PARAMS_INPUTINDEX}、{@link Dialogs#PARAMS_INPUTSTR}にて取得可能です。
 	 * 
-	 * @param transaction
-	 *            ダイアログの表示に用いる{@link FragmentTransaction}オブジェクト。
+	 * @param manager
+	 *            ダイアログの表示に用いる{@link FragmentManager}オブジェクト。
 	 * @param title
 	 *            タイトルとして表示する文字列を指定します。タイトルが不要な場合、""を指定します。
 	 * @param params
-	 *            その他追加パラメータを格納した{@link Bundle}オブジェクトを指定します。
+	 *            その他追加パラメータを格納した{@link Bundle}オブジェクトを指定します。{@link #ALERT_PAGESIZE}、
+	 *            {@link #ALERT_PREFETCH}にて読み込みの単位を指定できます。
 	 * @param callback
 	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクトを指定します。
-	 * @param choices
-	 *            ダイアログに表示される選択肢を指定します。
+	 * @param source
+	 *            選択肢を読み込む{@link PagedChoiceSource}オブジェクトを指定します。
 	 */
-	public static final void showChoiceDialog(FragmentTransaction transaction,
+	public static final void showPagedChoiceDialog(FragmentManager manager,
 			String title, Bundle params, DialogCallback callback,
-			String... choices) {
-		Bundle args = params != null ? new Bundle(params) : new Bundle();
-		args.putString(ALERT_TITLE, title);
-		args.putStringArray(ALERT_MESSAGEARRAY, choices);
-		showDialog(transaction, args, callback, null);
+			PagedChoiceSource source) {
+		showPagedList(manager, null, new DialogSpec.Builder().params(params)
+				.title(title).build(), callback, source);
 	}
 
 	/**
-	 * 標準的な多肢選択式ダイアログを表示します。
+	 * 選択肢をページ単位で読み込む多肢選択式ダイアログを表示します。 選択肢は表示位置に応じてバックグラウンドで読み込まれ、
+	 * 表示位置から離れたページは破棄されます。 選択された項目はコールバックメソッドのパラメータ
+	 * {@link Dialogs#PARAMS_INPUTINDEX}、{@link Dialogs#PARAMS_INPUTSTR}にて取得可能です。
 	 * 
-	 * @param transaction
-	 *            ダイアログの表示に用いる{@link FragmentTransaction}オブジェクト。
+	 * @param manager
+	 *            ダイアログの表示に用いる{@link FragmentManager}オブジェクト。
 	 * @param title
 	 *            タイトルとして表示する文字列を指定します。タイトルが不要な場合、""を指定します。
 	 * @param callback
 	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクトを指定します。
-	 * @param choices
-	 *            ダイアログに表示される選択肢を指定します。
+	 * @param source
+	 *            選択肢を読み込む{@link PagedChoiceSource}オブジェクトを指定します。
 	 */
-	public static final void showChoiceDialog(FragmentTransaction transaction,
-			String title, DialogCallback callback, String... choices) {
-		showChoiceDialog(transaction, title, null, callback, choices);
+	public static final void showPagedChoiceDialog(FragmentManager manager,
+			String title, DialogCallback callback, PagedChoiceSource source) {
+		showPagedChoiceDialog(manager, title, null, callback, source);
 	}
 
 	/**
-	 * 標準的な多肢選択式ダイアログを表示します。
+	 * 選択肢をページ単位で読み込む多肢選択式ダイアログを表示します。 選択肢は表示位置に応じてバックグラウンドで読み込まれ、
+	 * 表示位置から離れたページは破棄されます。 選択された項目はコールバックメソッドのパラメータ
+	 * {@link Dialogs#PARAMS_INPUTINDEX}、{@link Dialogs#PARAMS_INPUTSTR}にて取得可能です。
 	 * 
-	 * @param transaction
-	 *            ダイアログの表示に用いる{@link FragmentTransaction}オブジェクト。
+	 * @param manager
+	 *            ダイアログの表示に用いる{@link FragmentManager}オブジェクト。
 	 * @param titleid
 	 *            タイトルとして表示する文字列のリソースIDを指定します。タイトルが不要な場合、0を指定します。
 	 * @param params
-	 *            その他追加パラメータを格納した{@link Bundle}オブジェクトを指定します。
+	 *            その他追加パラメータを格納した{@link Bundle}オブジェクトを指定します。{@link #ALERT_PAGESIZE}、
+	 *            {@link #ALERT_PREFETCH}にて読み込みの単位を指定できます。
 	 * @param callback
 	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクトを指定します。
-	 * @param choiceslistid
-	 *            ダイアログに表示される選択肢を示すリソースIDを指定します。
+	 * @param source
+	 *            選択肢を読み込む{@link PagedChoiceSource}オブジェクトを指定します。
 	 */
-	public static final void showChoiceDialog(FragmentTransaction transaction,
+	public static final void showPagedChoiceDialog(FragmentManager manager,
 			int titleid, Bundle params, DialogCallback callback,
-			int choiceslistid) {
-		Bundle args = params != null ? new Bundle(params) : new Bundle();
-		args.putInt(ALERT_TITLEID, titleid);
-		args.putInt(ALERT_MESSAGEARRAYID, choiceslistid);
-		showDialog(transaction, args, callback, null);
+			PagedChoiceSource source) {
+		showPagedList(manager, null, new DialogSpec.Builder().params(params)
+				.title(titleid).build(), callback, source);
 	}
 
 	/**
-	 * 標準的な多肢選択式ダイアログを表示します。
+	 * 選択肢をページ単位で読み込む多肢選択式ダイアログを表示します。 選択肢は表示位置に応じてバックグラウンドで読み込まれ、
+	 * 表示位置から離れたページは破棄されます。 選択された項目はコールバックメソッドのパラメータ
+	 * {@link Dialogs#PARAMS_INPUTINDEX}、{@link Dialogs#PARAMS_INPUTSTR}にて取得可能です。
 	 * 
-	 * @param transaction
-	 *            ダイアログの表示に用いる{@link FragmentTransaction}オブジェクト。
-	 * @param titleid
+	 * @param manager
+	 *            ダイアログの表示に用いる{@link FragmentManager}オブジェクト。
+	 * @param titleid
 	 *            タイトルとして表示する文字列のリソースIDを指定します。タイトルが不要な場合、0を指定します。
 	 * @param callback
 	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクトを指定します。
-	 * @param choiceslistid
-	 *            ダイアログに表示される選択肢を示すリソースIDを指定します。
+	 * @param source
+	 *            選択肢を読み込む{@link PagedChoiceSource}オブジェクトを指定します。
 	 */
-	public static final void showChoiceDialog(FragmentTransaction transaction,
-			int titleid, DialogCallback callback, int choiceslistid) {
-		showChoiceDialog(transaction, titleid, null, callback, choiceslistid);
+	public static final void showPagedChoiceDialog(FragmentManager manager,
+			int titleid, DialogCallback callback, PagedChoiceSource source) {
+		showPagedChoiceDialog(manager, titleid, null, callback, source);
 	}
 
 	/**
-	 * 文字列入力が可能なダイアログを表示します。 入力された値はコールバックメソッドのパラメータ
-	 * {@link Dialogs#PARAMS_INPUTSTR}にて取得可能です。
+	 * {@link Cursor}から選択肢を表示する多肢選択式ダイアログを表示します。 クエリはバックグラウンドで実行され、
+	 * 選択肢は{@link Cursor}から直接読み出されます。 {@link CursorChoiceSource#requery()}で選択肢を差し替えられます。
+	 * 選択された項目はコールバックメソッドのパラメータ {@link Dialogs#PARAMS_INPUTINDEX}、
+	 * {@link Dialogs#PARAMS_INPUTSTR}、{@link Dialogs#PARAMS_ROWID}にて取得可能です。
+	 * 
+	 * @param manager
+	 *            ダイアログの表示に用いる{@link FragmentManager}オブジェクト。
+	 * @param title
+	 *            タイトルとして表示する文字列を指定します。タイトルが不要な場合、""を指定します。
+	 * @param params
+	 *            その他追加パラメータを格納した{@link Bundle}オブジェクトを指定します。
+	 * @param callback
+	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクトを指定します。
+	 * @param source
+	 *            選択肢を取得する{@link CursorChoiceSource}オブジェクトを指定します。
+	 */
+	public static final void showCursorChoiceDialog(FragmentManager manager,
+			String title, Bundle params, DialogCallback callback,
+			CursorChoiceSource source) {
+		showCursorList(manager, null, new DialogSpec.Builder().params(params)
+				.title(title).build(), callback, source);
+	}
+
+	/**
+	 * {@link Cursor}から選択肢を表示する多肢選択式ダイアログを表示します。 クエリはバックグラウンドで実行され、
+	 * 選択肢は{@link Cursor}から直接読み出されます。 {@link CursorChoiceSource#requery()}で選択肢を差し替えられます。
+	 * 選択された項目はコールバックメソッドのパラメータ {@link Dialogs#PARAMS_INPUTINDEX}、
+	 * {@link Dialogs#PARAMS_INPUTSTR}、{@link Dialogs#PARAMS_ROWID}にて取得可能です。
+	 * 
+	 * @param manager
+	 *            ダイアログの表示に用いる{@link FragmentManager}オブジェクト。
+	 * @param title
+	 *            タイトルとして表示する文字列を指定します。タイトルが不要な場合、""を指定します。
+	 * @param callback
+	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクトを指定します。
+	 * @param source
+	 *            選択肢を取得する{@link CursorChoiceSource}オブジェクトを指定します。
+	 */
+	public static final void showCursorChoiceDialog(FragmentManager manager,
+			String title, DialogCallback callback, CursorChoiceSource source) {
+		showCursorChoiceDialog(manager, title, null, callback, source);
+	}
+
+	/**
+	 * {@link Cursor}から選択肢を表示する多肢選択式ダイアログを表示します。 クエリはバックグラウンドで実行され、
+	 * 選択肢は{@link Cursor}から直接読み出されます。 {@link CursorChoiceSource#requery()}で選択肢を差し替えられます。
+	 * 選択された項目はコールバックメソッドのパラメータ {@link Dialogs#PARAMS_INPUTINDEX}、
+	 * {@link Dialogs#PARAMS_INPUTSTR}、{@link Dialogs#PARAMS_ROWID}にて取得可能です。
+	 * 
+	 * @param manager
+	 *            ダイアログの表示に用いる{@link FragmentManager}オブジェクト。
+	 * @param titleid
+	 *            タイトルとして表示する文字列のリソースIDを指定します。タイトルが不要な場合、0を指定します。
+	 * @param params
+	 *            その他追加パラメータを格納した{@link Bundle}オブジェクトを指定します。
+	 * @param callback
+	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクトを指定します。
+	 * @param source
+	 *            選択肢を取得する{@link CursorChoiceSource}オブジェクトを指定します。
+	 */
+	public static final void showCursorChoiceDialog(FragmentManager manager,
+			int titleid, Bundle params, DialogCallback callback,
+			CursorChoiceSource source) {
+		showCursorList(manager, null, new DialogSpec.Builder().params(params)
+				.title(titleid).build(), callback, source);
+	}
+
+	/**
+	 * {@link Cursor}から選択肢を表示する多肢選択式ダイアログを表示します。 クエリはバックグラウンドで実行され、
+	 * 選択肢は{@link Cursor}から直接読み出されます。 {@link CursorChoiceSource#requery()}で選択肢を差し替えられます。
+	 * 選択された項目はコールバックメソッドのパラメータ {@link Dialogs#PARAMS_INPUTINDEX}、
+	 * {@link Dialogs#PARAMS_INPUTSTR}、{@link Dialogs#PARAMS_ROWID}にて取得可能です。
+	 * 
+	 * @param manager
+	 *            ダイアログの表示に用いる{@link FragmentManager}オブジェクト。
+	 * @param titleid
+	 *            タイトルとして表示する文字列のリソースIDを指定します。タイトルが不要な場合、0を指定します。
+	 * @param callback
+	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクトを指定します。
+	 * @param source
+	 *            選択肢を取得する{@link CursorChoiceSource}オブジェクトを指定します。
+	 */
+	public static final void showCursorChoiceDialog(FragmentManager manager,
+			int titleid, DialogCallback callback, CursorChoiceSource source) {
+		showCursorChoiceDialog(manager, titleid, null, callback, source);
+	}
+
+	// FragmentTransactionを使うオーバーライド
+
+	/**
+	 * ボタンがOKのみのシンプルなアラートダイアログを表示します。
 	 * 
 	 * @param transaction
 	 *            ダイアログの表示に用いる{@link FragmentTransaction}オブジェクト。
@@ -1148,21 +1427,15 @@ public class Dialogs {
 	 * @param callback
 	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクトを指定します。
 	 */
-	public static final void showInputDialog(FragmentTransaction transaction,
+	public static final void showSimpleDialog(FragmentTransaction transaction,
 			String title, String message, Bundle params, DialogCallback callback) {
-		Bundle args = params != null ? new Bundle(params) : new Bundle();
-		args.putString(ALERT_TITLE, title);
-		args.putString(ALERT_MESSAGE, message);
-		args.putInt(ALERT_VIEWID, VIEWID_INPUTDLG);
-		if (!args.containsKey(ALERT_BUTTONS)) {
-			args.putInt(ALERT_BUTTONS, DIALOGBUTTON_POSITIVE_NEGATIVE);
-		}
-		showDialog(transaction, args, callback, null);
+		showDialog(transaction, new DialogSpec.Builder().params(params)
+				.title(title).message(message)
+				.defaultButtons(DIALOGBUTTON_POSITIVE).build(), callback, null);
 	}
 
 	/**
-	 * 文字列入力が可能なダイアログを表示します。 入力された値はコールバックメソッドのパラメータ
-	 * {@link Dialogs#PARAMS_INPUTSTR}にて取得可能です。
+	 * ボタンがOKのみのシンプルなアラートダイアログを表示します。
 	 * 
 	 * @param transaction
 	 *            ダイアログの表示に用いる{@link FragmentTransaction}オブジェクト。
@@ -1173,14 +1446,13 @@ public class Dialogs {
 	 * @param callback
 	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクトを指定します。
 	 */
-	public static final void showInputDialog(FragmentTransaction transaction,
+	public static final void showSimpleDialog(FragmentTransaction transaction,
 			String title, String message, DialogCallback callback) {
-		showInputDialog(transaction, title, message, null, callback);
+		showSimpleDialog(transaction, title, message, null, callback);
 	}
 
 	/**
-	 * 文字列入力が可能なダイアログを表示します。 入力された値はコールバックメソッドのパラメータ
-	 * {@link Dialogs#PARAMS_INPUTSTR}にて取得可能です。
+	 * ボタンがOKのみのシンプルなアラートダイアログを表示します。
 	 * 
 	 * @param transaction
 	 *            ダイアログの表示に用いる{@link FragmentTransaction}オブジェクト。
@@ -1193,21 +1465,15 @@ public class Dialogs {
 	 * @param callback
 	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクトを指定します。
 	 */
-	public static final void showInputDialog(FragmentTransaction transaction,
+	public static final void showSimpleDialog(FragmentTransaction transaction,
 			int titleid, int messageid, Bundle params, DialogCallback callback) {
-		Bundle args = params != null ? new Bundle(params) : new Bundle();
-		args.putInt(ALERT_TITLEID, titleid);
-		args.putInt(ALERT_MESSAGEID, messageid);
-		args.putInt(ALERT_VIEWID, VIEWID_INPUTDLG);
-		if (!args.containsKey(ALERT_BUTTONS)) {
-			args.putInt(ALERT_BUTTONS, DIALOGBUTTON_POSITIVE_NEGATIVE);
-		}
-		showDialog(transaction, args, callback, null);
+		showDialog(transaction, new DialogSpec.Builder().params(params)
+				.title(titleid).message(messageid)
+				.defaultButtons(DIALOGBUTTON_POSITIVE).build(), callback, null);
 	}
 
 	/**
-	 * 文字列入力が可能なダイアログを表示します。 入力された値はコールバックメソッドのパラメータ
-	 * {@link Dialogs#PARAMS_INPUTSTR}にて取得可能です。
+	 * ボタンがOKのみのシンプルなアラートダイアログを表示します。
 	 * 
 	 * @param transaction
 	 *            ダイアログの表示に用いる{@link FragmentTransaction}オブジェクト。
@@ -1218,45 +1484,35 @@ public class Dialogs {
 	 * @param callback
 	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクトを指定します。
 	 */
-	public static final void showInputDialog(FragmentTransaction transaction,
+	public static final void showSimpleDialog(FragmentTransaction transaction,
 			int titleid, int messageid, DialogCallback callback) {
-		showInputDialog(transaction, titleid, messageid, null, callback);
+		showSimpleDialog(transaction, titleid, messageid, null, callback);
 	}
 
 	/**
-	 * チェックボックスのついたダイアログを表示します。 チェックボックスの値はコールバックメソッドのパラメータ
-	 * {@link Dialogs#PARAMS_CHECKED}にて取得可能です。
+	 * 標準的なアラートダイアログを表示します。
 	 * 
 	 * @param transaction
-	 *            ダイアログの表示に用いる{@link FragmentTransaction}オブジェクトを指定します。
+	 *            ダイアログの表示に用いる{@link FragmentTransaction}オブジェクト。
 	 * @param title
-	 *            タイトルとして表示する文字列を指定します。タイトルが不要な場合、""を指定します。
+	 *            タイトルとして表示する文字列を指定します。
 	 * @param message
 	 *            メッセージとして表示する文字列を指定します。
-	 * @param checkmessage
-	 *            チェックボックスに表示するメッセージを指定します。
 	 * @param params
 	 *            その他追加パラメータを格納した{@link Bundle}オブジェクトを指定します。
 	 * @param callback
 	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクトを指定します。
 	 */
-	public static final void showCheckDialog(FragmentTransaction transaction,
-			String title, String message, String checkmessage, Bundle params,
-			DialogCallback callback) {
-		Bundle args = params != null ? new Bundle(params) : new Bundle();
-		args.putString(ALERT_TITLE, title);
-		args.putString(ALERT_MESSAGE, message);
-		args.putString(ALERT_APPENDMESSAGE, checkmessage);
-		args.putInt(ALERT_VIEWID, VIEWID_CHECKDLG);
-		if (!args.containsKey(ALERT_BUTTONS)) {
-			args.putInt(ALERT_BUTTONS, DIALOGBUTTON_POSITIVE_NEGATIVE);
-		}
-		showDialog(transaction, args, callback, null);
+	public static final void showAlertDialog(FragmentTransaction transaction,
+			String title, String message, Bundle params, DialogCallback callback) {
+		showDialog(transaction, new DialogSpec.Builder().params(params)
+				.title(title).message(message)
+				.defaultButtons(DIALOGBUTTON_POSITIVE_NEGATIVE).build(),
+				callback, null);
 	}
 
 	/**
-	 * チェックボックスのついたダイアログを表示します。 チェックボックスの値はコールバックメソッドのパラメータ
-	 * {@link Dialogs#PARAMS_CHECKED}にて取得可能です。
+	 * 標準的なアラートダイアログを表示します。
 	 * 
 	 * @param transaction
 	 *            ダイアログの表示に用いる{@link FragmentTransaction}オブジェクト。
@@ -1264,21 +1520,16 @@ public class Dialogs {
 	 *            タイトルとして表示する文字列を指定します。タイトルが不要な場合、""を指定します。
 	 * @param message
 	 *            メッセージとして表示する文字列を指定します。
-	 * @param checkmessage
-	 *            チェックボックスに表示するメッセージを指定します。
 	 * @param callback
 	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクトを指定します。
 	 */
-	public static final void showCheckDialog(FragmentTransaction transaction,
-			String title, String message, String checkmessage,
-			DialogCallback callback) {
-		showCheckDialog(transaction, title, message, checkmessage, null,
-				callback);
+	public static final void showAlertDialog(FragmentTransaction transaction,
+			String title, String message, DialogCallback callback) {
+		showAlertDialog(transaction, title, message, null, callback);
 	}
 
 	/**
-	 * チェックボックスのついたダイアログを表示します。 チェックボックスの値はコールバックメソッドのパラメータ
-	 * {@link Dialogs#PARAMS_CHECKED}にて取得可能です。
+	 * 標準的なアラートダイアログを表示します。
 	 * 
 	 * @param transaction
 	 *            ダイアログの表示に用いる{@link FragmentTransaction}オブジェクト。
@@ -1286,30 +1537,21 @@ public class Dialogs {
 	 *            タイトルとして表示する文字列のリソースIDを指定します。タイトルが不要な場合、0を指定します。
 	 * @param messageid
 	 *            メッセージとして表示する文字列のリソースIDを指定します。
-	 * @param checkmessageid
-	 *            チェックボックスに表示するメッセージのリソースIDを指定します。
 	 * @param params
 	 *            その他追加パラメータを格納した{@link Bundle}オブジェクトを指定します。
 	 * @param callback
 	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクトを指定します。
 	 */
-	public static final void showCheckDialog(FragmentTransaction transaction,
-			int titleid, int messageid, int checkmessageid, Bundle params,
-			DialogCallback callback) {
-		Bundle args = params != null ? new Bundle(params) : new Bundle();
-		args.putInt(ALERT_TITLEID, titleid);
-		args.putInt(ALERT_MESSAGEID, messageid);
-		args.putInt(ALERT_APPENDMESSAGEID, checkmessageid);
-		args.putInt(ALERT_VIEWID, VIEWID_CHECKDLG);
-		if (!args.containsKey(ALERT_BUTTONS)) {
-			args.putInt(ALERT_BUTTONS, DIALOGBUTTON_POSITIVE_NEGATIVE);
-		}
-		showDialog(transaction, args, callback, null);
+	public static final void showAlertDialog(FragmentTransaction transaction,
+			int titleid, int messageid, Bundle params, DialogCallback callback) {
+		showDialog(transaction, new DialogSpec.Builder().params(params)
+				.title(titleid).message(messageid)
+				.defaultButtons(DIALOGBUTTON_POSITIVE_NEGATIVE).build(),
+				callback, null);
 	}
 
 	/**
-	 * チェックボックスのついたダイアログを表示します。 チェックボックスの値はコールバックメソッドのパラメータ
-	 * {@link Dialogs#PARAMS_CHECKED}にて取得可能です。
+	 * 標準的なアラートダイアログを表示します。
 	 * 
 	 * @param transaction
 	 *            ダイアログの表示に用いる{@link FragmentTransaction}オブジェクト。
@@ -1317,148 +1559,2025 @@ public class Dialogs {
 	 *            タイトルとして表示する文字列のリソースIDを指定します。タイトルが不要な場合、0を指定します。
 	 * @param messageid
 	 *            メッセージとして表示する文字列のリソースIDを指定します。
-	 * @param checkmessageid
-	 *            チェックボックスに表示するメッセージのリソースIDを指定します。
 	 * @param callback
 	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクトを指定します。
 	 */
-	public static final void showCheckDialog(FragmentTransaction transaction,
-			int titleid, int messageid, int checkmessageid,
-			DialogCallback callback) {
-		showCheckDialog(transaction, titleid, messageid, checkmessageid, null,
-				callback);
+	public static final void showAlertDialog(FragmentTransaction transaction,
+			int titleid, int messageid, DialogCallback callback) {
+		showAlertDialog(transaction, titleid, messageid, null, callback);
 	}
 
 	/**
-	 * 独自ビューを表示するダイアログを表示します。
+	 * 標準的な多肢選択式ダイアログを表示します。
 	 * 
 	 * @param transaction
 	 *            ダイアログの表示に用いる{@link FragmentTransaction}オブジェクト。
 	 * @param title
 	 *            タイトルとして表示する文字列を指定します。タイトルが不要な場合、""を指定します。
-	 * @param view
-	 *            表示するビューオブジェクトを指定します。
 	 * @param params
 	 *            その他追加パラメータを格納した{@link Bundle}オブジェクトを指定します。
 	 * @param callback
 	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクトを指定します。
+	 * @param choices
+	 *            ダイアログに表示される選択肢を指定します。
 	 */
-	public static final void showCustomDialog(FragmentTransaction transaction,
-			String title, View view, Bundle params, DialogCallback callback) {
-		Bundle args = params != null ? new Bundle(params) : new Bundle();
-		args.putString(ALERT_TITLE, title);
-		if (!args.containsKey(ALERT_BUTTONS)) {
-			args.putInt(ALERT_BUTTONS, DIALOGBUTTON_POSITIVE_NEGATIVE);
-		}
-		showDialog(transaction, args, callback, null);
+	public static final void showChoiceDialog(FragmentTransaction transaction,
+			String title, Bundle params, DialogCallback callback,
+			String... choices) {
+		showDialog(transaction, new DialogSpec.Builder().params(params)
+				.title(title).items(choices).build(), callback, null);
 	}
 
 	/**
-	 * 独自ビューを表示するダイアログを表示します。
+	 * 標準的な多肢選択式ダイアログを表示します。
 	 * 
 	 * @param transaction
 	 *            ダイアログの表示に用いる{@link FragmentTransaction}オブジェクト。
 	 * @param title
 	 *            タイトルとして表示する文字列を指定します。タイトルが不要な場合、""を指定します。
-	 * @param view
-	 *            表示するビューオブジェクトを指定します。
 	 * @param callback
 	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクトを指定します。
+	 * @param choices
+	 *            ダイアログに表示される選択肢を指定します。
 	 */
-	public static final void showCustomDialog(FragmentTransaction transaction,
-			String title, View view, DialogCallback callback) {
-		showCustomDialog(transaction, title, view, null, callback);
+	public static final void showChoiceDialog(FragmentTransaction transaction,
+			String title, DialogCallback callback, String... choices) {
+		showChoiceDialog(transaction, title, null, callback, choices);
 	}
 
 	/**
-	 * 独自ビューを表示するダイアログを表示します。
+	 * 標準的な多肢選択式ダイアログを表示します。
 	 * 
 	 * @param transaction
 	 *            ダイアログの表示に用いる{@link FragmentTransaction}オブジェクト。
 	 * @param titleid
 	 *            タイトルとして表示する文字列のリソースIDを指定します。タイトルが不要な場合、0を指定します。
-	 * @param view
-	 *            表示するビューオブジェクトを指定します。
 	 * @param params
 	 *            その他追加パラメータを格納した{@link Bundle}オブジェクトを指定します。
 	 * @param callback
 	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクトを指定します。
+	 * @param choiceslistid
+	 *            ダイアログに表示される選択肢を示すリソースIDを指定します。
 	 */
-	public static final void showCustomDialog(FragmentTransaction transaction,
-			int titleid, View view, Bundle params, DialogCallback callback) {
-		Bundle args = params != null ? new Bundle(params) : new Bundle();
-		args.putInt(ALERT_TITLEID, titleid);
-		if (!args.containsKey(ALERT_BUTTONS)) {
-			args.putInt(ALERT_BUTTONS, DIALOGBUTTON_POSITIVE_NEGATIVE);
-		}
-		showDialog(transaction, args, callback, null);
+	public static final void showChoiceDialog(FragmentTransaction transaction,
+			int titleid, Bundle params, DialogCallback callback,
+			int choiceslistid) {
+		showDialog(transaction, new DialogSpec.Builder().params(params)
+				.title(titleid).items(choiceslistid).build(), callback, null);
 	}
 
 	/**
-	 * 独自ビューを表示するダイアログを表示します。
+	 * 標準的な多肢選択式ダイアログを表示します。
 	 * 
 	 * @param transaction
 	 *            ダイアログの表示に用いる{@link FragmentTransaction}オブジェクト。
 	 * @param titleid
 	 *            タイトルとして表示する文字列のリソースIDを指定します。タイトルが不要な場合、0を指定します。
-	 * @param view
-	 *            表示するビューオブジェクトを指定します。
 	 * @param callback
 	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクトを指定します。
+	 * @param choiceslistid
+	 *            ダイアログに表示される選択肢を示すリソースIDを指定します。
 	 */
-	public static final void showCustomDialog(FragmentTransaction transaction,
-			int titleid, View view, DialogCallback callback) {
-		showCustomDialog(transaction, titleid, view, null, callback);
+	public static final void showChoiceDialog(FragmentTransaction transaction,
+			int titleid, DialogCallback callback, int choiceslistid) {
+		showChoiceDialog(transaction, titleid, null, callback, choiceslistid);
 	}
 
-	// 最終的に呼び出されるメソッド
-
 	/**
-	 * アラートダイアログを表示します。
+	 * 文字列入力が可能なダイアログを表示します。 入力された値はコールバックメソッドのパラメータ
+	 * {@link Dialogs#PARAMS_INPUTSTR}にて取得可能です。
 	 * 
 	 * @param transaction
 	 *            ダイアログの表示に用いる{@link FragmentTransaction}オブジェクト。
+	 * @param title
+	 *            タイトルとして表示する文字列を指定します。タイトルが不要な場合、""を指定します。
+	 * @param message
+	 *            メッセージとして表示する文字列を指定します。
 	 * @param params
-	 *            ダイアログのパラメータを指定します。
+	 *            その他追加パラメータを格納した{@link Bundle}オブジェクトを指定します。
 	 * @param callback
 	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクトを指定します。
-	 * @param v
-	 *            ダイアログに表示されるビューを指定します。
 	 */
-	public static final void showDialog(FragmentManager manager, Bundle params,
-			DialogCallback callback, View v) {
-		String tagStr = String.valueOf(tag++);
+	public static final void showInputDialog(FragmentTransaction transaction,
+			String title, String message, Bundle params, DialogCallback callback) {
+		showDialog(transaction, new DialogSpec.Builder().params(params)
+				.title(title).message(message).viewType(VIEWID_INPUTDLG)
+				.defaultButtons(DIALOGBUTTON_POSITIVE_NEGATIVE).build(),
+				callback, null);
+	}
 
-		// staticなメモリにデータを保存
-		dialogData.put(tagStr, new DialogData(v, callback));
-		// 表示
-		InternalDialogFragment dialog = new InternalDialogFragment();
-		dialog.setArguments(params);
-		dialog.show(manager, String.valueOf(tagStr));
+	/**
+	 * 文字列入力が可能なダイアログを表示します。 入力された値はコールバックメソッドのパラメータ
+	 * {@link Dialogs#PARAMS_INPUTSTR}にて取得可能です。
+	 * 
+	 * @param transaction
+	 *            ダイアログの表示に用いる{@link FragmentTransaction}オブジェクト。
+	 * @param title
+	 *            タイトルとして表示する文字列を指定します。タイトルが不要な場合、""を指定します。
+	 * @param message
+	 *            メッセージとして表示する文字列を指定します。
+	 * @param callback
+	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクトを指定します。
+	 */
+	public static final void showInputDialog(FragmentTransaction transaction,
+			String title, String message, DialogCallback callback) {
+		showInputDialog(transaction, title, message, null, callback);
 	}
 
 	/**
-	 * アラートダイアログを表示します。
+	 * 文字列入力が可能なダイアログを表示します。 入力された値はコールバックメソッドのパラメータ
+	 * {@link Dialogs#PARAMS_INPUTSTR}にて取得可能です。
 	 * 
 	 * @param transaction
 	 *            ダイアログの表示に用いる{@link FragmentTransaction}オブジェクト。
+	 * @param titleid
+	 *            タイトルとして表示する文字列のリソースIDを指定します。タイトルが不要な場合、0を指定します。
+	 * @param messageid
+	 *            メッセージとして表示する文字列のリソースIDを指定します。
 	 * @param params
-	 *            ダイアログのパラメータを指定します。
+	 *            その他追加パラメータを格納した{@link Bundle}オブジェクトを指定します。
 	 * @param callback
 	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクトを指定します。
-	 * @param v
-	 *            ダイアログに表示されるビューを指定します。
 	 */
-	public static final void showDialog(FragmentTransaction transaction,
-			Bundle params, DialogCallback callback, View v) {
-		String tagStr = String.valueOf(tag++);
+	public static final void showInputDialog(FragmentTransaction transaction,
+			int titleid, int messageid, Bundle params, DialogCallback callback) {
+		showDialog(transaction, new DialogSpec.Builder().params(params)
+				.title(titleid).message(messageid).viewType(VIEWID_INPUTDLG)
+				.defaultButtons(DIALOGBUTTON_POSITIVE_NEGATIVE).build(),
+				callback, null);
+	}
 
-		// staticなメモリにデータを保存
-		dialogData.put(tagStr, new DialogData(v, callback));
-		// 表示
-		InternalDialogFragment dialog = new InternalDialogFragment();
-		dialog.setArguments(params);
-		dialog.show(transaction, String.valueOf(tagStr));
+	/**
+	 * 文字列入力が可能なダイアログを表示します。 入力された値はコールバックメソッドのパラメータ
+	 * {@link Dialogs#PARAMS_INPUTSTR}にて取得可能です。
+	 * 
+	 * @param transaction
+	 *            ダイアログの表示に用いる{@link FragmentTransaction}オブジェクト。
+	 * @param titleid
+	 *            タイトルとして表示する文字列のリソースIDを指定します。タイトルが不要な場合、0を指定します。
+	 * @param messageid
+	 *            メッセージとして表示する文字列のリソースIDを指定します。
+	 * @param callback
+	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクトを指定します。
+	 */
+	public static final void showInputDialog(FragmentTransaction transaction,
+			int titleid, int messageid, DialogCallback callback) {
+		showInputDialog(transaction, titleid, messageid, null, callback);
+	}
+
+	/**
+	 * チェックボックスのついたダイアログを表示します。 チェックボックスの値はコールバックメソッドのパラメータ
+	 * {@link Dialogs#PARAMS_CHECKED}にて取得可能です。
+	 * 
+	 * @param transaction
+	 *            ダイアログの表示に用いる{@link FragmentTransaction}オブジェクトを指定します。
+	 * @param title
+	 *            タイトルとして表示する文字列を指定します。タイトルが不要な場合、""を指定します。
+	 * @param message
+	 *            メッセージとして表示する文字列を指定します。
+	 * @param checkmessage
+	 *            チェックボックスに表示するメッセージを指定します。
+	 * @param params
+	 *            その他追加パラメータを格納した{@link Bundle}オブジェクトを指定します。
+	 * @param callback
+	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクトを指定します。
+	 */
+	public static final void showCheckDialog(FragmentTransaction transaction,
+			String title, String message, String checkmessage, Bundle params,
+			DialogCallback callback) {
+		showDialog(transaction, new DialogSpec.Builder().params(params)
+				.title(title).message(message).checkMessage(checkmessage)
+				.defaultButtons(DIALOGBUTTON_POSITIVE_NEGATIVE).build(),
+				callback, null);
+	}
+
+	/**
+	 * チェックボックスのついたダイアログを表示します。 チェックボックスの値はコールバックメソッドのパラメータ
+	 * {@link Dialogs#PARAMS_CHECKED}にて取得可能です。
+	 * 
+	 * @param transaction
+	 *            ダイアログの表示に用いる{@link FragmentTransaction}オブジェクト。
+	 * @param title
+	 *            タイトルとして表示する文字列を指定します。タイトルが不要な場合、""を指定します。
+	 * @param message
+	 *            メッセージとして表示する文字列を指定します。
+	 * @param checkmessage
+	 *            チェックボックスに表示するメッセージを指定します。
+	 * @param callback
+	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクトを指定します。
+	 */
+	public static final void showCheckDialog(FragmentTransaction transaction,
+			String title, String message, String checkmessage,
+			DialogCallback callback) {
+		showCheckDialog(transaction, title, message, checkmessage, null,
+				callback);
+	}
+
+	/**
+	 * チェックボックスのついたダイアログを表示します。 チェックボックスの値はコールバックメソッドのパラメータ
+	 * {@link Dialogs#PARAMS_CHECKED}にて取得可能です。
+	 * 
+	 * @param transaction
+	 *            ダイアログの表示に用いる{@link FragmentTransaction}オブジェクト。
+	 * @param titleid
+	 *            タイトルとして表示する文字列のリソースIDを指定します。タイトルが不要な場合、0を指定します。
+	 * @param messageid
+	 *            メッセージとして表示する文字列のリソースIDを指定します。
+	 * @param checkmessageid
+	 *            チェックボックスに表示するメッセージのリソースIDを指定します。
+	 * @param params
+	 *            その他追加パラメータを格納した{@link Bundle}オブジェクトを指定します。
+	 * @param callback
+	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクトを指定します。
+	 */
+	public static final void showCheckDialog(FragmentTransaction transaction,
+			int titleid, int messageid, int checkmessageid, Bundle params,
+			DialogCallback callback) {
+		showDialog(transaction, new DialogSpec.Builder().params(params)
+				.title(titleid).message(messageid).checkMessage(checkmessageid)
+				.defaultButtons(DIALOGBUTTON_POSITIVE_NEGATIVE).build(),
+				callback, null);
+	}
+
+	/**
+	 * チェックボックスのついたダイアログを表示します。 チェックボックスの値はコールバックメソッドのパラメータ
+	 * {@link Dialogs#PARAMS_CHECKED}にて取得可能です。
+	 * 
+	 * @param transaction
+	 *            ダイアログの表示に用いる{@link FragmentTransaction}オブジェクト。
+	 * @param titleid
+	 *            タイトルとして表示する文字列のリソースIDを指定します。タイトルが不要な場合、0を指定します。
+	 * @param messageid
+	 *            メッセージとして表示する文字列のリソースIDを指定します。
+	 * @param checkmessageid
+	 *            チェックボックスに表示するメッセージのリソースIDを指定します。
+	 * @param callback
+	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクトを指定します。
+	 */
+	public static final void showCheckDialog(FragmentTransaction transaction,
+			int titleid, int messageid, int checkmessageid,
+			DialogCallback callback) {
+		showCheckDialog(transaction, titleid, messageid, checkmessageid, null,
+				callback);
+	}
+
+	/**
+	 * 独自ビューを表示するダイアログを表示します。
+	 * 
+	 * @param transaction
+	 *            ダイアログの表示に用いる{@link FragmentTransaction}オブジェクト。
+	 * @param title
+	 *            タイトルとして表示する文字列を指定します。タイトルが不要な場合、""を指定します。
+	 * @param view
+	 *            表示するビューオブジェクトを指定します。
+	 * @param params
+	 *            その他追加パラメータを格納した{@link Bundle}オブジェクトを指定します。
+	 * @param callback
+	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクトを指定します。
+	 */
+	public static final void showCustomDialog(FragmentTransaction transaction,
+			String title, View view, Bundle params, DialogCallback callback) {
+		showDialog(transaction, new DialogSpec.Builder().params(params)
+				.title(title).defaultButtons(DIALOGBUTTON_POSITIVE_NEGATIVE)
+				.build(), callback, view);
+	}
+
+	/**
+	 * 独自ビューを表示するダイアログを表示します。
+	 * 
+	 * @param transaction
+	 *            ダイアログの表示に用いる{@link FragmentTransaction}オブジェクト。
+	 * @param title
+	 *            タイトルとして表示する文字列を指定します。タイトルが不要な場合、""を指定します。
+	 * @param view
+	 *            表示するビューオブジェクトを指定します。
+	 * @param callback
+	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクトを指定します。
+	 */
+	public static final void showCustomDialog(FragmentTransaction transaction,
+			String title, View view, DialogCallback callback) {
+		showCustomDialog(transaction, title, view, null, callback);
+	}
+
+	/**
+	 * 独自ビューを表示するダイアログを表示します。
+	 * 
+	 * @param transaction
+	 *            ダイアログの表示に用いる{@link FragmentTransaction}オブジェクト。
+	 * @param titleid
+	 *            タイトルとして表示する文字列のリソースIDを指定します。タイトルが不要な場合、0を指定します。
+	 * @param view
+	 *            表示するビューオブジェクトを指定します。
+	 * @param params
+	 *            その他追加パラメータを格納した{@link Bundle}オブジェクトを指定します。
+	 * @param callback
+	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクトを指定します。
+	 */
+	public static final void showCustomDialog(FragmentTransaction transaction,
+			int titleid, View view, Bundle params, DialogCallback callback) {
+		showDialog(transaction, new DialogSpec.Builder().params(params)
+				.title(titleid).defaultButtons(DIALOGBUTTON_POSITIVE_NEGATIVE)
+				.build(), callback, view);
+	}
+
+	/**
+	 * 独自ビューを表示するダイアログを表示します。
+	 * 
+	 * @param transaction
+	 *            ダイアログの表示に用いる{@link FragmentTransaction}オブジェクト。
+	 * @param titleid
+	 *            タイトルとして表示する文字列のリソースIDを指定します。タイトルが不要な場合、0を指定します。
+	 * @param view
+	 *            表示するビューオブジェクトを指定します。
+	 * @param callback
+	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクトを指定します。
+	 */
+	public static final void showCustomDialog(FragmentTransaction transaction,
+			int titleid, View view, DialogCallback callback) {
+		showCustomDialog(transaction, titleid, view, null, callback);
+	}
+
+	/**
+	 * 独自ビューを表示するダイアログを表示します。 ビューはダイアログの生成時に生成され、閉じられた時点で解放されます。
+	 * 
+	 * @param transaction
+	 *            ダイアログの表示に用いる{@link FragmentTransaction}オブジェクト。
+	 * @param title
+	 *            タイトルとして表示する文字列を指定します。タイトルが不要な場合、""を指定します。
+	 * @param factory
+	 *            表示するビューを生成する{@link ViewFactory}オブジェクトを指定します。
+	 * @param params
+	 *            その他追加パラメータを格納した{@link Bundle}オブジェクトを指定します。
+	 * @param callback
+	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクトを指定します。
+	 */
+	public static final void showCustomDialog(FragmentTransaction transaction,
+			String title, ViewFactory factory, Bundle params,
+			DialogCallback callback) {
+		showCustomDialog(transaction, new DialogSpec.Builder().params(params)
+				.title(title).defaultButtons(DIALOGBUTTON_POSITIVE_NEGATIVE)
+				.build(), callback, factory);
+	}
+
+	/**
+	 * 独自ビューを表示するダイアログを表示します。 ビューはダイアログの生成時に生成され、閉じられた時点で解放されます。
+	 * 
+	 * @param transaction
+	 *            ダイアログの表示に用いる{@link FragmentTransaction}オブジェクト。
+	 * @param title
+	 *            タイトルとして表示する文字列を指定します。タイトルが不要な場合、""を指定します。
+	 * @param factory
+	 *            表示するビューを生成する{@link ViewFactory}オブジェクトを指定します。
+	 * @param callback
+	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクトを指定します。
+	 */
+	public static final void showCustomDialog(FragmentTransaction transaction,
+			String title, ViewFactory factory, DialogCallback callback) {
+		showCustomDialog(transaction, title, factory, null, callback);
+	}
+
+	/**
+	 * 独自ビューを表示するダイアログを表示します。 ビューはダイアログの生成時に生成され、閉じられた時点で解放されます。
+	 * 
+	 * @param transaction
+	 *            ダイアログの表示に用いる{@link FragmentTransaction}オブジェクト。
+	 * @param titleid
+	 *            タイトルとして表示する文字列のリソースIDを指定します。タイトルが不要な場合、0を指定します。
+	 * @param factory
+	 *            表示するビューを生成する{@link ViewFactory}オブジェクトを指定します。
+	 * @param params
+	 *            その他追加パラメータを格納した{@link Bundle}オブジェクトを指定します。
+	 * @param callback
+	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクトを指定します。
+	 */
+	public static final void showCustomDialog(FragmentTransaction transaction,
+			int titleid, ViewFactory factory, Bundle params,
+			DialogCallback callback) {
+		showCustomDialog(transaction, new DialogSpec.Builder().params(params)
+				.title(titleid).defaultButtons(DIALOGBUTTON_POSITIVE_NEGATIVE)
+				.build(), callback, factory);
+	}
+
+	/**
+	 * 独自ビューを表示するダイアログを表示します。 ビューはダイアログの生成時に生成され、閉じられた時点で解放されます。
+	 * 
+	 * @param transaction
+	 *            ダイアログの表示に用いる{@link FragmentTransaction}オブジェクト。
+	 * @param titleid
+	 *            タイトルとして表示する文字列のリソースIDを指定します。タイトルが不要な場合、0を指定します。
+	 * @param factory
+	 *            表示するビューを生成する{@link ViewFactory}オブジェクトを指定します。
+	 * @param callback
+	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクトを指定します。
+	 */
+	public static final void showCustomDialog(FragmentTransaction transaction,
+			int titleid, ViewFactory factory, DialogCallback callback) {
+		showCustomDialog(transaction, titleid, factory, null, callback);
+	}
+
+	/**
+	 * 大量の選択肢を持つ多肢選択式ダイアログを表示します。 選択肢の行は表示される分だけ生成され、
+	 * 選択肢の配列はダイアログの引数にコピーされません。 選択された項目はコールバックメソッドのパラメータ
+	 * {@link Dialogs#PARAMS_INPUTINDEX}にて取得可能です。
+	 * 
+	 * @param transaction
+	 *            ダイアログの表示に用いる{@link FragmentTransaction}オブジェクト。
+	 * @param title
+	 *            タイトルとして表示する文字列を指定します。タイトルが不要な場合、""を指定します。
+	 * @param params
+	 *            その他追加パラメータを格納した{@link Bundle}オブジェクトを指定します。
+	 * @param callback
+	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクトを指定します。
+	 * @param choices
+	 *            ダイアログに表示される選択肢を指定します。先頭文字で並べ替えられている場合、高速スクロール用の索引が作成されます。
+	 */
+	public static final void showLargeChoiceDialog(FragmentTransaction transaction,
+			String title, Bundle params, DialogCallback callback,
+			String... choices) {
+		showChoiceList(null, transaction, new DialogSpec.Builder().params(params)
+				.title(title).build(), callback, choices);
+	}
+
+	/**
+	 * 大量の選択肢を持つ多肢選択式ダイアログを表示します。 選択肢の行は表示される分だけ生成され、
+	 * 選択肢の配列はダイアログの引数にコピーされません。 選択された項目はコールバックメソッドのパラメータ
+	 * {@link Dialogs#PARAMS_INPUTINDEX}にて取得可能です。
+	 * 
+	 * @param transaction
+	 *            ダイアログの表示に用いる{@link FragmentTransaction}オブジェクト。
+	 * @param title
+	 *            タイトルとして表示する文字列を指定します。タイトルが不要な場合、""を指定します。
+	 * @param callback
+	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクトを指定します。
+	 * @param choices
+	 *            ダイアログに表示される選択肢を指定します。先頭文字で並べ替えられている場合、高速スクロール用の索引が作成されます。
+	 */
+	public static final void showLargeChoiceDialog(FragmentTransaction transaction,
+			String title, DialogCallback callback, String... choices) {
+		showLargeChoiceDialog(transaction, title, null, callback, choices);
+	}
+
+	/**
+	 * 大量の選択肢を持つ多肢選択式ダイアログを表示します。 選択肢の行は表示される分だけ生成され、
+	 * 選択肢の配列はダイアログの引数にコピーされません。 選択された項目はコールバックメソッドのパラメータ
+	 * {@link Dialogs#PARAMS_INPUTINDEX}にて取得可能です。
+	 * 
+	 * @param transaction
+	 *            ダイアログの表示に用いる{@link FragmentTransaction}オブジェクト。
+	 * @param titleid
+	 *            タイトルとして表示する文字列のリソースIDを指定します。タイトルが不要な場合、0を指定します。
+	 * @param params
+	 *            その他追加パラメータを格納した{@link Bundle}オブジェクトを指定します。
+	 * @param callback
+	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクトを指定します。
+	 * @param choices
+	 *            ダイアログに表示される選択肢を指定します。先頭文字で並べ替えられている場合、高速スクロール用の索引が作成されます。
+	 */
+	public static final void showLargeChoiceDialog(FragmentTransaction transaction,
+			int titleid, Bundle params, DialogCallback callback,
+			String... choices) {
+		showChoiceList(null, transaction, new DialogSpec.Builder().params(params)
+				.title(titleid).build(), callback, choices);
+	}
+
+	/**
+	 * 大量の選択肢を持つ多肢選択式ダイアログを表示します。 選択肢の行は表示される分だけ生成され、
+	 * 選択肢の配列はダイアログの引数にコピーされません。 選択された項目はコールバックメソッドのパラメータ
+	 * {@link Dialogs#PARAMS_INPUTINDEX}にて取得可能です。
+	 * 
+	 * @param transaction
+	 *            ダイアログの表示に用いる{@link FragmentTransaction}オブジェクト。
+	 * @param titleid
+	 *            タイトルとして表示する文字列のリソースIDを指定します。タイトルが不要な場合、0を指定します。
+	 * @param callback
+	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクトを指定します。
+	 * @param choices
+	 *            ダイアログに表示される選択肢を指定します。先頭文字で並べ替えられている場合、高速スクロール用の索引が作成されます。
+	 */
+	public static final void showLargeChoiceDialog(FragmentTransaction transaction,
+			int titleid, DialogCallback callback, String... choices) {
+		showLargeChoiceDialog(transaction, titleid, null, callback, choices);
+	}
+
+	/**
+	 * 選択肢をページ単位で読み込む多肢選択式ダイアログを表示します。 選択肢は表示位置に応じてバックグラウンドで読み込まれ、
+	 * 表示位置から離れたページは破棄されます。 選択された項目はコールバックメソッドのパラメータ
+	 * {@link Dialogs#PARAMS_INPUTINDEX}、{@link Dialogs#PARAMS_INPUTSTR}にて取得可能です。
+	 * 
+	 * @param transaction
+	 *            ダイアログの表示に用いる{@link FragmentTransaction}オブジェクト。
+	 * @param title
+	 *            タイトルとして表示する文字列を指定します。タイトルが不要な場合、""を指定します。
+	 * @param params
+	 *            その他追加パラメータを格納した{@link Bundle}オブジェクトを指定します。{@link #ALERT_PAGESIZE}、
+	 *            {@link #ALERT_PREFETCH}にて読み込みの単位を指定できます。
+	 * @param callback
+	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクトを指定します。
+	 * @param source
+	 *            選択肢を読み込む{@link PagedChoiceSource}オブジェクトを指定します。
+	 */
+	public static final void showPagedChoiceDialog(FragmentTransaction transaction,
+			String title, Bundle params, DialogCallback callback,
+			PagedChoiceSource source) {
+		showPagedList(null, transaction, new DialogSpec.Builder().params(params)
+				.title(title).build(), callback, source);
+	}
+
+	/**
+	 * 選択肢をページ単位で読み込む多肢選択式ダイアログを表示します。 選択肢は表示位置に応じてバックグラウンドで読み込まれ、
+	 * 表示位置から離れたページは破棄されます。 選択された項目はコールバックメソッドのパラメータ
+	 * {@link Dialogs#PARAMS_INPUTINDEX}、{@link Dialogs#PARAMS_INPUTSTR}にて取得可能です。
+	 * 
+	 * @param transaction
+	 *            ダイアログの表示に用いる{@link FragmentTransaction}オブジェクト。
+	 * @param title
+	 *            タイトルとして表示する文字列を指定します。タイトルが不要な場合、""を指定します。
+	 * @param callback
+	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクトを指定します。
+	 * @param source
+	 *            選択肢を読み込む{@link PagedChoiceSource}オブジェクトを指定します。
+	 */
+	public static final void showPagedChoiceDialog(FragmentTransaction transaction,
+			String title, DialogCallback callback, PagedChoiceSource source) {
+		showPagedChoiceDialog(transaction, title, null, callback, source);
+	}
+
+	/**
+	 * 選択肢をページ単位で読み込む多肢選択式ダイアログを表示します。 選択肢は表示位置に応じてバックグラウンドで読み込まれ、
+	 * 表示位置から離れたページは破棄されます。 選択された項目はコールバックメソッドのパラメータ
+	 * {@link Dialogs#PARAMS_INPUTINDEX}、{@link Dialogs#PARAMS_INPUTSTR}にて取得可能です。
+	 * 
+	 * @param transaction
+	 *            ダイアログの表示に用いる{@link FragmentTransaction}オブジェクト。
+	 * @param titleid
+	 *            タイトルとして表示する文字列のリソースIDを指定します。タイトルが不要な場合、0を指定します。
+	 * @param params
+	 *            その他追加パラメータを格納した{@link Bundle}オブジェクトを指定します。{@link #ALERT_PAGESIZE}、
+	 *            {@link #ALERT_PREFETCH}にて読み込みの単位を指定できます。
+	 * @param callback
+	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクトを指定します。
+	 * @param source
+	 *            選択肢を読み込む{@link PagedChoiceSource}オブジェクトを指定します。
+	 */
+	public static final void showPagedChoiceDialog(FragmentTransaction transaction,
+			int titleid, Bundle params, DialogCallback callback,
+			PagedChoiceSource source) {
+		showPagedList(null, transaction, new DialogSpec.Builder().params(params)
+				.title(titleid).build(), callback, source);
+	}
+
+	/**
+	 * 選択肢をページ単位で読み込む多肢選択式ダイアログを表示します。 選択肢は表示位置に応じてバックグラウンドで読み込まれ、
+	 * 表示位置から離れたページは破棄されます。 選択された項目はコールバックメソッドのパラメータ
+	 * {@link Dialogs#PARAMS_INPUTINDEX}、{@link Dialogs#PARAMS_INPUTSTR}にて取得可能です。
+	 * 
+	 * @param transaction
+	 *            ダイアログの表示に用いる{@link FragmentTransaction}オブジェクト。
+	 * @param titleid
+	 *            タイトルとして表示する文字列のリソースIDを指定します。タイトルが不要な場合、0を指定します。
+	 * @param callback
+	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクトを指定します。
+	 * @param source
+	 *            選択肢を読み込む{@link PagedChoiceSource}オブジェクトを指定します。
+	 */
+	public static final void showPagedChoiceDialog(FragmentTransaction transaction,
+			int titleid, DialogCallback callback, PagedChoiceSource source) {
+		showPagedChoiceDialog(transaction, titleid, null, callback, source);
+	}
+
+	/**
+	 * {@link Cursor}から選択肢を表示する多肢選択式ダイアログを表示します。 クエリはバックグラウンドで実行され、
+	 * 選択肢は{@link Cursor}から直接読み出されます。 {@link CursorChoiceSource#requery()}で選択肢を差し替えられます。
+	 * 選択された項目はコールバックメソッドのパラメータ {@link Dialogs#PARAMS_INPUTINDEX}、
+	 * {@link Dialogs#PARAMS_INPUTSTR}、{@link Dialogs#PARAMS_ROWID}にて取得可能です。
+	 * 
+	 * @param transaction
+	 *            ダイアログの表示に用いる{@link FragmentTransaction}オブジェクト。
+	 * @param title
+	 *            タイトルとして表示する文字列を指定します。タイトルが不要な場合、""を指定します。
+	 * @param params
+	 *            その他追加パラメータを格納した{@link Bundle}オブジェクトを指定します。
+	 * @param callback
+	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクトを指定します。
+	 * @param source
+	 *            選択肢を取得する{@link CursorChoiceSource}オブジェクトを指定します。
+	 */
+	public static final void showCursorChoiceDialog(FragmentTransaction transaction,
+			String title, Bundle params, DialogCallback callback,
+			CursorChoiceSource source) {
+		showCursorList(null, transaction, new DialogSpec.Builder().params(params)
+				.title(title).build(), callback, source);
+	}
+
+	/**
+	 * {@link Cursor}から選択肢を表示する多肢選択式ダイアログを表示します。 クエリはバックグラウンドで実行され、
+	 * 選択肢は{@link Cursor}から直接読み出されます。 {@link CursorChoiceSource#requery()}で選択肢を差し替えられます。
+	 * 選択された項目はコールバックメソッドのパラメータ {@link Dialogs#PARAMS_INPUTINDEX}、
+	 * {@link Dialogs#PARAMS_INPUTSTR}、{@link Dialogs#PARAMS_ROWID}にて取得可能です。
+	 * 
+	 * @param transaction
+	 *            ダイアログの表示に用いる{@link FragmentTransaction}オブジェクト。
+	 * @param title
+	 *            タイトルとして表示する文字列を指定します。タイトルが不要な場合、""を指定します。
+	 * @param callback
+	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクトを指定します。
+	 * @param source
+	 *            選択肢を取得する{@link CursorChoiceSource}オブジェクトを指定します。
+	 */
+	public static final void showCursorChoiceDialog(FragmentTransaction transaction,
+			String title, DialogCallback callback, CursorChoiceSource source) {
+		showCursorChoiceDialog(transaction, title, null, callback, source);
+	}
+
+	/**
+	 * {@link Cursor}から選択肢を表示する多肢選択式ダイアログを表示します。 クエリはバックグラウンドで実行され、
+	 * 選択肢は{@link Cursor}から直接読み出されます。 {@link CursorChoiceSource#requery()}で選択肢を差し替えられます。
+	 * 選択された項目はコールバックメソッドのパラメータ {@link Dialogs#PARAMS_INPUTINDEX}、
+	 * {@link Dialogs#PARAMS_INPUTSTR}、{@link Dialogs#PARAMS_ROWID}にて取得可能です。
+	 * 
+	 * @param transaction
+	 *            ダイアログの表示に用いる{@link FragmentTransaction}オブジェクト。
+	 * @param titleid
+	 *            タイトルとして表示する文字列のリソースIDを指定します。タイトルが不要な場合、0を指定します。
+	 * @param params
+	 *            その他追加パラメータを格納した{@link Bundle}オブジェクトを指定します。
+	 * @param callback
+	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクトを指定します。
+	 * @param source
+	 *            選択肢を取得する{@link CursorChoiceSource}オブジェクトを指定します。
+	 */
+	public static final void showCursorChoiceDialog(FragmentTransaction transaction,
+			int titleid, Bundle params, DialogCallback callback,
+			CursorChoiceSource source) {
+		showCursorList(null, transaction, new DialogSpec.Builder().params(params)
+				.title(titleid).build(), callback, source);
+	}
+
+	/**
+	 * {@link Cursor}から選択肢を表示する多肢選択式ダイアログを表示します。 クエリはバックグラウンドで実行され、
+	 * 選択肢は{@link Cursor}から直接読み出されます。 {@link CursorChoiceSource#requery()}で選択肢を差し替えられます。
+	 * 選択された項目はコールバックメソッドのパラメータ {@link Dialogs#PARAMS_INPUTINDEX}、
+	 * {@link Dialogs#PARAMS_INPUTSTR}、{@link Dialogs#PARAMS_ROWID}にて取得可能です。
+	 * 
+	 * @param transaction
+	 *            ダイアログの表示に用いる{@link FragmentTransaction}オブジェクト。
+	 * @param titleid
+	 *            タイトルとして表示する文字列のリソースIDを指定します。タイトルが不要な場合、0を指定します。
+	 * @param callback
+	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクトを指定します。
+	 * @param source
+	 *            選択肢を取得する{@link CursorChoiceSource}オブジェクトを指定します。
+	 */
+	public static final void showCursorChoiceDialog(FragmentTransaction transaction,
+			int titleid, DialogCallback callback, CursorChoiceSource source) {
+		showCursorChoiceDialog(transaction, titleid, null, callback, source);
+	}
+
+	// 最終的に呼び出されるメソッド
+
+	/**
+	 * アラートダイアログを表示します。
+	 * 
+	 * @param transaction
+	 *            ダイアログの表示に用いる{@link FragmentTransaction}オブジェクト。
+	 * @param params
+	 *            ダイアログのパラメータを指定します。
+	 * @param callback
+	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクトを指定します。
+	 * @param v
+	 *            ダイアログに表示されるビューを指定します。
+	 */
+	public static final void showDialog(FragmentManager manager,
+			Bundle params, DialogCallback callback, View v) {
+		showDialog(manager, DialogSpec.fromBundle(params), callback, v);
+	}
+
+	/**
+	 * アラートダイアログを表示します。
+	 * 
+	 * @param transaction
+	 *            ダイアログの表示に用いる{@link FragmentTransaction}オブジェクト。
+	 * @param params
+	 *            ダイアログのパラメータを指定します。
+	 * @param callback
+	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクトを指定します。
+	 * @param v
+	 *            ダイアログに表示されるビューを指定します。
+	 */
+	public static final void showDialog(FragmentTransaction transaction,
+			Bundle params, DialogCallback callback, View v) {
+		showDialog(transaction, DialogSpec.fromBundle(params), callback, v);
+	}
+
+	/**
+	 * アラートダイアログを表示します。
+	 * 
+	 * @param manager
+	 *            ダイアログの表示に用いる{@link FragmentManager}オブジェクト。
+	 * @param spec
+	 *            ダイアログの表示内容を指定します。
+	 * @param callback
+	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクトを指定します。
+	 * @param v
+	 *            ダイアログに表示されるビューを指定します。
+	 */
+	public static final void showDialog(FragmentManager manager,
+			DialogSpec spec, DialogCallback callback, View v) {
+		showDialogForHandle(manager, spec, callback, v);
+	}
+
+	/**
+	 * アラートダイアログを表示し、表示したダイアログを操作する{@link DialogHandle}を取得します。
+	 * 表示内容を後から更新する場合に用います。
+	 * 
+	 * @param manager
+	 *            ダイアログの表示に用いる{@link FragmentManager}オブジェクト。
+	 * @param spec
+	 *            ダイアログの表示内容を指定します。
+	 * @param callback
+	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクトを指定します。
+	 * @param v
+	 *            ダイアログに表示されるビューを指定します。
+	 * @return 表示したダイアログを操作する{@link DialogHandle}オブジェクト。
+	 */
+	public static final DialogHandle showDialogForHandle(
+			FragmentManager manager, DialogSpec spec, DialogCallback callback,
+			View v) {
+		int key = registry.nextKey();
+		enqueue(new DialogDispatcher.Request(manager, null, spec,
+				new DialogData(v, callback), key));
+		return new DialogHandle(key);
+	}
+
+	/**
+	 * アラートダイアログを表示します。
+	 * 
+	 * @param transaction
+	 *            ダイアログの表示に用いる{@link FragmentTransaction}オブジェクト。
+	 * @param spec
+	 *            ダイアログの表示内容を指定します。
+	 * @param callback
+	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクトを指定します。
+	 * @param v
+	 *            ダイアログに表示されるビューを指定します。
+	 */
+	public static final void showDialog(FragmentTransaction transaction,
+			DialogSpec spec, DialogCallback callback, View v) {
+		showDialogForHandle(transaction, spec, callback, v);
+	}
+
+	/**
+	 * アラートダイアログを表示し、表示したダイアログを操作する{@link DialogHandle}を取得します。
+	 * 表示内容を後から更新する場合に用います。
+	 * 
+	 * @param transaction
+	 *            ダイアログの表示に用いる{@link FragmentTransaction}オブジェクト。
+	 * @param spec
+	 *            ダイアログの表示内容を指定します。
+	 * @param callback
+	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクトを指定します。
+	 * @param v
+	 *            ダイアログに表示されるビューを指定します。
+	 * @return 表示したダイアログを操作する{@link DialogHandle}オブジェクト。
+	 */
+	public static final DialogHandle showDialogForHandle(
+			FragmentTransaction transaction, DialogSpec spec,
+			DialogCallback callback, View v) {
+		int key = registry.nextKey();
+		enqueue(new DialogDispatcher.Request(null, transaction, spec,
+				new DialogData(v, callback), key));
+		return new DialogHandle(key);
+	}
+
+	/**
+	 * 独自ビューを表示するダイアログを表示します。 ビューはダイアログの生成時に生成され、閉じられた時点で解放されます。
+	 * 
+	 * @param manager
+	 *            ダイアログの表示に用いる{@link FragmentManager}オブジェクト。
+	 * @param spec
+	 *            ダイアログの表示内容を指定します。
+	 * @param callback
+	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクトを指定します。
+	 * @param factory
+	 *            表示するビューを生成する{@link ViewFactory}オブジェクトを指定します。
+	 */
+	public static final void showCustomDialog(FragmentManager manager,
+			DialogSpec spec, DialogCallback callback, ViewFactory factory) {
+		DialogData data = new DialogData(null, callback);
+		data.viewFactory = factory;
+		enqueue(new DialogDispatcher.Request(manager, null, spec, data,
+				registry.nextKey()));
+	}
+
+	/**
+	 * 独自ビューを表示するダイアログを表示します。 ビューはダイアログの生成時に生成され、閉じられた時点で解放されます。
+	 * 
+	 * @param transaction
+	 *            ダイアログの表示に用いる{@link FragmentTransaction}オブジェクト。
+	 * @param spec
+	 *            ダイアログの表示内容を指定します。
+	 * @param callback
+	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクトを指定します。
+	 * @param factory
+	 *            表示するビューを生成する{@link ViewFactory}オブジェクトを指定します。
+	 */
+	public static final void showCustomDialog(FragmentTransaction transaction,
+			DialogSpec spec, DialogCallback callback, ViewFactory factory) {
+		DialogData data = new DialogData(null, callback);
+		data.viewFactory = factory;
+		enqueue(new DialogDispatcher.Request(null, transaction, spec, data,
+				registry.nextKey()));
+	}
+
+	/**
+	 * 大量の選択肢を持つ多肢選択式ダイアログを表示します。
+	 * 
+	 * @param manager
+	 *            ダイアログの表示に用いる{@link FragmentManager}オブジェクト。
+	 *            transactionを用いる場合はnull。
+	 * @param transaction
+	 *            ダイアログの表示に用いる{@link FragmentTransaction}オブジェクト。
+	 *            managerを用いる場合はnull。
+	 * @param spec
+	 *            ダイアログの表示内容。
+	 * @param callback
+	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクト。
+	 * @param choices
+	 *            ダイアログに表示される選択肢。
+	 */
+	private static void showChoiceList(FragmentManager manager,
+			FragmentTransaction transaction, DialogSpec spec,
+			DialogCallback callback, String[] choices) {
+		DialogData data = new DialogData(null, callback);
+		data.items = choices;
+		enqueue(new DialogDispatcher.Request(manager, transaction, spec
+				.buildUpon().viewType(VIEWID_CHOICELIST).build(), data,
+				registry.nextKey()));
+	}
+
+	/**
+	 * 複数のダイアログの表示とその他のフラグメント操作を、一つのトランザクションにまとめるための
+	 * {@link DialogBatch}を生成します。 {@link DialogBatch#commit()}を呼び出すまで、ダイアログは表示されません。
+	 * 
+	 * <pre>
+	 * Dialogs.batch(getSupportFragmentManager())
+	 * 		.showDialog(firstSpec, callback)
+	 * 		.showDialog(secondSpec, callback).commit();
+	 * </pre>
+	 * 
+	 * @param manager
+	 *            ダイアログの表示に用いる{@link FragmentManager}オブジェクト。
+	 * @return 生成した{@link DialogBatch}オブジェクト。
+	 */
+	public static DialogBatch batch(FragmentManager manager) {
+		return new DialogBatch(manager);
+	}
+
+	/**
+	 * 処理に時間がかかった場合にのみダイアログを表示します。
+	 * {@link #DEFAULT_GRACE_PERIOD}ミリ秒以内に{@link DeferredHandle#complete()}
+	 * が呼び出された場合は表示せず、表示した場合は最低{@link #DEFAULT_MIN_DISPLAY_TIME}ミリ秒表示します。
+	 * 
+	 * @param manager
+	 *            ダイアログの表示に用いる{@link FragmentManager}オブジェクト。
+	 * @param spec
+	 *            ダイアログの表示内容を指定します。
+	 * @param callback
+	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクトを指定します。
+	 * @return 処理の完了を通知する{@link DeferredHandle}オブジェクト。
+	 */
+	public static final DeferredHandle showDialogDeferred(
+			FragmentManager manager, DialogSpec spec, DialogCallback callback) {
+		return showDialogDeferred(manager, spec, callback,
+				DEFAULT_GRACE_PERIOD, DEFAULT_MIN_DISPLAY_TIME);
+	}
+
+	/**
+	 * 処理に時間がかかった場合にのみダイアログを表示します。
+	 * 猶予時間内に{@link DeferredHandle#complete()}が呼び出された場合は表示せず、
+	 * ダイアログのフラグメントの生成・トランザクションも行いません。 表示した場合は、最低表示時間が経過するまで表示を続けます。
+	 * 猶予時間の間に画面が回転した場合は、回転後の画面に表示します。
+	 * どのスレッドからでも呼び出せます。
+	 * 
+	 * @param manager
+	 *            ダイアログの表示に用いる{@link FragmentManager}オブジェクト。
+	 * @param spec
+	 *            ダイアログの表示内容を指定します。
+	 * @param callback
+	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクトを指定します。
+	 * @param gracePeriod
+	 *            ダイアログを表示するまでの猶予時間(ミリ秒)を指定します。
+	 * @param minDisplayTime
+	 *            ダイアログを表示した場合の最低表示時間(ミリ秒)を指定します。
+	 * @return 処理の完了を通知する{@link DeferredHandle}オブジェクト。
+	 */
+	public static final DeferredHandle showDialogDeferred(
+			final FragmentManager manager, final DialogSpec spec,
+			final DialogCallback callback, long gracePeriod,
+			long minDisplayTime) {
+		final int key = registry.nextKey();
+		final DeferredHandle handle = new DeferredHandle(key, minDisplayTime);
+		final long deadline = SystemClock.uptimeMillis() + gracePeriod;
+		mainExecutor.execute(new Runnable() {
+			@Override
+			public void run() {
+				// 猶予時間の間に画面が回転しても表示できるよう、FragmentManagerではなく
+				// 画面回転の間も保持される表示先を参照する
+				final DialogHost host = DialogHost.obtain(manager);
+				if (host == null) {
+					// アクティビティが破棄されている
+					return;
+				}
+				long delay = deadline - SystemClock.uptimeMillis();
+				handle.schedule(delay > 0 ? delay : 0, new Runnable() {
+					@Override
+					public void run() {
+						FragmentManager current = host.getFragmentManager();
+						if (current == null) {
+							// 猶予時間の間にアクティビティが終了した
+							handle.onDropped();
+							return;
+						}
+						DialogData data = new DialogData(null, callback);
+						// 最低表示時間は、ダイアログが初めて描画された時点から数える
+						data.deferred = handle;
+						enqueue(new DialogDispatcher.Request(current, null,
+								spec, data, key));
+					}
+				});
+			}
+		});
+		return handle;
+	}
+
+	/**
+	 * 進捗の量を示さない進捗ダイアログを表示します。 戻り値の{@link ProgressHandle}で進捗を更新し、
+	 * 処理の完了後に{@link ProgressHandle#finish()}で閉じます。
+	 * キャンセルされた場合は{@link Result#onCancel(DialogFragment, Bundle)}が呼び出されます。
+	 * 
+	 * @param manager
+	 *            ダイアログの表示に用いる{@link FragmentManager}オブジェクト。
+	 * @param title
+	 *            タイトルとして表示する文字列を指定します。タイトルが不要な場合、""を指定します。
+	 * @param message
+	 *            メッセージとして表示する文字列を指定します。
+	 * @param callback
+	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクトを指定します。
+	 * @return 進捗を更新する{@link ProgressHandle}オブジェクト。
+	 */
+	public static final ProgressHandle showProgressDialog(
+			FragmentManager manager, String title, String message,
+			DialogCallback callback) {
+		return showProgressDialog(manager, title, message,
+				ProgressHandle.INDETERMINATE, callback);
+	}
+
+	/**
+	 * 進捗ダイアログを表示します。 戻り値の{@link ProgressHandle}で進捗を更新し、
+	 * 処理の完了後に{@link ProgressHandle#finish()}で閉じます。
+	 * キャンセルされた場合は{@link Result#onCancel(DialogFragment, Bundle)}が呼び出されます。
+	 * 
+	 * @param manager
+	 *            ダイアログの表示に用いる{@link FragmentManager}オブジェクト。
+	 * @param title
+	 *            タイトルとして表示する文字列を指定します。タイトルが不要な場合、""を指定します。
+	 * @param message
+	 *            メッセージとして表示する文字列を指定します。
+	 * @param max
+	 *            進捗の最大値を指定します。{@link ProgressHandle#INDETERMINATE}
+	 *            を指定した場合、進捗の量を示しません。
+	 * @param callback
+	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクトを指定します。
+	 * @return 進捗を更新する{@link ProgressHandle}オブジェクト。
+	 */
+	public static final ProgressHandle showProgressDialog(
+			FragmentManager manager, String title, String message, int max,
+			DialogCallback callback) {
+		return showProgressDialog(manager, new DialogSpec.Builder()
+				.title(title).message(message).build(), max, callback);
+	}
+
+	/**
+	 * 進捗ダイアログを表示します。 戻り値の{@link ProgressHandle}で進捗を更新し、
+	 * 処理の完了後に{@link ProgressHandle#finish()}で閉じます。
+	 * キャンセルされた場合は{@link Result#onCancel(DialogFragment, Bundle)}が呼び出されます。
+	 * 
+	 * @param manager
+	 *            ダイアログの表示に用いる{@link FragmentManager}オブジェクト。
+	 * @param spec
+	 *            ダイアログの表示内容を指定します。
+	 * @param max
+	 *            進捗の最大値を指定します。{@link ProgressHandle#INDETERMINATE}
+	 *            を指定した場合、進捗の量を示しません。
+	 * @param callback
+	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクトを指定します。
+	 * @return 進捗を更新する{@link ProgressHandle}オブジェクト。
+	 */
+	public static final ProgressHandle showProgressDialog(
+			FragmentManager manager, DialogSpec spec, int max,
+			DialogCallback callback) {
+		return showProgress(manager, null, spec, max, callback);
+	}
+
+	/**
+	 * 進捗ダイアログを表示します。 戻り値の{@link ProgressHandle}で進捗を更新し、
+	 * 処理の完了後に{@link ProgressHandle#finish()}で閉じます。
+	 * キャンセルされた場合は{@link Result#onCancel(DialogFragment, Bundle)}が呼び出されます。
+	 * 
+	 * @param transaction
+	 *            ダイアログの表示に用いる{@link FragmentTransaction}オブジェクト。
+	 * @param spec
+	 *            ダイアログの表示内容を指定します。
+	 * @param max
+	 *            進捗の最大値を指定します。{@link ProgressHandle#INDETERMINATE}
+	 *            を指定した場合、進捗の量を示しません。
+	 * @param callback
+	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクトを指定します。
+	 * @return 進捗を更新する{@link ProgressHandle}オブジェクト。
+	 */
+	public static final ProgressHandle showProgressDialog(
+			FragmentTransaction transaction, DialogSpec spec, int max,
+			DialogCallback callback) {
+		return showProgress(null, transaction, spec, max, callback);
+	}
+
+	/**
+	 * 進捗ダイアログを表示します。
+	 * 
+	 * @param manager
+	 *            ダイアログの表示に用いる{@link FragmentManager}オブジェクト。
+	 *            transactionを用いる場合はnull。
+	 * @param transaction
+	 *            ダイアログの表示に用いる{@link FragmentTransaction}オブジェクト。
+	 *            managerを用いる場合はnull。
+	 * @param spec
+	 *            ダイアログの表示内容。
+	 * @param max
+	 *            進捗の最大値。
+	 * @param callback
+	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクト。
+	 * @return 進捗を更新する{@link ProgressHandle}オブジェクト。
+	 */
+	private static ProgressHandle showProgress(FragmentManager manager,
+			FragmentTransaction transaction, DialogSpec spec, int max,
+			DialogCallback callback) {
+		int key = registry.nextKey();
+		DialogData data = new DialogData(null, callback);
+		data.progress = new ProgressHandle(key, max);
+		enqueue(new DialogDispatcher.Request(manager, transaction, spec
+				.buildUpon().viewType(VIEWID_PROGRESSDLG).build(), data, key));
+		return data.progress;
+	}
+
+	/**
+	 * 複数の段階からなるダイアログを、一つのダイアログの中で順に表示します。
+	 * コールバックは手順の終了時に一度だけ呼び出されます。
+	 * 
+	 * @param manager
+	 *            ダイアログの表示に用いる{@link FragmentManager}オブジェクト。
+	 * @param pipeline
+	 *            各段階の表示内容を指定します。
+	 * @param callback
+	 *            手順が終了した際にコールバックされる{@link DialogCallback}オブジェクトを指定します。
+	 * @throws IllegalArgumentException
+	 *             段階が一つも登録されていない場合。
+	 */
+	public static final void showDialogPipeline(FragmentManager manager,
+			DialogPipeline pipeline, DialogCallback callback) {
+		showPipeline(manager, null, pipeline, callback);
+	}
+
+	/**
+	 * 複数の段階からなるダイアログを、一つのダイアログの中で順に表示します。
+	 * コールバックは手順の終了時に一度だけ呼び出されます。
+	 * 
+	 * @param transaction
+	 *            ダイアログの表示に用いる{@link FragmentTransaction}オブジェクト。
+	 * @param pipeline
+	 *            各段階の表示内容を指定します。
+	 * @param callback
+	 *            手順が終了した際にコールバックされる{@link DialogCallback}オブジェクトを指定します。
+	 * @throws IllegalArgumentException
+	 *             段階が一つも登録されていない場合。
+	 */
+	public static final void showDialogPipeline(
+			FragmentTransaction transaction, DialogPipeline pipeline,
+			DialogCallback callback) {
+		showPipeline(null, transaction, pipeline, callback);
+	}
+
+	/**
+	 * 複数の段階からなるダイアログを表示します。
+	 * 
+	 * @param manager
+	 *            ダイアログの表示に用いる{@link FragmentManager}オブジェクト。
+	 *            transactionを用いる場合はnull。
+	 * @param transaction
+	 *            ダイアログの表示に用いる{@link FragmentTransaction}オブジェクト。
+	 *            managerを用いる場合はnull。
+	 * @param pipeline
+	 *            各段階の表示内容。
+	 * @param callback
+	 *            手順が終了した際にコールバックされる{@link DialogCallback}オブジェクト。
+	 */
+	private static void showPipeline(FragmentManager manager,
+			FragmentTransaction transaction, DialogPipeline pipeline,
+			DialogCallback callback) {
+		DialogSpec[] steps = pipeline.getSteps();
+		if (steps.length == 0) {
+			throw new IllegalArgumentException("pipeline has no steps");
+		}
+		DialogData data = new DialogData(null, callback);
+		data.steps = steps;
+		data.stepHandler = pipeline.getStepHandler();
+		// ID・優先度などは最初の段階のものを用いる
+		enqueue(new DialogDispatcher.Request(manager, transaction, steps[0]
+				.buildUpon().viewType(VIEWID_PIPELINE).build(), data,
+				registry.nextKey()));
+	}
+
+	/**
+	 * ダイアログを表示し、結果を表す{@link DialogFuture}を返します。
+	 * {@link DialogFuture#cancel()}を呼び出すとダイアログは閉じられます。 どのスレッドからでも呼び出せます。
+	 * 
+	 * @param manager
+	 *            ダイアログの表示に用いる{@link FragmentManager}オブジェクト。
+	 * @param spec
+	 *            ダイアログの表示内容を指定します。
+	 * @return ダイアログの結果を表す{@link DialogFuture}。
+	 *         結果を返さずにダイアログが破棄された場合は取り消されます。
+	 */
+	public static final DialogFuture<DialogResult> showDialogAsync(
+			FragmentManager manager, DialogSpec spec) {
+		return showAsync(manager, null, spec, null);
+	}
+
+	/**
+	 * ダイアログを表示し、結果を表す{@link DialogFuture}を返します。
+	 * {@link DialogFuture#cancel()}を呼び出すとダイアログは閉じられます。 どのスレッドからでも呼び出せます。
+	 * 
+	 * @param transaction
+	 *            ダイアログの表示に用いる{@link FragmentTransaction}オブジェクト。
+	 * @param spec
+	 *            ダイアログの表示内容を指定します。
+	 * @return ダイアログの結果を表す{@link DialogFuture}。
+	 *         結果を返さずにダイアログが破棄された場合は取り消されます。
+	 */
+	public static final DialogFuture<DialogResult> showDialogAsync(
+			FragmentTransaction transaction, DialogSpec spec) {
+		return showAsync(null, transaction, spec, null);
+	}
+
+	/**
+	 * 独自ビューを表示するダイアログを表示し、結果を表す{@link DialogFuture}を返します。
+	 * {@link DialogFuture#cancel()}を呼び出すとダイアログは閉じられます。 どのスレッドからでも呼び出せます。
+	 * 
+	 * @param manager
+	 *            ダイアログの表示に用いる{@link FragmentManager}オブジェクト。
+	 * @param spec
+	 *            ダイアログの表示内容を指定します。
+	 * @param factory
+	 *            表示するビューを生成する{@link ViewFactory}オブジェクトを指定します。
+	 * @return ダイアログの結果を表す{@link DialogFuture}。
+	 *         結果を返さずにダイアログが破棄された場合は取り消されます。
+	 */
+	public static final DialogFuture<DialogResult> showDialogAsync(
+			FragmentManager manager, DialogSpec spec, ViewFactory factory) {
+		return showAsync(manager, null, spec, factory);
+	}
+
+	/**
+	 * 独自ビューを表示するダイアログを表示し、結果を表す{@link DialogFuture}を返します。
+	 * {@link DialogFuture#cancel()}を呼び出すとダイアログは閉じられます。 どのスレッドからでも呼び出せます。
+	 * 
+	 * @param transaction
+	 *            ダイアログの表示に用いる{@link FragmentTransaction}オブジェクト。
+	 * @param spec
+	 *            ダイアログの表示内容を指定します。
+	 * @param factory
+	 *            表示するビューを生成する{@link ViewFactory}オブジェクトを指定します。
+	 * @return ダイアログの結果を表す{@link DialogFuture}。
+	 *         結果を返さずにダイアログが破棄された場合は取り消されます。
+	 */
+	public static final DialogFuture<DialogResult> showDialogAsync(
+			FragmentTransaction transaction, DialogSpec spec,
+			ViewFactory factory) {
+		return showAsync(null, transaction, spec, factory);
+	}
+
+	/**
+	 * ダイアログを表示し、結果を表す{@link DialogFuture}を返します。
+	 * 
+	 * @param manager
+	 *            ダイアログの表示に用いる{@link FragmentManager}オブジェクト。
+	 *            transactionを用いる場合はnull。
+	 * @param transaction
+	 *            ダイアログの表示に用いる{@link FragmentTransaction}オブジェクト。
+	 *            managerを用いる場合はnull。
+	 * @param spec
+	 *            ダイアログの表示内容。
+	 * @param factory
+	 *            独自ビューを生成する{@link ViewFactory}オブジェクト。不要な場合はnull。
+	 * @return ダイアログの結果を表す{@link DialogFuture}。
+	 */
+	private static DialogFuture<DialogResult> showAsync(
+			FragmentManager manager, FragmentTransaction transaction,
+			DialogSpec spec, ViewFactory factory) {
+		final FutureCallback callback = new FutureCallback();
+		DialogData data = new DialogData(null, callback);
+		data.viewFactory = factory;
+		final int key = registry.nextKey();
+		callback.future.setCanceller(new Runnable() {
+			@Override
+			public void run() {
+				mainExecutor.execute(new Runnable() {
+					@Override
+					public void run() {
+						if (registry.get(key) != null) {
+							dismiss(key);
+						} else {
+							// 他のダイアログに統合された場合は、そのダイアログは閉じずにコールバックのみを外す
+							registry.unmerge(callback);
+						}
+					}
+				});
+			}
+		});
+		enqueue(new DialogDispatcher.Request(manager, transaction, spec,
+				data, key));
+		return callback.future;
+	}
+
+	/**
+	 * ダイアログを表示し、結果が返されるまで待機します。 バックグラウンドスレッドから呼び出してください。
+	 * ダイアログの表示はメインスレッドで行われ、待機中のスレッドはCPUを消費しません。
+	 * 時間切れ・割り込みの際は、ダイアログは閉じられます。
+	 * 
+	 * @param manager
+	 *            ダイアログの表示に用いる{@link FragmentManager}オブジェクト。
+	 * @param spec
+	 *            ダイアログの表示内容を指定します。
+	 * @param timeout
+	 *            待機する時間の上限を指定します。
+	 * @param unit
+	 *            timeoutの単位を指定します。
+	 * @return ダイアログの結果。
+	 * @throws InterruptedException
+	 *             待機中に割り込まれた場合。
+	 * @throws TimeoutException
+	 *             時間内に結果が返されなかった場合。
+	 * @throws CancellationException
+	 *             結果を返さずにダイアログが破棄された場合。
+	 * @throws IllegalStateException
+	 *             メインスレッドから呼び出した場合。
+	 */
+	public static final DialogResult showDialogAndWait(
+			FragmentManager manager, DialogSpec spec, long timeout,
+			TimeUnit unit) throws InterruptedException, TimeoutException {
+		if (DialogDispatcher.isMainThread()) {
+			// ダイアログはメインスレッドで処理されるため、待機すると結果が返されなくなる
+			throw new IllegalStateException(
+					"cannot wait for a dialog on the main thread");
+		}
+		DialogFuture<DialogResult> future = showAsync(manager, null, spec,
+				null);
+		boolean done = false;
+		try {
+			DialogResult result = future.get(timeout, unit);
+			done = true;
+			return result;
+		} catch (ExecutionException e) {
+			// FutureCallbackは失敗として確定しない
+			throw new IllegalStateException(e.getCause());
+		} finally {
+			if (!done) {
+				future.cancel();
+			}
+		}
+	}
+
+	/**
+	 * 標準的なアラートダイアログを表示し、ボタンが押されるまで待機します。
+	 * バックグラウンドスレッドから呼び出してください。
+	 * 
+	 * @param manager
+	 *            ダイアログの表示に用いる{@link FragmentManager}オブジェクト。
+	 * @param title
+	 *            タイトルとして表示する文字列を指定します。タイトルが不要な場合、""を指定します。
+	 * @param message
+	 *            メッセージとして表示する文字列を指定します。
+	 * @param timeout
+	 *            待機する時間の上限を指定します。
+	 * @param unit
+	 *            timeoutの単位を指定します。
+	 * @return 肯定ボタンが押された場合はtrue。否定ボタンが押された・キャンセルされた場合はfalse。
+	 * @throws InterruptedException
+	 *             待機中に割り込まれた場合。
+	 * @throws TimeoutException
+	 *             時間内にボタンが押されなかった場合。
+	 * @throws CancellationException
+	 *             結果を返さずにダイアログが破棄された場合。
+	 * @throws IllegalStateException
+	 *             メインスレッドから呼び出した場合。
+	 */
+	public static final boolean showAlertDialogAndWait(
+			FragmentManager manager, String title, String message,
+			long timeout, TimeUnit unit) throws InterruptedException,
+			TimeoutException {
+		DialogResult result = showDialogAndWait(manager,
+				new DialogSpec.Builder().title(title).message(message)
+						.defaultButtons(DIALOGBUTTON_POSITIVE_NEGATIVE)
+						.build(), timeout, unit);
+		return result.getButton() == BUTTON_POSITIVE;
+	}
+
+	/**
+	 * 標準的な多肢選択式ダイアログを表示し、項目が選択されるまで待機します。
+	 * バックグラウンドスレッドから呼び出してください。
+	 * 
+	 * @param manager
+	 *            ダイアログの表示に用いる{@link FragmentManager}オブジェクト。
+	 * @param title
+	 *            タイトルとして表示する文字列を指定します。タイトルが不要な場合、""を指定します。
+	 * @param timeout
+	 *            待機する時間の上限を指定します。
+	 * @param unit
+	 *            timeoutの単位を指定します。
+	 * @param choices
+	 *            ダイアログに表示される選択肢を指定します。
+	 * @return 選択された項目のインデックス。キャンセルされた場合は-1。
+	 * @throws InterruptedException
+	 *             待機中に割り込まれた場合。
+	 * @throws TimeoutException
+	 *             時間内に項目が選択されなかった場合。
+	 * @throws CancellationException
+	 *             結果を返さずにダイアログが破棄された場合。
+	 * @throws IllegalStateException
+	 *             メインスレッドから呼び出した場合。
+	 */
+	public static final int showChoiceDialogAndWait(FragmentManager manager,
+			String title, long timeout, TimeUnit unit, String... choices)
+			throws InterruptedException, TimeoutException {
+		DialogResult result = showDialogAndWait(manager,
+				new DialogSpec.Builder().title(title).items(choices).build(),
+				timeout, unit);
+		return result.getIndex();
+	}
+
+	/**
+	 * 標準的な入力式ダイアログを表示し、ボタンが押されるまで待機します。
+	 * バックグラウンドスレッドから呼び出してください。
+	 * 
+	 * @param manager
+	 *            ダイアログの表示に用いる{@link FragmentManager}オブジェクト。
+	 * @param title
+	 *            タイトルとして表示する文字列を指定します。タイトルが不要な場合、""を指定します。
+	 * @param message
+	 *            メッセージとして表示する文字列を指定します。
+	 * @param timeout
+	 *            待機する時間の上限を指定します。
+	 * @param unit
+	 *            timeoutの単位を指定します。
+	 * @return 肯定ボタンが押された場合は入力された文字列。それ以外の場合はnull。
+	 * @throws InterruptedException
+	 *             待機中に割り込まれた場合。
+	 * @throws TimeoutException
+	 *             時間内にボタンが押されなかった場合。
+	 * @throws CancellationException
+	 *             結果を返さずにダイアログが破棄された場合。
+	 * @throws IllegalStateException
+	 *             メインスレッドから呼び出した場合。
+	 */
+	public static final String showInputDialogAndWait(FragmentManager manager,
+			String title, String message, long timeout, TimeUnit unit)
+			throws InterruptedException, TimeoutException {
+		DialogResult result = showDialogAndWait(manager,
+				new DialogSpec.Builder().title(title).message(message)
+						.viewType(VIEWID_INPUTDLG)
+						.defaultButtons(DIALOGBUTTON_POSITIVE_NEGATIVE)
+						.build(), timeout, unit);
+		if (result.getButton() != BUTTON_POSITIVE) {
+			return null;
+		}
+		CharSequence text = result.getText();
+		return text != null ? text.toString() : "";
+	}
+
+	/**
+	 * {@link #ALERT_ID}を指定して表示したダイアログの内容を更新します。 フラグメント・ウィンドウは生成し直さず、
+	 * 現在の内容と比べて変更されたタイトル・メッセージ・選択肢・ボタンのみを反映します。
+	 * 同じIDのダイアログが複数ある場合は、最後に表示を要求したものが対象となります。 どのスレッドからでも呼び出せます。
+	 * <p>
+	 * 表示中のダイアログに生成時に存在しなかった要素(タイトル・メッセージ・ボタンなど)を追加した場合、
+	 * その要素は画面回転などでダイアログが生成し直された時点で表示されます。
+	 * ダイアログの種類(文字入力領域の有無など)、および{@link DialogPipeline}の内容は更新できません。
+	 * </p>
+	 * 
+	 * @param id
+	 *            更新するダイアログの{@link #ALERT_ID}。
+	 * @param spec
+	 *            更新後の表示内容を指定します。
+	 */
+	public static void updateDialog(final int id, final DialogSpec spec) {
+		mainExecutor.execute(new Runnable() {
+			@Override
+			public void run() {
+				int key = registry.findKey(id);
+				if (key >= 0) {
+					update(key, spec);
+				}
+			}
+		});
+	}
+
+	/**
+	 * ダイアログの内容を更新します。 メインスレッドから呼び出してください。
+	 * 
+	 * @param key
+	 *            {@link DialogRegistry}におけるキー。
+	 * @param spec
+	 *            更新後の表示内容。
+	 */
+	static void update(int key, DialogSpec spec) {
+		DialogData data = registry.get(key);
+		if (data == null) {
+			return;
+		}
+		DialogFragment owner = data.owner != null ? data.owner.get() : null;
+		if (owner instanceof InternalDialogFragment) {
+			((InternalDialogFragment) owner).update(spec);
+		} else {
+			// 表示待ちの場合は、表示する際に反映する
+			data.update = spec;
+		}
+	}
+
+	/**
+	 * 表示中のダイアログを閉じます。表示待ちの場合は表示を取りやめます。 メインスレッドから呼び出してください。
+	 * 
+	 * @param key
+	 *            {@link DialogRegistry}におけるキー。
+	 */
+	static void dismiss(int key) {
+		DialogData data = registry.get(key);
+		if (data == null) {
+			return;
+		}
+		DialogFragment owner = data.owner != null ? data.owner.get() : null;
+		if (owner != null) {
+			owner.dismissAllowingStateLoss();
+		} else {
+			release(key);
+		}
+	}
+
+	/**
+	 * ダイアログ用データを削除します。 結果を返さずに削除された{@link DialogFuture}は取り消されます。
+	 * 
+	 * @param key
+	 *            {@link DialogRegistry}におけるキー。
+	 */
+	static void release(int key) {
+		abandon(registry.remove(key));
+	}
+
+	/**
+	 * {@link DialogRegistry}から削除したダイアログ用データを解放します。
+	 * 結果を返さずに削除された{@link DialogFuture}は取り消されます。
+	 * 
+	 * @param data
+	 *            削除したデータ。nullの場合は何もしません。
+	 */
+	static void abandon(DialogData data) {
+		if (data == null) {
+			return;
+		}
+		if (data.callback instanceof FutureCallback) {
+			((FutureCallback) data.callback).abandon();
+		}
+		if (data.mergedCallbacks != null) {
+			// 統合された要求のDialogFutureも取り消す
+			for (DialogCallback merged : data.mergedCallbacks) {
+				if (merged instanceof FutureCallback) {
+					((FutureCallback) merged).abandon();
+				}
+			}
+		}
+		if (data.progress != null) {
+			data.progress.detach();
+		}
+	}
+
+	/**
+	 * 進捗ダイアログに進捗を反映します。 メインスレッドから呼び出してください。
+	 * 
+	 * @param key
+	 *            {@link DialogRegistry}におけるキー。
+	 * @param state
+	 *            {@link ProgressHandle}の値。
+	 */
+	static void applyProgress(int key, long state) {
+		DialogData data = registry.get(key);
+		DialogFragment owner = data != null && data.owner != null ? data.owner
+				.get() : null;
+		if (owner instanceof InternalDialogFragment) {
+			((InternalDialogFragment) owner).applyProgress(state);
+		}
+	}
+
+	/**
+	 * 選択肢をページ単位で読み込む多肢選択式ダイアログを表示します。
+	 * 
+	 * @param manager
+	 *            ダイアログの表示に用いる{@link FragmentManager}オブジェクト。
+	 *            transactionを用いる場合はnull。
+	 * @param transaction
+	 *            ダイアログの表示に用いる{@link FragmentTransaction}オブジェクト。
+	 *            managerを用いる場合はnull。
+	 * @param spec
+	 *            ダイアログの表示内容。
+	 * @param callback
+	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクト。
+	 * @param source
+	 *            選択肢を読み込む{@link PagedChoiceSource}オブジェクト。
+	 */
+	private static void showPagedList(FragmentManager manager,
+			FragmentTransaction transaction, DialogSpec spec,
+			DialogCallback callback, PagedChoiceSource source) {
+		DialogData data = new DialogData(null, callback);
+		data.pagedSource = source;
+		enqueue(new DialogDispatcher.Request(manager, transaction, spec
+				.buildUpon().viewType(VIEWID_PAGEDLIST).build(), data,
+				registry.nextKey()));
+	}
+
+	/**
+	 * {@link Cursor}から選択肢を表示する多肢選択式ダイアログを表示します。
+	 * 
+	 * @param manager
+	 *            ダイアログの表示に用いる{@link FragmentManager}オブジェクト。
+	 *            transactionを用いる場合はnull。
+	 * @param transaction
+	 *            ダイアログの表示に用いる{@link FragmentTransaction}オブジェクト。
+	 *            managerを用いる場合はnull。
+	 * @param spec
+	 *            ダイアログの表示内容。
+	 * @param callback
+	 *            ダイアログがクローズされた際にコールバックされる{@link DialogCallback}オブジェクト。
+	 * @param source
+	 *            選択肢を取得する{@link CursorChoiceSource}オブジェクト。
+	 */
+	private static void showCursorList(FragmentManager manager,
+			FragmentTransaction transaction, DialogSpec spec,
+			DialogCallback callback, CursorChoiceSource source) {
+		DialogData data = new DialogData(null, callback);
+		data.cursorSource = source;
+		enqueue(new DialogDispatcher.Request(manager, transaction, spec
+				.buildUpon().viewType(VIEWID_CURSORLIST).build(), data,
+				registry.nextKey()));
+	}
+
+	/**
+	 * 表示要求を処理します。メインスレッド以外から呼び出された場合は、メインスレッドでまとめて表示します。
+	 * 
+	 * @param request
+	 *            表示要求。
+	 */
+	private static void enqueue(DialogDispatcher.Request request) {
+		if (metricsListener != null) {
+			trace(DialogMetricsListener.STAGE_REQUESTED, request);
+		}
+		if (DialogDispatcher.isMainThread()) {
+			// 先に要求されたものから表示する
+			if (dispatcher.hasPending()) {
+				dispatcher.drain();
+			}
+			showNow(request);
+		} else {
+			dispatcher.post(request);
+		}
+	}
+
+	/**
+	 * 表示要求を受け付けます。メインスレッドから呼び出してください。
+	 * 
+	 * @param request
+	 *            表示要求。
+	 */
+	static void showNow(DialogDispatcher.Request request) {
+		DialogData data = request.data;
+		if (data.callback instanceof FutureCallback
+				&& ((FutureCallback) data.callback).future.isCancelled()) {
+			// 表示する前に取り消された
+			return;
+		}
+		if (coalescing) {
+			// 同一のダイアログが表示待ち・表示中であれば統合する
+			data.coalesceKey = coalesceKey(request);
+			if (data.coalesceKey != null
+					&& registry.merge(data.coalesceKey, data.callback)) {
+				return;
+			}
+		}
+		// staticなメモリにデータを保存
+		data.spec = request.spec;
+		registry.register(request.key, null, data);
+		if (request.manager != null) {
+			scheduler.schedule(request);
+		} else {
+			display(request);
+		}
+	}
+
+	/**
+	 * 表示要求に従ってダイアログを表示します。メインスレッドから呼び出してください。
+	 * 
+	 * @param request
+	 *            表示要求。
+	 * @return 表示した場合、または表示先の再開まで保持した場合はtrue。
+	 *         表示待ちの間にデータが破棄されていた場合や、保持せずに破棄した場合はfalse。
+	 */
+	static boolean display(DialogDispatcher.Request request) {
+		if (registry.get(request.key) == null) {
+			return false;
+		}
+		if (request.manager != null && pendingQueue.isHolding(request.manager)) {
+			// 表示先が状態を保存しているため、再開するまで保持する
+			return pendingQueue.defer(request);
+		}
+		InternalDialogFragment dialog = new InternalDialogFragment();
+		registry.attach(request.key, dialog);
+		// 表示
+		dialog.setArguments(createArguments(request));
+		if (request.manager != null) {
+			try {
+				dialog.show(request.manager, DIALOG_TAG);
+			} catch (IllegalStateException e) {
+				// onSaveInstanceState()の後はコミットできないため、再開するまで保持する
+				registry.detach(request.key);
+				return pendingQueue.defer(request);
+			}
+		} else {
+			dialog.show(request.transaction, DIALOG_TAG);
+		}
+		if (metricsListener != null) {
+			trace(DialogMetricsListener.STAGE_COMMITTED, request);
+		}
+		return true;
+	}
+
+	/**
+	 * 複数の表示要求を、一つのトランザクションで表示します。 メインスレッドから呼び出してください。
+	 * 表示先が状態を保存している場合は、トランザクションごと再開するまで保持します。
+	 * 
+	 * @param manager
+	 *            表示先の{@link FragmentManager}。
+	 * @param transaction
+	 *            ダイアログを追加するトランザクション。
+	 * @param requests
+	 *            表示要求。
+	 */
+	static void displayAll(FragmentManager manager,
+			FragmentTransaction transaction,
+			ArrayList<DialogDispatcher.Request> requests) {
+		// 先に要求されたものから表示する
+		if (dispatcher.hasPending()) {
+			dispatcher.drain();
+		}
+		// 表示先がまだ存在しない場合は、状態を保存しているかを調べて追加する
+		DialogHost host = DialogHost.obtain(manager);
+		if (host == null || host.holding) {
+			// コミットすると例外となるため、トランザクションごと再開するまで保持する
+			pendingQueue.deferBatch(manager, transaction, requests);
+			return;
+		}
+		int size = requests.size();
+		int[] keys = new int[size];
+		DialogFragment[] owners = new DialogFragment[size];
+		DialogData[] data = new DialogData[size];
+		ArrayList<DialogDispatcher.Request> added = new ArrayList<DialogDispatcher.Request>(
+				size);
+		int count = 0;
+		for (int i = 0; i < size; i++) {
+			DialogDispatcher.Request request = requests.get(i);
+			if (coalescing) {
+				// 同一のダイアログが表示待ち・表示中であれば統合する
+				request.data.coalesceKey = coalesceKey(request);
+				if (request.data.coalesceKey != null
+						&& registry.merge(request.data.coalesceKey,
+								request.data.callback)) {
+					continue;
+				}
+			}
+			request.data.spec = request.spec;
+			InternalDialogFragment dialog = new InternalDialogFragment();
+			dialog.setArguments(createArguments(request));
+			// show()はその場でコミットするため、追加のみを行う
+			transaction.add(dialog, DIALOG_TAG);
+			keys[count] = request.key;
+			owners[count] = dialog;
+			data[count] = request.data;
+			added.add(request);
+			count++;
+		}
+		registry.registerAll(keys, owners, data, count);
+		try {
+			transaction.commit();
+		} catch (IllegalStateException e) {
+			// 状態の保存を検出できなかった場合。失敗したトランザクションは再度コミットできない
+			for (int i = 0; i < count; i++) {
+				registry.detach(keys[i]);
+			}
+			pendingQueue.deferFailed(manager, added, e);
+			return;
+		}
+		if (metricsListener != null) {
+			for (int i = 0; i < count; i++) {
+				trace(DialogMetricsListener.STAGE_COMMITTED, keys[i],
+						data[i].spec.getId(), data[i].spec.getViewType(),
+						data[i]);
+			}
+		}
+	}
+
+	/**
+	 * 表示先の再開まで保持していた表示要求を、一つのトランザクションで表示します。
+	 * メインスレッドから呼び出してください。
+	 * 
+	 * @param manager
+	 *            表示先の{@link FragmentManager}。画面回転の後は要求時のものとは異なります。
+	 * @param requests
+	 *            保持していた表示要求。
+	 */
+	static void displayDeferred(FragmentManager manager,
+			ArrayList<DialogDispatcher.Request> requests) {
+		FragmentTransaction transaction = manager.beginTransaction();
+		int size = requests.size();
+		int[] keys = new int[size];
+		int count = 0;
+		for (int i = 0; i < size; i++) {
+			DialogDispatcher.Request request = requests.get(i);
+			if (registry.get(request.key) == null) {
+				// 保持している間に閉じられた場合は待ち行列を進める
+				scheduler.onDismissed(manager, request.key);
+				continue;
+			}
+			InternalDialogFragment dialog = new InternalDialogFragment();
+			registry.attach(request.key, dialog);
+			dialog.setArguments(createArguments(request));
+			transaction.add(dialog, DIALOG_TAG);
+			keys[count++] = request.key;
+		}
+		if (count == 0) {
+			return;
+		}
+		transaction.commit();
+		if (metricsListener != null) {
+			for (int i = 0; i < count; i++) {
+				DialogData data = registry.get(keys[i]);
+				if (data != null) {
+					trace(DialogMetricsListener.STAGE_COMMITTED, keys[i],
+							data.spec.getId(), data.spec.getViewType(), data);
+				}
+			}
+		}
+	}
+
+	/**
+	 * 表示要求からフラグメントの引数を生成します。
+	 * 
+	 * @param request
+	 *            表示要求。
+	 * @return フラグメントの引数。
+	 */
+	private static Bundle createArguments(DialogDispatcher.Request request) {
+		Bundle args = request.spec.toArguments(request.key);
+		DialogData data = request.data;
+		if (data.view != null || data.viewFactory != null
+				|| data.items != null || data.pagedSource != null
+				|| data.cursorSource != null || data.progress != null) {
+			args.putBoolean(ALERT_TRANSIENT, true);
+		}
+		if (data.update != null) {
+			// 表示待ちの間に更新された内容を反映する
+			InternalDialogFragment.mergeContent(args,
+					data.update.toArguments(request.key));
+			data.update = null;
+		}
+		if (data.steps != null) {
+			// 各段階の表示内容は、画面回転の後も参照できるよう引数に格納する
+			Bundle[] steps = new Bundle[data.steps.length];
+			for (int i = 0; i < steps.length; i++) {
+				steps[i] = data.steps[i].toArguments(request.key);
+			}
+			args.putParcelableArray(ALERT_STEPS, steps);
+		}
+		return args;
+	}
+
+	/**
+	 * ダイアログを統合する際のキーを生成します。 {@link #ALERT_ID}が指定されている場合はその値を、
+	 * そうでない場合は表示内容をキーとします。
+	 * 
+	 * @param request
+	 *            表示要求。
+	 * @return キー。統合できないダイアログの場合はnull。
+	 */
+	static Object coalesceKey(DialogDispatcher.Request request) {
+		if (request.spec.hasId()) {
+			return Integer.valueOf(request.spec.getId());
+		}
+		if (request.data.view != null || request.data.viewFactory != null
+				|| request.data.items != null
+				|| request.data.pagedSource != null
+				|| request.data.cursorSource != null
+				|| request.data.steps != null
+				|| request.data.progress != null) {
+			// 独自ビュー・大量の選択肢・複数の段階は内容の比較を行わない
+			return null;
+		}
+		return request.spec;
+	}
+
+	/**
+	 * 同一のダイアログに対する表示要求を統合するかどうかを設定します。
+	 * 有効にすると、{@link #ALERT_ID}が同じダイアログ、または{@link #ALERT_ID}を持たずタイトル・メッセージ・
+	 * ボタンが同じダイアログが表示待ち・表示中である間、以降の表示要求は新たなダイアログを作らずに統合されます。
+	 * 統合された要求の数はコールバックメソッドのパラメータ{@link #PARAMS_MERGEDCOUNT}にて取得可能です。
+	 * 
+	 * @param enabled
+	 *            統合する場合はtrue。
+	 */
+	public static void setCoalescing(boolean enabled) {
+		coalescing = enabled;
+	}
+
+	/**
+	 * 同一のダイアログに対する表示要求を統合するかどうかを取得します。
+	 * 
+	 * @return 統合する場合はtrue。
+	 */
+	public static boolean isCoalescing() {
+		return coalescing;
+	}
+
+	/**
+	 * ダイアログの表示から結果の通知までの各段階の時刻を受け取るリスナーを設定します。
+	 * 設定しない場合、時刻の取得は行われません。
+	 * 
+	 * @param listener
+	 *            {@link DialogMetricsListener}オブジェクト。nullを指定すると通知を停止します。
+	 */
+	public static void setMetricsListener(DialogMetricsListener listener) {
+		metricsListener = listener;
+	}
+
+	/**
+	 * 各段階の時刻を受け取るリスナーが設定されているかどうかを取得します。
+	 * 
+	 * @return 設定されている場合はtrue。
+	 */
+	static boolean isTracing() {
+		return metricsListener != null;
+	}
+
+	/**
+	 * 表示要求が指定した段階に達したことをリスナーに通知します。
+	 * 
+	 * @param stage
+	 *            段階。
+	 * @param request
+	 *            表示要求。
+	 */
+	static void trace(int stage, DialogDispatcher.Request request) {
+		trace(stage, request.key, request.spec.getId(),
+				request.spec.getViewType(), request.data);
+	}
+
+	/**
+	 * ダイアログが指定した段階に達したことをリスナーに通知します。
+	 * 
+	 * @param stage
+	 *            段階。
+	 * @param key
+	 *            {@link DialogRegistry}におけるキー。
+	 * @param dialogId
+	 *            {@link #ALERT_ID}の値。
+	 * @param viewId
+	 *            {@link #ALERT_VIEWID}の値。
+	 * @param data
+	 *            ダイアログ用データ。存在しない場合はnull。
+	 */
+	static void trace(int stage, int key, int dialogId, int viewId,
+			DialogData data) {
+		DialogMetricsListener listener = metricsListener;
+		if (listener != null) {
+			int type = data != null
+					&& (data.view != null || data.viewFactory != null) ? DialogMetricsListener.TYPE_CUSTOM
+					: viewId;
+			listener.onDialogEvent(stage, key, dialogId, type,
+					System.nanoTime());
+		}
+	}
+
+	/**
+	 * 選択肢の索引作成などのバックグラウンド処理に用いる{@link Executor}を設定します。
+	 * 指定しない場合は、ライブラリ内部で作成したスレッドを用います。
+	 * 
+	 * @param executor
+	 *            {@link Executor}オブジェクト。nullを指定すると既定の動作に戻ります。
+	 */
+	public static void setBackgroundExecutor(Executor executor) {
+		synchronized (Dialogs.class) {
+			backgroundExecutor = executor;
+		}
+	}
+
+	/**
+	 * バックグラウンド処理に用いる{@link Executor}を取得します。
+	 * 
+	 * @return {@link Executor}オブジェクト。
+	 */
+	static Executor getBackgroundExecutor() {
+		synchronized (Dialogs.class) {
+			if (backgroundExecutor == null) {
+				backgroundExecutor = Executors
+						.newSingleThreadExecutor(new ThreadFactory() {
+							@Override
+							public Thread newThread(Runnable r) {
+								Thread thread = new Thread(r, "Dialogs");
+								thread.setDaemon(true);
+								return thread;
+							}
+						});
+			}
+			return backgroundExecutor;
+		}
+	}
+
+	/**
+	 * メインスレッドで処理を実行する{@link Executor}を取得します。
+	 * {@link DialogFuture#then(DialogFuture.Function, Executor)}などに指定します。
+	 * メインスレッドから呼び出された処理はそのまま実行されます。
+	 * 
+	 * @return {@link Executor}オブジェクト。
+	 */
+	public static Executor getMainExecutor() {
+		return mainExecutor;
+	}
+
+	/**
+	 * ダイアログの表示順を管理する{@link DialogScheduler}オブジェクトを取得します。
+	 * 表示ポリシーの変更や待ち行列の監視に利用します。
+	 * 
+	 * @return {@link DialogScheduler}オブジェクト。
+	 */
+	public static DialogScheduler getScheduler() {
+		return scheduler;
+	}
+
+	/**
+	 * 表示先が状態を保存した後の表示要求を保持する{@link PendingQueue}オブジェクトを取得します。
+	 * 保持する数や破棄の方法の変更、保持・破棄した要求の数の確認に利用します。
+	 * 
+	 * @return {@link PendingQueue}オブジェクト。
+	 */
+	public static PendingQueue getPendingQueue() {
+		return pendingQueue;
+	}
+
+	/**
+	 * ダイアログ用データを管理する{@link DialogRegistry}オブジェクトを取得します。
+	 * 登録数の確認や容量の変更に利用します。
+	 * 
+	 * @return {@link DialogRegistry}オブジェクト。
+	 */
+	public static DialogRegistry getRegistry() {
+		return registry;
+	}
+
+	/**
+	 * ダイアログのビューを、メインスレッドの待機中に事前に生成しておきます。
+	 * 生成したビューは指定した{@link Context}で表示されるダイアログにのみ利用されます。
+	 * どのスレッドからでも呼び出せます。
+	 * 
+	 * @param context
+	 *            ダイアログを表示する{@link android.app.Activity}。
+	 * @param types
+	 *            生成するビューの種類。{@link #PREWARM_INPUT}、{@link #PREWARM_CHECK}を指定します。
+	 */
+	public static void prewarm(Context context, int... types) {
+		viewPool.prewarm(context, types.clone());
+	}
+
+	/**
+	 * 事前に生成したダイアログのビューを保持する{@link ViewPool}オブジェクトを取得します。
+	 * 再利用の状況の確認や、ビューの破棄に利用します。
+	 * 
+	 * @return {@link ViewPool}オブジェクト。
+	 */
+	public static ViewPool getViewPool() {
+		return viewPool;
 	}
 
 }
@@ -0,0 +1,32 @@
+package net.onpu_tamago.libs.dialogs;
+
+import android.os.Bundle;
+import android.support.v4.app.DialogFragment;
+
+/**
+ * ダイアログの結果で{@link DialogFuture}を確定するコールバックです。
+ *
+ * @author 高見知英
+ */
+final class FutureCallback implements Dialogs.TypedDialogCallback {
+
+	final DialogFuture<DialogResult> future = new DialogFuture<DialogResult>();
+
+	@Override
+	public void onDialogResult(DialogFragment owner, DialogResult result) {
+		// 結果のオブジェクトは再利用されるため複製する
+		future.complete(result.copy());
+	}
+
+	@Override
+	public void onDialogClosed(DialogFragment owner, Bundle params) {
+		// TypedDialogCallbackのため呼び出されない
+	}
+
+	/**
+	 * 結果を返さずにダイアログが破棄された際に呼び出されます。
+	 */
+	void abandon() {
+		future.cancel();
+	}
+}
@@ -1,18 +1,28 @@
 package net.onpu_tamago.libs.dialogs;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+
 import net.onpu_tamago.libs.dialogs.Dialogs.Result;
 import android.app.AlertDialog;
 import android.app.Dialog;
 import android.content.DialogInterface;
 import android.content.DialogInterface.OnClickListener;
+import android.content.res.Configuration;
+import android.content.res.Resources;
 import android.os.Bundle;
+import android.os.Parcelable;
 import android.support.v4.app.DialogFragment;
-import android.text.InputType;
 import android.view.View;
-import android.view.ViewGroup.LayoutParams;
+import android.view.ViewTreeObserver;
+import android.widget.AdapterView;
+import android.widget.ArrayAdapter;
+import android.widget.Button;
 import android.widget.CheckBox;
 import android.widget.EditText;
 import android.widget.LinearLayout;
+import android.widget.ListView;
+import android.widget.ProgressBar;
 
 /**
  * 内部的に利用されるダイアログ表示フラグメントです。 {@link Dialogs}
@@ -22,182 +32,998 @@ import android.widget.LinearLayout;
  */
 public final class InternalDialogFragment extends DialogFragment implements
 	OnClickListener {
+    /**
+     * {@link DialogRegistry}におけるキー。
+     */
+    private int registryKey;
+
+    /**
+     * 画面回転などでビューが破棄されたかどうか。
+     */
+    private boolean viewDestroyed;
+
+    /**
+     * 大量の選択肢を表示する場合のアダプタ。
+     */
+    private ChoiceListAdapter choiceAdapter;
+
+    /**
+     * 選択肢をページ単位で読み込む場合のアダプタ。
+     */
+    private PagedChoiceAdapter pagedAdapter;
+
+    /**
+     * {@link android.database.Cursor}から選択肢を表示する場合のアダプタ。
+     */
+    private CursorChoiceAdapter cursorAdapter;
+
+    /**
+     * {@link ViewPool}から取り出したビュー。
+     */
+    private View pooledView;
+
+    /**
+     * 初回の描画時刻を通知する処理を登録したかどうか。
+     */
+    private boolean drawTraced;
+
+    /**
+     * {@link Dialogs#ALERT_ID}の値。
+     */
+    private int dialogId;
+
+    /**
+     * 文字入力領域。生成時に取得し、選択時の検索を省く。
+     */
+    private EditText inputView;
+
+    /**
+     * チェックボックス。生成時に取得し、選択時の検索を省く。
+     */
+    private CheckBox checkView;
+
+    /**
+     * {@link DialogPipeline}の段階を表示するビュー。
+     */
+    private StepLayout stepLayout;
+
+    /**
+     * 進捗ダイアログの進捗を表示するビュー。
+     */
+    private ProgressBar progressBar;
+
+    /**
+     * プロセスの再生成後に復元できず、破棄するかどうか。
+     */
+    private boolean discarded;
+
+    /**
+     * 破棄するダイアログのキー。レジストリ・スケジューラのどのキーとも一致しない。
+     */
+    private static final int DISCARDED_KEY = Integer.MIN_VALUE;
+
+    /**
+     * {@link AlertDialog}のタイトル領域のID。未取得の場合は-1、見つからない場合は0。
+     * メインスレッドからのみ参照する。
+     */
+    private static int titlePanelId = -1;
+
+    // 内容の更新において、変更された要素を示すフラグ
+    static final int CHANGED_TITLE = 1;
+    static final int CHANGED_MESSAGE = 1 << 1;
+    static final int CHANGED_ITEMS = 1 << 2;
+    static final int CHANGED_BUTTONS = 1 << 3;
+    static final int CHANGED_CHECK = 1 << 4;
+
+    /**
+     * 更新できる要素の引数のキー。{@link #CONTENT_FLAGS}と対応する。
+     */
+    private static final String[] CONTENT_KEYS = { Dialogs.ALERT_TITLE,
+	    Dialogs.ALERT_TITLEID, Dialogs.ALERT_MESSAGE,
+	    Dialogs.ALERT_MESSAGEID, Dialogs.ALERT_MESSAGEARRAY,
+	    Dialogs.ALERT_MESSAGEARRAYID, Dialogs.ALERT_BUTTONS,
+	    Dialogs.ALERT_POSCAPTION, Dialogs.ALERT_POSCAPTIONID,
+	    Dialogs.ALERT_NEGCAPTION, Dialogs.ALERT_NEGCAPTIONID,
+	    Dialogs.ALERT_NEUCAPTION, Dialogs.ALERT_NEUCAPTIONID,
+	    Dialogs.ALERT_APPENDMESSAGE, Dialogs.ALERT_APPENDMESSAGEID };
+
+    private static final int[] CONTENT_FLAGS = { CHANGED_TITLE,
+	    CHANGED_TITLE, CHANGED_MESSAGE, CHANGED_MESSAGE, CHANGED_ITEMS,
+	    CHANGED_ITEMS, CHANGED_BUTTONS, CHANGED_BUTTONS, CHANGED_BUTTONS,
+	    CHANGED_BUTTONS, CHANGED_BUTTONS, CHANGED_BUTTONS, CHANGED_BUTTONS,
+	    CHANGED_CHECK, CHANGED_CHECK };
+
+    @Override
+    public void onCreate(Bundle savedInstanceState) {
+	super.onCreate(savedInstanceState);
+	Bundle args = getArguments();
+	registryKey = args.getInt(Dialogs.ALERT_REGISTRYKEY);
+	dialogId = args.getInt(Dialogs.ALERT_ID);
+	if (args.getLong(Dialogs.ALERT_SESSION) != Dialogs.SESSION) {
+	    // プロセスが再生成された。キーは以前のプロセスのものなので新たに登録し直す
+	    if (args.getBoolean(Dialogs.ALERT_TRANSIENT)) {
+		// 独自のビューなどは復元できないため、表示せずに破棄する
+		discarded = true;
+		registryKey = DISCARDED_KEY;
+		setShowsDialog(false);
+		return;
+	    }
+	    registryKey = Dialogs.registry.nextKey();
+	    args.putInt(Dialogs.ALERT_REGISTRYKEY, registryKey);
+	    args.putLong(Dialogs.ALERT_SESSION, Dialogs.SESSION);
+	    Dialogs.DialogData data = new Dialogs.DialogData(null, null);
+	    data.spec = DialogSpec.fromBundle(args);
+	    Dialogs.registry.register(registryKey, this, data);
+	} else {
+	    // 再生成されたフラグメントをレジストリに関連付ける
+	    Dialogs.registry.attach(registryKey, this);
+	}
+	if (savedInstanceState != null) {
+	    rebindCallback(args.getString(Dialogs.ALERT_CALLBACKKEY));
+	}
+    }
+
+    /**
+     * 復元されたダイアログのコールバックを、ホストから取得し直します。
+     *
+     * @param key
+     *            {@link Dialogs#ALERT_CALLBACKKEY}の値。
+     */
+    private void rebindCallback(String key) {
+	if (key == null) {
+	    return;
+	}
+	Dialogs.DialogData data = Dialogs.registry.get(registryKey);
+	if (data == null) {
+	    return;
+	}
+	// 親フラグメント、ターゲットフラグメント、アクティビティの順に探す
+	Object[] hosts = { getParentFragment(), getTargetFragment(),
+		getActivity() };
+	for (Object host : hosts) {
+	    if (host instanceof DialogCallbackProvider) {
+		Dialogs.DialogCallback callback = ((DialogCallbackProvider) host)
+			.getDialogCallback(key);
+		if (callback != null) {
+		    data.callback = callback;
+		    return;
+		}
+	    }
+	}
+    }
+
     @Override
     public Dialog onCreateDialog(Bundle savedInstanceState) {
 	Bundle args = getArguments();
-	View appendView = Dialogs.dialogData.get(getTag()).view;
+	viewDestroyed = false;
+	drawTraced = false;
+	inputView = null;
+	checkView = null;
+	Dialogs.DialogData data = Dialogs.registry.get(registryKey);
+	if (Dialogs.isTracing()) {
+	    trace(DialogMetricsListener.STAGE_CREATE_STARTED, data);
+	}
+	View appendView = data != null ? data.view : null;
+	if (data != null && data.viewFactory != null) {
+	    // 現在のアクティビティでビューを生成する(ビューはダイアログのみが保持する)
+	    appendView = data.viewFactory.createView(getActivity());
+	}
+	Resources res = getResources();
 	AlertDialog.Builder dialog = new AlertDialog.Builder(getActivity());
 	// タイトル設定
-	if (args.containsKey(Dialogs.ALERT_TITLEID)) {
-		int id = args.getInt(Dialogs.ALERT_TITLEID);
-		if(id != 0){
-			dialog.setTitle(id);
-		}
-	} else {
-		String str = args.getString(Dialogs.ALERT_TITLE);
-		if(!"".equals(str)){
-			dialog.setTitle(str);
-		}
+	CharSequence title = getTitle(res, args);
+	if (title != null) {
+	    dialog.setTitle(title);
 	}
 	// メッセージ設定
-	if (args.containsKey(Dialogs.ALERT_VIEWID)) {
-	    int viewId = args.getInt(Dialogs.ALERT_VIEWID);
+	int viewId = args.getInt(Dialogs.ALERT_VIEWID);
+	if (viewId == Dialogs.VIEWID_PIPELINE) {
+	    // 各段階の内容は、一つのダイアログの中で入れ替えて表示する
+	    AlertDialog result = createPipelineDialog(dialog, args, res, data);
+	    if (Dialogs.isTracing()) {
+		trace(DialogMetricsListener.STAGE_CREATE_FINISHED, data);
+	    }
+	    return result;
+	} else if (viewId == Dialogs.VIEWID_CHOICELIST) {
+	    // 大量の選択肢は、表示される行のみを生成するアダプタで表示
+	    String[] items = data != null ? data.items : null;
+	    choiceAdapter = new ChoiceListAdapter(getActivity(),
+		    items != null ? items : new String[0]);
+	    dialog.setAdapter(choiceAdapter, this);
+	} else if (viewId == Dialogs.VIEWID_PAGEDLIST) {
+	    // 選択肢は表示位置に応じてバックグラウンドで読み込む
+	    PagedChoiceSource source = data != null ? data.pagedSource : null;
+	    if (source != null) {
+		int pageSize = args.getInt(Dialogs.ALERT_PAGESIZE,
+			Dialogs.DEFAULT_PAGESIZE);
+		pagedAdapter = new PagedChoiceAdapter(getActivity(), source,
+			Dialogs.getBackgroundExecutor(), pageSize, args.getInt(
+				Dialogs.ALERT_PREFETCH, pageSize));
+		dialog.setAdapter(pagedAdapter, this);
+	    }
+	} else if (viewId == Dialogs.VIEWID_CURSORLIST) {
+	    // クエリはバックグラウンドで実行し、結果が届き次第表示する
+	    CursorChoiceSource source = data != null ? data.cursorSource : null;
+	    if (source != null) {
+		cursorAdapter = new CursorChoiceAdapter(getActivity(), source,
+			Dialogs.getBackgroundExecutor());
+		dialog.setAdapter(cursorAdapter, this);
+	    }
+	} else if (viewId == Dialogs.VIEWID_PROGRESSDLG) {
+	    // 進捗はProgressHandleから反映する
 	    LinearLayout layout = new LinearLayout(getActivity());
-	    layout.setOrientation(LinearLayout.VERTICAL);
+	    int padding = (int) (10 * res.getDisplayMetrics().density);
+	    layout.setPadding(padding, padding, padding, padding);
+	    progressBar = new ProgressBar(getActivity(), null,
+		    android.R.attr.progressBarStyleHorizontal);
+	    layout.addView(progressBar, new LinearLayout.LayoutParams(
+		    LinearLayout.LayoutParams.MATCH_PARENT,
+		    LinearLayout.LayoutParams.WRAP_CONTENT));
+	    if (data != null && data.progress != null) {
+		applyProgress(data.progress.getState());
+	    }
+	    dialog.setView(layout);
+	} else if (ViewPool.isSupported(viewId)) {
+	    // 事前に生成されたビューがあれば再利用する
+	    View layout = Dialogs.viewPool.acquire(getActivity(), viewId);
 	    // ビューごとの個別処理
 	    if (viewId == Dialogs.VIEWID_INPUTDLG) {
 		// EditTextの文字列指定
-		EditText editText = new EditText(getActivity());
-		editText.setEms(10);
-		editText.setId(android.R.id.input);
-		editText.setLayoutParams(new LayoutParams(
-			LayoutParams.MATCH_PARENT, LayoutParams.WRAP_CONTENT));
-		editText.setInputType(InputType.TYPE_CLASS_TEXT);
+		inputView = (EditText) layout.findViewById(android.R.id.input);
 		if (args.containsKey(Dialogs.ALERT_DEFAULTEDIT)) {
-		    editText.setText(args.getString(Dialogs.ALERT_DEFAULTEDIT));
+		    inputView.setText(args.getString(Dialogs.ALERT_DEFAULTEDIT));
 		}
-		layout.addView(editText);
 	    } else if (viewId == Dialogs.VIEWID_CHECKDLG) {
 		// チェックボックスの文字列指定
-		CheckBox checkbox = new CheckBox(getActivity());
-		checkbox.setId(android.R.id.checkbox);
-		checkbox.setLayoutParams(new LayoutParams(
-			LayoutParams.MATCH_PARENT, LayoutParams.WRAP_CONTENT));
+		checkView = (CheckBox) layout
+			.findViewById(android.R.id.checkbox);
 		if (args.containsKey(Dialogs.ALERT_APPENDMESSAGEID)) {
-		    checkbox.setText(args.getInt(Dialogs.ALERT_APPENDMESSAGEID));
+		    checkView.setText(Dialogs.resources.getText(res,
+			    args.getInt(Dialogs.ALERT_APPENDMESSAGEID)));
 		} else {
-		    checkbox.setText(args
+		    checkView.setText(args
 			    .getString(Dialogs.ALERT_APPENDMESSAGE));
 		}
-		layout.addView(checkbox);
 	    }
+	    pooledView = layout;
 	    dialog.setView(layout);
 	}
-	if (args.containsKey(Dialogs.ALERT_MESSAGEID)) {
-	    dialog.setMessage(args.getInt(Dialogs.ALERT_MESSAGEID));
-	} else if (args.containsKey(Dialogs.ALERT_MESSAGE)) {
-	    dialog.setMessage(args.getString(Dialogs.ALERT_MESSAGE));
+	if (args.containsKey(Dialogs.ALERT_MESSAGEID)
+		|| args.containsKey(Dialogs.ALERT_MESSAGE)) {
+	    dialog.setMessage(getMessage(res, args));
 	} else if (args.containsKey(Dialogs.ALERT_MESSAGEARRAYID)) {
-	    dialog.setItems(args.getInt(Dialogs.ALERT_MESSAGEARRAYID), this);
+	    dialog.setItems(Dialogs.resources.getTextArray(res,
+		    args.getInt(Dialogs.ALERT_MESSAGEARRAYID)), this);
 	} else if (args.containsKey(Dialogs.ALERT_MESSAGEARRAY)) {
 	    dialog.setItems(args.getStringArray(Dialogs.ALERT_MESSAGEARRAY),
 		    this);
 	}
 	if (appendView != null) {
 	    dialog.setView(appendView);
+	    // 独自のビューに含まれる入力領域・チェックボックスも結果に含める
+	    View input = appendView.findViewById(android.R.id.input);
+	    if (input instanceof EditText) {
+		inputView = (EditText) input;
+	    }
+	    View check = appendView.findViewById(android.R.id.checkbox);
+	    if (check instanceof CheckBox) {
+		checkView = (CheckBox) check;
+	    }
 	}
 	// ボタン設定
 	int buttons = args.getInt(Dialogs.ALERT_BUTTONS);
 	if ((buttons & Dialogs.DIALOGBUTTON_POSITIVE) != 0) {
 	    dialog.setPositiveButton(
-		    args.containsKey(Dialogs.ALERT_POSCAPTION) ? args
-			    .getString(Dialogs.ALERT_POSCAPTION)
-			    : getActivity().getString(android.R.string.ok),
+		    getCaption(res, args, Dialogs.ALERT_POSCAPTION,
+			    Dialogs.ALERT_POSCAPTIONID, android.R.string.ok),
 		    this);
 	}
 	if ((buttons & Dialogs.DIALOGBUTTON_NEGATIVE) != 0) {
 	    dialog.setNegativeButton(
-		    args.containsKey(Dialogs.ALERT_NEGCAPTION) ? args
-			    .getString(Dialogs.ALERT_NEGCAPTION)
-			    : getActivity().getString(android.R.string.no),
+		    getCaption(res, args, Dialogs.ALERT_NEGCAPTION,
+			    Dialogs.ALERT_NEGCAPTIONID, android.R.string.no),
 		    this);
 	}
 	if ((buttons & Dialogs.DIALOGBUTTON_NEUTRAL) != 0) {
-	    dialog.setNegativeButton(args.getString(Dialogs.ALERT_NEUCAPTION),
-		    this);
+	    dialog.setNeutralButton(
+		    getCaption(res, args, Dialogs.ALERT_NEUCAPTION,
+			    Dialogs.ALERT_NEUCAPTIONID, 0), this);
 	}
 	dialog.setOnCancelListener(this);
 
+	AlertDialog result = dialog.create();
+	if (Dialogs.isTracing()) {
+	    trace(DialogMetricsListener.STAGE_CREATE_FINISHED, data);
+	}
+	return result;
+    }
+
+    /**
+     * {@link DialogPipeline}の各段階を表示するダイアログを生成します。
+     *
+     * @param dialog
+     *            ダイアログの生成に用いる{@link AlertDialog.Builder}オブジェクト。
+     * @param args
+     *            フラグメントの引数。
+     * @param res
+     *            リソースの取得に用いる{@link Resources}オブジェクト。
+     * @param data
+     *            登録されたダイアログのデータ。存在しない場合はnull。
+     * @return 生成したダイアログ。
+     */
+    private AlertDialog createPipelineDialog(AlertDialog.Builder dialog,
+	    Bundle args, Resources res, Dialogs.DialogData data) {
+	Parcelable[] steps = args.getParcelableArray(Dialogs.ALERT_STEPS);
+	Bundle current = (Bundle) steps[args.getInt(Dialogs.ALERT_STEP)];
+	// 表示後に内容を入れ替えられるよう、いずれかの段階で用いるタイトル・ボタンを用意しておく
+	boolean hasTitle = false;
+	int buttons = 0;
+	for (Parcelable step : steps) {
+	    hasTitle |= getTitle(res, (Bundle) step) != null;
+	    buttons |= ((Bundle) step).getInt(Dialogs.ALERT_BUTTONS);
+	}
+	// 次の段階を決定する処理がある場合は、その段階のタイトルも表示できるようにする
+	if (hasTitle || (data != null && data.stepHandler != null)) {
+	    dialog.setTitle(" ");
+	}
+	stepLayout = new StepLayout(getActivity());
+	stepLayout.bind(current, res);
+	stepLayout.setOnItemClickListener(new AdapterView.OnItemClickListener() {
+	    @Override
+	    public void onItemClick(AdapterView<?> parent, View view,
+		    int position, long id) {
+		onStepClick(position);
+	    }
+	});
+	inputView = stepLayout.getInputView();
+	checkView = stepLayout.getCheckView();
+	dialog.setView(stepLayout);
+	// ボタンの処理は、押されても閉じないよう表示後に差し替える
+	if ((buttons & Dialogs.DIALOGBUTTON_POSITIVE) != 0) {
+	    dialog.setPositiveButton(" ", null);
+	}
+	if ((buttons & Dialogs.DIALOGBUTTON_NEGATIVE) != 0) {
+	    dialog.setNegativeButton(" ", null);
+	}
+	if ((buttons & Dialogs.DIALOGBUTTON_NEUTRAL) != 0) {
+	    dialog.setNeutralButton(" ", null);
+	}
+	dialog.setOnCancelListener(this);
 	return dialog.create();
     }
 
+    /**
+     * 表示中のダイアログに、{@link DialogPipeline}の段階のタイトル・ボタンを反映します。
+     *
+     * @param dialog
+     *            表示中のダイアログ。
+     * @param step
+     *            段階の表示内容。
+     */
+    private void applyStep(AlertDialog dialog, Bundle step) {
+	Resources res = getResources();
+	CharSequence title = getTitle(res, step);
+	dialog.setTitle(title != null ? title : "");
+	// タイトルのない段階では、空のタイトル領域を表示しないよう領域ごと隠す
+	View titlePanel = findTitlePanel(dialog, res);
+	if (titlePanel != null) {
+	    titlePanel.setVisibility(title != null ? View.VISIBLE : View.GONE);
+	}
+	applyButtons(dialog, res, step);
+    }
+
+    /**
+     * 表示中のダイアログのタイトル領域を取得します。
+     *
+     * @param dialog
+     *            表示中のダイアログ。
+     * @param res
+     *            リソースの取得に用いる{@link Resources}オブジェクト。
+     * @return タイトル領域のビュー。見つからない場合はnull。
+     */
+    private static View findTitlePanel(AlertDialog dialog, Resources res) {
+	if (titlePanelId == -1) {
+	    // 公開されていないIDのため、名前から取得する(見つからない場合は0)
+	    titlePanelId = res.getIdentifier("topPanel", "id", "android");
+	}
+	return titlePanelId != 0 ? dialog.findViewById(titlePanelId) : null;
+    }
+
+    /**
+     * 表示中のダイアログに、ボタンの表示・表示文字列を反映します。
+     * 生成時に存在しなかったボタンは表示されません。
+     *
+     * @param dialog
+     *            表示中のダイアログ。
+     * @param res
+     *            リソースの取得に用いる{@link Resources}オブジェクト。
+     * @param args
+     *            ボタンの指定を格納した{@link Bundle}。
+     */
+    private static void applyButtons(AlertDialog dialog, Resources res,
+	    Bundle args) {
+	int buttons = args.getInt(Dialogs.ALERT_BUTTONS);
+	applyButton(dialog.getButton(DialogInterface.BUTTON_POSITIVE),
+		(buttons & Dialogs.DIALOGBUTTON_POSITIVE) != 0,
+		getCaption(res, args, Dialogs.ALERT_POSCAPTION,
+			Dialogs.ALERT_POSCAPTIONID, android.R.string.ok));
+	applyButton(dialog.getButton(DialogInterface.BUTTON_NEGATIVE),
+		(buttons & Dialogs.DIALOGBUTTON_NEGATIVE) != 0,
+		getCaption(res, args, Dialogs.ALERT_NEGCAPTION,
+			Dialogs.ALERT_NEGCAPTIONID, android.R.string.no));
+	applyButton(dialog.getButton(DialogInterface.BUTTON_NEUTRAL),
+		(buttons & Dialogs.DIALOGBUTTON_NEUTRAL) != 0,
+		getCaption(res, args, Dialogs.ALERT_NEUCAPTION,
+			Dialogs.ALERT_NEUCAPTIONID, 0));
+    }
+
+    private static void applyButton(Button button, boolean shown,
+	    CharSequence caption) {
+	if (button == null) {
+	    return;
+	}
+	shown &= caption != null;
+	button.setVisibility(shown ? View.VISIBLE : View.GONE);
+	if (shown) {
+	    button.setText(caption);
+	}
+    }
+
+    /**
+     * 表示内容を更新します。フラグメント・ウィンドウは生成し直さず、
+     * 変更された要素のみを表示中のダイアログに反映します。 メインスレッドから呼び出してください。
+     *
+     * @param spec
+     *            更新後の表示内容。
+     */
+    void update(DialogSpec spec) {
+	Bundle args = getArguments();
+	if (discarded
+		|| args.getInt(Dialogs.ALERT_VIEWID) == Dialogs.VIEWID_PIPELINE) {
+	    return;
+	}
+	// 引数も更新し、画面回転などで生成し直した場合も更新後の内容で表示する
+	int changed = mergeContent(args, spec.toArguments(registryKey));
+	AlertDialog dialog = (AlertDialog) getDialog();
+	if (changed == 0 || dialog == null) {
+	    return;
+	}
+	Resources res = getResources();
+	if ((changed & CHANGED_TITLE) != 0) {
+	    CharSequence title = getTitle(res, args);
+	    dialog.setTitle(title != null ? title : "");
+	}
+	if ((changed & CHANGED_MESSAGE) != 0) {
+	    dialog.setMessage(getMessage(res, args));
+	}
+	if ((changed & CHANGED_ITEMS) != 0 && choiceAdapter == null
+		&& pagedAdapter == null && cursorAdapter == null
+		&& dialog.getListView() != null) {
+	    // 選択肢はAlertDialogと同じ行のレイアウトで差し替える
+	    CharSequence[] items;
+	    if (args.containsKey(Dialogs.ALERT_MESSAGEARRAYID)) {
+		items = Dialogs.resources.getTextArray(res,
+			args.getInt(Dialogs.ALERT_MESSAGEARRAYID));
+	    } else {
+		items = args.getStringArray(Dialogs.ALERT_MESSAGEARRAY);
+	    }
+	    dialog.getListView().setAdapter(
+		    new ArrayAdapter<CharSequence>(getActivity(),
+			    android.R.layout.select_dialog_item,
+			    android.R.id.text1, items != null ? items
+				    : new CharSequence[0]));
+	}
+	if ((changed & CHANGED_BUTTONS) != 0) {
+	    applyButtons(dialog, res, args);
+	}
+	if ((changed & CHANGED_CHECK) != 0 && checkView != null) {
+	    if (args.containsKey(Dialogs.ALERT_APPENDMESSAGEID)) {
+		checkView.setText(Dialogs.resources.getText(res,
+			args.getInt(Dialogs.ALERT_APPENDMESSAGEID)));
+	    } else {
+		checkView.setText(args.getString(Dialogs.ALERT_APPENDMESSAGE));
+	    }
+	}
+    }
+
+    /**
+     * 進捗を反映します。 メインスレッドから呼び出してください。
+     *
+     * @param state
+     *            {@link ProgressHandle}の値。
+     */
+    void applyProgress(long state) {
+	if (progressBar == null) {
+	    return;
+	}
+	int max = ProgressHandle.maxOf(state);
+	if (max == ProgressHandle.INDETERMINATE) {
+	    progressBar.setIndeterminate(true);
+	} else {
+	    progressBar.setIndeterminate(false);
+	    progressBar.setMax(max);
+	    progressBar.setProgress(ProgressHandle.progressOf(state));
+	}
+    }
+
+    /**
+     * 更新後の表示内容を引数に反映します。
+     *
+     * @param args
+     *            フラグメントの引数。
+     * @param content
+     *            更新後の表示内容を格納した{@link Bundle}。
+     * @return 変更された要素を示す{@link #CHANGED_TITLE}などのフラグ。
+     */
+    static int mergeContent(Bundle args, Bundle content) {
+	int changed = 0;
+	for (int i = 0; i < CONTENT_KEYS.length; i++) {
+	    String key = CONTENT_KEYS[i];
+	    Object before = args.get(key);
+	    Object after = content.get(key);
+	    boolean same;
+	    if (before instanceof Object[] && after instanceof Object[]) {
+		same = Arrays.equals((Object[]) before, (Object[]) after);
+	    } else {
+		same = before == null ? after == null : before.equals(after);
+	    }
+	    if (same) {
+		continue;
+	    }
+	    changed |= CONTENT_FLAGS[i];
+	    if (after instanceof Integer) {
+		args.putInt(key, (Integer) after);
+	    } else if (after instanceof String[]) {
+		args.putStringArray(key, (String[]) after);
+	    } else if (after != null) {
+		args.putString(key, (String) after);
+	    } else {
+		args.remove(key);
+	    }
+	}
+	return changed;
+    }
+
+    /**
+     * {@link DialogPipeline}の段階において、ボタンが押された・項目が選択された際の処理です。
+     * 次の段階があれば表示内容を入れ替え、なければすべての段階の結果をコールバックしてダイアログを閉じます。
+     *
+     * @param which
+     *            押されたボタン、または選択された項目のインデックス。
+     */
+    private void onStepClick(int which) {
+	if (stepLayout == null) {
+	    return;
+	}
+	Bundle args = getArguments();
+	Dialogs.DialogData data = Dialogs.registry.get(registryKey);
+	if (Dialogs.isTracing()) {
+	    trace(DialogMetricsListener.STAGE_CLICKED, data);
+	}
+	Parcelable[] steps = args.getParcelableArray(Dialogs.ALERT_STEPS);
+	int step = args.getInt(Dialogs.ALERT_STEP);
+	DialogResult result = DialogResult.obtain();
+	if (which < 0) {
+	    result.setButton(which);
+	} else {
+	    result.setText(stepLayout.getItem(which));
+	    result.setIndex(which);
+	}
+	if (inputView != null) {
+	    result.setText(inputView.getText());
+	}
+	if (checkView != null) {
+	    result.setChecked(checkView.isChecked());
+	}
+	result.setId(((Bundle) steps[step]).getInt(Dialogs.ALERT_ID));
+	ArrayList<Bundle> results = getStepResults(args);
+	results.add(result.toBundle());
+	// 否定ボタン以外であれば次の段階へ進む
+	if (which != DialogInterface.BUTTON_NEGATIVE
+		&& step + 1 < steps.length) {
+	    Bundle next = (Bundle) steps[step + 1];
+	    if (data != null && data.stepHandler != null) {
+		DialogSpec spec = data.stepHandler.onNextStep(step + 1,
+			DialogSpec.fromBundle(next), result);
+		next = spec != null ? spec.toArguments(registryKey) : null;
+	    }
+	    if (next != null) {
+		result.recycle();
+		// 画面回転の後も同じ段階から再開できるよう、引数に保存する
+		steps[step + 1] = next;
+		args.putParcelableArray(Dialogs.ALERT_STEPS, steps);
+		args.putInt(Dialogs.ALERT_STEP, step + 1);
+		stepLayout.bind(next, getResources());
+		inputView = stepLayout.getInputView();
+		checkView = stepLayout.getCheckView();
+		applyStep((AlertDialog) getDialog(), next);
+		stepLayout.focus();
+		return;
+	    }
+	}
+	// 手順を終了し、すべての段階の結果をコールバック
+	result.setStepResults(results);
+	dispatch(data, result);
+	if (Dialogs.isTracing()) {
+	    trace(DialogMetricsListener.STAGE_CALLBACK_RETURNED, data);
+	}
+	getDialog().dismiss();
+    }
+
+    /**
+     * {@link DialogPipeline}において、終了した段階の結果を取得します。
+     *
+     * @param args
+     *            フラグメントの引数。
+     * @return 結果のリスト。引数に保存されており、追加した結果は画面回転の後も保持されます。
+     */
+    private static ArrayList<Bundle> getStepResults(Bundle args) {
+	ArrayList<Bundle> results = args
+		.getParcelableArrayList(Dialogs.ALERT_STEPRESULTS);
+	if (results == null) {
+	    results = new ArrayList<Bundle>();
+	    args.putParcelableArrayList(Dialogs.ALERT_STEPRESULTS, results);
+	}
+	return results;
+    }
+
+    /**
+     * ダイアログが指定した段階に達したことを通知します。
+     *
+     * @param stage
+     *            段階。
+     * @param data
+     *            ダイアログ用データ。
+     */
+    private void trace(int stage, Dialogs.DialogData data) {
+	Bundle args = getArguments();
+	Dialogs.trace(stage, registryKey, args.getInt(Dialogs.ALERT_ID),
+		args.getInt(Dialogs.ALERT_VIEWID), data);
+    }
+
+    /**
+     * タイトルを取得します。
+     *
+     * @param res
+     *            リソースの取得に用いる{@link Resources}オブジェクト。
+     * @param args
+     *            フラグメントの引数。
+     * @return タイトル。タイトルが不要な場合はnull。
+     */
+    private static CharSequence getTitle(Resources res, Bundle args) {
+	if (args.containsKey(Dialogs.ALERT_TITLEID)) {
+	    int id = args.getInt(Dialogs.ALERT_TITLEID);
+	    return id != 0 ? Dialogs.resources.getText(res, id) : null;
+	}
+	String str = args.getString(Dialogs.ALERT_TITLE);
+	return !"".equals(str) ? str : null;
+    }
+
+    /**
+     * メッセージを取得します。
+     *
+     * @param res
+     *            リソースの取得に用いる{@link Resources}オブジェクト。
+     * @param args
+     *            フラグメントの引数。
+     * @return メッセージ。指定されていない場合はnull。
+     */
+    private static CharSequence getMessage(Resources res, Bundle args) {
+	if (args.containsKey(Dialogs.ALERT_MESSAGEID)) {
+	    return Dialogs.resources.getText(res,
+		    args.getInt(Dialogs.ALERT_MESSAGEID));
+	}
+	return args.getString(Dialogs.ALERT_MESSAGE);
+    }
+
+    /**
+     * ボタンの表示文字列を取得します。
+     *
+     * @param res
+     *            リソースの取得に用いる{@link Resources}オブジェクト。
+     * @param args
+     *            フラグメントの引数。
+     * @param key
+     *            表示文字列のキー。
+     * @param idKey
+     *            表示文字列のリソースIDのキー。
+     * @param defaultId
+     *            どちらも指定されていない場合に用いるリソースID。0の場合はnullを返します。
+     * @return 表示文字列。
+     */
+    private static CharSequence getCaption(Resources res, Bundle args,
+	    String key, String idKey, int defaultId) {
+	if (args.containsKey(key)) {
+	    return args.getString(key);
+	}
+	int id = args.getInt(idKey, defaultId);
+	return id != 0 ? Dialogs.resources.getText(res, id) : null;
+    }
+
     @Override
     public void onClick(DialogInterface dialog, int which) {
-	Bundle args = getArguments();
-	Bundle params = new Bundle();
+	Dialogs.DialogData data = Dialogs.registry.get(registryKey);
+	if (Dialogs.isTracing()) {
+	    trace(DialogMetricsListener.STAGE_CLICKED, data);
+	}
+	DialogResult result = DialogResult.obtain();
 	// ボタン処理
 	switch (which) {
 	case DialogInterface.BUTTON_POSITIVE:
 	case DialogInterface.BUTTON_NEGATIVE:
 	case DialogInterface.BUTTON_NEUTRAL:
 	    // 肯定・否定・中立のボタンが押された
-	    params.putInt(Dialogs.PARAMS_PRESSBUTTON, which);
+	    result.setButton(which);
 	    break;
 	default:
 	    // それ以外の項目
-	    String[] candidate;
-	    if (args.containsKey(Dialogs.ALERT_MESSAGEARRAYID)) {
-		candidate = getResources().getStringArray(
-			args.getInt(Dialogs.ALERT_MESSAGEARRAYID));
+	    if (choiceAdapter != null) {
+		result.setText(choiceAdapter.getChoice(which));
+	    } else if (pagedAdapter != null) {
+		result.setText(pagedAdapter.getChoice(which));
+	    } else if (cursorAdapter != null) {
+		result.setText(cursorAdapter.getChoice(which));
+		result.setRowId(cursorAdapter.getRowId(which));
 	    } else {
-		candidate = args.getStringArray(Dialogs.ALERT_MESSAGEARRAY);
+		Bundle args = getArguments();
+		CharSequence[] candidate;
+		if (args.containsKey(Dialogs.ALERT_MESSAGEARRAYID)) {
+		    candidate = Dialogs.resources.getTextArray(getResources(),
+			    args.getInt(Dialogs.ALERT_MESSAGEARRAYID));
+		} else {
+		    candidate = args.getStringArray(Dialogs.ALERT_MESSAGEARRAY);
+		}
+		if (candidate != null) {
+		    result.setText(candidate[which]);
+		}
 	    }
-	    params.putString(Dialogs.PARAMS_INPUTSTR, candidate[which]);
-	    params.putInt(Dialogs.PARAMS_INPUTINDEX, which);
+	    result.setIndex(which);
 	    break;
 	}
-	// 入力の取得
-	if (getDialog().findViewById(android.R.id.input) instanceof EditText) {
-	    EditText ed = (EditText) getDialog().findViewById(
-		    android.R.id.input);
-	    params.putString(Dialogs.PARAMS_INPUTSTR, ed.getText().toString());
+	// 入力の取得(ビューは生成時に取得済み)
+	if (inputView != null) {
+	    result.setText(inputView.getText());
 	}
-	if (getDialog().findViewById(android.R.id.checkbox) instanceof CheckBox) {
-	    CheckBox checkbox = (CheckBox) getDialog().findViewById(
-		    android.R.id.checkbox);
-	    params.putBoolean(Dialogs.PARAMS_CHECKED, checkbox.isChecked());
+	if (checkView != null) {
+	    result.setChecked(checkView.isChecked());
 	}
-	// IDの設定
-	params.putInt(Dialogs.PARAMS_ID, args.getInt(Dialogs.ALERT_ID));
-	Dialogs.DialogCallback callback = Dialogs.dialogData.get(getTag()).callback;
-	if (callback != null) {
-	    callback.onDialogClosed(this, params);
-	    // Resultインターフェース処理
-	    if (callback instanceof Result) {
-		Result result = (Result) callback;
-		switch (which) {
-		case DialogInterface.BUTTON_POSITIVE:
-		    result.onPositiveResult(this, params);
-		    break;
-		case DialogInterface.BUTTON_NEGATIVE:
-		    result.onNegativeResult(this, params);
-		    break;
-		case DialogInterface.BUTTON_NEUTRAL:
-		    result.onNeutralResult(this, params);
-		    break;
-		default:
-		    result.onSelectItems(this, params);
-		    break;
-		}
-	    }
+	dispatch(data, result);
+	if (Dialogs.isTracing()) {
+	    trace(DialogMetricsListener.STAGE_CALLBACK_RETURNED, data);
 	}
     }
 
     @Override
     public void onCancel(DialogInterface dialog) {
-	Bundle args = getArguments();
-	Bundle params = new Bundle();
+	Dialogs.DialogData data = Dialogs.registry.get(registryKey);
+	if (Dialogs.isTracing()) {
+	    trace(DialogMetricsListener.STAGE_CANCELED, data);
+	}
 	// キャンセルをコールバック
-	params.putInt(Dialogs.PARAMS_PRESSBUTTON, Dialogs.CANCEL);
-	params.putInt(Dialogs.PARAMS_ID, args.getInt(Dialogs.ALERT_ID));
+	DialogResult result = DialogResult.obtain();
+	result.setButton(Dialogs.CANCEL);
+	if (stepLayout != null) {
+	    // 手順の途中でキャンセルされた場合も、終了した段階の結果を通知する
+	    result.setStepResults(getStepResults(getArguments()));
+	}
+	dispatch(data, result);
+	if (Dialogs.isTracing()) {
+	    trace(DialogMetricsListener.STAGE_CALLBACK_RETURNED, data);
+	}
+
+	super.onCancel(dialog);
+    }
 
-	Dialogs.DialogCallback callback = Dialogs.dialogData.get(getTag()).callback;
-	if (callback != null) {
-	    callback.onDialogClosed(this, params);
-	    // Resultインターフェース処理
-	    if (callback instanceof Result) {
-		((Result) callback).onCancel(this, params);
+    /**
+     * 結果を元のコールバックと、統合されたコールバックに通知します。
+     * 通知後、結果のオブジェクトは再利用のため返却されます。
+     *
+     * @param data
+     *            ダイアログ用データ。
+     * @param result
+     *            ダイアログの結果。
+     */
+    private void dispatch(Dialogs.DialogData data, DialogResult result) {
+	// IDの設定
+	result.setId(dialogId);
+	if (data != null) {
+	    if (data.coalesceKey != null) {
+		result.setMergedCount(data.mergedCount);
+	    }
+	    // Bundleは従来のコールバックが存在する場合のみ生成し、共有する
+	    Bundle params = dispatch(data.callback, result, null);
+	    if (data.mergedCallbacks != null) {
+		for (Dialogs.DialogCallback merged : data.mergedCallbacks) {
+		    params = dispatch(merged, result, params);
+		}
 	    }
 	}
+	result.recycle();
+    }
 
-	super.onCancel(dialog);
+    /**
+     * 結果をコールバックします。
+     *
+     * @param callback
+     *            コールバックオブジェクト。
+     * @param result
+     *            ダイアログの結果。
+     * @param params
+     *            生成済みのパラメータ。未生成の場合はnull。
+     * @return 生成したパラメータ。生成していない場合は引数のparams。
+     */
+    private Bundle dispatch(Dialogs.DialogCallback callback,
+	    DialogResult result, Bundle params) {
+	if (callback == null) {
+	    return params;
+	}
+	if (callback instanceof Dialogs.TypedDialogCallback) {
+	    ((Dialogs.TypedDialogCallback) callback).onDialogResult(this,
+		    result);
+	    return params;
+	}
+	if (params == null) {
+	    params = result.toBundle();
+	}
+	callback.onDialogClosed(this, params);
+	// Resultインターフェース処理
+	if (callback instanceof Result) {
+	    Result r = (Result) callback;
+	    switch (result.getButton()) {
+	    case DialogInterface.BUTTON_POSITIVE:
+		r.onPositiveResult(this, params);
+		break;
+	    case DialogInterface.BUTTON_NEGATIVE:
+		r.onNegativeResult(this, params);
+		break;
+	    case DialogInterface.BUTTON_NEUTRAL:
+		r.onNeutralResult(this, params);
+		break;
+	    case Dialogs.CANCEL:
+		r.onCancel(this, params);
+		break;
+	    default:
+		r.onSelectItems(this, params);
+		break;
+	    }
+	}
+	return params;
     }
 
     @Override
     public void onDismiss(DialogInterface dialog) {
-	// 閉じ次第メモリデータを削除
-	Dialogs.dialogData.put(getTag(), null);
+	// 閉じ次第メモリデータを削除(画面回転によるものは除く)
+	if (!viewDestroyed) {
+	    if (pooledView != null && getActivity() != null) {
+		// ビューをプールに戻す
+		Dialogs.viewPool.release(getActivity(),
+			getArguments().getInt(Dialogs.ALERT_VIEWID), pooledView);
+		pooledView = null;
+	    }
+	    Dialogs.release(registryKey);
+	    // 待ち合わせているダイアログを表示
+	    Dialogs.scheduler.onDismissed(getFragmentManager(), registryKey);
+	}
 	super.onDismiss(dialog);
     }
 
+    @Override
+    public void onStart() {
+	super.onStart();
+	if (discarded) {
+	    dismissAllowingStateLoss();
+	    return;
+	}
+	final Dialogs.DialogData drawData = Dialogs.registry.get(registryKey);
+	if (getDialog() != null && !drawTraced
+		&& (Dialogs.isTracing() || drawData != null
+			&& drawData.deferred != null)) {
+	    // 初回の描画時刻を通知する
+	    drawTraced = true;
+	    final View decor = getDialog().getWindow().getDecorView();
+	    decor.getViewTreeObserver().addOnPreDrawListener(
+		    new ViewTreeObserver.OnPreDrawListener() {
+			@Override
+			public boolean onPreDraw() {
+			    decor.getViewTreeObserver().removeOnPreDrawListener(
+				    this);
+			    if (drawData != null && drawData.deferred != null) {
+				// 最低表示時間は描画された時点から数える
+				drawData.deferred.onFirstDraw();
+			    }
+			    trace(DialogMetricsListener.STAGE_FIRST_DRAW, drawData);
+			    return true;
+			}
+		    });
+	}
+	if (stepLayout != null) {
+	    // 押されても閉じないよう、ボタンの処理を差し替える
+	    AlertDialog dialog = (AlertDialog) getDialog();
+	    bindStepButton(dialog, DialogInterface.BUTTON_POSITIVE);
+	    bindStepButton(dialog, DialogInterface.BUTTON_NEGATIVE);
+	    bindStepButton(dialog, DialogInterface.BUTTON_NEUTRAL);
+	    Bundle args = getArguments();
+	    applyStep(dialog, (Bundle) args.getParcelableArray(
+		    Dialogs.ALERT_STEPS)[args.getInt(Dialogs.ALERT_STEP)]);
+	}
+	if (choiceAdapter != null) {
+	    // 高速スクロール用の索引を作成し、完了次第有効にする
+	    final ListView list = ((AlertDialog) getDialog()).getListView();
+	    choiceAdapter.buildIndex(Dialogs.getBackgroundExecutor(),
+		    new Runnable() {
+			@Override
+			public void run() {
+			    list.setFastScrollEnabled(true);
+			}
+		    });
+	}
+    }
+
+    private void bindStepButton(AlertDialog dialog, final int which) {
+	Button button = dialog.getButton(which);
+	if (button != null) {
+	    button.setOnClickListener(new View.OnClickListener() {
+		@Override
+		public void onClick(View v) {
+		    onStepClick(which);
+		}
+	    });
+	}
+    }
+
+    @Override
+    public void onConfigurationChanged(Configuration newConfig) {
+	super.onConfigurationChanged(newConfig);
+	// ロケールなどが変わった場合に備え、リソースのキャッシュを破棄
+	Dialogs.resources.invalidate();
+    }
+
+    @Override
+    public void onLowMemory() {
+	super.onLowMemory();
+	Dialogs.resources.invalidate();
+	Dialogs.viewPool.trim();
+    }
+
+    @Override
+    public void onDestroyView() {
+	viewDestroyed = true;
+	// 画面回転などで破棄されたビューは再利用しない
+	pooledView = null;
+	inputView = null;
+	checkView = null;
+	stepLayout = null;
+	progressBar = null;
+	if (choiceAdapter != null) {
+	    choiceAdapter.cancelIndex();
+	}
+	if (pagedAdapter != null) {
+	    pagedAdapter.release();
+	    pagedAdapter = null;
+	}
+	if (cursorAdapter != null) {
+	    // 閉じた場合・画面回転の場合ともにCursorを閉じる
+	    cursorAdapter.release();
+	    cursorAdapter = null;
+	}
+	super.onDestroyView();
+    }
+
+    @Override
+    public void onDestroy() {
+	// フラグメントが取り除かれた場合、アクティビティが終了した場合もデータを削除
+	if (getActivity() != null && getActivity().isFinishing()) {
+	    Dialogs.release(registryKey);
+	    Dialogs.scheduler.clear(getFragmentManager());
+	} else if (isRemoving()) {
+	    Dialogs.release(registryKey);
+	    Dialogs.scheduler.onDismissed(getFragmentManager(), registryKey);
+	}
+	if (!isRemoving() && getActivity() != null) {
+	    // アクティビティが破棄される場合は、画面回転によるものも含めてビューを破棄
+	    Dialogs.viewPool.clear(getActivity());
+	}
+	super.onDestroy();
+    }
+
 }
@@ -0,0 +1,266 @@
+package net.onpu_tamago.libs.dialogs;
+
+import java.util.concurrent.Executor;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.util.SparseArray;
+import android.util.SparseBooleanArray;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.BaseAdapter;
+import android.widget.TextView;
+
+/**
+ * {@link PagedChoiceSource}から選択肢をページ単位で読み込むアダプタです。
+ * <p>
+ * ページの読み込みはバックグラウンドで行い、読み込みが終わるまでは仮の文字列を表示します。
+ * 表示位置から先読み距離の範囲にあるページは事前に読み込み、表示位置から離れたページは破棄します。
+ * 読み込み結果の反映を含め、アダプタの状態はメインスレッドでのみ変更されます。
+ * </p>
+ * <p>
+ * データソースが例外を投げた場合は警告を記録します。 読み込めなかったページは、
+ * 次にその行が表示される際に再度読み込みます。 総数を取得できなかった場合は、間隔を空けて数回まで再試行します。
+ * </p>
+ *
+ * @author 高見知英
+ */
+final class PagedChoiceAdapter extends BaseAdapter {
+
+	/**
+	 * 読み込み中の行に表示する文字列です。
+	 */
+	private static final String PLACEHOLDER = "…";
+
+	/**
+	 * 表示位置の前後に保持するページ数(先読み分を除く)です。
+	 */
+	private static final int RETAIN_PAGES = 2;
+
+	/**
+	 * 総数の取得を再試行する回数です。
+	 */
+	private static final int MAX_COUNT_RETRIES = 3;
+
+	/**
+	 * 総数の取得を再試行するまでの間隔(ミリ秒)です。 再試行のたびに倍にします。
+	 */
+	private static final long RETRY_DELAY = 1000;
+
+	private static final String TAG = "PagedChoiceAdapter";
+
+	private final LayoutInflater inflater;
+	private final PagedChoiceSource source;
+	private final Executor executor;
+	private final Handler handler = new Handler(Looper.getMainLooper());
+	private final int pageSize;
+	private final int prefetchDistance;
+
+	/**
+	 * 表示位置のページの前後に保持するページ数です。
+	 */
+	private final int retainPages;
+
+	private final SparseArray<String[]> pages = new SparseArray<String[]>();
+	private final SparseBooleanArray loading = new SparseBooleanArray();
+
+	/**
+	 * 選択肢の総数です。読み込みが終わるまでは0となります。
+	 */
+	private int count = 0;
+
+	/**
+	 * 読み込み要求の世代です。解放後に完了した読み込み結果を破棄するために用います。
+	 */
+	private int generation = 0;
+
+	/**
+	 * 最後に表示したページです。
+	 */
+	private int currentPage = 0;
+
+	/**
+	 * 総数の取得を再試行した回数です。
+	 */
+	private int countRetries = 0;
+
+	PagedChoiceAdapter(Context context, PagedChoiceSource source,
+			Executor executor, int pageSize, int prefetchDistance) {
+		this.inflater = LayoutInflater.from(context);
+		this.source = source;
+		this.executor = executor;
+		this.pageSize = Math.max(1, pageSize);
+		this.prefetchDistance = Math.max(0, prefetchDistance);
+		this.retainPages = this.prefetchDistance / this.pageSize + RETAIN_PAGES;
+		loadCount();
+	}
+
+	private void loadCount() {
+		final int gen = generation;
+		executor.execute(new Runnable() {
+			@Override
+			public void run() {
+				int result;
+				try {
+					result = source.getCount();
+				} catch (RuntimeException e) {
+					Log.w(TAG, "getCount failed", e);
+					result = -1;
+				}
+				final int total = result;
+				handler.post(new Runnable() {
+					@Override
+					public void run() {
+						if (gen != generation) {
+							return;
+						}
+						if (total >= 0) {
+							count = total;
+							notifyDataSetChanged();
+						} else if (countRetries < MAX_COUNT_RETRIES) {
+							handler.postDelayed(new Runnable() {
+								@Override
+								public void run() {
+									if (gen == generation) {
+										loadCount();
+									}
+								}
+							}, RETRY_DELAY << countRetries++);
+						}
+					}
+				});
+			}
+		});
+	}
+
+	private void loadPage(final int page) {
+		if (pages.get(page) != null || loading.get(page)) {
+			return;
+		}
+		loading.put(page, true);
+		final int gen = generation;
+		final int start = page * pageSize;
+		final int length = Math.min(pageSize, count - start);
+		executor.execute(new Runnable() {
+			@Override
+			public void run() {
+				String[] result;
+				boolean failed = false;
+				try {
+					result = source.loadPage(start, length);
+				} catch (RuntimeException e) {
+					Log.w(TAG, "loadPage failed: " + start, e);
+					result = null;
+					failed = true;
+				}
+				final String[] items = result;
+				final boolean retry = failed;
+				handler.post(new Runnable() {
+					@Override
+					public void run() {
+						if (gen != generation) {
+							return;
+						}
+						// 失敗した場合も、次に表示される際に読み込み直せるようにする
+						loading.delete(page);
+						if (retry || Math.abs(page - currentPage) > retainPages) {
+							// 読み込みの間に表示位置が離れたページは保持しない
+							return;
+						}
+						pages.put(page, items != null ? items : new String[0]);
+						notifyDataSetChanged();
+					}
+				});
+			}
+		});
+	}
+
+	/**
+	 * 表示位置に応じてページを先読みし、離れたページを破棄します。
+	 */
+	private void onPositionBound(int position) {
+		int page = position / pageSize;
+		currentPage = page;
+		int first = Math.max(0, (position - prefetchDistance) / pageSize);
+		int last = Math.min((count - 1) / pageSize, (position + prefetchDistance)
+				/ pageSize);
+		for (int p = first; p <= last; p++) {
+			loadPage(p);
+		}
+		// 保持範囲外のページを破棄
+		for (int i = pages.size() - 1; i >= 0; i--) {
+			if (Math.abs(pages.keyAt(i) - page) > retainPages) {
+				pages.removeAt(i);
+			}
+		}
+	}
+
+	/**
+	 * 指定した位置の選択肢を取得します。
+	 *
+	 * @param position
+	 *            位置。
+	 * @return 選択肢。読み込まれていない場合はnull。
+	 */
+	String getChoice(int position) {
+		String[] page = pages.get(position / pageSize);
+		int index = position % pageSize;
+		return page != null && index < page.length ? page[index] : null;
+	}
+
+	/**
+	 * 読み込み中の処理の結果を破棄し、保持しているページを解放します。
+	 */
+	void release() {
+		generation++;
+		pages.clear();
+		loading.clear();
+	}
+
+	@Override
+	public int getCount() {
+		return count;
+	}
+
+	@Override
+	public Object getItem(int position) {
+		return getChoice(position);
+	}
+
+	@Override
+	public long getItemId(int position) {
+		return position;
+	}
+
+	@Override
+	public boolean hasStableIds() {
+		return true;
+	}
+
+	@Override
+	public View getView(int position, View convertView, ViewGroup parent) {
+		TextView view = (TextView) convertView;
+		if (view == null) {
+			view = (TextView) inflater.inflate(
+					android.R.layout.select_dialog_item, parent, false);
+		}
+		onPositionBound(position);
+		String choice = getChoice(position);
+		view.setText(choice != null ? choice : PLACEHOLDER);
+		return view;
+	}
+
+	@Override
+	public boolean isEnabled(int position) {
+		// 読み込み中の行は選択できない
+		return getChoice(position) != null;
+	}
+
+	@Override
+	public boolean areAllItemsEnabled() {
+		return false;
+	}
+}
@@ -0,0 +1,33 @@
+package net.onpu_tamago.libs.dialogs;
+
+/**
+ * ページ単位で選択肢を読み込む多肢選択式ダイアログのデータソースです。
+ * {@link Dialogs#showPagedChoiceDialog(android.support.v4.app.FragmentManager, String, android.os.Bundle, Dialogs.DialogCallback, PagedChoiceSource)}
+ * に指定します。
+ * <p>
+ * 各メソッドはバックグラウンドスレッドから呼び出されます。
+ * 例外を投げた場合、ダイアログは閉じられず、読み込めなかった選択肢は後で再度読み込まれます。
+ * </p>
+ *
+ * @author 高見知英
+ */
+public interface PagedChoiceSource {
+
+	/**
+	 * 選択肢の総数を取得します。
+	 *
+	 * @return 選択肢の総数。
+	 */
+	int getCount();
+
+	/**
+	 * 指定した範囲の選択肢を読み込みます。
+	 *
+	 * @param start
+	 *            読み込む先頭の位置。
+	 * @param count
+	 *            読み込む数。総数を超える範囲は含まれません。
+	 * @return 読み込んだ選択肢。要素数はcount以下となります。
+	 */
+	String[] loadPage(int start, int count);
+}
@@ -0,0 +1,436 @@
+package net.onpu_tamago.libs.dialogs;
+
+import java.util.ArrayList;
+
+import android.os.Bundle;
+import android.support.v4.app.Fragment;
+import android.support.v4.app.FragmentManager;
+import android.support.v4.app.FragmentTransaction;
+import android.util.Log;
+
+/**
+ * 表示先のアクティビティが状態を保存した後に要求されたダイアログを、再開するまで保持する待ち行列です。
+ * <p>
+ * {@link Fragment#onSaveInstanceState(Bundle)}の後に
+ * {@link FragmentManager}を用いてダイアログを表示しようとすると、コミットが
+ * {@link IllegalStateException}となります。この場合、要求は例外とならずに
+ * 表示先ごとの待ち行列に保持され、アクティビティが再開した際に一つのトランザクションでまとめて表示されます。
+ * アクティビティの状態は、表示先に追加する画面を持たないフラグメント({@link DialogHost})により監視します。
+ * 保持している要求は{@link FragmentManager}を保持せず、画面回転の後は新しいアクティビティに表示されます。
+ * </p>
+ * <p>
+ * 同じ内容のダイアログ({@link Dialogs#setCoalescing(boolean)}と同じ基準)は一つに統合され、
+ * 統合された要求のコールバックも呼び出されます。 保持する数が{@link #getCapacity()}を超えた場合は、
+ * {@link #getOverflowPolicy()}に従って要求を破棄します。破棄した要求のコールバックは呼び出されず、
+ * 結果を待つ{@link DialogFuture}は統合されたものも含めて取り消されます。
+ * {@link FragmentTransaction}を用いる表示要求は保持されません。
+ * </p>
+ * <p>
+ * {@link DialogBatch}による一括表示は、トランザクションごと保持され、再開した際にコミットされます。
+ * 一括表示は保持する数に含めず、統合も行いません。保持している間に表示先が作り直された場合、
+ * トランザクションは破棄され、ダイアログのみが新しいアクティビティに表示されます。
+ * </p>
+ *
+ * @author 高見知英
+ */
+public final class PendingQueue {
+
+	private static final String TAG = "PendingQueue";
+
+	/**
+	 * 保持する要求の数の既定値です。
+	 */
+	public static final int DEFAULT_CAPACITY = 8;
+
+	/**
+	 * 保持する数を超えた場合、最も古い要求を破棄します。
+	 */
+	public static final int OVERFLOW_DROP_OLDEST = 0;
+
+	/**
+	 * 保持する数を超えた場合、新しく要求されたダイアログを破棄します。
+	 */
+	public static final int OVERFLOW_DROP_NEWEST = 1;
+
+	private int capacity = DEFAULT_CAPACITY;
+
+	private int overflowPolicy = OVERFLOW_DROP_OLDEST;
+
+	private int deferredCount = 0;
+
+	private int dedupedCount = 0;
+
+	private int droppedCount = 0;
+
+	private int flushedCount = 0;
+
+	/**
+	 * 保持している一括表示です。
+	 */
+	static final class Batch {
+		/**
+		 * コミットするトランザクションです。 表示先が作り直され、破棄した場合はnull。
+		 */
+		final FragmentTransaction transaction;
+
+		/**
+		 * 表示要求です。 表示先の{@link FragmentManager}は保持しません。
+		 */
+		final ArrayList<DialogDispatcher.Request> requests;
+
+		Batch(FragmentTransaction transaction,
+				ArrayList<DialogDispatcher.Request> requests) {
+			this.transaction = transaction;
+			this.requests = new ArrayList<DialogDispatcher.Request>(
+					requests.size());
+			for (DialogDispatcher.Request request : requests) {
+				this.requests.add(request.withManager(null));
+			}
+		}
+	}
+
+	PendingQueue() {
+	}
+
+	/**
+	 * {@link FragmentManager}ごとに保持する要求の数を設定します。 変更は以降の要求から適用されます。
+	 *
+	 * @param capacity
+	 *            保持する数。1以上。
+	 */
+	public synchronized void setCapacity(int capacity) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("capacity must be positive: "
+					+ capacity);
+		}
+		this.capacity = capacity;
+	}
+
+	/**
+	 * {@link FragmentManager}ごとに保持する要求の数を取得します。
+	 *
+	 * @return 保持する数。
+	 */
+	public synchronized int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * 保持する数を超えた場合の動作を設定します。
+	 *
+	 * @param policy
+	 *            {@link #OVERFLOW_DROP_OLDEST}、{@link #OVERFLOW_DROP_NEWEST}のいずれか。
+	 */
+	public synchronized void setOverflowPolicy(int policy) {
+		if (policy < OVERFLOW_DROP_OLDEST || policy > OVERFLOW_DROP_NEWEST) {
+			throw new IllegalArgumentException("unknown policy: " + policy);
+		}
+		this.overflowPolicy = policy;
+	}
+
+	/**
+	 * 保持する数を超えた場合の動作を取得します。
+	 *
+	 * @return {@link #OVERFLOW_DROP_OLDEST}、{@link #OVERFLOW_DROP_NEWEST}のいずれか。
+	 */
+	public synchronized int getOverflowPolicy() {
+		return overflowPolicy;
+	}
+
+	/**
+	 * 表示先が要求を保持している状態かどうかを取得します。メインスレッドから呼び出してください。
+	 *
+	 * @param manager
+	 *            {@link FragmentManager}。
+	 * @return 保持している状態であればtrue。
+	 */
+	boolean isHolding(FragmentManager manager) {
+		DialogHost host = DialogHost.lookup(manager);
+		return host != null && host.holding;
+	}
+
+	/**
+	 * 表示要求を保持します。メインスレッドから呼び出してください。
+	 * 要求の登録データは{@link DialogRegistry}に残したまま、フラグメントの生成のみを遅らせます。
+	 *
+	 * @param request
+	 *            {@link FragmentManager}を用いる表示要求。
+	 * @return 保持した場合はtrue。統合・破棄された場合はfalse。
+	 */
+	boolean defer(DialogDispatcher.Request request) {
+		DialogHost host = DialogHost.obtain(request.manager);
+		if (host == null) {
+			// アクティビティが破棄されている場合など
+			synchronized (this) {
+				droppedCount++;
+			}
+			Dialogs.release(request.key);
+			return false;
+		}
+		Object key = Dialogs.coalesceKey(request);
+		DialogDispatcher.Request dropped = null;
+		boolean accepted = true;
+		synchronized (this) {
+			// コミットできなかった場合は、再開するまで以降の要求も保持する
+			host.holding = true;
+			if (key != null) {
+				for (DialogDispatcher.Request held : host.pending) {
+					if (key.equals(Dialogs.coalesceKey(held))) {
+						merge(held, request);
+						dedupedCount++;
+						accepted = false;
+						break;
+					}
+				}
+			}
+			if (accepted) {
+				// 画面回転の後に古いアクティビティを保持しないよう、表示先は保持しない
+				DialogDispatcher.Request held = request.withManager(null);
+				if (host.pending.size() < capacity) {
+					host.pending.add(held);
+					deferredCount++;
+				} else if (overflowPolicy == OVERFLOW_DROP_OLDEST) {
+					dropped = host.pending.remove(0);
+					host.pending.add(held);
+					deferredCount++;
+					droppedCount++;
+				} else {
+					dropped = request;
+					accepted = false;
+					droppedCount++;
+				}
+			}
+		}
+		if (!accepted && dropped == null) {
+			// 統合したため、コールバックは残したままデータのみを削除する
+			Dialogs.registry.remove(request.key);
+		}
+		// 取り消しの通知から再入されるため、ロックの外で解放する
+		if (dropped != null) {
+			Dialogs.release(dropped.key);
+			if (dropped != request) {
+				// 破棄した要求が表示待ちの順番を持っていた場合は、次の要求へ進める
+				Dialogs.scheduler.onDismissed(request.manager, dropped.key);
+			}
+		}
+		return accepted;
+	}
+
+	/**
+	 * 一括表示を、トランザクションごと保持します。メインスレッドから呼び出してください。
+	 * 表示要求は{@link DialogRegistry}に登録されていない状態で保持します。
+	 *
+	 * @param manager
+	 *            表示先の{@link FragmentManager}。
+	 * @param transaction
+	 *            コミットしていないトランザクション。
+	 * @param requests
+	 *            表示要求。
+	 */
+	void deferBatch(FragmentManager manager, FragmentTransaction transaction,
+			ArrayList<DialogDispatcher.Request> requests) {
+		DialogHost host = DialogHost.obtain(manager);
+		if (host == null) {
+			synchronized (this) {
+				droppedCount += requests.size();
+			}
+			for (DialogDispatcher.Request request : requests) {
+				Dialogs.abandon(request.data);
+			}
+			return;
+		}
+		synchronized (this) {
+			host.batches.add(new Batch(transaction, requests));
+			deferredCount += requests.size();
+		}
+	}
+
+	/**
+	 * コミットに失敗した一括表示のダイアログを保持します。メインスレッドから呼び出してください。
+	 * 失敗したトランザクションは再度コミットできないため、その他のフラグメント操作は破棄されます。
+	 *
+	 * @param manager
+	 *            表示先の{@link FragmentManager}。
+	 * @param requests
+	 *            {@link DialogRegistry}に登録済みの表示要求。
+	 * @param e
+	 *            コミットが投げた例外。
+	 */
+	void deferFailed(FragmentManager manager,
+			ArrayList<DialogDispatcher.Request> requests,
+			IllegalStateException e) {
+		Log.w(TAG, "batch committed after onSaveInstanceState; "
+				+ "other fragment operations are lost", e);
+		for (DialogDispatcher.Request request : requests) {
+			defer(request.withManager(manager));
+		}
+	}
+
+	/**
+	 * 保持している一括表示のトランザクションを破棄し、ダイアログのみを保持します。
+	 * 表示先のアクティビティが破棄される際に呼び出します。
+	 */
+	void unbind(DialogHost host) {
+		synchronized (this) {
+			for (int i = 0; i < host.batches.size(); i++) {
+				Batch batch = host.batches.get(i);
+				if (batch.transaction != null) {
+					Log.w(TAG, "activity destroyed while holding a batch; "
+							+ "other fragment operations are lost");
+					host.batches.set(i, new Batch(null, batch.requests));
+				}
+			}
+		}
+	}
+
+	/**
+	 * 保持している要求に、同じ内容の要求を統合します。 {@link Dialogs#ALERT_ID}により統合した場合は、
+	 * 新しい要求の内容で表示します。
+	 */
+	private static void merge(DialogDispatcher.Request held,
+			DialogDispatcher.Request request) {
+		Dialogs.DialogData data = held.data;
+		data.mergedCount += 1 + request.data.mergedCount;
+		ArrayList<Dialogs.DialogCallback> callbacks = new ArrayList<Dialogs.DialogCallback>();
+		callbacks.add(request.data.callback);
+		if (request.data.mergedCallbacks != null) {
+			callbacks.addAll(request.data.mergedCallbacks);
+		}
+		for (Dialogs.DialogCallback callback : callbacks) {
+			if (callback != null && callback != data.callback) {
+				if (data.mergedCallbacks == null) {
+					data.mergedCallbacks = new ArrayList<Dialogs.DialogCallback>();
+				}
+				if (!data.mergedCallbacks.contains(callback)) {
+					data.mergedCallbacks.add(callback);
+				}
+			}
+		}
+		if (!held.spec.equals(request.spec)) {
+			data.update = request.spec;
+		}
+	}
+
+	/**
+	 * 保持している要求をまとめて表示します。
+	 */
+	void flush(DialogHost host) {
+		ArrayList<DialogDispatcher.Request> requests;
+		ArrayList<Batch> batches;
+		synchronized (this) {
+			if (host.pending.isEmpty() && host.batches.isEmpty()) {
+				return;
+			}
+			requests = new ArrayList<DialogDispatcher.Request>(host.pending);
+			host.pending.clear();
+			batches = new ArrayList<Batch>(host.batches);
+			host.batches.clear();
+			flushedCount += requests.size();
+			for (Batch batch : batches) {
+				flushedCount += batch.requests.size();
+			}
+		}
+		FragmentManager manager = host.getFragmentManager();
+		if (!requests.isEmpty()) {
+			Dialogs.displayDeferred(manager, requests);
+		}
+		for (Batch batch : batches) {
+			Dialogs.displayAll(manager,
+					batch.transaction != null ? batch.transaction : manager
+							.beginTransaction(), batch.requests);
+		}
+	}
+
+	/**
+	 * 保持している要求をすべて破棄します。
+	 */
+	void discard(DialogHost host) {
+		ArrayList<DialogDispatcher.Request> requests;
+		ArrayList<Batch> batches;
+		synchronized (this) {
+			requests = new ArrayList<DialogDispatcher.Request>(host.pending);
+			host.pending.clear();
+			batches = new ArrayList<Batch>(host.batches);
+			host.batches.clear();
+			droppedCount += requests.size();
+			for (Batch batch : batches) {
+				droppedCount += batch.requests.size();
+			}
+		}
+		// 統合された要求を含め、結果を待つDialogFutureを取り消す
+		for (DialogDispatcher.Request request : requests) {
+			Dialogs.release(request.key);
+		}
+		// 一括表示の要求はレジストリに登録していない
+		for (Batch batch : batches) {
+			for (DialogDispatcher.Request request : batch.requests) {
+				Dialogs.abandon(request.data);
+			}
+		}
+	}
+
+	/**
+	 * 指定した{@link FragmentManager}で保持している要求の数を取得します。
+	 *
+	 * @param manager
+	 *            {@link FragmentManager}。
+	 * @return 要求の数。
+	 */
+	public synchronized int getPendingCount(FragmentManager manager) {
+		DialogHost host = DialogHost.lookup(manager);
+		if (host == null) {
+			return 0;
+		}
+		int count = host.pending.size();
+		for (Batch batch : host.batches) {
+			count += batch.requests.size();
+		}
+		return count;
+	}
+
+	/**
+	 * 保持した要求の数を取得します。
+	 *
+	 * @return 要求の数。
+	 */
+	public synchronized int getDeferredCount() {
+		return deferredCount;
+	}
+
+	/**
+	 * 保持している要求に統合された要求の数を取得します。
+	 *
+	 * @return 要求の数。
+	 */
+	public synchronized int getDedupedCount() {
+		return dedupedCount;
+	}
+
+	/**
+	 * 保持する数を超えた場合や、アクティビティが終了した場合に破棄された要求の数を取得します。
+	 *
+	 * @return 要求の数。
+	 */
+	public synchronized int getDroppedCount() {
+		return droppedCount;
+	}
+
+	/**
+	 * アクティビティの再開時に表示した要求の数を取得します。
+	 *
+	 * @return 要求の数。
+	 */
+	public synchronized int getFlushedCount() {
+		return flushedCount;
+	}
+
+	/**
+	 * 統計をリセットします。
+	 */
+	public synchronized void resetStatistics() {
+		deferredCount = 0;
+		dedupedCount = 0;
+		droppedCount = 0;
+		flushedCount = 0;
+	}
+}
@@ -0,0 +1,213 @@
+package net.onpu_tamago.libs.dialogs;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+/**
+ * 進捗ダイアログの進捗を更新するためのオブジェクトです。
+ * {@link Dialogs#showProgressDialog(android.support.v4.app.FragmentManager, DialogSpec, int, Dialogs.DialogCallback)}
+ * などの戻り値として返されます。
+ * <p>
+ * 各メソッドはどのスレッドからでも呼び出せます。進捗は一つの値として保持され、
+ * 画面への反映はメインスレッドで{@link #FRAME_INTERVAL}ミリ秒に一度までにまとめられます。
+ * 反映までの間に行われた更新は、最後の値のみが反映されます。
+ * </p>
+ *
+ * @author 高見知英
+ */
+public final class ProgressHandle {
+
+	/**
+	 * 最大値として指定した場合、進捗の量を示さないことを示す値です。
+	 */
+	public static final int INDETERMINATE = -1;
+
+	/**
+	 * 画面に反映する間隔(ミリ秒)です。 一般的な画面の1フレームに相当します。
+	 */
+	public static final long FRAME_INTERVAL = 16;
+
+	private static final Handler handler = new Handler(Looper.getMainLooper());
+
+	/**
+	 * {@link DialogRegistry}におけるキーです。
+	 */
+	private final int key;
+
+	/**
+	 * 最大値を上位32ビット、進捗を下位32ビットに格納した値です。
+	 */
+	private final AtomicLong state;
+
+	/**
+	 * 画面への反映を予約したかどうかです。
+	 */
+	private final AtomicBoolean scheduled = new AtomicBoolean();
+
+	private final AtomicInteger updateCount = new AtomicInteger();
+	private final AtomicInteger appliedCount = new AtomicInteger();
+
+	/**
+	 * 最後に画面へ反映した時刻です。
+	 */
+	private volatile long lastApplied;
+
+	private volatile boolean finished;
+	private volatile boolean cancelled;
+
+	private final Runnable applier = new Runnable() {
+		@Override
+		public void run() {
+			// 先に予約を解除し、反映中の更新は次の反映に含める
+			scheduled.set(false);
+			lastApplied = SystemClock.uptimeMillis();
+			appliedCount.incrementAndGet();
+			Dialogs.applyProgress(key, state.get());
+		}
+	};
+
+	ProgressHandle(int key, int max) {
+		this.key = key;
+		this.state = new AtomicLong(pack(max, 0));
+	}
+
+	static long pack(int max, int progress) {
+		return ((long) max << 32) | (progress & 0xffffffffL);
+	}
+
+	static int maxOf(long state) {
+		return (int) (state >> 32);
+	}
+
+	static int progressOf(long state) {
+		return (int) state;
+	}
+
+	/**
+	 * 現在の値を取得します。
+	 */
+	long getState() {
+		return state.get();
+	}
+
+	/**
+	 * 進捗を設定します。
+	 *
+	 * @param progress
+	 *            進捗。
+	 */
+	public void setProgress(int progress) {
+		long current;
+		do {
+			current = state.get();
+		} while (!state.compareAndSet(current,
+				pack(maxOf(current), progress)));
+		publish();
+	}
+
+	/**
+	 * 進捗と最大値を設定します。
+	 *
+	 * @param progress
+	 *            進捗。
+	 * @param max
+	 *            最大値。{@link #INDETERMINATE}を指定した場合、進捗の量を示しません。
+	 */
+	public void setProgress(int progress, int max) {
+		state.set(pack(max, progress));
+		publish();
+	}
+
+	/**
+	 * 進捗の量を示すかどうかを切り替えます。
+	 *
+	 * @param max
+	 *            最大値。{@link #INDETERMINATE}を指定した場合、進捗の量を示しません。
+	 */
+	public void setMax(int max) {
+		long current;
+		do {
+			current = state.get();
+		} while (!state.compareAndSet(current,
+				pack(max, progressOf(current))));
+		publish();
+	}
+
+	private void publish() {
+		updateCount.incrementAndGet();
+		if (scheduled.compareAndSet(false, true)) {
+			// 前回の反映から1フレーム経過するまで待つ
+			long delay = lastApplied + FRAME_INTERVAL
+					- SystemClock.uptimeMillis();
+			handler.postDelayed(applier, delay > 0 ? delay : 0);
+		}
+	}
+
+	/**
+	 * 処理が完了したものとしてダイアログを閉じます。 コールバックは呼び出されません。
+	 */
+	public void finish() {
+		finished = true;
+		handler.removeCallbacks(applier);
+		Dialogs.getMainExecutor().execute(new Runnable() {
+			@Override
+			public void run() {
+				Dialogs.dismiss(key);
+			}
+		});
+	}
+
+	/**
+	 * {@link #finish()}を呼び出す前にダイアログが閉じられたかどうかを取得します。
+	 * ユーザーがキャンセルした場合や、アクティビティが終了した場合にtrueとなります。
+	 * 処理を中断するかどうかの判定に用います。
+	 *
+	 * @return 閉じられた場合はtrue。
+	 */
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	/**
+	 * ダイアログが閉じられた際に呼び出されます。
+	 */
+	void detach() {
+		if (!finished) {
+			cancelled = true;
+		}
+		handler.removeCallbacks(applier);
+	}
+
+	/**
+	 * 進捗の更新回数を取得します。
+	 *
+	 * @return 更新回数。
+	 */
+	public int getUpdateCount() {
+		return updateCount.get();
+	}
+
+	/**
+	 * 画面へ反映した回数を取得します。
+	 *
+	 * @return 反映した回数。
+	 */
+	public int getAppliedCount() {
+		return appliedCount.get();
+	}
+
+	/**
+	 * 反映する前に次の更新が行われ、画面に反映されなかった更新の数を取得します。
+	 *
+	 * @return 更新の数。
+	 */
+	public int getCoalescedCount() {
+		int coalesced = updateCount.get() - appliedCount.get();
+		return coalesced > 0 ? coalesced : 0;
+	}
+}
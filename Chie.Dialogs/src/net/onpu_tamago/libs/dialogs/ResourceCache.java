@@ -0,0 +1,107 @@
+package net.onpu_tamago.libs.dialogs;
+
+import java.util.Locale;
+
+import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.os.Build;
+import android.support.v4.util.LruCache;
+
+/**
+ * ダイアログに表示する文字列・文字列配列リソースのキャッシュです。
+ * <p>
+ * キャッシュはリソースIDと、取得時の{@link Configuration}(ロケール・夜間モード)の組をキーとして保持されます。
+ * 構成が変化したことを検出した時点で、キャッシュはすべて破棄されます。
+ * 夜間モードは{@link Configuration#uiMode}が存在するAPI 8以降でのみ比較します。
+ * </p>
+ *
+ * @author 高見知英
+ */
+final class ResourceCache {
+
+	/**
+	 * 既定の最大保持数です。
+	 */
+	static final int DEFAULT_SIZE = 32;
+
+	private final LruCache<Integer, Object> cache;
+
+	/**
+	 * キャッシュを作成した際のロケールです。
+	 */
+	private Locale locale;
+
+	/**
+	 * キャッシュを作成した際の夜間モードです。
+	 */
+	private int nightMode;
+
+	ResourceCache(int maxSize) {
+		cache = new LruCache<Integer, Object>(maxSize);
+	}
+
+	/**
+	 * 文字列リソースを取得します。
+	 *
+	 * @param res
+	 *            リソースの取得に用いる{@link Resources}オブジェクト。
+	 * @param id
+	 *            リソースID。
+	 * @return 文字列。
+	 */
+	synchronized CharSequence getText(Resources res, int id) {
+		validate(res.getConfiguration());
+		Integer key = Integer.valueOf(id);
+		Object value = cache.get(key);
+		if (!(value instanceof CharSequence)) {
+			value = res.getText(id);
+			cache.put(key, value);
+		}
+		return (CharSequence) value;
+	}
+
+	/**
+	 * 文字列配列リソースを取得します。 戻り値はキャッシュと共有されるため、変更しないでください。
+	 *
+	 * @param res
+	 *            リソースの取得に用いる{@link Resources}オブジェクト。
+	 * @param id
+	 *            リソースID。
+	 * @return 文字列配列。
+	 */
+	synchronized CharSequence[] getTextArray(Resources res, int id) {
+		validate(res.getConfiguration());
+		Integer key = Integer.valueOf(id);
+		Object value = cache.get(key);
+		if (!(value instanceof CharSequence[])) {
+			value = res.getTextArray(id);
+			cache.put(key, value);
+		}
+		return (CharSequence[]) value;
+	}
+
+	/**
+	 * キャッシュをすべて破棄します。
+	 */
+	synchronized void invalidate() {
+		cache.evictAll();
+		locale = null;
+	}
+
+	/**
+	 * 構成が変化していればキャッシュを破棄します。
+	 */
+	private void validate(Configuration config) {
+		int night = 0;
+		// uiModeはAPI 8で追加されたため、それ以前は参照しない
+		if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.FROYO) {
+			night = config.uiMode & Configuration.UI_MODE_NIGHT_MASK;
+		}
+		if (locale == null || !locale.equals(config.locale)
+				|| nightMode != night) {
+			cache.evictAll();
+			locale = config.locale;
+			nightMode = night;
+		}
+	}
+}
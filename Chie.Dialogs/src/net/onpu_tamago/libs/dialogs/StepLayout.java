@@ -0,0 +1,166 @@
+package net.onpu_tamago.libs.dialogs;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.os.Bundle;
+import android.text.InputType;
+import android.view.View;
+import android.widget.AdapterView;
+import android.widget.ArrayAdapter;
+import android.widget.CheckBox;
+import android.widget.EditText;
+import android.widget.LinearLayout;
+import android.widget.ListView;
+import android.widget.TextView;
+
+/**
+ * {@link DialogPipeline}の各段階を表示するビューです。
+ * メッセージ・選択肢・文字入力領域・チェックボックスを一つずつ持ち、段階ごとに表示内容のみを入れ替えます。
+ *
+ * @author 高見知英
+ */
+final class StepLayout extends LinearLayout {
+
+	private final TextView messageView;
+	private final ListView listView;
+	private final EditText inputView;
+	private final CheckBox checkView;
+
+	/**
+	 * 表示中の選択肢。
+	 */
+	private CharSequence[] items;
+
+	StepLayout(Context context) {
+		super(context);
+		setOrientation(LinearLayout.VERTICAL);
+		int padding = (int) (10 * context.getResources().getDisplayMetrics()
+				.density);
+		messageView = new TextView(context);
+		messageView.setPadding(padding, padding, padding, padding);
+		messageView.setTextAppearance(context,
+				android.R.style.TextAppearance_Medium);
+		addView(messageView, new LayoutParams(LayoutParams.MATCH_PARENT,
+				LayoutParams.WRAP_CONTENT));
+		listView = new ListView(context);
+		listView.setId(android.R.id.list);
+		addView(listView, new LayoutParams(LayoutParams.MATCH_PARENT,
+				LayoutParams.WRAP_CONTENT));
+		inputView = new EditText(context);
+		inputView.setEms(10);
+		inputView.setId(android.R.id.input);
+		inputView.setInputType(InputType.TYPE_CLASS_TEXT);
+		addView(inputView, new LayoutParams(LayoutParams.MATCH_PARENT,
+				LayoutParams.WRAP_CONTENT));
+		checkView = new CheckBox(context);
+		checkView.setId(android.R.id.checkbox);
+		addView(checkView, new LayoutParams(LayoutParams.MATCH_PARENT,
+				LayoutParams.WRAP_CONTENT));
+	}
+
+	/**
+	 * 段階の表示内容を反映します。
+	 *
+	 * @param args
+	 *            段階の表示内容を格納した{@link Bundle}。
+	 * @param res
+	 *            リソースの取得に用いる{@link Resources}オブジェクト。
+	 */
+	void bind(Bundle args, Resources res) {
+		// メッセージ
+		CharSequence message = null;
+		if (args.containsKey(Dialogs.ALERT_MESSAGEID)) {
+			message = Dialogs.resources.getText(res,
+					args.getInt(Dialogs.ALERT_MESSAGEID));
+		} else if (args.containsKey(Dialogs.ALERT_MESSAGE)) {
+			message = args.getString(Dialogs.ALERT_MESSAGE);
+		}
+		messageView.setText(message);
+		messageView.setVisibility(message != null ? VISIBLE : GONE);
+		// 選択肢
+		if (args.containsKey(Dialogs.ALERT_MESSAGEARRAYID)) {
+			items = Dialogs.resources.getTextArray(res,
+					args.getInt(Dialogs.ALERT_MESSAGEARRAYID));
+		} else {
+			items = args.getStringArray(Dialogs.ALERT_MESSAGEARRAY);
+		}
+		if (items != null) {
+			listView.setAdapter(new ArrayAdapter<CharSequence>(getContext(),
+					android.R.layout.simple_list_item_1, items));
+			listView.setVisibility(VISIBLE);
+		} else {
+			listView.setAdapter(null);
+			listView.setVisibility(GONE);
+		}
+		// 文字入力領域・チェックボックス
+		int viewId = args.getInt(Dialogs.ALERT_VIEWID);
+		if (viewId == Dialogs.VIEWID_INPUTDLG) {
+			inputView.setText(args.getString(Dialogs.ALERT_DEFAULTEDIT));
+			inputView.setVisibility(VISIBLE);
+		} else {
+			inputView.setVisibility(GONE);
+		}
+		if (viewId == Dialogs.VIEWID_CHECKDLG) {
+			if (args.containsKey(Dialogs.ALERT_APPENDMESSAGEID)) {
+				checkView.setText(Dialogs.resources.getText(res,
+						args.getInt(Dialogs.ALERT_APPENDMESSAGEID)));
+			} else {
+				checkView.setText(args.getString(Dialogs.ALERT_APPENDMESSAGE));
+			}
+			checkView.setChecked(false);
+			checkView.setVisibility(VISIBLE);
+		} else {
+			checkView.setVisibility(GONE);
+		}
+	}
+
+	/**
+	 * 選択肢が選択された際の処理を設定します。
+	 *
+	 * @param listener
+	 *            処理。
+	 */
+	void setOnItemClickListener(AdapterView.OnItemClickListener listener) {
+		listView.setOnItemClickListener(listener);
+	}
+
+	/**
+	 * 表示中の選択肢を取得します。
+	 *
+	 * @param index
+	 *            インデックス。
+	 * @return 選択肢の文字列。存在しない場合はnull。
+	 */
+	CharSequence getItem(int index) {
+		return items != null && index >= 0 && index < items.length ? items[index]
+				: null;
+	}
+
+	/**
+	 * 文字入力領域を取得します。
+	 *
+	 * @return 表示中の段階が文字入力領域を持つ場合はそのビュー。持たない場合はnull。
+	 */
+	EditText getInputView() {
+		return inputView.getVisibility() == VISIBLE ? inputView : null;
+	}
+
+	/**
+	 * チェックボックスを取得します。
+	 *
+	 * @return 表示中の段階がチェックボックスを持つ場合はそのビュー。持たない場合はnull。
+	 */
+	CheckBox getCheckView() {
+		return checkView.getVisibility() == VISIBLE ? checkView : null;
+	}
+
+	/**
+	 * 表示内容を入れ替えた後、文字入力領域にフォーカスを移します。
+	 */
+	void focus() {
+		View target = getInputView();
+		if (target != null) {
+			target.requestFocus();
+		}
+	}
+}
@@ -0,0 +1,29 @@
+package net.onpu_tamago.libs.dialogs;
+
+import android.content.Context;
+import android.view.View;
+
+/**
+ * 独自ビューを表示するダイアログのビューを生成するインターフェースです。
+ * {@link Dialogs#showCustomDialog(android.support.v4.app.FragmentManager, String, ViewFactory, android.os.Bundle, Dialogs.DialogCallback)}
+ * に指定します。
+ * <p>
+ * ビューはダイアログの生成時に、その時点のアクティビティを{@link Context}として生成されます。
+ * 画面回転の際はビューが生成し直され、生成したビューはダイアログが閉じられた時点で解放されます。
+ * ライブラリはこのオブジェクトをダイアログが閉じられるまで保持するため、
+ * アクティビティを参照する無名クラスではなく、static な入れ子クラスなどで実装してください。
+ * </p>
+ *
+ * @author 高見知英
+ */
+public interface ViewFactory {
+
+	/**
+	 * ダイアログに表示するビューを生成します。メインスレッドから呼び出されます。
+	 *
+	 * @param context
+	 *            ダイアログを表示するアクティビティ。
+	 * @return 生成したビュー。
+	 */
+	View createView(Context context);
+}
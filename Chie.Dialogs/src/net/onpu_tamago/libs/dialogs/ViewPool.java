@@ -0,0 +1,379 @@
+package net.onpu_tamago.libs.dialogs;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import android.app.Activity;
+import android.app.Application;
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.os.Build;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.text.InputType;
+import android.util.SparseArray;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewGroup.LayoutParams;
+import android.widget.CheckBox;
+import android.widget.EditText;
+import android.widget.LinearLayout;
+
+/**
+ * 文字入力・チェックボックス付きダイアログのビューを事前に生成しておくプールです。
+ * <p>
+ * ビューは{@link Context}(通常は{@link Activity})ごとに保持され、メインスレッドの待機中に少しずつ生成されます。
+ * {@link Activity}が破棄される際には、画面回転による場合も含めて対応するビューを破棄します。
+ * Android 4.0以降ではアプリケーションに登録したコールバックにより破棄とメモリ不足を検出し、
+ * それ以前では表示中のダイアログ・表示先のフラグメントの破棄、およびプールの操作の時点で破棄します。
+ * プールの操作はメインスレッドでのみ行われます。
+ * </p>
+ *
+ * @author 高見知英
+ */
+public final class ViewPool {
+
+	/**
+	 * ビューの種類ごと・{@link Context}ごとに保持するビューの最大数です。
+	 */
+	static final int MAX_PER_TYPE = 2;
+
+	private final HashMap<Context, SparseArray<ArrayList<View>>> pools = new HashMap<Context, SparseArray<ArrayList<View>>>();
+
+	private final Handler handler = new Handler(Looper.getMainLooper());
+
+	/**
+	 * アプリケーションにコールバックを登録したかどうか。
+	 */
+	private boolean callbacksRegistered;
+
+	private int hitCount;
+	private int missCount;
+	private int createdCount;
+
+	ViewPool() {
+	}
+
+	/**
+	 * 指定した種類のビューを、メインスレッドの待機中に生成してプールに追加します。
+	 * どのスレッドからでも呼び出せます。
+	 *
+	 * @param context
+	 *            ビューの生成に用いる{@link Context}。
+	 * @param types
+	 *            ビューの種類。
+	 */
+	void prewarm(final Context context, final int[] types) {
+		if (!DialogDispatcher.isMainThread()) {
+			handler.post(new Runnable() {
+				@Override
+				public void run() {
+					prewarm(context, types);
+				}
+			});
+			return;
+		}
+		Looper.myQueue().addIdleHandler(new MessageQueue.IdleHandler() {
+			private int next = 0;
+
+			@Override
+			public boolean queueIdle() {
+				// 一回の待機で生成するのは一つだけとし、フレームの描画を妨げない
+				while (next < types.length) {
+					int type = types[next++];
+					if (isSupported(type) && fill(context, type)) {
+						break;
+					}
+				}
+				return next < types.length;
+			}
+		});
+	}
+
+	/**
+	 * プールからビューを取り出します。プールが空の場合は生成します。
+	 *
+	 * @param context
+	 *            ビューの生成に用いる{@link Context}。
+	 * @param type
+	 *            ビューの種類。
+	 * @return ビュー。
+	 */
+	synchronized View acquire(Context context, int type) {
+		purge();
+		SparseArray<ArrayList<View>> pool = pools.get(context);
+		ArrayList<View> views = pool != null ? pool.get(type) : null;
+		if (views != null && !views.isEmpty()) {
+			hitCount++;
+			return views.remove(views.size() - 1);
+		}
+		missCount++;
+		return create(context, type);
+	}
+
+	/**
+	 * 使い終わったビューをプールに戻します。
+	 *
+	 * @param context
+	 *            ビューを生成した{@link Context}。
+	 * @param type
+	 *            ビューの種類。
+	 * @param view
+	 *            ビュー。
+	 */
+	synchronized void release(Context context, int type, View view) {
+		if (context instanceof Activity && ((Activity) context).isFinishing()) {
+			return;
+		}
+		if (view.getParent() instanceof ViewGroup) {
+			((ViewGroup) view.getParent()).removeView(view);
+		}
+		reset(view);
+		offer(context, type, view);
+	}
+
+	/**
+	 * プールに空きがあればビューを一つ生成して追加します。
+	 *
+	 * @return 生成した場合はtrue。
+	 */
+	private synchronized boolean fill(Context context, int type) {
+		SparseArray<ArrayList<View>> pool = pools.get(context);
+		ArrayList<View> views = pool != null ? pool.get(type) : null;
+		if (views != null && views.size() >= MAX_PER_TYPE) {
+			return false;
+		}
+		createdCount++;
+		offer(context, type, create(context, type));
+		return true;
+	}
+
+	private synchronized void offer(Context context, int type, View view) {
+		purge();
+		SparseArray<ArrayList<View>> pool = pools.get(context);
+		if (pool == null) {
+			registerCallbacks(context);
+			pool = new SparseArray<ArrayList<View>>();
+			pools.put(context, pool);
+		}
+		ArrayList<View> views = pool.get(type);
+		if (views == null) {
+			views = new ArrayList<View>(MAX_PER_TYPE);
+			pool.put(type, views);
+		}
+		if (views.size() < MAX_PER_TYPE) {
+			views.add(view);
+		}
+	}
+
+	/**
+	 * 終了処理中の{@link Activity}に対応するビューを破棄します。
+	 */
+	private void purge() {
+		Iterator<Map.Entry<Context, SparseArray<ArrayList<View>>>> it = pools
+				.entrySet().iterator();
+		while (it.hasNext()) {
+			Context context = it.next().getKey();
+			if (context instanceof Activity
+					&& ((Activity) context).isFinishing()) {
+				it.remove();
+			}
+		}
+	}
+
+	/**
+	 * アクティビティの破棄とメモリ不足を通知するコールバックを、アプリケーションに登録します。
+	 */
+	private void registerCallbacks(Context context) {
+		if (callbacksRegistered
+				|| Build.VERSION.SDK_INT < Build.VERSION_CODES.ICE_CREAM_SANDWICH) {
+			return;
+		}
+		Context app = context.getApplicationContext();
+		if (app instanceof Application) {
+			PoolCallbacks callbacks = new PoolCallbacks(this);
+			((Application) app).registerActivityLifecycleCallbacks(callbacks);
+			app.registerComponentCallbacks(callbacks);
+			callbacksRegistered = true;
+		}
+	}
+
+	/**
+	 * アクティビティの破棄とメモリ不足を受け取るコールバックです。Android 4.0以降でのみ用います。
+	 */
+	private static final class PoolCallbacks implements
+			Application.ActivityLifecycleCallbacks, ComponentCallbacks2 {
+
+		private final ViewPool pool;
+
+		PoolCallbacks(ViewPool pool) {
+			this.pool = pool;
+		}
+
+		@Override
+		public void onActivityDestroyed(Activity activity) {
+			// 画面回転の場合も、破棄されるアクティビティのビューは再利用できない
+			pool.clear(activity);
+		}
+
+		@Override
+		public void onTrimMemory(int level) {
+			if (level >= TRIM_MEMORY_UI_HIDDEN) {
+				pool.trim();
+			}
+		}
+
+		@Override
+		public void onLowMemory() {
+			pool.trim();
+		}
+
+		@Override
+		public void onConfigurationChanged(Configuration newConfig) {
+		}
+
+		@Override
+		public void onActivityCreated(Activity activity,
+				Bundle savedInstanceState) {
+		}
+
+		@Override
+		public void onActivityStarted(Activity activity) {
+		}
+
+		@Override
+		public void onActivityResumed(Activity activity) {
+		}
+
+		@Override
+		public void onActivityPaused(Activity activity) {
+		}
+
+		@Override
+		public void onActivityStopped(Activity activity) {
+		}
+
+		@Override
+		public void onActivitySaveInstanceState(Activity activity,
+				Bundle outState) {
+		}
+	}
+
+	/**
+	 * 指定した{@link Context}に対応するビューを破棄します。
+	 *
+	 * @param context
+	 *            {@link Context}。
+	 */
+	public synchronized void clear(Context context) {
+		pools.remove(context);
+	}
+
+	/**
+	 * メモリ不足に備え、保持しているビューをすべて破棄します。
+	 */
+	public synchronized void trim() {
+		pools.clear();
+	}
+
+	/**
+	 * プールから取り出せた回数を取得します。
+	 *
+	 * @return 回数。
+	 */
+	public synchronized int getHitCount() {
+		return hitCount;
+	}
+
+	/**
+	 * プールが空でビューを生成した回数を取得します。
+	 *
+	 * @return 回数。
+	 */
+	public synchronized int getMissCount() {
+		return missCount;
+	}
+
+	/**
+	 * 事前に生成したビューの数を取得します。
+	 *
+	 * @return ビューの数。
+	 */
+	public synchronized int getPrewarmedCount() {
+		return createdCount;
+	}
+
+	/**
+	 * プールに保持しているビューの数を取得します。
+	 *
+	 * @return ビューの数。
+	 */
+	public synchronized int size() {
+		int size = 0;
+		for (SparseArray<ArrayList<View>> pool : pools.values()) {
+			for (int i = 0; i < pool.size(); i++) {
+				size += pool.valueAt(i).size();
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * 各回数を0に戻します。
+	 */
+	public synchronized void resetStatistics() {
+		hitCount = 0;
+		missCount = 0;
+		createdCount = 0;
+	}
+
+	static boolean isSupported(int type) {
+		return type == Dialogs.VIEWID_INPUTDLG
+				|| type == Dialogs.VIEWID_CHECKDLG;
+	}
+
+	/**
+	 * 指定した種類のビューを生成します。
+	 */
+	private View create(Context context, int type) {
+		LinearLayout layout = new LinearLayout(context);
+		layout.setOrientation(LinearLayout.VERTICAL);
+		// ビューごとの個別処理
+		if (type == Dialogs.VIEWID_INPUTDLG) {
+			EditText editText = new EditText(context);
+			editText.setEms(10);
+			editText.setId(android.R.id.input);
+			editText.setLayoutParams(new LayoutParams(
+					LayoutParams.MATCH_PARENT, LayoutParams.WRAP_CONTENT));
+			editText.setInputType(InputType.TYPE_CLASS_TEXT);
+			layout.addView(editText);
+		} else if (type == Dialogs.VIEWID_CHECKDLG) {
+			CheckBox checkbox = new CheckBox(context);
+			checkbox.setId(android.R.id.checkbox);
+			checkbox.setLayoutParams(new LayoutParams(
+					LayoutParams.MATCH_PARENT, LayoutParams.WRAP_CONTENT));
+			layout.addView(checkbox);
+		}
+		return layout;
+	}
+
+	/**
+	 * 再利用できるようビューの状態を初期化します。
+	 */
+	private static void reset(View view) {
+		View input = view.findViewById(android.R.id.input);
+		if (input instanceof EditText) {
+			((EditText) input).setText("");
+		}
+		View check = view.findViewById(android.R.id.checkbox);
+		if (check instanceof CheckBox) {
+			((CheckBox) check).setChecked(false);
+			((CheckBox) check).setText("");
+		}
+	}
+}